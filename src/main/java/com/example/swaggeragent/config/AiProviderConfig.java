@@ -6,9 +6,11 @@ import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.ollama.OllamaChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 /**
@@ -100,4 +102,19 @@ public class AiProviderConfig {
         log.info("🌡️ Temperatura: {}", ollamaTemperature);
         return ollamaChatModel;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Usa o {@link java.net.http.HttpClient} do JDK nas chamadas síncronas ao modelo de IA.
+     * <p>
+     * Com o cliente padrão ({@code HttpURLConnection}), interromper a thread não cancela a
+     * requisição em andamento. Com o cliente do JDK, a interrupção feita quando o prazo da mensagem
+     * acaba ({@code app.chat-timeout}) aborta a chamada, em vez de deixá-la consumindo o modelo
+     * até o fim.
+     *
+     * @return o customizador dos clientes síncronos do modelo
+     */
+    @Bean
+    public RestClientCustomizer interruptibleModelCalls() {
+        return builder -> builder.requestFactory(new JdkClientHttpRequestFactory());
+    }
+}
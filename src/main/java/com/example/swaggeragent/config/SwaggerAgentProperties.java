@@ -2,8 +2,12 @@ package com.example.swaggeragent.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Propriedades de configuração do Swagger Agent.
@@ -32,66 +36,1553 @@ public class SwaggerAgentProperties {
      * Timeout para operações de chat.
      * <p>
      * Define o tempo máximo que uma operação de chat pode levar antes
-     * de ser considerada como timeout.
+     * de ser considerada como timeout. O prazo começa quando a requisição chega
+     * ao {@code ChatController} e limita todas as chamadas de ferramentas da mensagem;
+     * quando acaba, o usuário recebe uma resposta parcial.
      * <p>
      * <b>Valor padrão:</b> 30 segundos
      */
     private Duration chatTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Parte do {@link #chatTimeout} reservada para a resposta final do modelo.
+     * <p>
+     * As chamadas de ferramentas precisam terminar este tempo antes do fim do prazo,
+     * para que o modelo ainda consiga responder com os resultados já obtidos. Nunca
+     * passa da metade do prazo.
+     * <p>
+     * <b>Valor padrão:</b> 5 segundos
+     */
+    private Duration chatAnswerReserve = Duration.ofSeconds(5);
+    
+    /**
+     * Tamanho máximo da memória de sessão.
+     * <p>
+     * Limita o número de mensagens que podem ser armazenadas na memória
+     * de uma sessão de chat.
+     * <p>
+     * <b>Valor padrão:</b> 1000 mensagens
+     */
+    private int maxSessionMemorySize = 1000;
     
     /**
-     * Tamanho máximo da memória de sessão.
-     * <p>
-     * Limita o número de mensagens que podem ser armazenadas na memória
-     * de uma sessão de chat.
-     * <p>
-     * <b>Valor padrão:</b> 1000 mensagens
+     * Diretório de especificações OpenAPI.
+     * <p>
+     * Define o caminho do diretório onde estão localizadas as especificações
+     * OpenAPI (arquivos .yaml ou .json) que serão processadas para gerar
+     * as ferramentas dinâmicas.
+     * <p>
+     * <b>Valor padrão:</b> "openapi-specs"
+     */
+    private String openApiDirectory = "openapi-specs";
+    
+    /**
+     * URL de fallback para APIs sem servidor definido.
+     * <p>
+     * Quando uma especificação OpenAPI não define explicitamente um servidor,
+     * esta URL será usada como fallback para construir as URLs completas
+     * das APIs.
+     * <p>
+     * <b>Valor padrão:</b> "http://localhost:8080"
+     */
+    private String defaultFallbackUrl = "http://localhost:8080";
+
+    private Ai ai = new Ai();
+    private Tool tool = new Tool();
+    private Security security = new Security();
+    private Http http = new Http();
+
+    public static class Ai {
+        private String provider;
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public void setProvider(String provider) {
+            this.provider = provider;
+        }
+    }
+
+    public static class Tool {
+        /**
+         * Seleção das ferramentas relevantes enviadas ao modelo a cada mensagem.
+         */
+        private Retrieval retrieval = new Retrieval();
+
+        /**
+         * Formato das descrições das ferramentas enviadas ao modelo.
+         */
+        private Description description = new Description();
+
+        /**
+         * Tratamento das respostas das APIs antes de chegarem ao modelo.
+         */
+        private Response response = new Response();
+
+        /**
+         * Projeção do JSON das respostas antes de chegar ao modelo.
+         */
+        private Projection projection = new Projection();
+
+        /**
+         * Formato das listas nas respostas enviadas ao modelo.
+         */
+        private Encoding encoding = new Encoding();
+
+        /**
+         * Execução em paralelo das chamadas de ferramentas de um mesmo turno do modelo.
+         */
+        private Parallel parallel = new Parallel();
+
+        /**
+         * Ferramenta extra que executa várias ferramentas em uma única chamada do modelo.
+         */
+        private Batch batch = new Batch();
+
+        /**
+         * Ferramenta extra que executa localmente um plano de chamadas dependentes entre si.
+         */
+        private Plan plan = new Plan();
+
+        public Retrieval getRetrieval() {
+            return retrieval;
+        }
+
+        public void setRetrieval(Retrieval retrieval) {
+            this.retrieval = retrieval;
+        }
+
+        public Description getDescription() {
+            return description;
+        }
+
+        public void setDescription(Description description) {
+            this.description = description;
+        }
+
+        public Response getResponse() {
+            return response;
+        }
+
+        public void setResponse(Response response) {
+            this.response = response;
+        }
+
+        public Projection getProjection() {
+            return projection;
+        }
+
+        public void setProjection(Projection projection) {
+            this.projection = projection;
+        }
+
+        public Encoding getEncoding() {
+            return encoding;
+        }
+
+        public void setEncoding(Encoding encoding) {
+            this.encoding = encoding;
+        }
+
+        public Parallel getParallel() {
+            return parallel;
+        }
+
+        public void setParallel(Parallel parallel) {
+            this.parallel = parallel;
+        }
+
+        public Batch getBatch() {
+            return batch;
+        }
+
+        public void setBatch(Batch batch) {
+            this.batch = batch;
+        }
+
+        public Plan getPlan() {
+            return plan;
+        }
+
+        public void setPlan(Plan plan) {
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Propriedades das respostas das ferramentas ({@code app.tool.response}).
+     */
+    public static class Response {
+        /**
+         * Quantidade máxima do corpo da resposta lida de uma API. O restante é descartado sem ser
+         * carregado em memória, e o modelo é avisado de que os dados foram cortados.
+         * <p>
+         * <b>Valor padrão:</b> 256KB
+         */
+        private DataSize maxBytes = DataSize.ofKilobytes(256);
+
+        /**
+         * Limites específicos por ferramenta, indexados pelo operationId.
+         */
+        private Map<String, DataSize> perTool = new HashMap<>();
+
+        public DataSize getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(DataSize maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public Map<String, DataSize> getPerTool() {
+            return perTool;
+        }
+
+        public void setPerTool(Map<String, DataSize> perTool) {
+            this.perTool = perTool;
+        }
+
+        /**
+         * Retorna o limite de leitura de uma ferramenta, em bytes.
+         *
+         * @param operationId o operationId da ferramenta.
+         * @return o limite específico da ferramenta ou o padrão.
+         */
+        public int maxBytesFor(String operationId) {
+            DataSize size = operationId != null ? perTool.getOrDefault(operationId, maxBytes) : maxBytes;
+            return (int) Math.min(Integer.MAX_VALUE - 1, size.toBytes());
+        }
+    }
+
+    /**
+     * Propriedades da projeção do JSON das respostas ({@code app.tool.projection}).
+     */
+    public static class Projection {
+        /**
+         * Habilita a projeção das respostas 2xx em JSON: campos nulos e vazios são removidos e
+         * listas longas são resumidas antes de o resultado chegar ao modelo.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Remove os campos que não constam no schema da resposta, quando o schema declara as
+         * propriedades do objeto. O modelo compacto dos schemas não guarda
+         * {@code additionalProperties}, então o schema é tratado como fechado: habilite apenas
+         * para APIs que não devolvem campos fora do schema publicado.
+         * <p>
+         * <b>Valor padrão:</b> false
+         */
+        private boolean dropUndeclaredFields = false;
+
+        /**
+         * Tamanho a partir do qual uma lista é resumida em {@code {"count": N, "sample": [...]}}.
+         * Use 0 para não resumir.
+         * <p>
+         * <b>Valor padrão:</b> 50
+         */
+        private int maxArrayItems = 50;
+
+        /**
+         * Número de itens mantidos na amostra de uma lista resumida.
+         * <p>
+         * <b>Valor padrão:</b> 5
+         */
+        private int sampleSize = 5;
+
+        /**
+         * Campos mantidos por ferramenta, indexados pelo operationId. Os caminhos são separados por
+         * ponto (ex: {@code category.name}) e as listas são atravessadas sem índice.
+         */
+        private Map<String, List<String>> fields = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isDropUndeclaredFields() {
+            return dropUndeclaredFields;
+        }
+
+        public void setDropUndeclaredFields(boolean dropUndeclaredFields) {
+            this.dropUndeclaredFields = dropUndeclaredFields;
+        }
+
+        public int getMaxArrayItems() {
+            return maxArrayItems;
+        }
+
+        public void setMaxArrayItems(int maxArrayItems) {
+            this.maxArrayItems = maxArrayItems;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public void setSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        public Map<String, List<String>> getFields() {
+            return fields;
+        }
+
+        public void setFields(Map<String, List<String>> fields) {
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Propriedades do formato das respostas ({@code app.tool.encoding}).
+     */
+    public static class Encoding {
+        /**
+         * Formato das listas de objetos com os mesmos campos: {@code csv} (linha de cabeçalho e uma
+         * linha por item) ou {@code json} (sem conversão).
+         * <p>
+         * <b>Valor padrão:</b> csv
+         */
+        private String format = "csv";
+
+        /**
+         * Número mínimo de itens para uma lista ser convertida em tabela.
+         * <p>
+         * <b>Valor padrão:</b> 3
+         */
+        private int minRows = 3;
+
+        public String getFormat() {
+            return format;
+        }
+
+        public void setFormat(String format) {
+            this.format = format;
+        }
+
+        public int getMinRows() {
+            return minRows;
+        }
+
+        public void setMinRows(int minRows) {
+            this.minRows = minRows;
+        }
+    }
+
+    /**
+     * Propriedades da execução em paralelo das ferramentas ({@code app.tool.parallel}).
+     */
+    public static class Parallel {
+        /**
+         * Habilita o laço de ferramentas próprio no chat síncrono: as chamadas de ferramentas que o
+         * modelo pede em uma mesma resposta são executadas ao mesmo tempo, em vez de uma por vez.
+         * <p>
+         * <b>Valor padrão:</b> false
+         */
+        private boolean enabled = false;
+
+        /**
+         * Número máximo de chamadas de ferramentas executadas ao mesmo tempo em um turno.
+         * <p>
+         * <b>Valor padrão:</b> 8
+         */
+        private int maxConcurrency = 8;
+
+        /**
+         * Prazo das chamadas de ferramentas de um turno. As que não terminarem a tempo são
+         * devolvidas ao modelo como erro 504, sem atrasar as demais.
+         * <p>
+         * <b>Valor padrão:</b> 20s
+         */
+        private Duration turnTimeout = Duration.ofSeconds(20);
+
+        /**
+         * Número máximo de rodadas de chamadas de ferramentas por mensagem.
+         * <p>
+         * <b>Valor padrão:</b> 10
+         */
+        private int maxRounds = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getTurnTimeout() {
+            return turnTimeout;
+        }
+
+        public void setTurnTimeout(Duration turnTimeout) {
+            this.turnTimeout = turnTimeout;
+        }
+
+        public int getMaxRounds() {
+            return maxRounds;
+        }
+
+        public void setMaxRounds(int maxRounds) {
+            this.maxRounds = maxRounds;
+        }
+    }
+
+    /**
+     * Propriedades da ferramenta de execução em lote ({@code app.tool.batch}).
+     */
+    public static class Batch {
+        /**
+         * Registra a ferramenta {@code batch_tool_calls}, que recebe uma lista de chamadas de
+         * ferramentas e as executa ao mesmo tempo.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Número máximo de chamadas em um lote.
+         * <p>
+         * <b>Valor padrão:</b> 20
+         */
+        private int maxCalls = 20;
+
+        /**
+         * Número máximo de chamadas de um lote executadas ao mesmo tempo.
+         * <p>
+         * <b>Valor padrão:</b> 8
+         */
+        private int maxConcurrency = 8;
+
+        /**
+         * Prazo de um lote. As chamadas que não terminarem a tempo são devolvidas como erro 504.
+         * <p>
+         * <b>Valor padrão:</b> 20s
+         */
+        private Duration timeout = Duration.ofSeconds(20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxCalls() {
+            return maxCalls;
+        }
+
+        public void setMaxCalls(int maxCalls) {
+            this.maxCalls = maxCalls;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Propriedades da ferramenta de planos ({@code app.tool.plan}).
+     */
+    public static class Plan {
+        /**
+         * Registra a ferramenta {@code execute_tool_plan}, que recebe um grafo de chamadas em que
+         * os argumentos de um passo referenciam resultados de passos anteriores.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Número máximo de passos em um plano.
+         * <p>
+         * <b>Valor padrão:</b> 10
+         */
+        private int maxSteps = 10;
+
+        /**
+         * Número máximo de chamadas geradas por um passo {@code forEach}.
+         * <p>
+         * <b>Valor padrão:</b> 50
+         */
+        private int maxFanOut = 50;
+
+        /**
+         * Número máximo de chamadas de um mesmo passo {@code forEach} executadas ao mesmo tempo.
+         * <p>
+         * <b>Valor padrão:</b> 8
+         */
+        private int maxConcurrency = 8;
+
+        /**
+         * Prazo de execução de um plano. As chamadas que não terminarem a tempo falham com 504.
+         * <p>
+         * <b>Valor padrão:</b> 30s
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSteps() {
+            return maxSteps;
+        }
+
+        public void setMaxSteps(int maxSteps) {
+            this.maxSteps = maxSteps;
+        }
+
+        public int getMaxFanOut() {
+            return maxFanOut;
+        }
+
+        public void setMaxFanOut(int maxFanOut) {
+            this.maxFanOut = maxFanOut;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Propriedades da descrição das ferramentas ({@code app.tool.description}).
+     */
+    public static class Description {
+        /**
+         * Renderizador usado para gerar as descrições: {@code verbose} (Markdown detalhado, com
+         * schemas de todas as respostas) ou {@code compact} (resumo minificado, apenas
+         * respostas 2xx com schema).
+         * <p>
+         * <b>Valor padrão:</b> verbose
+         */
+        private String mode = "verbose";
+
+        /**
+         * Orçamento aproximado de tokens por descrição no modo {@code compact}; o texto excedente
+         * é cortado. Use 0 para não limitar. As descrições {@code verbose} nunca são cortadas.
+         * <p>
+         * <b>Valor padrão:</b> 300
+         */
+        private int maxTokens = 300;
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public int getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(int maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        /**
+         * Retorna o orçamento de tokens aplicado às descrições do modo configurado.
+         *
+         * @return {@link #getMaxTokens()} no modo {@code compact}; 0 (sem limite) nos demais.
+         */
+        public int effectiveMaxTokens() {
+            return "compact".equalsIgnoreCase(mode) ? maxTokens : 0;
+        }
+    }
+
+    /**
+     * Propriedades da seleção de ferramentas por relevância ({@code app.tool.retrieval}).
+     */
+    public static class Retrieval {
+        /**
+         * Quando habilitado, cada mensagem registra no prompt apenas as ferramentas mais
+         * relevantes para ela, em vez do catálogo completo.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Número máximo de ferramentas registradas por mensagem.
+         * <p>
+         * <b>Valor padrão:</b> 8
+         */
+        private int topK = 8;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+    }
+
+    public static class Security {
+        // Classe mantida para futuras propriedades
+    }
+
+    /**
+     * Propriedades das chamadas das ferramentas às APIs externas ({@code app.http}).
+     */
+    public static class Http {
+        /**
+         * Cache de respostas de chamadas GET e HEAD.
+         */
+        private Cache cache = new Cache();
+
+        /**
+         * Compartilhamento de chamadas idênticas em andamento.
+         */
+        private SingleFlight singleFlight = new SingleFlight();
+
+        /**
+         * Pool de conexões padrão, criado separadamente para cada servidor de API externa.
+         */
+        private Pool pool = new Pool();
+
+        /**
+         * Configurações de pool específicas por servidor, indexadas pelo nome do host
+         * (ex: {@code "[api.fornecedor.com]"}). Substituem o {@link #pool padrão} por inteiro;
+         * os campos não informados assumem os valores padrão da classe {@link Pool}.
+         */
+        private Map<String, Pool> hosts = new HashMap<>();
+
+        /**
+         * Circuit breaker e limite de chamadas simultâneas por servidor.
+         */
+        private Resilience resilience = new Resilience();
+
+        /**
+         * Limite adaptativo de chamadas simultâneas por servidor.
+         */
+        private Limiter limiter = new Limiter();
+
+        /**
+         * Limite de requisições por segundo (token bucket) por servidor ou por ferramenta.
+         */
+        private RateLimit rateLimit = new RateLimit();
+
+        /**
+         * Requisições duplicadas (hedging) para chamadas GET lentas.
+         */
+        private Hedging hedging = new Hedging();
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public void setCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        public SingleFlight getSingleFlight() {
+            return singleFlight;
+        }
+
+        public void setSingleFlight(SingleFlight singleFlight) {
+            this.singleFlight = singleFlight;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public void setPool(Pool pool) {
+            this.pool = pool;
+        }
+
+        public Map<String, Pool> getHosts() {
+            return hosts;
+        }
+
+        public void setHosts(Map<String, Pool> hosts) {
+            this.hosts = hosts;
+        }
+
+        public Resilience getResilience() {
+            return resilience;
+        }
+
+        public void setResilience(Resilience resilience) {
+            this.resilience = resilience;
+        }
+
+        public Limiter getLimiter() {
+            return limiter;
+        }
+
+        public void setLimiter(Limiter limiter) {
+            this.limiter = limiter;
+        }
+
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(RateLimit rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public Hedging getHedging() {
+            return hedging;
+        }
+
+        public void setHedging(Hedging hedging) {
+            this.hedging = hedging;
+        }
+
+        /**
+         * Retorna as configurações de pool de um servidor: as específicas do host, se houver,
+         * ou as padrão.
+         *
+         * @param host o nome do host da API externa.
+         * @return as configurações de pool do servidor.
+         */
+        public Pool poolFor(String host) {
+            return host != null ? hosts.getOrDefault(host, pool) : pool;
+        }
+    }
+
+    /**
+     * Propriedades do circuit breaker e do bulkhead por servidor ({@code app.http.resilience}).
+     */
+    public static class Resilience {
+        /**
+         * Habilita o circuit breaker e o bulkhead nas chamadas às APIs externas.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Percentual de falhas (erros de rede, timeouts e respostas 5xx) que abre o circuito.
+         * <p>
+         * <b>Valor padrão:</b> 50
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * Chamadas mais lentas que este tempo são contadas como lentas.
+         * <p>
+         * <b>Valor padrão:</b> 5s
+         */
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(5);
+
+        /**
+         * Percentual de chamadas lentas que abre o circuito.
+         * <p>
+         * <b>Valor padrão:</b> 80
+         */
+        private float slowCallRateThreshold = 80;
+
+        /**
+         * Número de chamadas recentes usadas no cálculo das taxas.
+         * <p>
+         * <b>Valor padrão:</b> 20
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Número mínimo de chamadas antes de o circuito poder abrir.
+         * <p>
+         * <b>Valor padrão:</b> 10
+         */
+        private int minimumNumberOfCalls = 10;
+
+        /**
+         * Tempo em que o circuito fica aberto antes de deixar passar chamadas de teste.
+         * <p>
+         * <b>Valor padrão:</b> 30s
+         */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+        /**
+         * Número de chamadas de teste com o circuito meio aberto.
+         * <p>
+         * <b>Valor padrão:</b> 3
+         */
+        private int permittedCallsInHalfOpenState = 3;
+
+        /**
+         * Número máximo de chamadas simultâneas a um mesmo servidor (bulkhead); as excedentes
+         * falham imediatamente.
+         * <p>
+         * <b>Valor padrão:</b> 50
+         */
+        private int maxConcurrentCalls = 50;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallDurationThreshold() {
+            return slowCallDurationThreshold;
+        }
+
+        public void setSlowCallDurationThreshold(Duration slowCallDurationThreshold) {
+            this.slowCallDurationThreshold = slowCallDurationThreshold;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+    }
+
+    /**
+     * Propriedades do limite adaptativo de concorrência por servidor ({@code app.http.limiter}).
      */
-    private int maxSessionMemorySize = 1000;
-    
+    public static class Limiter {
+        /**
+         * Habilita o limite adaptativo de chamadas simultâneas.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Limite inicial de chamadas simultâneas de um servidor.
+         * <p>
+         * <b>Valor padrão:</b> 20
+         */
+        private int initialLimit = 20;
+
+        /**
+         * Menor limite possível.
+         * <p>
+         * <b>Valor padrão:</b> 1
+         */
+        private int minLimit = 1;
+
+        /**
+         * Maior limite possível.
+         * <p>
+         * <b>Valor padrão:</b> 100
+         */
+        private int maxLimit = 100;
+
+        /**
+         * Chamadas mais lentas que este tempo são tratadas como sinal de sobrecarga, assim como
+         * erros, respostas 5xx e 429.
+         * <p>
+         * <b>Valor padrão:</b> 2s
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+
+        /**
+         * Fator aplicado ao limite a cada sinal de sobrecarga.
+         * <p>
+         * <b>Valor padrão:</b> 0.9
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Número máximo de chamadas aguardando vaga por servidor; acima disso a chamada é
+         * recusada na hora.
+         * <p>
+         * <b>Valor padrão:</b> 100
+         */
+        private int maxQueueSize = 100;
+
+        /**
+         * Tempo máximo de espera por uma vaga.
+         * <p>
+         * <b>Valor padrão:</b> 2s
+         */
+        private Duration maxWait = Duration.ofSeconds(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public int getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        public void setMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
     /**
-     * Diretório de especificações OpenAPI.
-     * <p>
-     * Define o caminho do diretório onde estão localizadas as especificações
-     * OpenAPI (arquivos .yaml ou .json) que serão processadas para gerar
-     * as ferramentas dinâmicas.
-     * <p>
-     * <b>Valor padrão:</b> "openapi-specs"
+     * Propriedades do limite de requisições por segundo das APIs externas ({@code app.http.rate-limit}).
      */
-    private String openApiDirectory = "openapi-specs";
-    
+    public static class RateLimit {
+        /**
+         * Habilita o limite de requisições por segundo e o aprendizado pelos cabeçalhos
+         * {@code Retry-After} e {@code X-RateLimit-*} das respostas.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Requisições por segundo permitidas por servidor, para os servidores sem configuração
+         * própria em {@link #hosts}. Com 0, não há cota local: as chamadas só esperam quando a
+         * própria API pede (429, {@code Retry-After} ou cota esgotada).
+         * <p>
+         * <b>Valor padrão:</b> 0
+         */
+        private double requestsPerSecond = 0;
+
+        /**
+         * Número de requisições que podem ser enviadas de uma vez quando a cota está cheia.
+         * <p>
+         * <b>Valor padrão:</b> 10
+         */
+        private int burst = 10;
+
+        /**
+         * Tempo máximo que uma chamada espera pela cota; se a espera for maior, a ferramenta recebe
+         * na hora uma resposta {@code 503} estruturada com o tempo de espera.
+         * <p>
+         * <b>Valor padrão:</b> 5s
+         */
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        /**
+         * Número máximo de chamadas esperando pela cota de um mesmo servidor ou ferramenta.
+         * <p>
+         * <b>Valor padrão:</b> 100
+         */
+        private int maxQueueSize = 100;
+
+        /**
+         * Pausa aplicada quando a API responde 429 sem o cabeçalho {@code Retry-After}.
+         * <p>
+         * <b>Valor padrão:</b> 1s
+         */
+        private Duration defaultRetryAfter = Duration.ofSeconds(1);
+
+        /**
+         * Cotas específicas por servidor, indexadas pelo nome do host (ex: {@code "[api.fornecedor.com]"}).
+         */
+        private Map<String, Quota> hosts = new HashMap<>();
+
+        /**
+         * Cotas específicas por ferramenta, indexadas pelo operationId. Uma ferramenta com cota
+         * própria não usa a cota do servidor.
+         */
+        private Map<String, Quota> tools = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        public void setMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+        }
+
+        public Duration getDefaultRetryAfter() {
+            return defaultRetryAfter;
+        }
+
+        public void setDefaultRetryAfter(Duration defaultRetryAfter) {
+            this.defaultRetryAfter = defaultRetryAfter;
+        }
+
+        public Map<String, Quota> getHosts() {
+            return hosts;
+        }
+
+        public void setHosts(Map<String, Quota> hosts) {
+            this.hosts = hosts;
+        }
+
+        public Map<String, Quota> getTools() {
+            return tools;
+        }
+
+        public void setTools(Map<String, Quota> tools) {
+            this.tools = tools;
+        }
+    }
+
     /**
-     * URL de fallback para APIs sem servidor definido.
-     * <p>
-     * Quando uma especificação OpenAPI não define explicitamente um servidor,
-     * esta URL será usada como fallback para construir as URLs completas
-     * das APIs.
-     * <p>
-     * <b>Valor padrão:</b> "http://localhost:8080"
+     * Cota de requisições de um servidor ou de uma ferramenta ({@code app.http.rate-limit.hosts.*}
+     * e {@code app.http.rate-limit.tools.*}).
      */
-    private String defaultFallbackUrl = "http://localhost:8080";
+    public static class Quota {
+        /**
+         * Requisições por segundo permitidas (0 = sem cota local).
+         * <p>
+         * <b>Valor padrão:</b> 0
+         */
+        private double requestsPerSecond = 0;
 
-    private Ai ai = new Ai();
-    private Tool tool = new Tool();
-    private Security security = new Security();
+        /**
+         * Número de requisições que podem ser enviadas de uma vez quando a cota está cheia.
+         * <p>
+         * <b>Valor padrão:</b> 10
+         */
+        private int burst = 10;
 
-    public static class Ai {
-        private String provider;
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
 
-        public String getProvider() {
-            return provider;
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
         }
 
-        public void setProvider(String provider) {
-            this.provider = provider;
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
         }
     }
 
-    public static class Tool {
-        // Classe mantida para futuras propriedades
+    /**
+     * Propriedades das requisições duplicadas para chamadas lentas ({@code app.http.hedging}).
+     */
+    public static class Hedging {
+        /**
+         * Habilita o envio de uma segunda requisição quando uma chamada GET demora mais que o
+         * percentil configurado da latência recente da ferramenta.
+         * <p>
+         * <b>Valor padrão:</b> false
+         */
+        private boolean enabled = false;
+
+        /**
+         * Percentil da latência recente da ferramenta a partir do qual a segunda requisição é enviada.
+         * <p>
+         * <b>Valor padrão:</b> 95
+         */
+        private double percentile = 95;
+
+        /**
+         * Número de latências guardadas por ferramenta.
+         * <p>
+         * <b>Valor padrão:</b> 100
+         */
+        private int windowSize = 100;
+
+        /**
+         * Número mínimo de latências registradas antes de a ferramenta poder receber requisições duplicadas.
+         * <p>
+         * <b>Valor padrão:</b> 20
+         */
+        private int minSamples = 20;
+
+        /**
+         * Espera mínima antes da segunda requisição, para não duplicar chamadas que já são rápidas.
+         * <p>
+         * <b>Valor padrão:</b> 20ms
+         */
+        private Duration minDelay = Duration.ofMillis(20);
+
+        /**
+         * Fração máxima das chamadas de cada ferramenta que podem receber uma segunda requisição.
+         * <p>
+         * Limita a carga extra nas APIs quando muitas chamadas ficam lentas ao mesmo tempo (ex: a API
+         * inteira está sobrecarregada), situação em que duplicar as requisições só piora a latência.
+         * <p>
+         * <b>Valor padrão:</b> 0.05
+         */
+        private double budget = 0.05;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public double getBudget() {
+            return budget;
+        }
+
+        public void setBudget(double budget) {
+            this.budget = budget;
+        }
     }
 
-    public static class Security {
-        // Classe mantida para futuras propriedades
+    /**
+     * Protocolo usado nas conexões com uma API externa.
+     */
+    public enum Protocol {
+        /** HTTP/1.1, uma requisição por conexão de cada vez. */
+        HTTP1,
+        /** HTTP/2 sobre TLS (negociado por ALPN, com HTTP/1.1 como alternativa). */
+        H2,
+        /** HTTP/2 sem TLS, para servidores que o aceitam diretamente. */
+        H2C
+    }
+
+    /**
+     * Propriedades do pool de conexões de um servidor ({@code app.http.pool} e {@code app.http.hosts.*}).
+     */
+    public static class Pool {
+        /**
+         * Protocolo das conexões. Com HTTP/2, várias requisições simultâneas compartilham a
+         * mesma conexão.
+         * <p>
+         * <b>Valor padrão:</b> http1
+         */
+        private Protocol protocol = Protocol.HTTP1;
+
+        /**
+         * Número máximo de conexões abertas com o servidor.
+         * <p>
+         * <b>Valor padrão:</b> 100
+         */
+        private int maxConnections = 100;
+
+        /**
+         * Tempo máximo de espera por uma conexão livre quando o pool está cheio.
+         * <p>
+         * <b>Valor padrão:</b> 30s
+         */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Conexões ociosas por mais tempo que este são fechadas.
+         * <p>
+         * <b>Valor padrão:</b> 30s
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /**
+         * Tempo máximo de vida de uma conexão, mesmo em uso frequente.
+         * <p>
+         * <b>Valor padrão:</b> 10m
+         */
+        private Duration maxLifeTime = Duration.ofMinutes(10);
+
+        /**
+         * Intervalo da verificação em segundo plano que fecha conexões ociosas ou vencidas
+         * (0 = apenas quando a conexão é requisitada).
+         * <p>
+         * <b>Valor padrão:</b> 30s
+         */
+        private Duration evictionInterval = Duration.ofSeconds(30);
+
+        /**
+         * Tempo máximo para estabelecer a conexão.
+         * <p>
+         * <b>Valor padrão:</b> 5s
+         */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Tempo máximo sem receber dados durante uma resposta.
+         * <p>
+         * <b>Valor padrão:</b> 10s
+         */
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Tempo máximo para enviar os dados de uma requisição.
+         * <p>
+         * <b>Valor padrão:</b> 10s
+         */
+        private Duration writeTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Tempo máximo para receber a resposta completa.
+         * <p>
+         * <b>Valor padrão:</b> 10s
+         */
+        private Duration responseTimeout = Duration.ofSeconds(10);
+
+        public Protocol getProtocol() {
+            return protocol;
+        }
+
+        public void setProtocol(Protocol protocol) {
+            this.protocol = protocol;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public Duration getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getWriteTimeout() {
+            return writeTimeout;
+        }
+
+        public void setWriteTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+    }
+
+    /**
+     * Propriedades do compartilhamento de chamadas em andamento ({@code app.http.single-flight}).
+     */
+    public static class SingleFlight {
+        /**
+         * Faz com que chamadas GET e HEAD idênticas e simultâneas usem uma única requisição à
+         * API externa.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Propriedades do cache de respostas das APIs externas ({@code app.http.cache}).
+     */
+    public static class Cache {
+        /**
+         * Habilita o cache de respostas de chamadas GET e HEAD.
+         * <p>
+         * <b>Valor padrão:</b> true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Tamanho máximo somado dos corpos em cache; as entradas menos usadas são descartadas
+         * quando o limite é atingido.
+         * <p>
+         * <b>Valor padrão:</b> 16MB
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Respostas maiores que este tamanho não são guardadas.
+         * <p>
+         * <b>Valor padrão:</b> 1MB
+         */
+        private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+        /**
+         * Tempo de validade de respostas sem {@code Cache-Control: max-age}. Com o valor 0, essas
+         * respostas só são guardadas se tiverem {@code ETag} ou {@code Last-Modified}, e são
+         * sempre revalidadas antes do uso.
+         * <p>
+         * <b>Valor padrão:</b> 0
+         */
+        private Duration defaultTtl = Duration.ZERO;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public void setMaxEntrySize(DataSize maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+        }
+
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
     }
     
     // Getters e Setters
@@ -112,6 +1603,14 @@ public class SwaggerAgentProperties {
         this.chatTimeout = chatTimeout;
     }
     
+    public Duration getChatAnswerReserve() {
+        return chatAnswerReserve;
+    }
+    
+    public void setChatAnswerReserve(Duration chatAnswerReserve) {
+        this.chatAnswerReserve = chatAnswerReserve;
+    }
+    
     public int getMaxSessionMemorySize() {
         return maxSessionMemorySize;
     }
@@ -152,6 +1651,14 @@ public class SwaggerAgentProperties {
         this.tool = tool;
     }
 
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
     public Security getSecurity() {
         return security;
     }
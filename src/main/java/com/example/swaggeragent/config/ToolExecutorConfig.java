@@ -0,0 +1,61 @@
+package com.example.swaggeragent.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuração do executor das funções das ferramentas.
+ * <p>
+ * As funções das ferramentas bloqueiam a thread que as chama até a API externa responder. O
+ * laço paralelo do chat as executa no {@code toolCallScheduler}, onde também chegam as respostas
+ * do modelo no streaming; ele depende do modo de threads da aplicação
+ * ({@code spring.threads.virtual.enabled}):
+ * <ul>
+ *   <li><b>Threads de plataforma (padrão):</b> Um {@code boundedElastic} limitado, que cresce até
+ *       {@link Schedulers#DEFAULT_BOUNDED_ELASTIC_SIZE} threads e enfileira o excedente</li>
+ *   <li><b>Threads virtuais (Java 21):</b> Uma thread virtual por chamada; uma chamada esperando a
+ *       API externa não ocupa uma thread do sistema operacional</li>
+ * </ul>
+ * No modo de threads virtuais o Spring Boot também passa a usá-las no Tomcat (requisições do
+ * {@code ChatController}) e no executor dos métodos {@code @Async}. A concorrência continua
+ * limitada por {@code app.tool.parallel.max-concurrency} e {@code app.tool.batch.max-concurrency}.
+ * Para compilar e rodar em Java 21, use o perfil Maven {@code java21}.
+ */
+@Configuration
+public class ToolExecutorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolExecutorConfig.class);
+
+    /**
+     * Executor das funções das ferramentas em threads de plataforma.
+     *
+     * @return o scheduler limitado das chamadas de ferramentas
+     */
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Scheduler toolCallScheduler() {
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "tool-calls");
+    }
+
+    /**
+     * Executor das funções das ferramentas em threads virtuais.
+     *
+     * @return o scheduler que roda cada chamada em uma nova thread virtual
+     */
+    @Bean(name = "toolCallScheduler", destroyMethod = "dispose")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Scheduler virtualToolCallScheduler() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("tool-calls-");
+        executor.setVirtualThreads(true);
+        log.info("🧵 Funções das ferramentas executadas em threads virtuais");
+        return Schedulers.fromExecutor(executor);
+    }
+}
@@ -1,56 +1,63 @@
 package com.example.swaggeragent.config;
 
+import com.example.swaggeragent.service.upstream.PerHostUpstreamClients;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.netty.http.client.HttpClient;
-import reactor.netty.resources.ConnectionProvider;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
-
-import java.time.Duration;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import reactor.core.scheduler.Scheduler;
+import reactor.netty.resources.LoopResources;
 
 /**
- * Configuração do cliente WebFlux para chamadas HTTP reativas.
+ * Configuração dos recursos compartilhados pelos clientes HTTP reativos das APIs externas.
  * <p>
- * Esta classe é responsável por configurar e fornecer um bean do {@link WebClient}
- * otimizado para ser utilizado em toda a aplicação para chamadas HTTP reativas.
+ * Os clientes em si são criados por servidor em {@link PerHostUpstreamClients}, cada um com seu
+ * próprio pool de conexões e timeouts ({@code app.http.pool} e {@code app.http.hosts}).
  * <p>
  * <b>Características da configuração:</b>
  * <ul>
- *   <li><b>Connection Pooling:</b> Pool de conexões com máximo de 100 conexões simultâneas</li>
- *   <li><b>Timeout de Aquisição:</b> 30 segundos para aguardar conexão disponível</li>
- *   <li><b>Timeout de Resposta:</b> 10 segundos para receber resposta completa</li>
+ *   <li><b>Event loop dedicado:</b> As chamadas às APIs externas rodam em threads próprias
+ *       ({@code swagger-agent-upstream}), separadas das usadas pelo cliente do modelo de IA</li>
  *   <li><b>Reatividade:</b> Baseado em Project Reactor para operações não-bloqueantes</li>
+ *   <li><b>Respostas do modelo fora do event loop:</b> O streaming do modelo de IA é entregue no
+ *       executor das ferramentas, onde o Spring AI pode chamar as funções síncronas das ferramentas</li>
  * </ul>
  */
 @Configuration
 public class WebClientConfig {
 
     /**
-     * Cria e configura um bean do {@link WebClient} com connection pooling otimizado.
+     * Event loop dedicado às chamadas das ferramentas.
+     * <p>
+     * O número de threads é fixo (uma por núcleo) e não cresce com o número de chamadas em
+     * andamento, e é separado do event loop padrão do Reactor Netty, usado pelo cliente do modelo de IA.
+     *
+     * @return os recursos de event loop para as APIs externas
+     */
+    @Bean(destroyMethod = "dispose")
+    public LoopResources upstreamLoopResources() {
+        return LoopResources.create("swagger-agent-upstream", LoopResources.DEFAULT_IO_WORKER_COUNT, true);
+    }
+
+    /**
+     * Entrega as respostas do cliente do modelo de IA no executor das ferramentas.
      * <p>
-     * O WebClient configurado possui as seguintes otimizações:
-     * <ul>
-     *   <li><b>ConnectionProvider personalizado:</b> "swagger-agent-pool" com configurações específicas</li>
-     *   <li><b>Máximo de conexões:</b> 100 conexões simultâneas para alta concorrência</li>
-     *   <li><b>Timeout de aquisição:</b> 30 segundos para aguardar conexão disponível no pool</li>
-     *   <li><b>Timeout de resposta:</b> 10 segundos para receber resposta completa da API</li>
-     * </ul>
+     * No streaming, o Spring AI trata os pedidos de ferramentas na thread que recebe a resposta do
+     * modelo e chama as funções das ferramentas, que são síncronas, nessa mesma thread. Sem esta
+     * configuração, essa thread seria um event loop do Reactor Netty, parado até a API externa
+     * responder. Aplica-se apenas ao {@code WebClient.Builder} do Spring Boot, usado pelo Spring AI;
+     * os clientes das APIs externas são criados à parte, em {@link PerHostUpstreamClients}.
      *
-     * @return uma instância de {@link WebClient} configurada para uso em toda a aplicação
+     * @param toolCallScheduler o executor das funções das ferramentas
+     * @return o customizador dos clientes do modelo
      */
     @Bean
-    public WebClient webClient() {
-        ConnectionProvider provider = ConnectionProvider.builder("swagger-agent-pool")
-                .maxConnections(100)
-                .pendingAcquireTimeout(Duration.ofSeconds(30))
-                .build();
-        
-        HttpClient httpClient = HttpClient.create(provider)
-                .responseTimeout(Duration.ofSeconds(10));
-        
-        return WebClient.builder()
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .build();
+    public WebClientCustomizer modelResponseOffload(Scheduler toolCallScheduler) {
+        return builder -> builder.filter((request, next) -> next.exchange(request)
+                .map(response -> response.mutate()
+                        .body(body -> body.publishOn(toolCallScheduler)
+                                .doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release))
+                        .build()));
     }
-} 
\ No newline at end of file
+}
@@ -5,27 +5,38 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 
+import com.example.swaggeragent.config.SwaggerAgentProperties;
 import com.example.swaggeragent.dto.ChatRequest;
 import com.example.swaggeragent.dto.ChatResponse;
 import com.example.swaggeragent.service.chat.ChatService;
+import com.example.swaggeragent.service.tool.RequestDeadline;
+
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/chat")
 public class ChatController {
 
     private final ChatService chatService;
+    private final Duration chatTimeout;
+    private final Duration answerReserve;
 
-    public ChatController(ChatService chatService) {
+    public ChatController(ChatService chatService, SwaggerAgentProperties properties) {
         this.chatService = chatService;
+        this.chatTimeout = properties.getChatTimeout();
+        this.answerReserve = properties.getChatAnswerReserve();
     }
 
     @PostMapping
     public ChatResponse chat(@Valid @RequestBody ChatRequest request) {
-        return chatService.processChatMessage(request.getMessage(), request.getSessionId());
+        // O prazo da mensagem começa aqui e vale para todas as chamadas de ferramentas feitas para respondê-la.
+        return chatService.processChatMessage(request.getMessage(), request.getSessionId(),
+                RequestDeadline.after(chatTimeout, answerReserve));
     }
 
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<String> chatStream(@Valid @RequestBody ChatRequest request) {
-        return chatService.streamChatResponse(request.getMessage(), request.getSessionId());
+        return chatService.streamChatResponse(request.getMessage(), request.getSessionId(),
+                RequestDeadline.after(chatTimeout, answerReserve));
     }
 } 
\ No newline at end of file
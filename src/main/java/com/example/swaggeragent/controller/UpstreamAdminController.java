@@ -0,0 +1,34 @@
+package com.example.swaggeragent.controller;
+
+import org.springframework.web.bind.annotation.*;
+import com.example.swaggeragent.dto.UpstreamsResponse;
+import com.example.swaggeragent.service.upstream.AdaptiveConcurrencyLimitFilter;
+import com.example.swaggeragent.service.upstream.HedgingFilter;
+import com.example.swaggeragent.service.upstream.RateLimitFilter;
+import com.example.swaggeragent.service.upstream.UpstreamResilienceFilter;
+
+@RestController
+@RequestMapping("/api/admin/upstreams")
+public class UpstreamAdminController {
+
+    private final UpstreamResilienceFilter resilienceFilter;
+    private final AdaptiveConcurrencyLimitFilter concurrencyLimitFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final HedgingFilter hedgingFilter;
+
+    public UpstreamAdminController(UpstreamResilienceFilter resilienceFilter,
+                                   AdaptiveConcurrencyLimitFilter concurrencyLimitFilter,
+                                   RateLimitFilter rateLimitFilter,
+                                   HedgingFilter hedgingFilter) {
+        this.resilienceFilter = resilienceFilter;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.hedgingFilter = hedgingFilter;
+    }
+
+    @GetMapping
+    public UpstreamsResponse getUpstreams() {
+        return new UpstreamsResponse(resilienceFilter.status(), concurrencyLimitFilter.status(),
+                rateLimitFilter.status(), hedgingFilter.status());
+    }
+}
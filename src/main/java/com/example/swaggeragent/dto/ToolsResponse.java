@@ -2,6 +2,7 @@ package com.example.swaggeragent.dto;
 
 import com.example.swaggeragent.model.domain.DynamicTool;
 import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.service.tool.TokenEstimator;
 
 import java.util.List;
 import java.util.Map;
@@ -9,11 +10,16 @@ import java.util.stream.Collectors;
 
 public class ToolsResponse {
     private int totalTools;
+    private int totalEstimatedTokens;
     private Map<String, List<ToolInfo>> toolsByProject;
 
     public ToolsResponse(List<DynamicTool> tools) {
         this.totalTools = tools != null ? tools.size() : 0;
         this.toolsByProject = tools != null ? groupToolsByProject(tools) : Map.of();
+        this.totalEstimatedTokens = toolsByProject.values().stream()
+                .flatMap(List::stream)
+                .mapToInt(ToolInfo::getEstimatedTokens)
+                .sum();
     }
 
     private Map<String, List<ToolInfo>> groupToolsByProject(List<DynamicTool> tools) {
@@ -32,6 +38,14 @@ public class ToolsResponse {
         this.totalTools = totalTools;
     }
 
+    public int getTotalEstimatedTokens() {
+        return totalEstimatedTokens;
+    }
+
+    public void setTotalEstimatedTokens(int totalEstimatedTokens) {
+        this.totalEstimatedTokens = totalEstimatedTokens;
+    }
+
     public Map<String, List<ToolInfo>> getToolsByProject() {
         return toolsByProject;
     }
@@ -48,6 +62,8 @@ public class ToolsResponse {
         private String baseUrl;
         private String controller;
         private List<ParameterInfo> parameters;
+        // Tokens estimados que a ferramenta ocupa no prompt (nome, descrição e JSON Schema).
+        private int estimatedTokens;
 
         public ToolInfo(DynamicTool tool) {
             OpenApiEndpoint endpoint = tool.getEndpoint();
@@ -63,6 +79,9 @@ public class ToolsResponse {
                     .map(ParameterInfo::new)
                     .collect(Collectors.toList())
                     : List.of();
+            this.estimatedTokens = TokenEstimator.estimate(tool.getName())
+                    + TokenEstimator.estimate(tool.getDescription())
+                    + TokenEstimator.estimate(tool.getJsonSchema());
         }
 
         public String getName() {
@@ -120,6 +139,14 @@ public class ToolsResponse {
         public void setParameters(List<ParameterInfo> parameters) {
             this.parameters = parameters;
         }
+
+        public int getEstimatedTokens() {
+            return estimatedTokens;
+        }
+
+        public void setEstimatedTokens(int estimatedTokens) {
+            this.estimatedTokens = estimatedTokens;
+        }
     }
 
     public static class ParameterInfo {
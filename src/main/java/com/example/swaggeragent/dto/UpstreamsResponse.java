@@ -0,0 +1,61 @@
+package com.example.swaggeragent.dto;
+
+import com.example.swaggeragent.service.upstream.AdaptiveConcurrencyLimitFilter;
+import com.example.swaggeragent.service.upstream.HedgingFilter;
+import com.example.swaggeragent.service.upstream.RateLimitFilter;
+import com.example.swaggeragent.service.upstream.UpstreamResilienceFilter;
+
+import java.util.List;
+
+public class UpstreamsResponse {
+    // Estado do circuit breaker e do bulkhead de cada servidor já chamado.
+    private List<UpstreamResilienceFilter.HostStatus> circuitBreakers;
+    // Limite adaptativo de concorrência de cada servidor já chamado.
+    private List<AdaptiveConcurrencyLimitFilter.LimitStatus> concurrencyLimits;
+    // Cota de requisições por segundo de cada servidor e ferramenta já chamados.
+    private List<RateLimitFilter.RateLimitStatus> rateLimits;
+    // Latência recente e requisições extras (hedging) de cada ferramenta.
+    private List<HedgingFilter.LatencyStatus> toolLatencies;
+
+    public UpstreamsResponse(List<UpstreamResilienceFilter.HostStatus> circuitBreakers,
+                             List<AdaptiveConcurrencyLimitFilter.LimitStatus> concurrencyLimits,
+                             List<RateLimitFilter.RateLimitStatus> rateLimits,
+                             List<HedgingFilter.LatencyStatus> toolLatencies) {
+        this.circuitBreakers = circuitBreakers;
+        this.concurrencyLimits = concurrencyLimits;
+        this.rateLimits = rateLimits;
+        this.toolLatencies = toolLatencies;
+    }
+
+    public List<UpstreamResilienceFilter.HostStatus> getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    public void setCircuitBreakers(List<UpstreamResilienceFilter.HostStatus> circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    public List<AdaptiveConcurrencyLimitFilter.LimitStatus> getConcurrencyLimits() {
+        return concurrencyLimits;
+    }
+
+    public void setConcurrencyLimits(List<AdaptiveConcurrencyLimitFilter.LimitStatus> concurrencyLimits) {
+        this.concurrencyLimits = concurrencyLimits;
+    }
+
+    public List<RateLimitFilter.RateLimitStatus> getRateLimits() {
+        return rateLimits;
+    }
+
+    public void setRateLimits(List<RateLimitFilter.RateLimitStatus> rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    public List<HedgingFilter.LatencyStatus> getToolLatencies() {
+        return toolLatencies;
+    }
+
+    public void setToolLatencies(List<HedgingFilter.LatencyStatus> toolLatencies) {
+        this.toolLatencies = toolLatencies;
+    }
+}
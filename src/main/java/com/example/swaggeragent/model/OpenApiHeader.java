@@ -0,0 +1,18 @@
+package com.example.swaggeragent.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Representa um header que pode ser retornado em uma resposta OpenAPI.
+ *
+ * @param description a descrição do header.
+ * @param required    indica se o header está sempre presente na resposta.
+ * @param schema      o schema do valor do header, ou {@code null} se não definido.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OpenApiHeader(
+        String description,
+        boolean required,
+        OpenApiSchema schema
+) {
+}
@@ -1,7 +1,5 @@
 package com.example.swaggeragent.model;
 
-import io.swagger.v3.oas.models.examples.Example;
-import io.swagger.v3.oas.models.media.Schema;
 import java.util.Map;
 
 /**
@@ -12,13 +10,16 @@ import java.util.Map;
  * É comumente usado para descrever o conteúdo de corpos de requisição (request bodies)
  * ou respostas (responses), como 'application/json'.
  *
- * @param schema   o objeto {@link Schema} que define a estrutura de dados.
+ * Os exemplos são guardados como valores Java simples ({@link Map}, {@link java.util.List},
+ * {@link String}, números e booleanos), sem os objetos do swagger-parser.
+ *
+ * @param schema   o {@link OpenApiSchema} que define a estrutura de dados.
  * @param example  um exemplo único e não nomeado do payload.
- * @param examples um mapa de exemplos nomeados do payload.
+ * @param examples um mapa com os valores dos exemplos nomeados do payload.
  */
 public record OpenApiMediaType(
-        Schema schema,
+        OpenApiSchema schema,
         Object example,
-        Map<String, Example> examples
+        Map<String, Object> examples
 ) {
 } 
\ No newline at end of file
@@ -1,7 +1,6 @@
 package com.example.swaggeragent.model;
 
 import java.util.Map;
-import io.swagger.v3.oas.models.headers.Header;
 
 /**
  * Representa uma resposta de uma operação de API na especificação OpenAPI.
@@ -16,6 +15,6 @@ import io.swagger.v3.oas.models.headers.Header;
 public record OpenApiResponse(
         String description,
         Map<String, OpenApiMediaType> content,
-        Map<String, Header> headers
+        Map<String, OpenApiHeader> headers
 ) {
 } 
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.example.swaggeragent.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Representação compacta e imutável de um schema OpenAPI.
+ * <p>
+ * Guarda apenas o que é usado na geração das ferramentas, sem manter o grafo de objetos do
+ * swagger-parser em memória. Referências a componentes ({@code $ref}) não são expandidas:
+ * o schema guarda apenas o nome da referência, resolvido sob demanda pelo
+ * {@code OpenApiParserService}, o que também permite representar schemas recursivos.
+ * <p>
+ * As instâncias criadas a partir de uma mesma especificação têm strings internalizadas e
+ * sub-schemas idênticos compartilhados (por exemplo, todas as propriedades
+ * {@code {"type": "string"}} apontam para o mesmo objeto).
+ *
+ * @param ref         a referência a um componente (ex: "#/components/schemas/Pet"), ou {@code null}.
+ * @param type        o tipo do schema (ex: "object", "array", "string").
+ * @param format      um formato mais específico para o tipo (ex: "int64").
+ * @param description a descrição do schema.
+ * @param properties  as propriedades de um schema do tipo objeto, na ordem da especificação.
+ * @param items       o schema dos itens de um schema do tipo array.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OpenApiSchema(
+        String ref,
+        String type,
+        String format,
+        String description,
+        Map<String, OpenApiSchema> properties,
+        OpenApiSchema items
+) {
+
+    /**
+     * Cria um schema que apenas referencia um componente.
+     *
+     * @param ref a referência ao componente.
+     * @return o schema de referência.
+     */
+    public static OpenApiSchema reference(String ref) {
+        return new OpenApiSchema(ref, null, null, null, null, null);
+    }
+}
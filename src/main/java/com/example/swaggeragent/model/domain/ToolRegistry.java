@@ -0,0 +1,77 @@
+package com.example.swaggeragent.model.domain;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Versão imutável do conjunto de ferramentas dinâmicas disponíveis.
+ * <p>
+ * Cada recarregamento das especificações OpenAPI produz uma nova instância com a versão
+ * incrementada, que é publicada de forma atômica. Quem obtém uma instância (por exemplo,
+ * um chat em andamento) continua vendo exatamente as mesmas ferramentas até terminar,
+ * mesmo que uma nova versão seja publicada nesse meio tempo.
+ *
+ * @param version        o número da versão do registro (começa em 1).
+ * @param toolsBySource  as ferramentas agrupadas pelo arquivo de especificação de origem.
+ * @param tools          todas as ferramentas, na ordem dos arquivos de origem.
+ * @param toolsByName    as ferramentas indexadas pelo nome.
+ */
+public record ToolRegistry(
+        long version,
+        Map<Path, List<DynamicTool>> toolsBySource,
+        List<DynamicTool> tools,
+        Map<String, DynamicTool> toolsByName
+) {
+
+    /**
+     * Cria um registro a partir das ferramentas agrupadas por arquivo de origem.
+     * <p>
+     * Os arquivos são ordenados pelo caminho e as coleções resultantes são imutáveis.
+     *
+     * @param version       o número da versão do registro.
+     * @param toolsBySource as ferramentas de cada arquivo de especificação.
+     * @return o novo registro.
+     */
+    public static ToolRegistry of(long version, Map<Path, List<DynamicTool>> toolsBySource) {
+        Map<Path, List<DynamicTool>> sorted = new TreeMap<>();
+        toolsBySource.forEach((source, tools) -> sorted.put(source, List.copyOf(tools)));
+
+        List<DynamicTool> tools = new ArrayList<>();
+        Map<String, DynamicTool> toolsByName = new LinkedHashMap<>();
+        sorted.values().forEach(sourceTools -> sourceTools.forEach(tool -> {
+            tools.add(tool);
+            toolsByName.put(tool.getName(), tool);
+        }));
+
+        return new ToolRegistry(
+                version,
+                Collections.unmodifiableMap(new LinkedHashMap<>(sorted)),
+                Collections.unmodifiableList(tools),
+                Collections.unmodifiableMap(toolsByName)
+        );
+    }
+
+    /**
+     * Cria um registro vazio, usado antes do primeiro carregamento.
+     *
+     * @return um registro sem ferramentas, na versão 0.
+     */
+    public static ToolRegistry empty() {
+        return of(0, Map.of());
+    }
+
+    /**
+     * Busca uma ferramenta pelo nome.
+     *
+     * @param name o nome da ferramenta.
+     * @return a ferramenta, ou {@code null} se não existir nesta versão.
+     */
+    public DynamicTool findByName(String name) {
+        return toolsByName.get(name);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.swaggeragent.model.domain;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Diferença entre duas versões do {@link ToolRegistry}.
+ *
+ * @param added   nomes das ferramentas que passaram a existir.
+ * @param removed nomes das ferramentas que deixaram de existir.
+ * @param changed nomes das ferramentas que existem nas duas versões, mas com descrição,
+ *                schema ou endpoint diferentes.
+ */
+public record ToolRegistryDiff(List<String> added, List<String> removed, List<String> changed) {
+
+    /**
+     * Calcula a diferença entre duas versões do registro.
+     *
+     * @param previous a versão anterior.
+     * @param current  a nova versão.
+     * @return a diferença, comparando as ferramentas pelo nome.
+     */
+    public static ToolRegistryDiff between(ToolRegistry previous, ToolRegistry current) {
+        List<String> added = current.toolsByName().keySet().stream()
+                .filter(name -> !previous.toolsByName().containsKey(name))
+                .toList();
+        List<String> removed = previous.toolsByName().keySet().stream()
+                .filter(name -> !current.toolsByName().containsKey(name))
+                .toList();
+        List<String> changed = current.toolsByName().values().stream()
+                .filter(tool -> {
+                    DynamicTool old = previous.findByName(tool.getName());
+                    return old != null && !isSameDefinition(old, tool);
+                })
+                .map(DynamicTool::getName)
+                .toList();
+        return new ToolRegistryDiff(added, removed, changed);
+    }
+
+    /**
+     * Indica se não há nenhuma diferença entre as versões.
+     *
+     * @return {@code true} se nenhuma ferramenta foi adicionada, removida ou alterada.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    private static boolean isSameDefinition(DynamicTool a, DynamicTool b) {
+        return Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getJsonSchema(), b.getJsonSchema())
+                && Objects.equals(a.getEndpoint(), b.getEndpoint());
+    }
+}
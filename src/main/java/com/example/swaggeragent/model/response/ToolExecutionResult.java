@@ -1,4 +1,18 @@
 package com.example.swaggeragent.model.response;
 
-public record ToolExecutionResult(int httpStatusCode, String body) {
-} 
\ No newline at end of file
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado da execução de uma ferramenta, devolvido ao modelo.
+ *
+ * @param httpStatusCode o código de status HTTP da chamada.
+ * @param body           o corpo da resposta.
+ * @param notice         um aviso para o modelo sobre o corpo (ex: dados cortados), ou {@code null}.
+ */
+public record ToolExecutionResult(int httpStatusCode, String body,
+                                  @JsonInclude(JsonInclude.Include.NON_NULL) String notice) {
+
+    public ToolExecutionResult(int httpStatusCode, String body) {
+        this(httpStatusCode, body, null);
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.swaggeragent.service.cache;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiHeader;
+import com.example.swaggeragent.model.OpenApiMediaType;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.OpenApiParameterItems;
+import com.example.swaggeragent.model.OpenApiRequestBody;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificador do formato binário dos snapshots de especificações.
+ * <p>
+ * O formato é uma sequência simples de campos escritos com {@link DataOutputStream}
+ * (o stream é compactado com GZIP por {@link SpecSnapshotService}):
+ * <pre>
+ * MAGIC (int) | FORMAT_VERSION (int) | quantidade de entradas (int)
+ * para cada entrada: endpoint | descrição da ferramenta | JSON Schema da ferramenta
+ * quantidade de componentes (int)
+ * para cada componente: nome | schema
+ * </pre>
+ * Strings são gravadas como tamanho + bytes UTF-8 (tamanho {@code -1} representa {@code null}),
+ * pois descrições com schemas podem ultrapassar o limite de 64 KB de {@link DataOutputStream#writeUTF}.
+ * <p>
+ * Os endpoints são gravados no modelo compacto ({@link OpenApiSchema} com referências não
+ * expandidas), de forma que um endpoint lido do snapshot seja igual ao produzido pela análise.
+ * Os componentes referenciados pelos endpoints também são gravados no modelo compacto, para
+ * que os schemas das respostas (usados, por exemplo, na projeção dos resultados) sejam
+ * resolvidos sem reanalisar a especificação. Valores livres (valores padrão e exemplos) são
+ * gravados como JSON.
+ */
+final class SpecSnapshotCodec {
+
+    private static final int MAGIC = 0x53574753; // "SWGS"
+    private static final int FORMAT_VERSION = 3;
+
+    private final ObjectMapper objectMapper;
+
+    SpecSnapshotCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    void write(DataOutputStream out, List<SpecSnapshotService.SnapshotEntry> entries,
+               Map<String, OpenApiSchema> components) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(entries.size());
+        for (SpecSnapshotService.SnapshotEntry entry : entries) {
+            writeEndpoint(out, entry.endpoint());
+            writeString(out, entry.description());
+            writeString(out, entry.jsonSchema());
+        }
+        Map<String, OpenApiSchema> referenced = components != null ? components : Map.of();
+        out.writeInt(referenced.size());
+        for (Map.Entry<String, OpenApiSchema> component : referenced.entrySet()) {
+            writeString(out, component.getKey());
+            writeSchema(out, component.getValue());
+        }
+    }
+
+    Content read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Arquivo de snapshot inválido");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Versão de snapshot não suportada: " + version);
+        }
+        int size = in.readInt();
+        List<SpecSnapshotService.SnapshotEntry> entries = new ArrayList<>(size);
+        // Restaura o compartilhamento de sub-schemas iguais entre os endpoints do arquivo.
+        Map<OpenApiSchema, OpenApiSchema> schemas = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            OpenApiEndpoint endpoint = readEndpoint(in, schemas);
+            entries.add(new SpecSnapshotService.SnapshotEntry(endpoint, readString(in), readString(in)));
+        }
+        int componentCount = in.readInt();
+        Map<String, OpenApiSchema> components = new HashMap<>();
+        for (int i = 0; i < componentCount; i++) {
+            String name = readString(in);
+            components.put(name, readSchema(in, schemas));
+        }
+        return new Content(entries, Collections.unmodifiableMap(components));
+    }
+
+    /**
+     * Conteúdo lido de um snapshot.
+     *
+     * @param entries    as entradas (endpoint, descrição e JSON Schema da ferramenta).
+     * @param components os componentes referenciados pelos endpoints, pelo nome.
+     */
+    record Content(List<SpecSnapshotService.SnapshotEntry> entries, Map<String, OpenApiSchema> components) {
+    }
+
+    private void writeEndpoint(DataOutputStream out, OpenApiEndpoint endpoint) throws IOException {
+        writeString(out, endpoint.operationId());
+        writeString(out, endpoint.method());
+        writeString(out, endpoint.path());
+        writeString(out, endpoint.summary());
+        writeString(out, endpoint.description());
+        writeString(out, endpoint.baseUrl());
+        writeString(out, endpoint.projectName());
+
+        List<OpenApiParameter> parameters = endpoint.parameters() != null ? endpoint.parameters() : List.of();
+        out.writeInt(parameters.size());
+        for (OpenApiParameter parameter : parameters) {
+            writeParameter(out, parameter);
+        }
+
+        OpenApiRequestBody requestBody = endpoint.requestBody();
+        out.writeBoolean(requestBody != null);
+        if (requestBody != null) {
+            writeString(out, requestBody.description());
+            out.writeBoolean(requestBody.required());
+            writeContent(out, requestBody.content());
+        }
+
+        Map<String, OpenApiResponse> responses = endpoint.responses() != null ? endpoint.responses() : Map.of();
+        out.writeInt(responses.size());
+        for (Map.Entry<String, OpenApiResponse> response : responses.entrySet()) {
+            writeString(out, response.getKey());
+            writeString(out, response.getValue().description());
+            writeContent(out, response.getValue().content());
+            writeHeaders(out, response.getValue().headers());
+        }
+
+        writeStringList(out, endpoint.tags());
+    }
+
+    private OpenApiEndpoint readEndpoint(DataInputStream in, Map<OpenApiSchema, OpenApiSchema> schemas) throws IOException {
+        String operationId = readString(in);
+        String method = readString(in);
+        String path = readString(in);
+        String summary = readString(in);
+        String description = readString(in);
+        String baseUrl = readString(in);
+        String projectName = readString(in);
+
+        int parameterCount = in.readInt();
+        List<OpenApiParameter> parameters = new ArrayList<>(parameterCount);
+        for (int i = 0; i < parameterCount; i++) {
+            parameters.add(readParameter(in));
+        }
+
+        OpenApiRequestBody requestBody = null;
+        if (in.readBoolean()) {
+            String bodyDescription = readString(in);
+            boolean required = in.readBoolean();
+            requestBody = new OpenApiRequestBody(bodyDescription, required, readContent(in, schemas));
+        }
+
+        int responseCount = in.readInt();
+        Map<String, OpenApiResponse> responses = new LinkedHashMap<>();
+        for (int i = 0; i < responseCount; i++) {
+            String code = readString(in);
+            String responseDescription = readString(in);
+            Map<String, OpenApiMediaType> content = readContent(in, schemas);
+            responses.put(code, new OpenApiResponse(responseDescription, content, readHeaders(in, schemas)));
+        }
+
+        List<String> tags = readStringList(in);
+        return new OpenApiEndpoint(operationId, method, path, summary, description, baseUrl, projectName,
+                parameters, requestBody, responses, tags);
+    }
+
+    private void writeParameter(DataOutputStream out, OpenApiParameter parameter) throws IOException {
+        writeString(out, parameter.name());
+        writeString(out, parameter.in());
+        writeString(out, parameter.description());
+        out.writeBoolean(parameter.required());
+        writeString(out, parameter.type());
+        writeString(out, parameter.format());
+        writeJson(out, parameter.defaultValue());
+        writeStringList(out, parameter.enumValues());
+        out.writeBoolean(parameter.items() != null);
+        if (parameter.items() != null) {
+            writeString(out, parameter.items().type());
+            writeString(out, parameter.items().format());
+        }
+    }
+
+    private OpenApiParameter readParameter(DataInputStream in) throws IOException {
+        String name = readString(in);
+        String location = readString(in);
+        String description = readString(in);
+        boolean required = in.readBoolean();
+        String type = readString(in);
+        String format = readString(in);
+        Object defaultValue = readJson(in);
+        List<String> enumValues = readStringList(in);
+        OpenApiParameterItems items = in.readBoolean() ? new OpenApiParameterItems(readString(in), readString(in)) : null;
+        return new OpenApiParameter(name, location, description, required, type, format, defaultValue, enumValues, items);
+    }
+
+    private void writeContent(DataOutputStream out, Map<String, OpenApiMediaType> content) throws IOException {
+        out.writeBoolean(content != null);
+        if (content == null) {
+            return;
+        }
+        out.writeInt(content.size());
+        for (Map.Entry<String, OpenApiMediaType> mediaType : content.entrySet()) {
+            writeString(out, mediaType.getKey());
+            OpenApiMediaType value = mediaType.getValue();
+            out.writeBoolean(value != null);
+            if (value != null) {
+                writeSchema(out, value.schema());
+                writeJson(out, value.example());
+                writeJson(out, value.examples());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, OpenApiMediaType> readContent(DataInputStream in, Map<OpenApiSchema, OpenApiSchema> schemas) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int size = in.readInt();
+        Map<String, OpenApiMediaType> content = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String mediaType = readString(in);
+            if (!in.readBoolean()) {
+                content.put(mediaType, null);
+                continue;
+            }
+            OpenApiSchema schema = readSchema(in, schemas);
+            Object example = readJson(in);
+            Map<String, Object> examples = (Map<String, Object>) readJson(in);
+            content.put(mediaType, new OpenApiMediaType(schema, example, examples));
+        }
+        return content;
+    }
+
+    private void writeHeaders(DataOutputStream out, Map<String, OpenApiHeader> headers) throws IOException {
+        out.writeInt(headers != null ? headers.size() : -1);
+        if (headers == null) {
+            return;
+        }
+        for (Map.Entry<String, OpenApiHeader> header : headers.entrySet()) {
+            writeString(out, header.getKey());
+            writeString(out, header.getValue().description());
+            out.writeBoolean(header.getValue().required());
+            writeSchema(out, header.getValue().schema());
+        }
+    }
+
+    private Map<String, OpenApiHeader> readHeaders(DataInputStream in, Map<OpenApiSchema, OpenApiSchema> schemas) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, OpenApiHeader> headers = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = readString(in);
+            String description = readString(in);
+            boolean required = in.readBoolean();
+            headers.put(name, new OpenApiHeader(description, required, readSchema(in, schemas)));
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+
+    private void writeSchema(DataOutputStream out, OpenApiSchema schema) throws IOException {
+        out.writeBoolean(schema != null);
+        if (schema == null) {
+            return;
+        }
+        writeString(out, schema.ref());
+        writeString(out, schema.type());
+        writeString(out, schema.format());
+        writeString(out, schema.description());
+        out.writeInt(schema.properties() != null ? schema.properties().size() : -1);
+        if (schema.properties() != null) {
+            for (Map.Entry<String, OpenApiSchema> property : schema.properties().entrySet()) {
+                writeString(out, property.getKey());
+                writeSchema(out, property.getValue());
+            }
+        }
+        writeSchema(out, schema.items());
+    }
+
+    private OpenApiSchema readSchema(DataInputStream in, Map<OpenApiSchema, OpenApiSchema> schemas) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String ref = readString(in);
+        String type = readString(in);
+        String format = readString(in);
+        String description = readString(in);
+        int propertyCount = in.readInt();
+        Map<String, OpenApiSchema> properties = null;
+        if (propertyCount >= 0) {
+            Map<String, OpenApiSchema> read = new LinkedHashMap<>();
+            for (int i = 0; i < propertyCount; i++) {
+                String name = readString(in);
+                read.put(name, readSchema(in, schemas));
+            }
+            properties = Collections.unmodifiableMap(read);
+        }
+        OpenApiSchema items = readSchema(in, schemas);
+        return schemas.computeIfAbsent(new OpenApiSchema(ref, type, format, description, properties, items), key -> key);
+    }
+
+    private void writeJson(DataOutputStream out, Object value) throws IOException {
+        writeString(out, value != null ? objectMapper.writeValueAsString(value) : null);
+    }
+
+    private Object readJson(DataInputStream in) throws IOException {
+        String json = readString(in);
+        return json != null ? objectMapper.readValue(json, Object.class) : null;
+    }
+
+    private void writeStringList(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private List<String> readStringList(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.swaggeragent.service.cache;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.service.tool.DynamicToolGeneratorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache persistente de especificações OpenAPI já processadas.
+ * <p>
+ * Para cada arquivo de especificação é gravado, em um diretório local, um snapshot binário
+ * compacto com os endpoints extraídos, a descrição e o JSON Schema de cada ferramenta gerada e
+ * os componentes ({@code components/schemas}) referenciados pelos endpoints.
+ * A chave do snapshot é o hash SHA-256 do conteúdo do arquivo combinado com a versão do
+ * gerador ({@link DynamicToolGeneratorService#GENERATOR_VERSION}) e com o modo e o orçamento
+ * de tokens das descrições ({@code app.tool.description}). Assim, em uma nova
+ * inicialização, arquivos que não mudaram são carregados diretamente do snapshot, sem passar
+ * pelo swagger-parser nem pela geração de descrições e schemas.
+ * <p>
+ * <b>Fluxo:</b>
+ * <ol>
+ *   <li>O {@code OpenApiParserService} calcula a chave do arquivo e tenta {@link #load(String)}.</li>
+ *   <li>Se houver snapshot, os endpoints carregados ficam associados à descrição e ao schema
+ *       pré-computados, consumidos pelo gerador via {@link #takePrecomputed(OpenApiEndpoint)}, e
+ *       os componentes voltam ao cache de schemas resolvidos do parser.</li>
+ *   <li>Caso contrário, o arquivo é analisado normalmente e registrado como pendente
+ *       ({@link #registerPending(String, List)}).</li>
+ *   <li>Após a geração das ferramentas, {@link #persistPending(List, List)} grava os snapshots
+ *       pendentes dos endpoints gerados.</li>
+ * </ol>
+ * Os nomes das ferramentas não são persistidos: eles dependem de colisões entre arquivos
+ * diferentes e seu cálculo é barato.
+ */
+@Service
+public class SpecSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpecSnapshotService.class);
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private final SpecSnapshotCodec codec;
+    private final boolean enabled;
+    private final Path cacheDirectory;
+    private final String descriptionSettings;
+
+    /**
+     * Descrições e schemas carregados de snapshots, aguardando consumo pelo gerador.
+     * Indexado por identidade, pois cada endpoint carregado é uma instância única.
+     */
+    private final Map<OpenApiEndpoint, PrecomputedTool> precomputed = new IdentityHashMap<>();
+
+    /**
+     * Endpoints de arquivos analisados nesta execução cujo snapshot ainda não foi gravado.
+     */
+    private final Map<String, Snapshot> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor que inicializa o serviço com as configurações do cache.
+     *
+     * @param objectMapper   o mapper JSON usado para valores livres (padrões e exemplos).
+     * @param properties     as propriedades da aplicação (formato das descrições das ferramentas).
+     * @param enabled        se o cache de snapshots está habilitado.
+     * @param cacheDirectory o diretório onde os snapshots são gravados.
+     */
+    public SpecSnapshotService(ObjectMapper objectMapper,
+                               SwaggerAgentProperties properties,
+                               @Value("${openapi.specs.snapshot.enabled:true}") boolean enabled,
+                               @Value("${openapi.specs.snapshot.directory:.swagger-agent-cache}") String cacheDirectory) {
+        this.codec = new SpecSnapshotCodec(objectMapper);
+        this.enabled = enabled;
+        this.cacheDirectory = Paths.get(cacheDirectory);
+        SwaggerAgentProperties.Description description = properties.getTool().getDescription();
+        this.descriptionSettings = description.getMode() + ":" + description.effectiveMaxTokens();
+    }
+
+    /**
+     * Indica se o cache de snapshots está habilitado.
+     *
+     * @return {@code true} se os snapshots devem ser lidos e gravados.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Calcula a chave do snapshot de um arquivo de especificação.
+     * <p>
+     * O arquivo é lido em blocos, sem ser carregado inteiro na memória: especificações muito
+     * grandes são analisadas em streaming justamente para evitar isso.
+     *
+     * @param file o arquivo de especificação.
+     * @return o hash hexadecimal do conteúdo combinado com a versão e a configuração do gerador.
+     * @throws IOException se o arquivo não puder ser lido.
+     */
+    public String keyFor(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        digest.update(("\0" + DynamicToolGeneratorService.GENERATOR_VERSION + "\0" + descriptionSettings)
+                .getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Carrega o snapshot associado a uma chave, se existir.
+     * <p>
+     * Os endpoints carregados ficam registrados com sua descrição e schema pré-computados.
+     * Snapshots corrompidos ou de formato incompatível são ignorados (e removidos).
+     *
+     * @param key a chave calculada por {@link #keyFor(Path)}.
+     * @return os endpoints e os componentes do snapshot, ou vazio se não houver snapshot válido.
+     */
+    public Optional<Snapshot> load(String key) {
+        Path file = snapshotFile(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            SpecSnapshotCodec.Content content = codec.read(in);
+            List<OpenApiEndpoint> endpoints = new ArrayList<>(content.entries().size());
+            synchronized (precomputed) {
+                for (SnapshotEntry entry : content.entries()) {
+                    precomputed.put(entry.endpoint(), new PrecomputedTool(entry.description(), entry.jsonSchema()));
+                    endpoints.add(entry.endpoint());
+                }
+            }
+            return Optional.of(new Snapshot(endpoints, content.components()));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot inválido será descartado: {} ({})", file.getFileName(), e.getMessage());
+            deleteQuietly(file);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Registra os endpoints de um arquivo recém-analisado para que seu snapshot seja gravado
+     * após a geração das ferramentas.
+     *
+     * @param key        a chave do arquivo.
+     * @param endpoints  os endpoints extraídos do arquivo.
+     * @param components os componentes referenciados pelos endpoints, pelo nome.
+     */
+    public void registerPending(String key, List<OpenApiEndpoint> endpoints, Map<String, OpenApiSchema> components) {
+        if (enabled && !endpoints.isEmpty()) {
+            pending.put(key, new Snapshot(endpoints, components));
+        }
+    }
+
+    /**
+     * Retorna (e remove) a descrição e o schema pré-computados de um endpoint carregado de snapshot.
+     *
+     * @param endpoint o endpoint a ser consultado.
+     * @return os artefatos pré-computados, ou {@code null} se o endpoint não veio de um snapshot.
+     */
+    public PrecomputedTool takePrecomputed(OpenApiEndpoint endpoint) {
+        synchronized (precomputed) {
+            return precomputed.remove(endpoint);
+        }
+    }
+
+    /**
+     * Grava os snapshots pendentes dos endpoints de uma geração de ferramentas e libera os
+     * artefatos pré-computados que sobraram dessa geração.
+     * <p>
+     * Cada snapshot pendente cujos endpoints fazem parte da geração é avaliado uma única vez: é
+     * gravado se todos os seus endpoints resultaram em ferramentas; caso contrário é descartado
+     * (o arquivo será analisado novamente na próxima carga). Os pendentes de outros arquivos
+     * continuam aguardando a própria geração.
+     *
+     * @param endpoints os endpoints usados na geração.
+     * @param tools     as ferramentas geradas a partir desses endpoints.
+     */
+    public void persistPending(List<OpenApiEndpoint> endpoints, List<DynamicTool> tools) {
+        if (!enabled) {
+            return;
+        }
+        Set<OpenApiEndpoint> generated = Collections.newSetFromMap(new IdentityHashMap<>());
+        generated.addAll(endpoints);
+        synchronized (precomputed) {
+            // Endpoints de snapshot cuja ferramenta falhou nunca chegam a takePrecomputed.
+            endpoints.forEach(precomputed::remove);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<OpenApiEndpoint, DynamicTool> toolsByEndpoint = new IdentityHashMap<>();
+        tools.forEach(tool -> toolsByEndpoint.put(tool.getEndpoint(), tool));
+
+        for (String key : List.copyOf(pending.keySet())) {
+            Snapshot snapshot = pending.get(key);
+            if (snapshot == null || !generated.contains(snapshot.endpoints().get(0)) || !pending.remove(key, snapshot)) {
+                continue;
+            }
+            if (!toolsByEndpoint.keySet().containsAll(snapshot.endpoints())) {
+                log.warn("Snapshot {} descartado: nem todos os {} endpoints do arquivo geraram ferramentas",
+                        key, snapshot.endpoints().size());
+                continue;
+            }
+            List<SnapshotEntry> entries = snapshot.endpoints().stream()
+                    .map(endpoint -> {
+                        DynamicTool tool = toolsByEndpoint.get(endpoint);
+                        return new SnapshotEntry(endpoint, tool.getDescription(), tool.getJsonSchema());
+                    })
+                    .toList();
+            write(key, entries, snapshot.components());
+        }
+    }
+
+    /**
+     * Remove do diretório de cache os snapshots que não correspondem a nenhum arquivo atual.
+     *
+     * @param activeKeys as chaves dos arquivos presentes no diretório de especificações.
+     */
+    public void retainOnly(Collection<String> activeKeys) {
+        if (!enabled || !Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+        Set<String> keep = Set.copyOf(activeKeys);
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_EXTENSION))
+                    .filter(file -> !keep.contains(file.getFileName().toString().replace(SNAPSHOT_EXTENSION, "")))
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Não foi possível limpar o diretório de snapshots: {}", cacheDirectory.toAbsolutePath(), e);
+        }
+    }
+
+    private void write(String key, List<SnapshotEntry> entries, Map<String, OpenApiSchema> components) {
+        Path file = snapshotFile(key);
+        try {
+            Files.createDirectories(cacheDirectory);
+            Path temp = Files.createTempFile(cacheDirectory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                codec.write(out, entries, components);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Snapshot gravado: {} ({} endpoints)", file.getFileName(), entries.size());
+        } catch (IOException e) {
+            log.warn("Falha ao gravar o snapshot {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    private Path snapshotFile(String key) {
+        return cacheDirectory.resolve(key + SNAPSHOT_EXTENSION);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Não foi possível remover {}", file, e);
+        }
+    }
+
+    /**
+     * Descrição e JSON Schema de uma ferramenta, já renderizados.
+     *
+     * @param description a descrição da ferramenta.
+     * @param jsonSchema  o JSON Schema dos parâmetros da ferramenta.
+     */
+    public record PrecomputedTool(String description, String jsonSchema) {
+    }
+
+    /**
+     * Conteúdo de um snapshot usado pelo parser.
+     *
+     * @param endpoints  os endpoints do arquivo.
+     * @param components os componentes referenciados pelos endpoints, pelo nome.
+     */
+    public record Snapshot(List<OpenApiEndpoint> endpoints, Map<String, OpenApiSchema> components) {
+    }
+
+    /**
+     * Entrada de um snapshot: um endpoint e os artefatos gerados para ele.
+     *
+     * @param endpoint    o endpoint extraído da especificação.
+     * @param description a descrição da ferramenta gerada.
+     * @param jsonSchema  o JSON Schema da ferramenta gerada.
+     */
+    record SnapshotEntry(OpenApiEndpoint endpoint, String description, String jsonSchema) {
+    }
+}
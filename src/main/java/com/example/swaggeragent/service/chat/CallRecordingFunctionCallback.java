@@ -0,0 +1,69 @@
+package com.example.swaggeragent.service.chat;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.model.function.FunctionCallback;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * {@link FunctionCallback} que anota o nome da ferramenta em um conjunto antes de delegar a
+ * chamada, permitindo saber quais ferramentas o modelo usou em uma mensagem.
+ * <p>
+ * Para as ferramentas extras (lote e planos), são anotadas as ferramentas citadas na entrada.
+ */
+final class CallRecordingFunctionCallback implements FunctionCallback {
+
+    private final FunctionCallback delegate;
+    private final Set<String> calledTools;
+    private final Function<String, Collection<String>> namesOf;
+
+    /**
+     * @param delegate    o callback original da ferramenta.
+     * @param calledTools o conjunto (thread-safe) que recebe os nomes das ferramentas chamadas.
+     */
+    CallRecordingFunctionCallback(FunctionCallback delegate, Set<String> calledTools) {
+        this(delegate, calledTools, input -> List.of(delegate.getName()));
+    }
+
+    /**
+     * @param delegate    o callback original da ferramenta.
+     * @param calledTools o conjunto (thread-safe) que recebe os nomes das ferramentas chamadas.
+     * @param namesOf     extrai da entrada os nomes das ferramentas chamadas.
+     */
+    CallRecordingFunctionCallback(FunctionCallback delegate, Set<String> calledTools,
+                                  Function<String, Collection<String>> namesOf) {
+        this.delegate = delegate;
+        this.calledTools = calledTools;
+        this.namesOf = namesOf;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public String getInputTypeSchema() {
+        return delegate.getInputTypeSchema();
+    }
+
+    @Override
+    public String call(String functionInput) {
+        calledTools.addAll(namesOf.apply(functionInput));
+        return delegate.call(functionInput);
+    }
+
+    @Override
+    public String call(String functionInput, ToolContext toolContext) {
+        calledTools.addAll(namesOf.apply(functionInput));
+        return delegate.call(functionInput, toolContext);
+    }
+}
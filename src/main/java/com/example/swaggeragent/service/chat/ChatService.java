@@ -8,19 +8,38 @@ import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.memory.InMemoryChatMemory;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import com.example.swaggeragent.dto.ChatResponse;
 import com.example.swaggeragent.model.domain.DynamicTool;
-import com.example.swaggeragent.model.OpenApiEndpoint;
-import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.example.swaggeragent.model.domain.ToolRegistry;
+import com.example.swaggeragent.service.registry.ToolRegistryChangedEvent;
+import com.example.swaggeragent.service.registry.ToolRegistryService;
+import com.example.swaggeragent.service.retrieval.ToolRetrievalService;
+import com.example.swaggeragent.service.retrieval.ToolRetrievalService.ToolSelection;
 import com.example.swaggeragent.service.tool.DynamicToolGeneratorService;
+import com.example.swaggeragent.service.tool.RequestDeadline;
 import com.example.swaggeragent.service.SystemPromptService;
 import com.example.swaggeragent.service.audit.AuditService;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Serviço central que orquestra toda a lógica de chat e o gerenciamento de ferramentas (tools).
@@ -28,7 +47,7 @@ import java.util.List;
  * Responsabilidades principais:
  * <ul>
  *   <li>Inicializar e configurar o cliente de chat ({@link ChatClient}) com as ferramentas dinâmicas.</li>
- *   <li>Carregar, analisar e converter especificações OpenAPI em ferramentas executáveis.</li>
+ *   <li>Carregar as ferramentas executáveis e reagir a novas versões do registro de ferramentas.</li>
  *   <li>Gerenciar o ciclo de vida das conversas, incluindo a memória de chat por sessão.</li>
  *   <li>Processar requisições de chat síncronas e assíncronas (streaming SSE).</li>
  *   <li>Fornecer acesso às ferramentas atualmente carregadas.</li>
@@ -52,44 +71,52 @@ public class ChatService {
 
     // Dependências injetadas para o funcionamento do serviço.
     private final ChatModel chatModel;
-    private final OpenApiParserService openApiParserService;
+    private final ToolRegistryService toolRegistryService;
     private final DynamicToolGeneratorService dynamicToolGeneratorService;
     private final SystemPromptService systemPromptService;
     private final ChatMemoryService chatMemoryService;
     private final AuditService auditService;
+    private final ToolRetrievalService toolRetrievalService;
+    private final ParallelToolCallingLoop parallelToolCallingLoop;
 
     /**
-     * O cliente de chat configurado para interagir com o modelo de linguagem.
-     */
-    private ChatClient chatClient;
-    /**
-     * A lista de ferramentas dinâmicas que foram geradas a partir das especificações OpenAPI.
+     * O registro de ferramentas em uso e o cliente de chat configurado com ele.
+     * <p>
+     * Os dois são trocados juntos, de forma atômica, quando uma nova versão do registro é
+     * publicada. Cada requisição lê a referência uma única vez, garantindo uma visão
+     * consistente das ferramentas durante toda a conversa.
      */
-    private List<DynamicTool> availableTools;
+    private final AtomicReference<ChatState> state = new AtomicReference<>();
 
     /**
      * Construtor para injeção de todas as dependências necessárias.
      *
      * @param chatModel                  o modelo de chat (OpenAI ou Ollama).
-     * @param openApiParserService       o serviço para analisar arquivos OpenAPI.
-     * @param dynamicToolGeneratorService o serviço para criar ferramentas dinâmicas.
+     * @param toolRegistryService        o serviço que mantém o registro de ferramentas.
+     * @param dynamicToolGeneratorService o serviço para converter ferramentas em callbacks.
      * @param systemPromptService        o serviço para gerar o prompt de sistema.
      * @param chatMemoryService          o serviço para gerenciar memória de chat.
      * @param auditService               o serviço de auditoria.
+     * @param toolRetrievalService       o serviço que seleciona as ferramentas relevantes de cada mensagem.
+     * @param parallelToolCallingLoop    o laço que executa em paralelo as ferramentas de um turno.
      */
     public ChatService(
             ChatModel chatModel,
-            OpenApiParserService openApiParserService,
+            ToolRegistryService toolRegistryService,
             DynamicToolGeneratorService dynamicToolGeneratorService,
             SystemPromptService systemPromptService,
             ChatMemoryService chatMemoryService,
-            AuditService auditService) {
+            AuditService auditService,
+            ToolRetrievalService toolRetrievalService,
+            ParallelToolCallingLoop parallelToolCallingLoop) {
         this.chatModel = chatModel;
-        this.openApiParserService = openApiParserService;
+        this.toolRegistryService = toolRegistryService;
         this.dynamicToolGeneratorService = dynamicToolGeneratorService;
         this.systemPromptService = systemPromptService;
         this.chatMemoryService = chatMemoryService;
         this.auditService = auditService;
+        this.toolRetrievalService = toolRetrievalService;
+        this.parallelToolCallingLoop = parallelToolCallingLoop;
     }
 
     /**
@@ -108,15 +135,14 @@ public class ChatService {
         try {
             log.info("🚀 Inicializando Swagger Agent");
 
-            List<OpenApiEndpoint> endpoints = openApiParserService.parseAllOpenApiFiles();
-            availableTools = dynamicToolGeneratorService.generateToolsFromEndpoints(endpoints);
+            ToolRegistry registry = toolRegistryService.loadAll();
 
             log.info("🤖 Configurando Agente IA");
-            initializeChatClient();
+            state.set(createChatState(registry));
 
             log.info("✅ Inicialização concluída");
-            log.info("🎯 Total de ferramentas: {}", availableTools.size());
-            log.info("🌐 Endpoints disponíveis: {}", endpoints.size());
+            log.info("🎯 Total de ferramentas: {}", registry.tools().size());
+            log.info("📄 Arquivos de especificação: {}", registry.toolsBySource().size());
 
         } catch (Exception e) {
             log.error("❌ Erro crítico durante a inicialização do Swagger Agent", e);
@@ -125,22 +151,57 @@ public class ChatService {
     }
 
     /**
-     * Configura e constrói a instância do {@link ChatClient}.
+     * Reage à publicação de uma nova versão do registro de ferramentas (por exemplo, após a
+     * alteração de um arquivo de especificação), reconstruindo o cliente de chat.
+     * <p>
+     * Conversas já em andamento continuam usando o cliente e as ferramentas da versão anterior.
+     *
+     * @param event o evento com a nova versão do registro.
      */
-    private void initializeChatClient() {
-        String systemPrompt = systemPromptService.generateSystemPrompt();
-        
-        List<FunctionCallback> functionCallbacks = dynamicToolGeneratorService.convertToFunctionCallbacks(availableTools);
+    @EventListener
+    public void onToolRegistryChanged(ToolRegistryChangedEvent event) {
+        ToolRegistry registry = event.current();
+        ChatState current = state.get();
+        if (current != null && current.registry().version() >= registry.version()) {
+            return;
+        }
+        state.set(createChatState(registry));
+        log.info("🔁 ChatClient atualizado para a versão {} do registro ({} ferramentas)",
+                registry.version(), registry.tools().size());
+    }
+
+    /**
+     * Converte as ferramentas de um registro em callbacks e configura o cliente de chat.
+     *
+     * @param registry o registro de ferramentas.
+     * @return o estado de chat para o registro.
+     */
+    private ChatState createChatState(ToolRegistry registry) {
+        List<FunctionCallback> functionCallbacks = dynamicToolGeneratorService.convertToFunctionCallbacks(registry.tools());
         log.info("🔧 {} function callbacks registradas", functionCallbacks.size());
 
-        ChatClient.Builder builder = ChatClient.builder(chatModel).defaultSystem(systemPrompt);
+        Map<String, FunctionCallback> callbacksByName = new LinkedHashMap<>();
+        functionCallbacks.forEach(callback -> callbacksByName.put(callback.getName(), callback));
+        String systemPrompt = systemPromptService.generateSystemPrompt();
+        return new ChatState(registry, initializeChatClient(systemPrompt), Collections.unmodifiableMap(callbacksByName), systemPrompt);
+    }
 
-        if (!functionCallbacks.isEmpty()) {
-            builder.defaultFunctions(functionCallbacks.toArray(new FunctionCallback[0]));
+    /**
+     * Configura e constrói a instância do {@link ChatClient}.
+     * <p>
+     * Nenhuma função é registrada como padrão: cada requisição registra as suas ferramentas
+     * ({@link #selectTools}), já associadas ao prazo da mensagem.
+     *
+     * @param systemPrompt o prompt de sistema.
+     * @return o cliente de chat configurado.
+     */
+    private ChatClient initializeChatClient(String systemPrompt) {
+        if (toolRetrievalService.isEnabled()) {
+            log.info("🔎 Seleção de ferramentas por mensagem habilitada");
         }
-
-        chatClient = builder.build();
+        ChatClient chatClient = ChatClient.builder(chatModel).defaultSystem(systemPrompt).build();
         log.info("✅ ChatClient configurado e pronto");
+        return chatClient;
     }
 
     /**
@@ -163,25 +224,52 @@ public class ChatService {
      * @return um {@link ChatResponse} contendo a resposta do assistente.
      */
     public ChatResponse processChatMessage(String message, String sessionId) {
+        return processChatMessage(message, sessionId, null);
+    }
+
+    /**
+     * Processa uma mensagem de chat de forma síncrona, dentro de um prazo.
+     * <p>
+     * O prazo é repassado a todas as chamadas de ferramentas da mensagem, que usam apenas o tempo
+     * que resta. Se ele acabar antes da resposta do modelo, o usuário recebe uma resposta parcial,
+     * com os resultados das ferramentas já concluídas, em vez de um erro de timeout.
+     *
+     * @param message   a mensagem enviada pelo usuário.
+     * @param sessionId o ID da sessão para rastrear o histórico da conversa.
+     * @param deadline  o prazo da mensagem ({@code null} = sem prazo).
+     * @return um {@link ChatResponse} contendo a resposta do assistente.
+     */
+    public ChatResponse processChatMessage(String message, String sessionId, RequestDeadline deadline) {
         validateChatRequest(message, sessionId);
         
         final String role = "assistant";
         Instant startTime = Instant.now();
 
-        if (chatClient == null) {
+        ChatState current = state.get();
+        if (current == null) {
             log.warn("Tentativa de chat com cliente não inicializado para a sessão: {}", sessionId);
             throw new RuntimeException("O serviço de chat não foi inicializado corretamente");
         }
 
         try {
-            InMemoryChatMemory chatMemory = chatMemoryService.getOrCreate(sessionId);
+            TurnChatMemory chatMemory = new TurnChatMemory(chatMemoryService.getOrCreate(sessionId));
+            ToolTurn turn = selectTools(current, sessionId, message, deadline);
 
-            // Envia a mensagem do usuário para o modelo, usando um advisor para gerenciar a memória.
-            String response = chatClient.prompt()
-                    .advisors(new MessageChatMemoryAdvisor(chatMemory))
-                    .user(message)
-                    .call()
-                    .content();
+            String response;
+            if (parallelToolCallingLoop.isEnabled()) {
+                // Laço próprio: as ferramentas pedidas em uma mesma resposta do modelo rodam em paralelo.
+                response = callWithDeadline(deadline, chatMemory, message, () ->
+                        parallelToolCallingLoop.call(current.systemPrompt(), chatMemory, message, turn.callbacks(), deadline,
+                                turn::requested));
+            } else {
+                // Envia a mensagem do usuário para o modelo, usando um advisor para gerenciar a memória.
+                response = callWithDeadline(deadline, chatMemory, message, () -> turn.apply(current.chatClient().prompt()
+                                .advisors(new MessageChatMemoryAdvisor(chatMemory))
+                                .user(message))
+                        .call()
+                        .content());
+            }
+            completeTurn(turn);
 
             long durationMs = java.time.Duration.between(startTime, Instant.now()).toMillis();
             
@@ -199,6 +287,68 @@ public class ChatService {
         }
     }
 
+    /**
+     * Executa a chamada síncrona ao modelo dentro do prazo da mensagem.
+     * <p>
+     * A chamada roda sempre na própria thread da requisição, com o prazo associado (as ferramentas
+     * são chamadas pelo Spring AI nessa mesma thread). Ela não usa o executor das ferramentas: ali
+     * ela ocuparia uma vaga enquanto espera as próprias ferramentas, que ficariam na fila atrás de
+     * chamadas como ela. Se o prazo acabar, um timer:
+     * <ul>
+     *   <li>grava a resposta parcial na memória da sessão, que passa a ignorar as gravações da
+     *       chamada abandonada (a resposta que o modelo terminaria depois nunca chega ao usuário);</li>
+     *   <li>interrompe a thread da requisição, o que cancela a requisição HTTP ao modelo
+     *       ({@code AiProviderConfig#interruptibleModelCalls}) ou a espera pelas ferramentas.</li>
+     * </ul>
+     * A chamada interrompida termina (com erro ou com a resposta tardia) e o usuário recebe a
+     * resposta parcial.
+     *
+     * @param deadline o prazo da mensagem (pode ser {@code null}).
+     * @param memory   a memória da sessão usada pela chamada.
+     * @param message  a mensagem do usuário.
+     * @param call     a chamada ao modelo.
+     * @return a resposta do modelo ou a resposta parcial.
+     */
+    private String callWithDeadline(RequestDeadline deadline, TurnChatMemory memory, String message, Supplier<String> call) {
+        if (deadline == null) {
+            return call.get();
+        }
+        Thread caller = Thread.currentThread();
+        // A resposta parcial, depois que o prazo acaba; o lock evita que a interrupção chegue
+        // depois de a chamada ter terminado.
+        AtomicReference<String> partial = new AtomicReference<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Disposable timer = Schedulers.parallel().schedule(() -> {
+            synchronized (running) {
+                if (!running.get()) {
+                    return;
+                }
+                log.warn("⏱️ Prazo de {} s esgotado; devolvendo resposta parcial", deadline.budget().toSeconds());
+                String answer = PartialAnswer.of(deadline);
+                memory.abandon(message, answer);
+                partial.set(answer);
+                caller.interrupt();
+            }
+        }, deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        String response = null;
+        try {
+            response = RequestDeadline.callWithin(deadline, call);
+        } catch (RuntimeException e) {
+            if (partial.get() == null) {
+                throw e;
+            }
+            log.debug("Chamada abandonada pelo prazo terminou com erro: {}", e.getMessage());
+        } finally {
+            timer.dispose();
+            synchronized (running) {
+                running.set(false);
+                // Limpa uma interrupção do timer que a chamada não tenha consumido.
+                Thread.interrupted();
+            }
+        }
+        return partial.get() != null ? partial.get() : response;
+    }
+
     /**
      * Processa uma mensagem de chat de forma assíncrona, utilizando streaming (Server-Sent Events).
      * <p>
@@ -219,23 +369,42 @@ public class ChatService {
      * @return um {@link Flux} de Strings, onde cada string é um evento SSE.
      */
     public Flux<String> streamChatResponse(String message, String sessionId) {
+        return streamChatResponse(message, sessionId, null);
+    }
+
+    /**
+     * Processa uma mensagem de chat em streaming, dentro de um prazo.
+     * <p>
+     * Quando o prazo acaba, o streaming do modelo é cancelado e o último evento avisa que a
+     * resposta ficou incompleta.
+     *
+     * @param message   a mensagem enviada pelo usuário.
+     * @param sessionId o ID da sessão para rastrear o histórico da conversa.
+     * @param deadline  o prazo da mensagem ({@code null} = sem prazo).
+     * @return um {@link Flux} de Strings, onde cada string é um evento SSE.
+     */
+    public Flux<String> streamChatResponse(String message, String sessionId, RequestDeadline deadline) {
         validateChatRequest(message, sessionId);
         
-        if (chatClient == null) {
+        ChatState current = state.get();
+        if (current == null) {
             log.warn("Tentativa de chat stream com cliente não inicializado para a sessão: {}", sessionId);
             return Flux.just("data: Erro: O serviço de chat não foi inicializado corretamente. Verifique os logs do servidor.\\n\\n");
         }
 
         try {
             InMemoryChatMemory chatMemory = chatMemoryService.getOrCreate(sessionId);
+            ToolTurn turn = selectTools(current, sessionId, message, deadline);
 
-            return chatClient.prompt()
-                    .advisors(new MessageChatMemoryAdvisor(chatMemory))
-                    .user(message)
+            Flux<String> chunks = turn.apply(current.chatClient().prompt()
+                            .advisors(new MessageChatMemoryAdvisor(chatMemory))
+                            .user(message))
                     .stream()
                     .content()
-                    .map(chunk -> "data: " + chunk + "\\n\\n")
+                    .map(chunk -> "data: " + chunk + "\\n\\n");
+            return withinDeadline(chunks, deadline)
                     .doOnComplete(() -> {
+                        completeTurn(turn);
                         auditService.logChatInteraction(sessionId, message, "[STREAMING_COMPLETED]", 0);
                     })
                     .onErrorResume(e -> {
@@ -251,6 +420,83 @@ public class ChatService {
         }
     }
 
+    /**
+     * Interrompe o streaming quando o prazo da mensagem acaba, terminando com um aviso.
+     *
+     * @param chunks   os eventos do streaming.
+     * @param deadline o prazo da mensagem (pode ser {@code null}).
+     * @return os eventos até o fim do prazo.
+     */
+    private Flux<String> withinDeadline(Flux<String> chunks, RequestDeadline deadline) {
+        if (deadline == null) {
+            return chunks;
+        }
+        AtomicBoolean expired = new AtomicBoolean();
+        return chunks
+                .takeUntilOther(Mono.delay(deadline.remaining()).doOnNext(tick -> expired.set(true)))
+                .concatWith(Flux.defer(() -> expired.get()
+                        ? Flux.just("data: " + PartialAnswer.notice(deadline) + "\\n\\n")
+                        : Flux.empty()));
+    }
+
+    /**
+     * Seleciona as ferramentas a registrar para uma mensagem. Com a seleção desabilitada, todas as
+     * ferramentas do registro são registradas.
+     * <p>
+     * Com prazo, cada callback é associado a ele: no streaming as ferramentas rodam em threads do
+     * executor das ferramentas, sem o prazo da requisição, e sem essa associação as chamadas às APIs
+     * não seriam limitadas ao tempo restante nem entrariam na resposta parcial.
+     *
+     * @param current   o estado de chat usado pela requisição.
+     * @param sessionId o ID da sessão.
+     * @param message   a mensagem do usuário.
+     * @param deadline  o prazo da mensagem (pode ser {@code null}).
+     * @return as ferramentas do turno.
+     */
+    private ToolTurn selectTools(ChatState current, String sessionId, String message, RequestDeadline deadline) {
+        if (!toolRetrievalService.isEnabled()) {
+            List<FunctionCallback> callbacks = current.callbacksByName().values().stream()
+                    .map(callback -> withDeadline(callback, deadline))
+                    .toList();
+            return new ToolTurn(sessionId, null, callbacks, Set.of());
+        }
+        ToolSelection selection = toolRetrievalService.select(current.registry(), sessionId, message);
+        Set<String> calledTools = ConcurrentHashMap.newKeySet();
+        // As ferramentas extras (ex: lote) não passam pela seleção: são registradas em toda mensagem
+        // e contam, como acerto ou erro do índice, as ferramentas citadas na entrada.
+        List<FunctionCallback> callbacks = Stream.concat(
+                        selection.tools().stream()
+                                .map(tool -> current.callbacksByName().get(tool.getName()))
+                                .filter(Objects::nonNull)
+                                .<FunctionCallback>map(callback -> new CallRecordingFunctionCallback(callback, calledTools)),
+                        DynamicToolGeneratorService.META_TOOL_NAMES.stream()
+                                .map(current.callbacksByName()::get)
+                                .filter(Objects::nonNull)
+                                .<FunctionCallback>map(callback -> new CallRecordingFunctionCallback(callback, calledTools,
+                                        input -> dynamicToolGeneratorService.innerToolNames(callback.getName(), input))))
+                .map(callback -> withDeadline(callback, deadline))
+                .toList();
+        return new ToolTurn(sessionId, selection, callbacks, calledTools);
+    }
+
+    /**
+     * Associa o prazo da mensagem a um callback, se houver prazo.
+     */
+    private static FunctionCallback withDeadline(FunctionCallback callback, RequestDeadline deadline) {
+        return deadline != null ? new DeadlineBoundFunctionCallback(callback, deadline) : callback;
+    }
+
+    /**
+     * Informa ao serviço de seleção quais ferramentas o modelo chamou na mensagem.
+     *
+     * @param turn as ferramentas do turno.
+     */
+    private void completeTurn(ToolTurn turn) {
+        if (turn.selection() != null) {
+            toolRetrievalService.recordCalls(turn.sessionId(), turn.selection(), turn.calledTools());
+        }
+    }
+
     /**
      * Valida os parâmetros de entrada para requisições de chat.
      * <p>
@@ -274,6 +520,45 @@ public class ChatService {
      * @return a lista de ferramentas dinâmicas.
      */
     public List<DynamicTool> getAvailableTools() {
-        return availableTools;
+        ChatState current = state.get();
+        return current != null ? current.registry().tools() : List.of();
+    }
+
+    /**
+     * Estado imutável formado por uma versão do registro de ferramentas, o cliente de chat
+     * configurado com ela, os callbacks das ferramentas indexados por nome e o prompt de sistema.
+     *
+     * @param registry        a versão do registro de ferramentas.
+     * @param chatClient      o cliente de chat configurado para esse registro.
+     * @param callbacksByName os callbacks das ferramentas do registro, por nome, na ordem do registro.
+     * @param systemPrompt    o prompt de sistema usado pelo cliente de chat.
+     */
+    private record ChatState(ToolRegistry registry, ChatClient chatClient, Map<String, FunctionCallback> callbacksByName,
+                             String systemPrompt) {
+    }
+
+    /**
+     * Ferramentas registradas para uma única mensagem e as que o modelo chamou.
+     *
+     * @param sessionId   o ID da sessão.
+     * @param selection   a seleção feita pelo índice, ou {@code null} se a seleção estiver desabilitada.
+     * @param callbacks   os callbacks a registrar na requisição.
+     * @param calledTools os nomes das ferramentas chamadas ou pedidas pelo modelo durante a mensagem,
+     *                    inclusive as citadas na entrada das ferramentas extras.
+     */
+    private record ToolTurn(String sessionId, ToolSelection selection, List<FunctionCallback> callbacks, Set<String> calledTools) {
+
+        ChatClient.ChatClientRequestSpec apply(ChatClient.ChatClientRequestSpec request) {
+            return callbacks.isEmpty() ? request : request.functions(callbacks.toArray(new FunctionCallback[0]));
+        }
+
+        /**
+         * Anota uma ferramenta pedida pelo modelo que não estava registrada na mensagem.
+         */
+        void requested(String name) {
+            if (selection != null) {
+                calledTools.add(name);
+            }
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.swaggeragent.service.chat;
+
+import com.example.swaggeragent.service.tool.RequestDeadline;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.model.function.FunctionCallback;
+
+/**
+ * {@link FunctionCallback} que associa o prazo da mensagem à thread que executa a ferramenta.
+ * <p>
+ * No modo streaming, o Spring AI chama as ferramentas em threads do Reactor, diferentes da thread
+ * da requisição; o prazo só chega à chamada da API se for associado na própria chamada.
+ */
+final class DeadlineBoundFunctionCallback implements FunctionCallback {
+
+    private final FunctionCallback delegate;
+    private final RequestDeadline deadline;
+
+    /**
+     * @param delegate o callback original da ferramenta.
+     * @param deadline o prazo da mensagem.
+     */
+    DeadlineBoundFunctionCallback(FunctionCallback delegate, RequestDeadline deadline) {
+        this.delegate = delegate;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public String getInputTypeSchema() {
+        return delegate.getInputTypeSchema();
+    }
+
+    @Override
+    public String call(String functionInput) {
+        return RequestDeadline.callWithin(deadline, () -> delegate.call(functionInput));
+    }
+
+    @Override
+    public String call(String functionInput, ToolContext toolContext) {
+        return RequestDeadline.callWithin(deadline, () -> delegate.call(functionInput, toolContext));
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.swaggeragent.service.chat;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.example.swaggeragent.service.tool.RequestDeadline;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallingOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.DEFAULT_CHAT_MEMORY_CONVERSATION_ID;
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.DEFAULT_CHAT_MEMORY_RESPONSE_SIZE;
+
+/**
+ * Laço de chamadas de ferramentas que executa em paralelo as chamadas de um mesmo turno do modelo.
+ * <p>
+ * No laço padrão do Spring AI, quando o modelo pede várias ferramentas em uma única resposta, elas
+ * são executadas uma após a outra. Aqui o modelo é chamado com {@code proxyToolCalls}: o Spring AI
+ * devolve as chamadas pedidas sem executá-las, e elas são executadas ao mesmo tempo no executor das
+ * ferramentas ({@code toolCallScheduler}), até {@code app.tool.parallel.max-concurrency} de cada vez.
+ * Os resultados voltam ao modelo na ordem original. Assim, um turno que consulta cinco APIs leva o tempo da mais lenta, não a soma.
+ * <p>
+ * As chamadas de um turno têm um prazo comum ({@code app.tool.parallel.turn-timeout}, ou o que resta
+ * do prazo da mensagem, se for menor); a que não terminar a tempo é devolvida ao modelo como erro
+ * 504, sem atrasar as demais. Se o prazo da mensagem acabar entre duas rodadas, o laço para e
+ * devolve uma resposta parcial com os resultados já obtidos.
+ * <p>
+ * A memória da sessão recebe a mensagem do usuário e a resposta final, como no
+ * {@link org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor} usado no chat padrão.
+ */
+@Component
+public class ParallelToolCallingLoop {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelToolCallingLoop.class);
+
+    private final ChatModel chatModel;
+    private final ObjectMapper objectMapper;
+    private final SwaggerAgentProperties.Parallel settings;
+    private final Scheduler scheduler;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param chatModel    o modelo de chat.
+     * @param objectMapper o serializador JSON das respostas de erro das ferramentas.
+     * @param properties        as propriedades da aplicação ({@code app.tool.parallel}).
+     * @param toolCallScheduler o executor das funções das ferramentas.
+     */
+    public ParallelToolCallingLoop(ChatModel chatModel, ObjectMapper objectMapper, SwaggerAgentProperties properties,
+                                   Scheduler toolCallScheduler) {
+        this.chatModel = chatModel;
+        this.objectMapper = objectMapper;
+        this.settings = properties.getTool().getParallel();
+        this.scheduler = toolCallScheduler;
+    }
+
+    /**
+     * Indica se o laço próprio está habilitado ({@code app.tool.parallel.enabled}).
+     *
+     * @return {@code true} se o chat síncrono deve usar este laço.
+     */
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Envia uma mensagem ao modelo e executa as ferramentas pedidas até a resposta final.
+     *
+     * @param systemPrompt o prompt de sistema.
+     * @param chatMemory   a memória da sessão.
+     * @param message      a mensagem do usuário.
+     * @param callbacks    as ferramentas disponíveis na mensagem.
+     * @param deadline     o prazo da mensagem (pode ser {@code null}).
+     * @param unknownTools recebe o nome de cada ferramenta pedida pelo modelo que não está entre as disponíveis.
+     * @return o texto da resposta final do modelo.
+     */
+    public String call(String systemPrompt, ChatMemory chatMemory, String message, List<FunctionCallback> callbacks,
+                       RequestDeadline deadline, Consumer<String> unknownTools) {
+        UserMessage userMessage = new UserMessage(message);
+        List<Message> messages = new ArrayList<>();
+        messages.add(new SystemMessage(systemPrompt));
+        messages.addAll(chatMemory.get(DEFAULT_CHAT_MEMORY_CONVERSATION_ID, DEFAULT_CHAT_MEMORY_RESPONSE_SIZE));
+        messages.add(userMessage);
+
+        FunctionCallingOptions options = FunctionCallingOptions.builder()
+                .withFunctionCallbacks(callbacks)
+                .withProxyToolCalls(true)
+                .build();
+        Map<String, FunctionCallback> callbacksByName = callbacks.stream()
+                .collect(Collectors.toMap(FunctionCallback::getName, Function.identity(), (first, second) -> first));
+
+        AssistantMessage output = null;
+        for (int round = 0; round <= settings.getMaxRounds(); round++) {
+            if (deadline != null && deadline.remaining().isZero()) {
+                log.warn("⏱️ Prazo da mensagem esgotado após {} rodadas de ferramentas", round);
+                output = new AssistantMessage(PartialAnswer.of(deadline));
+                break;
+            }
+            ChatResponse response = chatModel.call(new Prompt(messages, options));
+            output = response.getResult().getOutput();
+            List<AssistantMessage.ToolCall> toolCalls = output.getToolCalls();
+            if (toolCalls == null || toolCalls.isEmpty()) {
+                break;
+            }
+            if (round == settings.getMaxRounds()) {
+                log.warn("⚠️ Limite de {} rodadas de ferramentas atingido", settings.getMaxRounds());
+                break;
+            }
+            messages.add(output);
+            messages.add(new ToolResponseMessage(executeToolCalls(toolCalls, callbacksByName, deadline, unknownTools)));
+        }
+
+        String content = output != null ? output.getContent() : null;
+        chatMemory.add(DEFAULT_CHAT_MEMORY_CONVERSATION_ID, List.of(userMessage, new AssistantMessage(content != null ? content : "")));
+        return content;
+    }
+
+    /**
+     * Executa as chamadas de ferramentas de um turno ao mesmo tempo e devolve os resultados na
+     * ordem das chamadas.
+     *
+     * @param toolCalls       as chamadas pedidas pelo modelo.
+     * @param callbacksByName as ferramentas disponíveis, por nome.
+     * @param requestDeadline o prazo da mensagem (pode ser {@code null}).
+     * @param unknownTools    recebe o nome de cada ferramenta pedida que não está entre as disponíveis.
+     * @return as respostas das ferramentas, na ordem das chamadas.
+     */
+    List<ToolResponseMessage.ToolResponse> executeToolCalls(List<AssistantMessage.ToolCall> toolCalls,
+                                                            Map<String, FunctionCallback> callbacksByName,
+                                                            RequestDeadline requestDeadline,
+                                                            Consumer<String> unknownTools) {
+        long start = System.nanoTime();
+        long deadline = RequestDeadline.earliest(start + settings.getTurnTimeout().toNanos(), requestDeadline);
+        toolCalls.stream()
+                .map(AssistantMessage.ToolCall::name)
+                .filter(name -> !callbacksByName.containsKey(name))
+                .forEach(unknownTools);
+        List<ToolResponseMessage.ToolResponse> responses = Flux.fromIterable(toolCalls)
+                .flatMapSequential(toolCall -> execute(toolCall, callbacksByName.get(toolCall.name()), deadline, requestDeadline)
+                                .map(result -> new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), result)),
+                        Math.max(1, settings.getMaxConcurrency()))
+                .collectList()
+                .block();
+        log.debug("🧵 {} chamadas de ferramentas executadas em {} ms", toolCalls.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return responses;
+    }
+
+    /**
+     * Executa uma chamada no executor das ferramentas. O prazo é o do turno: uma chamada que esperou
+     * vaga no executor tem menos tempo para terminar. O prazo da mensagem é associado à thread do
+     * executor, para chegar à chamada da API.
+     */
+    private Mono<String> execute(AssistantMessage.ToolCall toolCall, FunctionCallback callback, long deadline,
+                                 RequestDeadline requestDeadline) {
+        if (callback == null) {
+            return Mono.just(error(404, "Ferramenta desconhecida: " + toolCall.name()));
+        }
+        return Mono.defer(() -> {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Mono.error(new TimeoutException());
+            }
+            return Mono.fromCallable(() -> RequestDeadline.callWithin(requestDeadline, () -> callback.call(toolCall.arguments())))
+                    .subscribeOn(scheduler)
+                    .timeout(Duration.ofNanos(remaining));
+        }).onErrorResume(TimeoutException.class, e -> {
+            log.warn("⏱️ Ferramenta '{}' não terminou dentro do prazo do turno", toolCall.name());
+            return Mono.just(error(504, "A ferramenta não respondeu dentro do prazo. Responda com as informações já obtidas."));
+        }).onErrorResume(e -> {
+            log.error("Erro ao executar a ferramenta '{}'", toolCall.name(), e);
+            return Mono.just(error(500, "Erro inesperado na execução da ferramenta: " + e.getMessage()));
+        });
+    }
+
+    private String error(int status, String message) {
+        try {
+            return objectMapper.writeValueAsString(new ToolExecutionResult(status, message));
+        } catch (JsonProcessingException e) {
+            return "{\"httpStatusCode\":" + status + "}";
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.swaggeragent.service.chat;
+
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.example.swaggeragent.service.tool.RequestDeadline;
+import com.example.swaggeragent.service.tool.TokenEstimator;
+
+import java.util.List;
+
+/**
+ * Monta a resposta entregue ao usuário quando o prazo da mensagem acaba antes da resposta do modelo.
+ * <p>
+ * Em vez de um erro de timeout, o usuário recebe os resultados das ferramentas que terminaram a
+ * tempo, cada um cortado em {@value #MAX_TOKENS_PER_RESULT} tokens.
+ */
+final class PartialAnswer {
+
+    private static final int MAX_TOKENS_PER_RESULT = 250;
+    private static final int MAX_RESULTS = 10;
+
+    private PartialAnswer() {
+    }
+
+    /**
+     * Monta a resposta parcial de uma mensagem.
+     *
+     * @param deadline o prazo da mensagem, com os resultados das ferramentas concluídas.
+     * @return o texto da resposta parcial.
+     */
+    static String of(RequestDeadline deadline) {
+        StringBuilder answer = new StringBuilder(notice(deadline));
+        List<RequestDeadline.CompletedTool> completed = deadline.completed();
+        if (completed.isEmpty()) {
+            return answer.append(" Nenhuma consulta terminou a tempo; tente novamente ou faça uma pergunta mais específica.")
+                    .toString();
+        }
+        answer.append(" Resultados das consultas concluídas até aqui:\n");
+        completed.stream().limit(MAX_RESULTS).forEach(tool -> {
+            ToolExecutionResult result = tool.result();
+            answer.append("\n- ").append(tool.tool()).append(" (HTTP ").append(result.httpStatusCode()).append("): ")
+                    .append(TokenEstimator.truncate(String.valueOf(result.body()), MAX_TOKENS_PER_RESULT));
+        });
+        if (completed.size() > MAX_RESULTS) {
+            answer.append("\n\n(e mais ").append(completed.size() - MAX_RESULTS).append(" consultas)");
+        }
+        return answer.toString();
+    }
+
+    /**
+     * Monta o aviso, em uma linha, de que a resposta foi interrompida pelo prazo.
+     *
+     * @param deadline o prazo da mensagem.
+     * @return o aviso.
+     */
+    static String notice(RequestDeadline deadline) {
+        return "⏱️ O prazo de " + deadline.budget().toSeconds() + " s acabou antes de a resposta ficar pronta.";
+    }
+}
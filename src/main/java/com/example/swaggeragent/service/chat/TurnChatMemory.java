@@ -0,0 +1,80 @@
+package com.example.swaggeragent.service.chat;
+
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.DEFAULT_CHAT_MEMORY_CONVERSATION_ID;
+
+/**
+ * Memória da sessão vista por uma única mensagem de chat, que pode ser abandonada quando o prazo acaba.
+ * <p>
+ * Depois de {@link #abandon}, as gravações da chamada ao modelo que ainda estiver em andamento são
+ * descartadas: a memória guarda a resposta que o usuário de fato recebeu (a resposta parcial), e
+ * não a que o modelo terminaria depois.
+ */
+final class TurnChatMemory implements ChatMemory {
+
+    private final ChatMemory delegate;
+    private boolean abandoned;
+    private boolean userMessageStored;
+
+    /**
+     * @param delegate a memória da sessão.
+     */
+    TurnChatMemory(ChatMemory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(String conversationId, List<Message> messages) {
+        if (abandoned) {
+            return;
+        }
+        delegate.add(conversationId, messages);
+        userMessageStored |= messages.stream().anyMatch(message -> message.getMessageType() == MessageType.USER);
+    }
+
+    @Override
+    public List<Message> get(String conversationId, int lastN) {
+        return delegate.get(conversationId, lastN);
+    }
+
+    @Override
+    public synchronized void clear(String conversationId) {
+        delegate.clear(conversationId);
+    }
+
+    /**
+     * Abandona a mensagem e grava na memória da sessão a resposta entregue no lugar da do modelo.
+     *
+     * @param userMessage a mensagem do usuário (gravada se a chamada ao modelo ainda não a gravou).
+     * @param answer      a resposta entregue ao usuário.
+     */
+    synchronized void abandon(String userMessage, String answer) {
+        if (abandoned) {
+            return;
+        }
+        abandoned = true;
+        List<Message> messages = new ArrayList<>(2);
+        if (!userMessageStored) {
+            messages.add(new UserMessage(userMessage));
+        }
+        messages.add(new AssistantMessage(answer));
+        delegate.add(DEFAULT_CHAT_MEMORY_CONVERSATION_ID, messages);
+    }
+
+    /**
+     * Indica se a mensagem foi abandonada pelo prazo.
+     *
+     * @return {@code true} depois de {@link #abandon}.
+     */
+    synchronized boolean isAbandoned() {
+        return abandoned;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.swaggeragent.service.parser;
+
+import com.example.swaggeragent.model.OpenApiHeader;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.examples.Example;
+import io.swagger.v3.oas.models.headers.Header;
+import io.swagger.v3.oas.models.media.Schema;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converte os objetos do swagger-parser de uma especificação para o modelo compacto
+ * ({@link OpenApiSchema}, {@link OpenApiHeader} e valores de exemplo).
+ * <p>
+ * Uma instância é usada durante a análise de um único arquivo. Ela
+ * internaliza as strings e compartilha sub-schemas estruturalmente iguais, de forma que
+ * propriedades repetidas (como {@code {"type": "string"}} ou um {@code $ref} para
+ * {@code Error}) ocupem um único objeto em memória.
+ * <p>
+ * Não é segura para uso concorrente.
+ */
+final class CompactModelFactory {
+
+    private final OpenAPI openAPI;
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<OpenApiSchema, OpenApiSchema> canonicalSchemas = new HashMap<>();
+    private final Map<Schema<?>, OpenApiSchema> converted = new IdentityHashMap<>();
+
+    /**
+     * @param openAPI      a especificação sendo analisada, usada para resolver headers referenciados
+     *                     ({@code null} na análise em streaming, que só converte nós JSON).
+     * @param objectMapper o mapper usado para converter exemplos em valores Java simples.
+     */
+    CompactModelFactory(OpenAPI openAPI, ObjectMapper objectMapper) {
+        this.openAPI = openAPI;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Converte todos os schemas da seção {@code components} da especificação.
+     *
+     * @return os schemas compactos indexados pelo nome do componente.
+     */
+    Map<String, OpenApiSchema> components() {
+        if (openAPI.getComponents() == null || openAPI.getComponents().getSchemas() == null) {
+            return Map.of();
+        }
+        Map<String, OpenApiSchema> components = new HashMap<>();
+        openAPI.getComponents().getSchemas().forEach((name, schema) -> components.put(intern(name), schema(schema)));
+        return Collections.unmodifiableMap(components);
+    }
+
+    /**
+     * Converte um schema do swagger-parser para a representação compacta.
+     *
+     * @param schema o schema a ser convertido (pode ser {@code null}).
+     * @return o schema compacto compartilhado, ou {@code null}.
+     */
+    OpenApiSchema schema(Schema<?> schema) {
+        if (schema == null) {
+            return null;
+        }
+        OpenApiSchema cached = converted.get(schema);
+        if (cached != null) {
+            return cached;
+        }
+
+        OpenApiSchema compact;
+        if (schema.get$ref() != null) {
+            compact = OpenApiSchema.reference(intern(schema.get$ref()));
+        } else {
+            Map<String, OpenApiSchema> properties = null;
+            if (schema.getProperties() != null && !schema.getProperties().isEmpty()) {
+                Map<String, OpenApiSchema> compactProperties = new LinkedHashMap<>();
+                schema.getProperties().forEach((name, property) -> compactProperties.put(intern(name), schema(property)));
+                properties = Collections.unmodifiableMap(compactProperties);
+            }
+            compact = new OpenApiSchema(
+                    null,
+                    intern(schema.getType()),
+                    intern(schema.getFormat()),
+                    intern(schema.getDescription()),
+                    properties,
+                    schema(schema.getItems())
+            );
+        }
+
+        compact = canonicalSchemas.computeIfAbsent(compact, key -> key);
+        converted.put(schema, compact);
+        return compact;
+    }
+
+    /**
+     * Converte um schema lido diretamente do JSON da especificação para a representação compacta.
+     * <p>
+     * Usado pela análise em streaming, que não passa pelo modelo do swagger-parser.
+     *
+     * @param node o nó JSON do schema (pode ser {@code null}).
+     * @return o schema compacto compartilhado, ou {@code null}.
+     */
+    OpenApiSchema schema(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            return null;
+        }
+        OpenApiSchema compact;
+        if (node.hasNonNull("$ref")) {
+            compact = OpenApiSchema.reference(intern(node.get("$ref").asText()));
+        } else {
+            Map<String, OpenApiSchema> properties = null;
+            JsonNode propertiesNode = node.get("properties");
+            if (propertiesNode != null && propertiesNode.isObject() && !propertiesNode.isEmpty()) {
+                Map<String, OpenApiSchema> compactProperties = new LinkedHashMap<>();
+                propertiesNode.fields().forEachRemaining(entry ->
+                        compactProperties.put(intern(entry.getKey()), schema(entry.getValue())));
+                properties = Collections.unmodifiableMap(compactProperties);
+            }
+            compact = new OpenApiSchema(
+                    null,
+                    intern(textValue(node, "type")),
+                    intern(textValue(node, "format")),
+                    intern(textValue(node, "description")),
+                    properties,
+                    schema(node.get("items"))
+            );
+        }
+        return canonicalSchemas.computeIfAbsent(compact, key -> key);
+    }
+
+    /**
+     * Converte os headers de uma resposta, resolvendo referências a {@code components/headers}.
+     *
+     * @param headers os headers do swagger-parser.
+     * @return os headers compactos, ou {@code null} se não houver headers.
+     */
+    Map<String, OpenApiHeader> headers(Map<String, Header> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return null;
+        }
+        Map<String, OpenApiHeader> compact = new LinkedHashMap<>();
+        headers.forEach((name, header) -> {
+            Header resolved = resolveHeader(header);
+            if (resolved != null) {
+                compact.put(intern(name), new OpenApiHeader(
+                        intern(resolved.getDescription()),
+                        Boolean.TRUE.equals(resolved.getRequired()),
+                        schema(resolved.getSchema())));
+            }
+        });
+        return Collections.unmodifiableMap(compact);
+    }
+
+    /**
+     * Converte os exemplos nomeados de um media type para seus valores.
+     *
+     * @param examples os exemplos do swagger-parser.
+     * @return os valores dos exemplos pelo nome, ou {@code null} se não houver exemplos.
+     */
+    Map<String, Object> examples(Map<String, Example> examples) {
+        if (examples == null || examples.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        examples.forEach((name, example) -> {
+            Object value = example != null ? exampleValue(example.getValue()) : null;
+            if (value != null) {
+                values.put(intern(name), value);
+            }
+        });
+        return values.isEmpty() ? null : Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Converte o valor de um exemplo (que pode ser um nó do Jackson ou um objeto do
+     * swagger-parser) em um valor Java simples.
+     *
+     * @param value o valor do exemplo.
+     * @return o valor como {@link Map}, {@link java.util.List}, {@link String}, número ou booleano.
+     */
+    Object exampleValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value instanceof String text ? intern(text) : value;
+        }
+        return objectMapper.convertValue(value, Object.class);
+    }
+
+    /**
+     * Retorna a instância canônica de uma string da especificação.
+     *
+     * @param value a string.
+     * @return a instância compartilhada, ou {@code null}.
+     */
+    String intern(String value) {
+        return value != null ? strings.computeIfAbsent(value, key -> key) : null;
+    }
+
+    private static String textValue(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isValueNode() && !value.isNull() ? value.asText() : null;
+    }
+
+    private Header resolveHeader(Header header) {
+        if (header == null || header.get$ref() == null) {
+            return header;
+        }
+        String ref = header.get$ref();
+        if (openAPI.getComponents() == null || openAPI.getComponents().getHeaders() == null) {
+            return null;
+        }
+        return openAPI.getComponents().getHeaders().get(ref.substring(ref.lastIndexOf('/') + 1));
+    }
+}
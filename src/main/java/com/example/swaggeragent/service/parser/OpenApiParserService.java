@@ -1,18 +1,20 @@
 package com.example.swaggeragent.service.parser;
 
 import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiHeader;
 import com.example.swaggeragent.model.OpenApiMediaType;
 import com.example.swaggeragent.model.OpenApiParameter;
 import com.example.swaggeragent.model.OpenApiParameterItems;
 import com.example.swaggeragent.model.OpenApiRequestBody;
 import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.example.swaggeragent.service.cache.SpecSnapshotService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
-import io.swagger.v3.oas.models.headers.Header;
 import io.swagger.v3.oas.models.media.MediaType;
 import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.oas.models.parameters.Parameter;
@@ -23,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
 import java.io.File;
 import java.io.IOException;
@@ -30,11 +33,20 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -52,20 +64,34 @@ public class OpenApiParserService {
     /**
      * URL de fallback a ser usada caso nenhuma URL de servidor seja encontrada na especificação OpenAPI.
      */
-    private static final String DEFAULT_FALLBACK_URL = "http://localhost:8080";
+    static final String DEFAULT_FALLBACK_URL = "http://localhost:8080";
     /**
-     * Cache para armazenar as instâncias de {@link OpenAPI} já analisadas, usando o nome do projeto como chave.
-     * Evita a re-análise de arquivos e facilita a resolução de referências.
+     * Cache das especificações já analisadas e de seus schemas resolvidos, usando o nome do projeto
+     * como chave. Evita a re-análise de arquivos e a expansão repetida das referências internas
+     * ({@code $ref}). É um {@link ConcurrentHashMap} porque os arquivos podem ser analisados em paralelo.
      */
-    private final Map<String, OpenAPI> openApiCache = new HashMap<>();
+    private final Map<String, ResolvedSchemaCache> openApiCache = new ConcurrentHashMap<>();
+    /**
+     * Projeto gerado por cada arquivo analisado, usado para limpar o {@link #openApiCache}
+     * quando um arquivo é removido do diretório.
+     */
+    private final Map<Path, String> projectByFile = new ConcurrentHashMap<>();
+    /**
+     * Chave do snapshot do conteúdo atual de cada arquivo analisado, usada para remover os
+     * snapshots de conteúdos substituídos a cada recarregamento incremental.
+     */
+    private final Map<Path, String> snapshotKeyByFile = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper;
+    private final SpecSnapshotService specSnapshotService;
 
     /**
      * Construtor que inicializa o serviço com um {@link ObjectMapper} configurado.
      *
-     * @param objectMapper o mapper JSON a ser utilizado para serializações internas.
+     * @param objectMapper        o mapper JSON a ser utilizado para serializações internas.
+     * @param specSnapshotService o cache persistente de especificações já processadas.
      */
-    public OpenApiParserService(ObjectMapper objectMapper) {
+    public OpenApiParserService(ObjectMapper objectMapper, SpecSnapshotService specSnapshotService) {
+        this.specSnapshotService = specSnapshotService;
         this.objectMapper = objectMapper.copy();
         this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
         // Exclude null fields from serialization for cleaner output
@@ -75,6 +101,31 @@ public class OpenApiParserService {
     @Value("${openapi.specs.directory:openapi-specs}")
     private String openApiDirectory;
 
+    /**
+     * Habilita a análise paralela dos arquivos de especificação.
+     */
+    @Value("${openapi.specs.parallel.enabled:true}")
+    private boolean parallelEnabled;
+
+    /**
+     * Número máximo de threads usadas na análise paralela.
+     */
+    @Value("${openapi.specs.parallel.max-threads:4}")
+    private int parallelMaxThreads;
+
+    /**
+     * Habilita a análise em streaming para arquivos JSON grandes.
+     */
+    @Value("${openapi.specs.streaming.enabled:true}")
+    private boolean streamingEnabled;
+
+    /**
+     * Tamanho a partir do qual um arquivo JSON é analisado em streaming, sem montar o documento
+     * completo em memória.
+     */
+    @Value("${openapi.specs.streaming.threshold:20MB}")
+    private DataSize streamingThreshold;
+
     /**
      * Analisa todos os arquivos de especificação OpenAPI encontrados no diretório configurado.
      * <p>
@@ -82,26 +133,189 @@ public class OpenApiParserService {
      * e os processa para extrair a lista completa de endpoints.
      *
      * @return uma lista de todos os {@link OpenApiEndpoint} encontrados em todos os arquivos.
+     * @see #parseAllOpenApiFilesBySource()
      */
     public List<OpenApiEndpoint> parseAllOpenApiFiles() {
         List<OpenApiEndpoint> allEndpoints = new ArrayList<>();
-        Path directory = Paths.get(openApiDirectory);
+        parseAllOpenApiFilesBySource().values().forEach(allEndpoints::addAll);
+        return allEndpoints;
+    }
 
+    /**
+     * Analisa todos os arquivos de especificação do diretório configurado, agrupando os
+     * endpoints pelo arquivo de origem.
+     * <p>
+     * Além da análise, remove do cache de snapshots as entradas de arquivos que não existem mais.
+     *
+     * @return um mapa ordenado pelo caminho do arquivo, com os endpoints extraídos de cada um.
+     */
+    public Map<Path, List<OpenApiEndpoint>> parseAllOpenApiFilesBySource() {
+        Path directory = getSpecsDirectory();
         if (!Files.exists(directory)) {
             log.warn("Diretório de especificações OpenAPI não encontrado: {}", directory.toAbsolutePath());
-            return allEndpoints;
+            return Map.of();
         }
 
         log.info("Iniciando varredura por arquivos OpenAPI no diretório: {}", directory.toAbsolutePath());
+        List<ParsedSpecFile> parsedFiles = parseFiles(listSpecFiles());
+        Set<Path> scanned = parsedFiles.stream().map(ParsedSpecFile::file).collect(Collectors.toSet());
+        snapshotKeyByFile.keySet().retainAll(scanned);
+        specSnapshotService.retainOnly(parsedFiles.stream()
+                .map(ParsedSpecFile::snapshotKey)
+                .filter(Objects::nonNull)
+                .toList());
+
+        Map<Path, List<OpenApiEndpoint>> endpointsBySource = toSourceMap(parsedFiles);
+        log.info("Análise concluída. Total de {} endpoints extraídos de todos os arquivos.",
+                endpointsBySource.values().stream().mapToInt(List::size).sum());
+        return endpointsBySource;
+    }
+
+    /**
+     * Analisa apenas os arquivos informados, agrupando os endpoints pelo arquivo de origem.
+     * <p>
+     * Usado pelo recarregamento incremental das especificações, quando apenas alguns
+     * arquivos do diretório foram alterados. Ao final, remove do cache os snapshots que não
+     * correspondem ao conteúdo atual de nenhum arquivo conhecido (ex: a versão anterior de um
+     * arquivo editado ou de um arquivo removido com {@link #evict(Path)}).
+     *
+     * @param files os arquivos de especificação a serem analisados.
+     * @return um mapa ordenado pelo caminho do arquivo, com os endpoints extraídos de cada um.
+     */
+    public Map<Path, List<OpenApiEndpoint>> parseSpecFiles(Collection<Path> files) {
+        List<Path> specFiles = files.stream()
+                .filter(this::isSupportedFile)
+                .sorted()
+                .toList();
+        Map<Path, List<OpenApiEndpoint>> endpointsBySource = toSourceMap(parseFiles(specFiles));
+        specSnapshotService.retainOnly(List.copyOf(snapshotKeyByFile.values()));
+        return endpointsBySource;
+    }
+
+    /**
+     * Lista, em ordem alfabética de caminho, os arquivos de especificação suportados
+     * presentes no diretório configurado.
+     *
+     * @return os arquivos encontrados, ou uma lista vazia se o diretório não existir.
+     */
+    public List<Path> listSpecFiles() {
+        Path directory = getSpecsDirectory();
+        if (!Files.exists(directory)) {
+            return List.of();
+        }
         try (Stream<Path> files = Files.walk(directory)) {
-            files.filter(this::isSupportedFile)
-                 .forEach(file -> processApiFile(file, allEndpoints));
+            return files.filter(this::isSupportedFile)
+                    .sorted()
+                    .toList();
         } catch (IOException e) {
             log.error("Erro ao percorrer o diretório de especificações OpenAPI: {}", directory.toAbsolutePath(), e);
+            return List.of();
         }
+    }
 
-        log.info("Análise concluída. Total de {} endpoints extraídos de todos os arquivos.", allEndpoints.size());
-        return allEndpoints;
+    /**
+     * Retorna o diretório configurado para as especificações OpenAPI.
+     *
+     * @return o caminho do diretório ({@code openapi.specs.directory}).
+     */
+    public Path getSpecsDirectory() {
+        return Paths.get(openApiDirectory);
+    }
+
+    /**
+     * Remove do cache as informações associadas a um arquivo de especificação que foi
+     * excluído do diretório ou que será analisado novamente.
+     *
+     * @param file o arquivo removido ou alterado.
+     */
+    public void evict(Path file) {
+        snapshotKeyByFile.remove(file);
+        String projectName = projectByFile.remove(file);
+        if (projectName != null && !projectByFile.containsValue(projectName)) {
+            openApiCache.remove(projectName);
+        }
+    }
+
+    /**
+     * Analisa uma lista de arquivos, em paralelo ou sequencialmente.
+     * <p>
+     * Quando o modo paralelo está habilitado ({@code openapi.specs.parallel.enabled}), cada
+     * arquivo é analisado em um {@link ForkJoinPool} limitado a
+     * {@code openapi.specs.parallel.max-threads} threads. Em ambos os modos os resultados
+     * seguem a ordem da lista de entrada, garantindo que a lista final de endpoints (e,
+     * consequentemente, os nomes das ferramentas geradas) seja determinística.
+     *
+     * @param specFiles os arquivos a serem analisados, já ordenados.
+     * @return os resultados por arquivo, na mesma ordem de {@code specFiles}.
+     */
+    private List<ParsedSpecFile> parseFiles(List<Path> specFiles) {
+        long start = System.nanoTime();
+        List<ParsedSpecFile> parsedFiles = parallelEnabled && specFiles.size() > 1
+                ? parseInParallel(specFiles)
+                : specFiles.stream().map(this::processApiFile).toList();
+        parsedFiles.forEach(parsed -> {
+            if (parsed.snapshotKey() != null) {
+                snapshotKeyByFile.put(parsed.file(), parsed.snapshotKey());
+            } else {
+                snapshotKeyByFile.remove(parsed.file());
+            }
+        });
+        logParseTimes(parsedFiles, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return parsedFiles;
+    }
+
+    private Map<Path, List<OpenApiEndpoint>> toSourceMap(List<ParsedSpecFile> parsedFiles) {
+        Map<Path, List<OpenApiEndpoint>> endpointsBySource = new LinkedHashMap<>();
+        parsedFiles.forEach(parsed -> endpointsBySource.put(parsed.file(), parsed.endpoints()));
+        return endpointsBySource;
+    }
+
+    /**
+     * Analisa os arquivos em paralelo em um {@link ForkJoinPool} dedicado e limitado.
+     * <p>
+     * O pool é criado e encerrado a cada varredura para não competir com o
+     * {@link ForkJoinPool#commonPool()} usado pelo restante da aplicação. A ordem da lista
+     * retornada é a mesma da lista de entrada, independentemente da ordem de conclusão.
+     *
+     * @param specFiles os arquivos a serem analisados, já ordenados.
+     * @return os resultados por arquivo, na mesma ordem de {@code specFiles}.
+     */
+    private List<ParsedSpecFile> parseInParallel(List<Path> specFiles) {
+        int threads = Math.max(1, Math.min(parallelMaxThreads, specFiles.size()));
+        log.info("Analisando {} arquivos OpenAPI em paralelo com {} threads", specFiles.size(), threads);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<ParsedSpecFile>> tasks = specFiles.stream()
+                    .map(file -> pool.submit(() -> processApiFile(file)))
+                    .toList();
+            return tasks.stream()
+                    .map(ForkJoinTask::join)
+                    .toList();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Registra o tempo de análise de cada arquivo, do mais lento para o mais rápido,
+     * para facilitar a identificação da especificação que domina o tempo de inicialização.
+     *
+     * @param parsedFiles os resultados por arquivo.
+     * @param totalMs     o tempo total (de parede) da varredura, em milissegundos.
+     */
+    private void logParseTimes(List<ParsedSpecFile> parsedFiles, long totalMs) {
+        if (parsedFiles.isEmpty()) {
+            return;
+        }
+        long sumMs = parsedFiles.stream().mapToLong(ParsedSpecFile::durationMs).sum();
+        log.info("⏱️ Tempo de análise: {} ms de parede, {} ms somando todos os arquivos ({} arquivos)",
+                totalMs, sumMs, parsedFiles.size());
+        parsedFiles.stream()
+                .sorted(Comparator.comparingLong(ParsedSpecFile::durationMs).reversed())
+                .forEach(parsed -> log.info("   - {} ms | {} endpoints | {}{}",
+                        parsed.durationMs(), parsed.endpoints().size(), parsed.file().getFileName(),
+                        parsed.fromSnapshot() ? " (snapshot)" : ""));
     }
     
     /**
@@ -119,21 +333,83 @@ public class OpenApiParserService {
     }
 
     /**
-     * Processa um único arquivo de API, chamando o método de análise e adicionando os endpoints
-     * extraídos à lista agregada.
+     * Processa um único arquivo de API, medindo o tempo gasto na análise.
+     * <p>
+     * Se o cache de snapshots estiver habilitado e houver um snapshot para o conteúdo atual
+     * do arquivo, os endpoints são carregados dele sem executar o swagger-parser. Caso
+     * contrário, o arquivo é analisado e registrado para ter seu snapshot gravado.
+     * <p>
+     * Falhas são registradas e resultam em uma lista vazia de endpoints, para que um
+     * arquivo inválido não interrompa o carregamento dos demais.
      *
-     * @param filePath     o caminho para o arquivo de API.
-     * @param allEndpoints a lista onde os endpoints extraídos serão adicionados.
+     * @param filePath o caminho para o arquivo de API.
+     * @return o resultado da análise do arquivo, incluindo a duração.
      */
-    private void processApiFile(Path filePath, List<OpenApiEndpoint> allEndpoints) {
+    private ParsedSpecFile processApiFile(Path filePath) {
+        long start = System.nanoTime();
+        List<OpenApiEndpoint> endpoints = List.of();
+        String snapshotKey = null;
+        boolean fromSnapshot = false;
         try {
-            log.info("Analisando arquivo de API: {}", filePath.toString());
-            List<OpenApiEndpoint> endpoints = parseOpenApiFile(filePath.toFile());
-            allEndpoints.addAll(endpoints);
-            log.info("Extraídos {} endpoints do arquivo: {}", endpoints.size(), filePath.getFileName());
+            if (specSnapshotService.isEnabled()) {
+                snapshotKey = specSnapshotService.keyFor(filePath);
+                Optional<SpecSnapshotService.Snapshot> snapshot = specSnapshotService.load(snapshotKey);
+                if (snapshot.isPresent()) {
+                    endpoints = snapshot.get().endpoints();
+                    fromSnapshot = true;
+                    if (!endpoints.isEmpty()) {
+                        // Os componentes do snapshot substituem a análise da especificação na resolução dos schemas.
+                        String projectName = endpoints.get(0).projectName();
+                        openApiCache.put(projectName, new ResolvedSchemaCache(snapshot.get().components()::get, objectMapper));
+                        projectByFile.put(filePath, projectName);
+                    }
+                    log.info("Carregados {} endpoints do snapshot do arquivo: {}", endpoints.size(), filePath.getFileName());
+                }
+            }
+            if (!fromSnapshot) {
+                log.info("Analisando arquivo de API: {}", filePath.toString());
+                endpoints = parseOpenApiFile(filePath.toFile());
+                log.info("Extraídos {} endpoints do arquivo: {}", endpoints.size(), filePath.getFileName());
+                if (!endpoints.isEmpty()) {
+                    projectByFile.put(filePath, endpoints.get(0).projectName());
+                }
+                if (snapshotKey != null) {
+                    specSnapshotService.registerPending(snapshotKey, endpoints, referencedComponents(endpoints));
+                }
+            }
         } catch (Exception e) {
             log.error("Falha ao processar o arquivo OpenAPI: {}", filePath.getFileName(), e);
         }
+        return new ParsedSpecFile(filePath, endpoints, snapshotKey, fromSnapshot,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Reúne os componentes referenciados pelos corpos de requisição, pelas respostas e pelos
+     * headers das respostas dos endpoints de um arquivo, para gravação no snapshot.
+     *
+     * @param endpoints os endpoints extraídos do arquivo.
+     * @return os componentes referenciados, pelo nome (vazio se a especificação não estiver no cache).
+     */
+    private Map<String, OpenApiSchema> referencedComponents(List<OpenApiEndpoint> endpoints) {
+        ResolvedSchemaCache schemas = endpoints.isEmpty() ? null : openApiCache.get(endpoints.get(0).projectName());
+        if (schemas == null) {
+            return Map.of();
+        }
+        return schemas.referencedComponents(ResolvedSchemaCache.endpointSchemas(endpoints));
+    }
+
+    /**
+     * Resultado da análise de um único arquivo de especificação.
+     *
+     * @param file         o arquivo analisado.
+     * @param endpoints    os endpoints extraídos do arquivo.
+     * @param snapshotKey  a chave do snapshot do arquivo, ou {@code null} se o cache estiver desabilitado.
+     * @param fromSnapshot indica se os endpoints foram carregados de um snapshot.
+     * @param durationMs   o tempo gasto na análise, em milissegundos.
+     */
+    private record ParsedSpecFile(Path file, List<OpenApiEndpoint> endpoints, String snapshotKey,
+                                  boolean fromSnapshot, long durationMs) {
     }
 
     /**
@@ -149,6 +425,17 @@ public class OpenApiParserService {
         List<OpenApiEndpoint> endpoints = new ArrayList<>();
 
         try {
+            if (shouldStream(file)) {
+                log.info("📦 Arquivo grande ({} MB), usando análise em streaming: {}",
+                        file.length() / (1024 * 1024), file.getName());
+                StreamingOpenApiParser.Result result = new StreamingOpenApiParser(objectMapper).parse(file.toPath());
+                if (result != null) {
+                    openApiCache.put(result.projectName(), result.schemas());
+                    return result.endpoints();
+                }
+                log.warn("Arquivo {} não é um documento OpenAPI 3.x em JSON; usando o swagger-parser", file.getName());
+            }
+
             OpenAPIV3Parser parser = new OpenAPIV3Parser();
             ParseOptions options = new ParseOptions();
             options.setResolve(true); // Força a resolução de referências $ref, crucial para esquemas complexos.
@@ -162,21 +449,17 @@ public class OpenApiParserService {
             String baseUrl = extractBaseUrl(openAPI);
             log.debug("URL base extraída para '{}': {}", file.getName(), baseUrl);
 
-            // Define o nome do projeto a partir do título da API ou do nome do arquivo como fallback.
-            String projectName = "default-project";
-            if (openAPI.getInfo() != null && openAPI.getInfo().getTitle() != null && !openAPI.getInfo().getTitle().isEmpty()) {
-                projectName = openAPI.getInfo().getTitle().replaceAll("\\s+", "-").toLowerCase();
-            } else {
-                projectName = file.getName().replaceFirst("[.][^.]+$", "");
-                log.warn("Título da API não encontrado no arquivo: {}. Usando o nome do arquivo como fallback para o nome do projeto: '{}'", file.getName(), projectName);
-            }
-
-            final String finalProjectName = projectName;
-            openApiCache.put(finalProjectName, openAPI); // Adiciona a API parseada ao cache.
+            final String finalProjectName = resolveProjectName(
+                    openAPI.getInfo() != null ? openAPI.getInfo().getTitle() : null, file.getName());
+            // Os endpoints e os componentes são convertidos para o modelo compacto; o objeto OpenAPI
+            // do swagger-parser não é retido depois desta análise.
+            CompactModelFactory compact = new CompactModelFactory(openAPI, objectMapper);
+            // Adiciona a API ao cache; uma nova análise descarta os schemas resolvidos anteriores.
+            openApiCache.put(finalProjectName, new ResolvedSchemaCache(compact.components()::get, objectMapper));
 
             if (openAPI.getPaths() != null) {
                 openAPI.getPaths().forEach((path, pathItem) -> {
-                    endpoints.addAll(extractEndpointsFromPath(path, pathItem, baseUrl, finalProjectName, openAPI));
+                    endpoints.addAll(extractEndpointsFromPath(path, pathItem, baseUrl, finalProjectName, openAPI, compact));
                 });
             }
 
@@ -187,6 +470,36 @@ public class OpenApiParserService {
         return endpoints;
     }
 
+    /**
+     * Indica se um arquivo deve ser analisado em streaming: apenas arquivos JSON com tamanho
+     * igual ou superior a {@code openapi.specs.streaming.threshold}. Arquivos YAML sempre usam
+     * o swagger-parser.
+     *
+     * @param file o arquivo a ser analisado.
+     * @return {@code true} se o arquivo deve ser analisado em streaming.
+     */
+    private boolean shouldStream(File file) {
+        return streamingEnabled
+                && file.getName().toLowerCase().endsWith(".json")
+                && file.length() >= streamingThreshold.toBytes();
+    }
+
+    /**
+     * Define o nome do projeto a partir do título da API ou do nome do arquivo como fallback.
+     *
+     * @param title    o título da API ({@code info.title}), se houver.
+     * @param fileName o nome do arquivo de especificação.
+     * @return o nome do projeto.
+     */
+    static String resolveProjectName(String title, String fileName) {
+        if (title != null && !title.isEmpty()) {
+            return title.replaceAll("\\s+", "-").toLowerCase();
+        }
+        String projectName = fileName.replaceFirst("[.][^.]+$", "");
+        log.warn("Título da API não encontrado no arquivo: {}. Usando o nome do arquivo como fallback para o nome do projeto: '{}'", fileName, projectName);
+        return projectName;
+    }
+
     /**
      * Extrai a URL base da especificação OpenAPI, usando a primeira URL de servidor definida.
      *
@@ -215,16 +528,18 @@ public class OpenApiParserService {
      * @param baseUrl       a URL base da API.
      * @param projectName   o nome do projeto ao qual o endpoint pertence.
      * @param openAPI       o objeto OpenAPI raiz para resolver referências.
+     * @param compact       o conversor para o modelo compacto desta especificação.
      * @return uma lista de {@link OpenApiEndpoint} extraídos do item de caminho.
      */
-    private List<OpenApiEndpoint> extractEndpointsFromPath(String path, PathItem pathItem, String baseUrl, String projectName, OpenAPI openAPI) {
+    private List<OpenApiEndpoint> extractEndpointsFromPath(String path, PathItem pathItem, String baseUrl, String projectName,
+                                                           OpenAPI openAPI, CompactModelFactory compact) {
         List<OpenApiEndpoint> endpoints = new ArrayList<>();
 
         Map<PathItem.HttpMethod, Operation> operations = pathItem.readOperationsMap();
 
         operations.forEach((httpMethod, operation) -> {
             try {
-                OpenApiEndpoint endpoint = buildEndpoint(path, httpMethod.name(), operation, baseUrl, projectName, openAPI);
+                OpenApiEndpoint endpoint = buildEndpoint(path, httpMethod.name(), operation, baseUrl, projectName, openAPI, compact);
                 endpoints.add(endpoint);
                 log.trace("Endpoint extraído com sucesso: {} {}", httpMethod, path);
             } catch (Exception e) {
@@ -244,21 +559,23 @@ public class OpenApiParserService {
      * @param baseUrl     a URL base da API.
      * @param projectName o nome do projeto.
      * @param openAPI     o objeto OpenAPI raiz.
+     * @param compact     o conversor para o modelo compacto desta especificação.
      * @return um objeto {@link OpenApiEndpoint} totalmente preenchido.
      */
-    private OpenApiEndpoint buildEndpoint(String path, String method, Operation operation, String baseUrl, String projectName, OpenAPI openAPI) {
+    private OpenApiEndpoint buildEndpoint(String path, String method, Operation operation, String baseUrl, String projectName,
+                                          OpenAPI openAPI, CompactModelFactory compact) {
         return new OpenApiEndpoint(
                 operation.getOperationId() != null ? operation.getOperationId() : generateOperationId(method, path),
-                method.toLowerCase(),
+                compact.intern(method.toLowerCase()),
                 path,
                 operation.getSummary(),
                 operation.getDescription(),
-                baseUrl,
-                projectName,
-                extractParameters(operation, openAPI),
-                extractRequestBody(operation, openAPI),
-                extractResponses(operation, openAPI),
-                operation.getTags()
+                compact.intern(baseUrl),
+                compact.intern(projectName),
+                extractParameters(operation, openAPI, compact),
+                extractRequestBody(operation, openAPI, compact),
+                extractResponses(operation, openAPI, compact),
+                operation.getTags() != null ? operation.getTags().stream().map(compact::intern).toList() : null
         );
     }
 
@@ -270,7 +587,7 @@ public class OpenApiParserService {
      * @param path   o caminho do endpoint.
      * @return um ID de operação gerado.
      */
-    private String generateOperationId(String method, String path) {
+    static String generateOperationId(String method, String path) {
         // Remove caracteres não alfanuméricos do caminho para criar um ID mais limpo.
         return method.toLowerCase() + path.replaceAll("[^a-zA-Z0-9]", "");
     }
@@ -280,14 +597,15 @@ public class OpenApiParserService {
      *
      * @param operation a operação OpenAPI.
      * @param openAPI   o objeto OpenAPI raiz.
+     * @param compact   o conversor para o modelo compacto desta especificação.
      * @return uma lista de {@link OpenApiParameter}.
      */
-    private List<OpenApiParameter> extractParameters(Operation operation, OpenAPI openAPI) {
+    private List<OpenApiParameter> extractParameters(Operation operation, OpenAPI openAPI, CompactModelFactory compact) {
         List<OpenApiParameter> parameters = new ArrayList<>();
 
         if (operation.getParameters() != null) {
             operation.getParameters().forEach(parameter -> {
-                parameters.add(buildParameter(parameter, openAPI));
+                parameters.add(buildParameter(parameter, openAPI, compact));
             });
         }
         return parameters;
@@ -299,9 +617,10 @@ public class OpenApiParserService {
      *
      * @param parameter o parâmetro da especificação.
      * @param openAPI   o objeto OpenAPI raiz.
+     * @param compact   o conversor para o modelo compacto desta especificação.
      * @return um objeto {@link OpenApiParameter} preenchido.
      */
-    private OpenApiParameter buildParameter(Parameter parameter, OpenAPI openAPI) {
+    private OpenApiParameter buildParameter(Parameter parameter, OpenAPI openAPI, CompactModelFactory compact) {
         // Resolve a referência se o parâmetro for um $ref.
         if (parameter.get$ref() != null) {
             String ref = parameter.get$ref();
@@ -311,25 +630,25 @@ public class OpenApiParserService {
         Schema<?> schema = resolveSchema(parameter.getSchema(), openAPI);
         String type = schema != null ? schema.getType() : "string";
         String format = schema != null ? schema.getFormat() : null;
-        Object defaultValue = schema != null ? schema.getDefault() : null;
+        Object defaultValue = schema != null ? compact.exampleValue(schema.getDefault()) : null;
         List<String> enumValues = schema != null && schema.getEnum() != null ?
-                schema.getEnum().stream().map(Object::toString).toList() : null;
+                schema.getEnum().stream().map(value -> compact.intern(value.toString())).toList() : null;
 
         OpenApiParameterItems items = null;
         if ("array".equals(type) && schema != null && schema.getItems() != null) {
             Schema<?> itemsSchema = resolveSchema(schema.getItems(), openAPI);
             if (itemsSchema != null) {
-                items = new OpenApiParameterItems(itemsSchema.getType(), itemsSchema.getFormat());
+                items = new OpenApiParameterItems(compact.intern(itemsSchema.getType()), compact.intern(itemsSchema.getFormat()));
             }
         }
 
         return new OpenApiParameter(
-                parameter.getName(),
-                parameter.getIn(),
-                parameter.getDescription(),
+                compact.intern(parameter.getName()),
+                compact.intern(parameter.getIn()),
+                compact.intern(parameter.getDescription()),
                 Boolean.TRUE.equals(parameter.getRequired()),
-                type,
-                format,
+                compact.intern(type),
+                compact.intern(format),
                 defaultValue,
                 enumValues,
                 items
@@ -341,9 +660,10 @@ public class OpenApiParserService {
      *
      * @param operation a operação OpenAPI.
      * @param openAPI   o objeto OpenAPI raiz.
+     * @param compact   o conversor para o modelo compacto desta especificação.
      * @return um {@link OpenApiRequestBody} ou {@code null} se não houver corpo na requisição.
      */
-    private OpenApiRequestBody extractRequestBody(Operation operation, OpenAPI openAPI) {
+    private OpenApiRequestBody extractRequestBody(Operation operation, OpenAPI openAPI, CompactModelFactory compact) {
         if (operation.getRequestBody() == null) {
             return null;
         }
@@ -357,7 +677,7 @@ public class OpenApiParserService {
         Map<String, OpenApiMediaType> content = new HashMap<>();
         if (requestBody.getContent() != null) {
             requestBody.getContent().forEach((mediaTypeName, mediaType) ->
-                    content.put(mediaTypeName, buildMediaType(mediaType, openAPI)));
+                    content.put(compact.intern(mediaTypeName), buildMediaType(mediaType, compact)));
         }
 
         return new OpenApiRequestBody(
@@ -372,9 +692,10 @@ public class OpenApiParserService {
      *
      * @param operation a operação OpenAPI.
      * @param openAPI   o objeto OpenAPI raiz.
+     * @param compact   o conversor para o modelo compacto desta especificação.
      * @return um mapa de {@link OpenApiResponse} onde a chave é o código de status HTTP.
      */
-    private Map<String, OpenApiResponse> extractResponses(Operation operation, OpenAPI openAPI) {
+    private Map<String, OpenApiResponse> extractResponses(Operation operation, OpenAPI openAPI, CompactModelFactory compact) {
         Map<String, OpenApiResponse> responses = new HashMap<>();
         if (operation.getResponses() != null) {
             operation.getResponses().forEach((code, apiResponse) -> {
@@ -388,14 +709,15 @@ public class OpenApiParserService {
                 if (resolvedResponse != null && resolvedResponse.getContent() != null) {
                     Map<String, OpenApiMediaType> content = new HashMap<>();
                     resolvedResponse.getContent().forEach((type, mediaType) ->
-                            content.put(type, buildMediaType(mediaType, openAPI))
+                            content.put(compact.intern(type), buildMediaType(mediaType, compact))
                     );
-                    responses.put(code, new OpenApiResponse(resolvedResponse.getDescription(), content, resolvedResponse.getHeaders()));
+                    responses.put(compact.intern(code), new OpenApiResponse(compact.intern(resolvedResponse.getDescription()),
+                            content, compact.headers(resolvedResponse.getHeaders())));
                 } else {
                     // Adiciona a resposta mesmo que não tenha conteúdo (ex: 204 No Content)
                     String description = resolvedResponse != null ? resolvedResponse.getDescription() : "No description";
-                    Map<String, Header> headers = resolvedResponse != null ? resolvedResponse.getHeaders() : null;
-                    responses.put(code, new OpenApiResponse(description, null, headers));
+                    Map<String, OpenApiHeader> headers = resolvedResponse != null ? compact.headers(resolvedResponse.getHeaders()) : null;
+                    responses.put(compact.intern(code), new OpenApiResponse(compact.intern(description), null, headers));
                 }
             });
         }
@@ -405,27 +727,28 @@ public class OpenApiParserService {
     /**
      * Constrói um objeto {@link OpenApiMediaType} a partir de um {@link MediaType} do OpenAPI.
      * <p>
-     * Este método resolve o schema de referência e, crucialmente, extrai o campo 'example'
-     * do media type, que é usado para fornecer exemplos concretos de payloads.
+     * Este método converte o schema para o modelo compacto e, crucialmente, extrai o campo 'example'
+     * do media type, que é usado para fornecer exemplos concretos de payloads. Referências
+     * ({@code $ref}) são mantidas como referências e resolvidas sob demanda, aproveitando o cache
+     * de schemas resolvidos da especificação.
      *
      * @param mediaType o objeto MediaType da especificação.
-     * @param openAPI   o objeto OpenAPI raiz para resolver referências.
+     * @param compact   o conversor para o modelo compacto desta especificação.
      * @return um objeto OpenApiMediaType contendo o schema e o exemplo.
      */
-    private OpenApiMediaType buildMediaType(MediaType mediaType, OpenAPI openAPI) {
+    private OpenApiMediaType buildMediaType(MediaType mediaType, CompactModelFactory compact) {
         if (mediaType == null) {
             return null;
         }
-        Schema<?> resolvedSchema = resolveSchema(mediaType.getSchema(), openAPI);
+        Map<String, Object> examples = compact.examples(mediaType.getExamples());
+        Object example = compact.exampleValue(mediaType.getExample());
 
-        Object example = mediaType.getExample();
-
-        if (example == null && mediaType.getExamples() != null && !mediaType.getExamples().isEmpty()) {
+        if (example == null && examples != null) {
             // Tenta pegar o primeiro exemplo da lista de exemplos se o campo 'example' estiver vazio.
-            example = mediaType.getExamples().values().iterator().next().getValue();
+            example = examples.values().iterator().next();
         }
 
-        return new OpenApiMediaType(resolvedSchema, example, mediaType.getExamples());
+        return new OpenApiMediaType(compact.schema(mediaType.getSchema()), example, examples);
     }
 
     /**
@@ -467,20 +790,21 @@ public class OpenApiParserService {
     /**
      * Converte um esquema OpenAPI em uma representação de string JSON.
      * <p>
-     * Este método é útil para exibir o esquema em logs ou descrições de ferramentas.
+     * Este método é útil para exibir o esquema em logs ou descrições de ferramentas. Esquemas
+     * que são uma referência ({@code $ref}) são resolvidos e serializados uma única vez por
+     * especificação; as chamadas seguintes reaproveitam o JSON já gerado.
      *
      * @param projectName o nome do projeto para localizar a API no cache.
      * @param schema      o esquema a ser convertido.
      * @return uma string JSON representando o esquema.
      */
-    public String getSchemaAsJson(String projectName, io.swagger.v3.oas.models.media.Schema<?> schema) {
-        OpenAPI openAPI = openApiCache.get(projectName);
-        if (openAPI == null) {
+    public String getSchemaAsJson(String projectName, OpenApiSchema schema) {
+        ResolvedSchemaCache schemas = openApiCache.get(projectName);
+        if (schemas == null) {
             return "{\"error\": \"Especificação OpenAPI não encontrada para o projeto: " + projectName + "\"}";
         }
         try {
-            ObjectNode schemaNode = buildJsonSchemaNode(schema, openAPI, new HashSet<>());
-            return objectMapper.writeValueAsString(schemaNode);
+            return schemas.toJson(schema);
         } catch (Exception e) {
             log.error("Erro ao converter schema para JSON para o projeto {}", projectName, e);
             return "{\"error\": \"Falha ao converter o schema para JSON\"}";
@@ -489,72 +813,20 @@ public class OpenApiParserService {
 
     /**
      * Resolve um esquema (incluindo referências $ref) e o retorna como um {@link ObjectNode} JSON.
+     * <p>
+     * Os nós de referências já resolvidas são compartilhados entre as chamadas e <b>não devem
+     * ser modificados</b>; copie-os com {@link ObjectNode#deepCopy()} se precisar alterá-los.
      *
      * @param projectName o nome do projeto para encontrar a especificação OpenAPI no cache.
      * @param schema      o esquema a ser resolvido.
      * @return um {@link ObjectNode} representando o esquema resolvido, ou null em caso de erro.
      */
-    public ObjectNode getResolvedSchemaAsJsonNode(String projectName, Schema<?> schema) {
-        OpenAPI openAPI = openApiCache.get(projectName);
-        if (openAPI == null) {
+    public ObjectNode getResolvedSchemaAsJsonNode(String projectName, OpenApiSchema schema) {
+        ResolvedSchemaCache schemas = openApiCache.get(projectName);
+        if (schemas == null) {
             log.warn("Nenhuma especificação OpenAPI encontrada no cache para o projeto: {}", projectName);
             return null;
         }
-        return buildJsonSchemaNode(schema, openAPI, new HashSet<>());
-    }
-
-    /**
-     * Constrói recursivamente um {@link ObjectNode} JSON a partir de um esquema OpenAPI.
-     * <p>
-     * Este método navega pela estrutura do esquema, incluindo propriedades e referências aninhadas,
-     * para criar uma representação JSON completa. Evita recursão infinita rastreando
-     * as referências já visitadas.
-     *
-     * @param schema       o esquema a ser convertido.
-     * @param openAPI      o objeto OpenAPI raiz.
-     * @param visitedRefs  um conjunto de referências já visitadas para evitar loops.
-     * @return um {@link ObjectNode} que representa o esquema.
-     */
-    private ObjectNode buildJsonSchemaNode(io.swagger.v3.oas.models.media.Schema<?> schema, OpenAPI openAPI, Set<String> visitedRefs) {
-        ObjectNode node = objectMapper.createObjectNode();
-        if (schema == null) {
-            return node;
-        }
-
-        // Se o esquema for uma referência, resolve-o primeiro.
-        if (schema.get$ref() != null) {
-            String ref = schema.get$ref();
-            // Proteção contra recursão infinita.
-            if (visitedRefs.contains(ref)) {
-                return node.put("description", "Referência circular para " + ref);
-            }
-            visitedRefs.add(ref);
-            Schema<?> resolvedSchema = lookupSchema(schema, openAPI);
-            // Chamada recursiva para construir o nó do esquema resolvido.
-            return buildJsonSchemaNode(resolvedSchema, openAPI, visitedRefs);
-        }
-
-        if (schema.getType() != null) node.put("type", schema.getType());
-        if (schema.getFormat() != null) node.put("format", schema.getFormat());
-        if (schema.getDescription() != null) node.put("description", schema.getDescription());
-
-        // Processa as propriedades de um esquema do tipo objeto.
-        if ("object".equals(schema.getType()) && schema.getProperties() != null) {
-            ObjectNode propertiesNode = objectMapper.createObjectNode();
-            schema.getProperties().forEach((key, value) -> {
-                Schema<?> propSchema = (Schema<?>) value;
-                // Chamada recursiva para cada propriedade.
-                propertiesNode.set(key.toString(), buildJsonSchemaNode(propSchema, openAPI, new HashSet<>(visitedRefs)));
-            });
-            node.set("properties", propertiesNode);
-        }
-
-        // Processa os itens de um esquema do tipo array.
-        if ("array".equals(schema.getType()) && schema.getItems() != null) {
-            // Chamada recursiva para o esquema dos itens do array.
-            node.set("items", buildJsonSchemaNode(schema.getItems(), openAPI, new HashSet<>(visitedRefs)));
-        }
-
-        return node;
+        return schemas.toNode(schema);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,259 @@
+package com.example.swaggeragent.service.parser;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache dos schemas resolvidos de uma única especificação OpenAPI.
+ * <p>
+ * Componentes como {@code Pet} ou {@code Error} costumam ser referenciados por dezenas de
+ * operações. Em vez de expandir cada {@code $ref} do zero a cada descrição de ferramenta e a
+ * cada schema de entrada, o resultado da expansão é guardado pelo nome da referência, junto
+ * com o JSON já serializado.
+ * <p>
+ * O cache mantém apenas os componentes da especificação no formato compacto
+ * ({@link OpenApiSchema}); o modelo do swagger-parser não é retido.
+ * <p>
+ * <b>Regras do cache:</b>
+ * <ul>
+ *   <li>Os nós guardados são compartilhados entre todas as ferramentas e <b>não devem ser
+ *   modificados</b> por quem os recebe.</li>
+ *   <li>A detecção de ciclos usa uma única pilha com as referências em expansão, sem copiar
+ *   conjuntos a cada propriedade.</li>
+ *   <li>Uma referência cuja expansão encontrou qualquer ciclo não é guardada, pois o ponto em
+ *   que o ciclo é interrompido depende de por onde a expansão começou. Os componentes sem
+ *   ciclos alcançados a partir dela continuam sendo guardados normalmente.</li>
+ * </ul>
+ * A instância é segura para uso concorrente e é descartada junto com a especificação.
+ */
+final class ResolvedSchemaCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResolvedSchemaCache.class);
+
+    private final Function<String, OpenApiSchema> components;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ResolvedSchema> resolvedByRef = new ConcurrentHashMap<>();
+
+    /**
+     * @param components   busca um schema da seção {@code components} pelo nome do componente
+     *                     (retorna {@code null} se não existir).
+     * @param objectMapper o mapper usado para criar e serializar os nós.
+     */
+    ResolvedSchemaCache(Function<String, OpenApiSchema> components, ObjectMapper objectMapper) {
+        this.components = components;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resolve um esquema e retorna sua representação JSON.
+     * <p>
+     * Para esquemas que são apenas uma referência, a string já serializada é reaproveitada.
+     *
+     * @param schema o esquema a ser convertido.
+     * @return o JSON do esquema resolvido.
+     * @throws JsonProcessingException se a serialização falhar.
+     */
+    String toJson(OpenApiSchema schema) throws JsonProcessingException {
+        if (schema != null && schema.ref() != null) {
+            ResolvedSchema cached = resolvedByRef.get(schema.ref());
+            if (cached != null) {
+                return cached.json();
+            }
+        }
+        return objectMapper.writeValueAsString(toNode(schema));
+    }
+
+    /**
+     * Resolve um esquema e retorna sua representação como {@link ObjectNode}.
+     *
+     * @param schema o esquema a ser convertido.
+     * @return o nó resolvido, possivelmente compartilhado (somente leitura).
+     */
+    ObjectNode toNode(OpenApiSchema schema) {
+        return build(schema, new Resolution());
+    }
+
+    /**
+     * Retorna os componentes alcançados, direta ou indiretamente, pelas referências dos schemas
+     * informados. São os componentes que um snapshot precisa guardar para que os schemas sejam
+     * resolvidos sem a especificação original.
+     *
+     * @param roots os schemas de partida (ex: corpos de requisição e de resposta dos endpoints).
+     * @return os componentes alcançados, pelo nome.
+     */
+    Map<String, OpenApiSchema> referencedComponents(Collection<OpenApiSchema> roots) {
+        Map<String, OpenApiSchema> reached = new LinkedHashMap<>();
+        List<OpenApiSchema> pending = new ArrayList<>(roots);
+        while (!pending.isEmpty()) {
+            OpenApiSchema schema = pending.remove(pending.size() - 1);
+            if (schema == null) {
+                continue;
+            }
+            if (schema.ref() != null) {
+                String name = schema.ref().substring(schema.ref().lastIndexOf('/') + 1);
+                if (!reached.containsKey(name)) {
+                    OpenApiSchema component = components.apply(name);
+                    reached.put(name, component);
+                    pending.add(component);
+                }
+                continue;
+            }
+            if (schema.properties() != null) {
+                pending.addAll(schema.properties().values());
+            }
+            pending.add(schema.items());
+        }
+        reached.values().removeIf(Objects::isNull);
+        return reached;
+    }
+
+    /**
+     * Reúne os schemas dos corpos de requisição, das respostas e dos headers das respostas de
+     * endpoints, ponto de partida de {@link #referencedComponents}.
+     *
+     * @param endpoints os endpoints.
+     * @return os schemas (pode conter {@code null}).
+     */
+    static List<OpenApiSchema> endpointSchemas(List<OpenApiEndpoint> endpoints) {
+        List<OpenApiSchema> roots = new ArrayList<>();
+        for (OpenApiEndpoint endpoint : endpoints) {
+            if (endpoint.requestBody() != null && endpoint.requestBody().content() != null) {
+                endpoint.requestBody().content().values().stream()
+                        .filter(Objects::nonNull)
+                        .forEach(mediaType -> roots.add(mediaType.schema()));
+            }
+            if (endpoint.responses() != null) {
+                for (OpenApiResponse response : endpoint.responses().values()) {
+                    if (response.content() != null) {
+                        response.content().values().stream()
+                                .filter(Objects::nonNull)
+                                .forEach(mediaType -> roots.add(mediaType.schema()));
+                    }
+                    if (response.headers() != null) {
+                        response.headers().values().forEach(header -> roots.add(header.schema()));
+                    }
+                }
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Número de referências atualmente guardadas no cache.
+     *
+     * @return a quantidade de referências resolvidas.
+     */
+    int size() {
+        return resolvedByRef.size();
+    }
+
+    private ObjectNode build(OpenApiSchema schema, Resolution resolution) {
+        if (schema == null) {
+            return objectMapper.createObjectNode();
+        }
+        if (schema.ref() != null) {
+            return resolveRef(schema.ref(), resolution);
+        }
+
+        ObjectNode node = objectMapper.createObjectNode();
+        if (schema.type() != null) node.put("type", schema.type());
+        if (schema.format() != null) node.put("format", schema.format());
+        if (schema.description() != null) node.put("description", schema.description());
+
+        // Processa as propriedades de um esquema do tipo objeto.
+        if ("object".equals(schema.type()) && schema.properties() != null) {
+            ObjectNode propertiesNode = objectMapper.createObjectNode();
+            schema.properties().forEach((key, value) -> propertiesNode.set(key, build(value, resolution)));
+            node.set("properties", propertiesNode);
+        }
+
+        // Processa os itens de um esquema do tipo array.
+        if ("array".equals(schema.type()) && schema.items() != null) {
+            node.set("items", build(schema.items(), resolution));
+        }
+        return node;
+    }
+
+    private ObjectNode resolveRef(String ref, Resolution resolution) {
+        ResolvedSchema cached = resolvedByRef.get(ref);
+        if (cached != null) {
+            return cached.node();
+        }
+
+        // Proteção contra recursão infinita: a referência já está sendo expandida mais acima.
+        int cycleDepth = resolution.stack.indexOf(ref);
+        if (cycleDepth >= 0) {
+            resolution.lowestCycleDepth = Math.min(resolution.lowestCycleDepth, cycleDepth);
+            return objectMapper.createObjectNode().put("description", "Referência circular para " + ref);
+        }
+
+        int depth = resolution.stack.size();
+        int outerLowestCycleDepth = resolution.lowestCycleDepth;
+        resolution.stack.add(ref);
+        resolution.lowestCycleDepth = Integer.MAX_VALUE;
+
+        ObjectNode node = build(lookup(ref), resolution);
+
+        resolution.stack.remove(depth);
+        // Só é guardado o que não depende do caminho pelo qual a referência foi alcançada.
+        if (resolution.lowestCycleDepth == Integer.MAX_VALUE) {
+            node = remember(ref, node);
+        }
+        resolution.lowestCycleDepth = Math.min(outerLowestCycleDepth, resolution.lowestCycleDepth);
+        return node;
+    }
+
+    private ObjectNode remember(String ref, ObjectNode node) {
+        try {
+            ResolvedSchema resolved = new ResolvedSchema(node, objectMapper.writeValueAsString(node));
+            // Em caso de corrida, mantém a primeira versão para que todos compartilhem o mesmo nó.
+            ResolvedSchema existing = resolvedByRef.putIfAbsent(ref, resolved);
+            return existing != null ? existing.node() : node;
+        } catch (JsonProcessingException e) {
+            log.warn("Não foi possível serializar o schema resolvido de {}", ref, e);
+            return node;
+        }
+    }
+
+    private OpenApiSchema lookup(String ref) {
+        // Extrai o nome do componente da referência (ex: #/components/schemas/Pet -> Pet)
+        OpenApiSchema resolvedSchema = components.apply(ref.substring(ref.lastIndexOf('/') + 1));
+        if (resolvedSchema == null) {
+            log.warn("Não foi possível resolver a referência do esquema: {}", ref);
+        }
+        return resolvedSchema;
+    }
+
+    /**
+     * Estado de uma única resolução: a pilha de referências em expansão e a posição mais
+     * baixa da pilha alcançada por um ciclo dentro da expansão atual.
+     */
+    private static final class Resolution {
+        private final List<String> stack = new ArrayList<>();
+        private int lowestCycleDepth = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Schema resolvido e sua forma serializada.
+     *
+     * @param node o nó resolvido (somente leitura).
+     * @param json o JSON do nó, já serializado.
+     */
+    private record ResolvedSchema(ObjectNode node, String json) {
+    }
+}
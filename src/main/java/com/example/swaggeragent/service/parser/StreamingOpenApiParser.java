@@ -0,0 +1,458 @@
+package com.example.swaggeragent.service.parser;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiHeader;
+import com.example.swaggeragent.model.OpenApiMediaType;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.OpenApiParameterItems;
+import com.example.swaggeragent.model.OpenApiRequestBody;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analisador de especificações OpenAPI em JSON com uso de memória limitado, usado para
+ * arquivos muito grandes.
+ * <p>
+ * Em vez de montar o documento completo (e resolvido) com o swagger-parser, o arquivo é lido
+ * com a API de streaming do Jackson em duas passagens:
+ * <ol>
+ *   <li>A primeira lê {@code info} e {@code servers} e indexa a seção {@code components}: para
+ *   cada componente é guardada apenas a posição (em bytes) do seu valor no arquivo.</li>
+ *   <li>A segunda percorre {@code paths} um item de caminho por vez, convertendo cada operação
+ *   diretamente para o modelo compacto.</li>
+ * </ol>
+ * Referências ({@code $ref}) são resolvidas sob demanda lendo o componente a partir da posição
+ * indexada. Apenas os componentes de fato referenciados são carregados. Ao final, os schemas
+ * alcançados a partir dos endpoints são guardados no formato compacto e o cache devolvido usa só
+ * esses schemas: o arquivo não é mais lido depois da análise, mesmo que seja alterado ou removido.
+ * <p>
+ * <b>Limitações:</b> suporta apenas OpenAPI 3.x em JSON e referências internas
+ * ({@code #/components/...}). Para outros casos, {@link #parse} retorna {@code null} e o
+ * chamador deve usar o swagger-parser.
+ */
+final class StreamingOpenApiParser {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingOpenApiParser.class);
+
+    /**
+     * Métodos HTTP na mesma ordem usada pelo swagger-parser em {@code PathItem.readOperationsMap()}.
+     */
+    private static final List<String> HTTP_METHODS = List.of("get", "put", "post", "delete", "options", "head", "patch", "trace");
+    private static final Set<String> INDEXED_SECTIONS = Set.of("schemas", "parameters", "requestBodies", "responses", "headers", "examples");
+    private static final int RAW_COMPONENT_CACHE_SIZE = 256;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param objectMapper o mapper usado para ler os nós JSON.
+     */
+    StreamingOpenApiParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resultado da análise em streaming de um arquivo.
+     *
+     * @param projectName o nome do projeto da especificação.
+     * @param endpoints   os endpoints extraídos.
+     * @param schemas     o cache de schemas resolvidos, com os componentes alcançados a partir dos endpoints.
+     */
+    record Result(String projectName, List<OpenApiEndpoint> endpoints, ResolvedSchemaCache schemas) {
+    }
+
+    /**
+     * Analisa um arquivo de especificação OpenAPI em JSON.
+     *
+     * @param file o arquivo a ser analisado.
+     * @return o resultado da análise, ou {@code null} se o arquivo não for um documento OpenAPI 3.x.
+     * @throws IOException se o arquivo não puder ser lido.
+     */
+    Result parse(Path file) throws IOException {
+        ComponentIndex components = new ComponentIndex(file);
+        JsonNode info = null;
+        JsonNode servers = null;
+        String openApiVersion = null;
+        long pathsOffset = -1;
+
+        // Primeira passagem: metadados, posição de "paths" e índice de "components".
+        try (InputStream in = Files.newInputStream(file); JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "openapi" -> openApiVersion = parser.getValueAsString();
+                    case "info" -> info = objectMapper.readTree(parser);
+                    case "servers" -> servers = objectMapper.readTree(parser);
+                    case "paths" -> {
+                        pathsOffset = parser.currentTokenLocation().getByteOffset();
+                        parser.skipChildren();
+                    }
+                    case "components" -> components.index(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (openApiVersion == null || !openApiVersion.startsWith("3.")) {
+            return null;
+        }
+
+        String title = info != null ? text(info, "title") : null;
+        String projectName = components.compact.intern(OpenApiParserService.resolveProjectName(title, file.getFileName().toString()));
+        String baseUrl = components.compact.intern(extractBaseUrl(servers));
+
+        // Segunda passagem: um item de "paths" por vez.
+        List<OpenApiEndpoint> endpoints = new ArrayList<>();
+        if (pathsOffset >= 0) {
+            try (JsonParser parser = components.openAt(pathsOffset)) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String path = parser.currentName();
+                        parser.nextToken();
+                        JsonNode pathItem = objectMapper.readTree(parser);
+                        extractEndpoints(path, pathItem, baseUrl, projectName, components, endpoints);
+                    }
+                }
+            }
+        }
+        // Os componentes são lidos agora, enquanto as posições indexadas valem para o arquivo.
+        Map<String, OpenApiSchema> reachable = Map.copyOf(new ResolvedSchemaCache(components::schema, objectMapper)
+                .referencedComponents(ResolvedSchemaCache.endpointSchemas(endpoints)));
+        log.info("Análise em streaming de {}: {} endpoints, {} componentes indexados, {} schemas alcançados",
+                file.getFileName(), endpoints.size(), components.size(), reachable.size());
+        return new Result(projectName, endpoints, new ResolvedSchemaCache(reachable::get, objectMapper));
+    }
+
+    private void extractEndpoints(String path, JsonNode pathItem, String baseUrl, String projectName,
+                                  ComponentIndex components, List<OpenApiEndpoint> endpoints) {
+        for (String method : HTTP_METHODS) {
+            JsonNode operation = pathItem.get(method);
+            if (operation == null || !operation.isObject()) {
+                continue;
+            }
+            try {
+                endpoints.add(buildEndpoint(path, method, operation, baseUrl, projectName, components));
+                log.trace("Endpoint extraído com sucesso: {} {}", method, path);
+            } catch (Exception e) {
+                log.error("Erro ao construir o endpoint para o caminho: {} {}, Método: {}", path, method, e);
+            }
+        }
+    }
+
+    private OpenApiEndpoint buildEndpoint(String path, String method, JsonNode operation, String baseUrl,
+                                          String projectName, ComponentIndex components) {
+        CompactModelFactory compact = components.compact;
+        String operationId = text(operation, "operationId");
+
+        List<OpenApiParameter> parameters = new ArrayList<>();
+        for (JsonNode parameter : operation.path("parameters")) {
+            OpenApiParameter built = buildParameter(components.resolve("parameters", parameter), components);
+            if (built != null) {
+                parameters.add(built);
+            }
+        }
+
+        List<String> tags = null;
+        if (operation.has("tags")) {
+            tags = new ArrayList<>();
+            for (JsonNode tag : operation.get("tags")) {
+                tags.add(compact.intern(tag.asText()));
+            }
+        }
+
+        return new OpenApiEndpoint(
+                operationId != null ? operationId : OpenApiParserService.generateOperationId(method, path),
+                compact.intern(method),
+                path,
+                text(operation, "summary"),
+                text(operation, "description"),
+                baseUrl,
+                projectName,
+                parameters,
+                buildRequestBody(operation.get("requestBody"), components),
+                buildResponses(operation.get("responses"), components),
+                tags
+        );
+    }
+
+    private OpenApiParameter buildParameter(JsonNode parameter, ComponentIndex components) {
+        if (parameter == null) {
+            return null;
+        }
+        CompactModelFactory compact = components.compact;
+        JsonNode schema = components.resolve("schemas", parameter.get("schema"));
+        String type = schema != null ? text(schema, "type") : "string";
+        String format = schema != null ? text(schema, "format") : null;
+        Object defaultValue = schema != null ? compact.exampleValue(schema.get("default")) : null;
+
+        List<String> enumValues = null;
+        if (schema != null && schema.has("enum")) {
+            enumValues = new ArrayList<>();
+            for (JsonNode value : schema.get("enum")) {
+                enumValues.add(compact.intern(value.asText()));
+            }
+        }
+
+        OpenApiParameterItems items = null;
+        if ("array".equals(type) && schema.has("items")) {
+            JsonNode itemsSchema = components.resolve("schemas", schema.get("items"));
+            if (itemsSchema != null) {
+                items = new OpenApiParameterItems(compact.intern(text(itemsSchema, "type")), compact.intern(text(itemsSchema, "format")));
+            }
+        }
+
+        return new OpenApiParameter(
+                compact.intern(text(parameter, "name")),
+                compact.intern(text(parameter, "in")),
+                compact.intern(text(parameter, "description")),
+                parameter.path("required").asBoolean(false),
+                compact.intern(type),
+                compact.intern(format),
+                defaultValue,
+                enumValues,
+                items
+        );
+    }
+
+    private OpenApiRequestBody buildRequestBody(JsonNode requestBody, ComponentIndex components) {
+        JsonNode resolved = components.resolve("requestBodies", requestBody);
+        if (resolved == null) {
+            return null;
+        }
+        Map<String, OpenApiMediaType> content = buildContent(resolved.get("content"), components);
+        return new OpenApiRequestBody(
+                text(resolved, "description"),
+                resolved.path("required").asBoolean(false),
+                content != null ? content : new HashMap<>()
+        );
+    }
+
+    private Map<String, OpenApiResponse> buildResponses(JsonNode responses, ComponentIndex components) {
+        Map<String, OpenApiResponse> built = new HashMap<>();
+        if (responses == null || !responses.isObject()) {
+            return built;
+        }
+        CompactModelFactory compact = components.compact;
+        responses.fields().forEachRemaining(entry -> {
+            JsonNode response = components.resolve("responses", entry.getValue());
+            String description = response != null ? text(response, "description") : "No description";
+            Map<String, OpenApiMediaType> content = response != null ? buildContent(response.get("content"), components) : null;
+            Map<String, OpenApiHeader> headers = response != null ? buildHeaders(response.get("headers"), components) : null;
+            built.put(compact.intern(entry.getKey()), new OpenApiResponse(compact.intern(description), content, headers));
+        });
+        return built;
+    }
+
+    private Map<String, OpenApiMediaType> buildContent(JsonNode content, ComponentIndex components) {
+        if (content == null || !content.isObject()) {
+            return null;
+        }
+        CompactModelFactory compact = components.compact;
+        Map<String, OpenApiMediaType> built = new HashMap<>();
+        content.fields().forEachRemaining(entry -> {
+            JsonNode mediaType = entry.getValue();
+            Map<String, Object> examples = buildExamples(mediaType.get("examples"), components);
+            Object example = compact.exampleValue(mediaType.get("example"));
+            if (example == null && examples != null) {
+                // Tenta pegar o primeiro exemplo da lista de exemplos se o campo 'example' estiver vazio.
+                example = examples.values().iterator().next();
+            }
+            built.put(compact.intern(entry.getKey()),
+                    new OpenApiMediaType(components.compactSchema(mediaType.get("schema")), example, examples));
+        });
+        return built;
+    }
+
+    private Map<String, Object> buildExamples(JsonNode examples, ComponentIndex components) {
+        if (examples == null || !examples.isObject() || examples.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        examples.fields().forEachRemaining(entry -> {
+            JsonNode example = components.resolve("examples", entry.getValue());
+            Object value = example != null ? components.compact.exampleValue(example.get("value")) : null;
+            if (value != null) {
+                values.put(components.compact.intern(entry.getKey()), value);
+            }
+        });
+        return values.isEmpty() ? null : Collections.unmodifiableMap(values);
+    }
+
+    private Map<String, OpenApiHeader> buildHeaders(JsonNode headers, ComponentIndex components) {
+        if (headers == null || !headers.isObject() || headers.isEmpty()) {
+            return null;
+        }
+        Map<String, OpenApiHeader> built = new LinkedHashMap<>();
+        headers.fields().forEachRemaining(entry -> {
+            JsonNode header = components.resolve("headers", entry.getValue());
+            if (header != null) {
+                built.put(components.compact.intern(entry.getKey()), new OpenApiHeader(
+                        components.compact.intern(text(header, "description")),
+                        header.path("required").asBoolean(false),
+                        components.compactSchema(header.get("schema"))));
+            }
+        });
+        return Collections.unmodifiableMap(built);
+    }
+
+    private static String extractBaseUrl(JsonNode servers) {
+        if (servers != null && servers.isArray() && !servers.isEmpty()) {
+            String url = text(servers.get(0), "url");
+            return url != null && !url.isBlank() ? url : OpenApiParserService.DEFAULT_FALLBACK_URL;
+        }
+        log.warn("Nenhum servidor definido na especificação OpenAPI, usando a URL de fallback: {}", OpenApiParserService.DEFAULT_FALLBACK_URL);
+        return OpenApiParserService.DEFAULT_FALLBACK_URL;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isValueNode() && !value.isNull() ? value.asText() : null;
+    }
+
+    /**
+     * Índice preguiçoso da seção {@code components} de um arquivo.
+     * <p>
+     * Guarda somente a posição de cada componente no arquivo. Os schemas usados pelo
+     * {@link ResolvedSchemaCache} são mantidos no formato compacto; os nós JSON lidos
+     * (parâmetros, respostas, schemas de parâmetros etc.) ficam em um cache LRU pequeno, pois
+     * só são necessários durante a segunda passagem.
+     */
+    private final class ComponentIndex {
+
+        private final Path file;
+        private final Map<String, Map<String, Long>> offsets = new HashMap<>();
+        private final Map<String, OpenApiSchema> schemas = new HashMap<>();
+        private final Map<String, JsonNode> rawComponents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonNode> eldest) {
+                return size() > RAW_COMPONENT_CACHE_SIZE;
+            }
+        };
+        private final CompactModelFactory compact = new CompactModelFactory(null, objectMapper);
+
+        private ComponentIndex(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Indexa a seção {@code components}; o parser deve estar posicionado no início do objeto.
+         */
+        private void index(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token != JsonToken.START_OBJECT || !INDEXED_SECTIONS.contains(section)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                Map<String, Long> sectionOffsets = offsets.computeIfAbsent(section, key -> new HashMap<>());
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    sectionOffsets.put(name, parser.currentTokenLocation().getByteOffset());
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private int size() {
+            return offsets.values().stream().mapToInt(Map::size).sum();
+        }
+
+        /**
+         * Abre um parser posicionado em um byte do arquivo.
+         */
+        private JsonParser openAt(long offset) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            channel.position(offset);
+            return objectMapper.createParser(Channels.newInputStream(channel));
+        }
+
+        /**
+         * Resolve um objeto que pode ser uma referência a um componente da seção indicada.
+         */
+        private synchronized JsonNode resolve(String section, JsonNode node) {
+            JsonNode current = node;
+            // Limita referências encadeadas (um componente que aponta para outro).
+            for (int i = 0; i < 8 && current != null && current.has("$ref"); i++) {
+                current = read(section, current.get("$ref").asText());
+            }
+            return current;
+        }
+
+        /**
+         * Converte um schema para o modelo compacto, mantendo referências como referências.
+         */
+        private synchronized OpenApiSchema compactSchema(JsonNode schema) {
+            return compact.schema(schema);
+        }
+
+        /**
+         * Busca um componente de {@code components/schemas} pelo nome, no formato compacto.
+         */
+        private synchronized OpenApiSchema schema(String name) {
+            OpenApiSchema cached = schemas.get(name);
+            if (cached != null || schemas.containsKey(name)) {
+                return cached;
+            }
+            OpenApiSchema schema = compact.schema(read("schemas", "#/components/schemas/" + name));
+            schemas.put(name, schema);
+            return schema;
+        }
+
+        private JsonNode read(String section, String ref) {
+            String prefix = "#/components/" + section + "/";
+            if (!ref.startsWith(prefix)) {
+                log.warn("Referência não suportada na análise em streaming: {}", ref);
+                return null;
+            }
+            String name = ref.substring(prefix.length());
+            Long offset = offsets.getOrDefault(section, Map.of()).get(name);
+            if (offset == null) {
+                log.warn("Não foi possível resolver a referência: {}", ref);
+                return null;
+            }
+            JsonNode cached = rawComponents.get(ref);
+            if (cached != null) {
+                return cached;
+            }
+            try (JsonParser parser = openAt(offset)) {
+                parser.nextToken();
+                JsonNode component = objectMapper.readTree(parser);
+                rawComponents.put(ref, component);
+                return component;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao ler o componente " + ref + " de " + file.getFileName(), e);
+            }
+        }
+    }
+}
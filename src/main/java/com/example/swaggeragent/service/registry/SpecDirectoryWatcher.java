@@ -0,0 +1,198 @@
+package com.example.swaggeragent.service.registry;
+
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Monitora o diretório de especificações OpenAPI e aplica as alterações ao registro de
+ * ferramentas sem reiniciar a aplicação.
+ * <p>
+ * Usa um {@link WatchService} registrado no diretório {@code openapi.specs.directory} e em
+ * todos os seus subdiretórios. Como editores e ferramentas de deploy costumam gerar vários
+ * eventos para uma única gravação, as alterações são acumuladas e só aplicadas depois de um
+ * período sem novos eventos ({@code openapi.specs.watch.debounce-ms}).
+ * <p>
+ * O monitoramento é desabilitado por padrão; habilite com {@code openapi.specs.watch.enabled=true}.
+ */
+@Component
+public class SpecDirectoryWatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SpecDirectoryWatcher.class);
+
+    private final OpenApiParserService openApiParserService;
+    private final ToolRegistryService toolRegistryService;
+    private final boolean enabled;
+    private final long debounceMs;
+
+    private volatile WatchService watchService;
+    private volatile Thread watcherThread;
+
+    /**
+     * Construtor para injeção de dependências e configuração do monitoramento.
+     *
+     * @param openApiParserService o serviço de análise, que conhece o diretório e os arquivos suportados.
+     * @param toolRegistryService  o registro de ferramentas a ser atualizado.
+     * @param enabled              se o monitoramento está habilitado.
+     * @param debounceMs           o período de silêncio, em milissegundos, antes de aplicar as alterações.
+     */
+    public SpecDirectoryWatcher(OpenApiParserService openApiParserService,
+                                ToolRegistryService toolRegistryService,
+                                @Value("${openapi.specs.watch.enabled:false}") boolean enabled,
+                                @Value("${openapi.specs.watch.debounce-ms:500}") long debounceMs) {
+        this.openApiParserService = openApiParserService;
+        this.toolRegistryService = toolRegistryService;
+        this.enabled = enabled;
+        this.debounceMs = debounceMs;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Path directory = openApiParserService.getSpecsDirectory();
+        if (!Files.isDirectory(directory)) {
+            log.warn("Monitoramento de especificações não iniciado: diretório inexistente {}", directory.toAbsolutePath());
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(directory);
+        } catch (IOException e) {
+            log.error("Não foi possível iniciar o monitoramento do diretório {}", directory.toAbsolutePath(), e);
+            return;
+        }
+        watcherThread = new Thread(this::watchLoop, "openapi-spec-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("👀 Monitorando alterações em {}", directory.toAbsolutePath());
+    }
+
+    @Override
+    public void stop() {
+        WatchService service = watchService;
+        watchService = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.debug("Erro ao encerrar o WatchService", e);
+            }
+        }
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+            watcherThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watchService != null;
+    }
+
+    /**
+     * Laço principal do monitoramento: acumula eventos e aplica as alterações após o
+     * período de silêncio.
+     */
+    private void watchLoop() {
+        Set<Path> changed = new LinkedHashSet<>();
+        Set<Path> deleted = new LinkedHashSet<>();
+        boolean overflow = false;
+
+        while (true) {
+            WatchService service = watchService;
+            if (service == null) {
+                return;
+            }
+            WatchKey key;
+            try {
+                key = service.poll(debounceMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (key == null) {
+                if (overflow || !changed.isEmpty() || !deleted.isEmpty()) {
+                    flush(changed, deleted, overflow);
+                    changed.clear();
+                    deleted.clear();
+                    overflow = false;
+                }
+                continue;
+            }
+
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                Path path = directory.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    changed.remove(path);
+                    deleted.add(path);
+                } else if (Files.isDirectory(path)) {
+                    // Um novo diretório precisa ser monitorado e seus arquivos carregados.
+                    try {
+                        registerTree(path);
+                        try (Stream<Path> files = Files.walk(path)) {
+                            files.filter(Files::isRegularFile).forEach(changed::add);
+                        }
+                    } catch (IOException e) {
+                        log.warn("Não foi possível monitorar o novo diretório {}", path, e);
+                    }
+                } else {
+                    deleted.remove(path);
+                    changed.add(path);
+                }
+            }
+            if (!key.reset()) {
+                log.debug("Diretório deixou de ser monitorado: {}", directory);
+            }
+        }
+    }
+
+    private void flush(Set<Path> changed, Set<Path> deleted, boolean overflow) {
+        try {
+            if (overflow) {
+                log.warn("Eventos do diretório de especificações foram perdidos; recarregando todos os arquivos");
+                toolRegistryService.reloadAll();
+            } else {
+                log.info("Alterações detectadas: {} arquivos modificados, {} removidos", changed.size(), deleted.size());
+                toolRegistryService.applyChanges(Set.copyOf(changed), Set.copyOf(deleted));
+            }
+        } catch (Exception e) {
+            log.error("Falha ao aplicar as alterações das especificações OpenAPI", e);
+        }
+    }
+
+    private void registerTree(Path root) throws IOException {
+        try (Stream<Path> directories = Files.walk(root)) {
+            for (Path directory : directories.filter(Files::isDirectory).toList()) {
+                directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+}
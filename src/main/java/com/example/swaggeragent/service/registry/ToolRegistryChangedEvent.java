@@ -0,0 +1,15 @@
+package com.example.swaggeragent.service.registry;
+
+import com.example.swaggeragent.model.domain.ToolRegistry;
+import com.example.swaggeragent.model.domain.ToolRegistryDiff;
+
+/**
+ * Evento publicado quando uma nova versão do {@link ToolRegistry} é disponibilizada
+ * por um recarregamento das especificações OpenAPI.
+ *
+ * @param previous a versão que deixou de ser a atual.
+ * @param current  a nova versão atual.
+ * @param diff     as ferramentas adicionadas, removidas e alteradas.
+ */
+public record ToolRegistryChangedEvent(ToolRegistry previous, ToolRegistry current, ToolRegistryDiff diff) {
+}
@@ -0,0 +1,159 @@
+package com.example.swaggeragent.service.registry;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.model.domain.ToolRegistry;
+import com.example.swaggeragent.model.domain.ToolRegistryDiff;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.example.swaggeragent.service.tool.DynamicToolGeneratorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serviço que mantém o registro de ferramentas dinâmicas e o atualiza de forma incremental.
+ * <p>
+ * O registro atual é um {@link ToolRegistry} imutável guardado em uma {@link AtomicReference}.
+ * Recarregamentos constroem uma nova versão a partir da anterior, reanalisando apenas os
+ * arquivos de especificação alterados, e a publicam atomicamente. Leitores sempre obtêm uma
+ * versão completa e consistente, sem sincronização.
+ * <p>
+ * Quando uma nova versão com diferenças é publicada, um {@link ToolRegistryChangedEvent}
+ * é disparado para que os interessados (como o {@code ChatService}) possam reagir.
+ */
+@Service
+public class ToolRegistryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolRegistryService.class);
+
+    private final OpenApiParserService openApiParserService;
+    private final DynamicToolGeneratorService dynamicToolGeneratorService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<ToolRegistry> registry = new AtomicReference<>(ToolRegistry.empty());
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param openApiParserService        o serviço para analisar arquivos OpenAPI.
+     * @param dynamicToolGeneratorService o serviço para criar ferramentas dinâmicas.
+     * @param eventPublisher              o publicador de eventos da aplicação.
+     */
+    public ToolRegistryService(OpenApiParserService openApiParserService,
+                               DynamicToolGeneratorService dynamicToolGeneratorService,
+                               ApplicationEventPublisher eventPublisher) {
+        this.openApiParserService = openApiParserService;
+        this.dynamicToolGeneratorService = dynamicToolGeneratorService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Retorna a versão atual do registro.
+     *
+     * @return o registro atual (nunca {@code null}).
+     */
+    public ToolRegistry current() {
+        return registry.get();
+    }
+
+    /**
+     * Analisa todas as especificações e publica um registro completamente novo.
+     * <p>
+     * Usado na inicialização e quando o monitoramento do diretório perde eventos.
+     * Não dispara {@link ToolRegistryChangedEvent}; o chamador recebe o registro publicado.
+     *
+     * @return o registro publicado.
+     */
+    public synchronized ToolRegistry loadAll() {
+        Map<Path, List<OpenApiEndpoint>> endpointsBySource = openApiParserService.parseAllOpenApiFilesBySource();
+
+        Map<Path, List<DynamicTool>> toolsBySource = new LinkedHashMap<>();
+        Set<String> usedNames = new HashSet<>();
+        endpointsBySource.forEach((source, endpoints) -> {
+            List<DynamicTool> tools = dynamicToolGeneratorService.generateToolsFromEndpoints(endpoints, usedNames);
+            tools.forEach(tool -> usedNames.add(tool.getName()));
+            toolsBySource.put(source, tools);
+        });
+
+        ToolRegistry loaded = ToolRegistry.of(registry.get().version() + 1, toolsBySource);
+        registry.set(loaded);
+        return loaded;
+    }
+
+    /**
+     * Aplica alterações de arquivos de especificação ao registro atual.
+     * <p>
+     * Apenas os arquivos alterados são reanalisados; as ferramentas dos demais arquivos são
+     * reaproveitadas e mantêm seus nomes. Uma nova versão só é publicada se o conjunto de
+     * ferramentas de fato mudou.
+     *
+     * @param changed arquivos criados ou modificados.
+     * @param deleted arquivos (ou diretórios) removidos.
+     * @return o registro atual após a aplicação das alterações.
+     */
+    public synchronized ToolRegistry applyChanges(Collection<Path> changed, Collection<Path> deleted) {
+        ToolRegistry previous = registry.get();
+        Map<Path, List<DynamicTool>> toolsBySource = new LinkedHashMap<>(previous.toolsBySource());
+
+        // Remove os arquivos excluídos (um diretório excluído remove todos os arquivos abaixo dele).
+        toolsBySource.keySet().removeIf(source -> {
+            boolean removed = deleted.stream().anyMatch(source::startsWith);
+            if (removed) {
+                openApiParserService.evict(source);
+            }
+            return removed;
+        });
+        // Os arquivos alterados também saem do cache do parser: se o título mudar, o projeto antigo
+        // não pode ficar no cache sem nenhum arquivo apontando para ele.
+        changed.forEach(source -> {
+            toolsBySource.remove(source);
+            openApiParserService.evict(source);
+        });
+
+        Set<String> usedNames = new HashSet<>();
+        toolsBySource.values().forEach(tools -> tools.forEach(tool -> usedNames.add(tool.getName())));
+
+        openApiParserService.parseSpecFiles(changed).forEach((source, endpoints) -> {
+            List<DynamicTool> tools = dynamicToolGeneratorService.generateToolsFromEndpoints(endpoints, usedNames);
+            tools.forEach(tool -> usedNames.add(tool.getName()));
+            toolsBySource.put(source, tools);
+        });
+
+        ToolRegistry candidate = ToolRegistry.of(previous.version() + 1, toolsBySource);
+        ToolRegistryDiff diff = ToolRegistryDiff.between(previous, candidate);
+        if (diff.isEmpty()) {
+            log.info("🔄 Especificações recarregadas sem alterações nas ferramentas (versão {})", previous.version());
+            return previous;
+        }
+
+        registry.set(candidate);
+        log.info("🔄 Registro de ferramentas atualizado para a versão {}: {} adicionadas, {} removidas, {} alteradas",
+                candidate.version(), diff.added().size(), diff.removed().size(), diff.changed().size());
+        eventPublisher.publishEvent(new ToolRegistryChangedEvent(previous, candidate, diff));
+        return candidate;
+    }
+
+    /**
+     * Recarrega todas as especificações e publica a nova versão, se houver diferenças.
+     *
+     * @return o registro atual após o recarregamento.
+     */
+    public synchronized ToolRegistry reloadAll() {
+        ToolRegistry previous = registry.get();
+        ToolRegistry reloaded = loadAll();
+        ToolRegistryDiff diff = ToolRegistryDiff.between(previous, reloaded);
+        if (!diff.isEmpty()) {
+            eventPublisher.publishEvent(new ToolRegistryChangedEvent(previous, reloaded, diff));
+        }
+        return reloaded;
+    }
+}
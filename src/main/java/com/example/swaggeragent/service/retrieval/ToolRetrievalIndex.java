@@ -0,0 +1,222 @@
+package com.example.swaggeragent.service.retrieval;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.model.domain.ToolRegistry;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Índice de busca textual (BM25) sobre as ferramentas de uma versão do {@link ToolRegistry}.
+ * <p>
+ * Cada ferramenta é indexada a partir do seu nome, resumo, tags, nomes de parâmetros e
+ * segmentos do caminho. Nome e tags têm peso dobrado. Os textos são normalizados (minúsculas,
+ * sem acentos, {@code camelCase} e {@code snake_case} separados, plural simples removido),
+ * de forma que "listar pets" encontre {@code pet_findPetsByStatus}.
+ * <p>
+ * A instância é imutável e pode ser consultada concorrentemente.
+ */
+public final class ToolRetrievalIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "o", "as", "os", "de", "da", "do", "das", "dos", "e", "em", "no", "na", "nos", "nas",
+            "um", "uma", "para", "por", "com", "que", "se", "me", "meu", "minha", "qual", "quais", "como",
+            "the", "of", "to", "and", "in", "for", "on", "is", "are", "by", "an", "it", "my", "what", "how");
+
+    private final long version;
+    private final List<DynamicTool> tools;
+    private final Map<String, Integer> positionByName;
+    private final Map<String, List<Posting>> postings;
+    private final int[] documentLengths;
+    private final double averageDocumentLength;
+
+    private ToolRetrievalIndex(long version, List<DynamicTool> tools, Map<String, List<Posting>> postings, int[] documentLengths) {
+        this.version = version;
+        this.tools = tools;
+        this.postings = postings;
+        this.documentLengths = documentLengths;
+        this.averageDocumentLength = documentLengths.length == 0 ? 0 : IntStream.of(documentLengths).average().orElse(0);
+        this.positionByName = new HashMap<>();
+        for (int i = 0; i < tools.size(); i++) {
+            positionByName.put(tools.get(i).getName(), i);
+        }
+    }
+
+    /**
+     * Constrói o índice para uma versão do registro.
+     *
+     * @param registry o registro de ferramentas.
+     * @return o índice das ferramentas do registro.
+     */
+    static ToolRetrievalIndex build(ToolRegistry registry) {
+        List<DynamicTool> tools = registry.tools();
+        Map<String, List<Posting>> postings = new HashMap<>();
+        int[] lengths = new int[tools.size()];
+        for (int doc = 0; doc < tools.size(); doc++) {
+            List<String> terms = documentTerms(tools.get(doc));
+            lengths[doc] = terms.size();
+            Map<String, Integer> frequencies = new HashMap<>();
+            terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            int position = doc;
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new ArrayList<>()).add(new Posting(position, frequency)));
+        }
+        return new ToolRetrievalIndex(registry.version(), tools, postings, lengths);
+    }
+
+    /**
+     * Versão do registro a partir da qual o índice foi construído.
+     *
+     * @return a versão do registro.
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Pontua todas as ferramentas para uma consulta.
+     *
+     * @param query o texto da consulta (normalmente a mensagem do usuário).
+     * @return a pontuação de cada ferramenta para a consulta.
+     */
+    Ranking rank(String query) {
+        double[] scores = new double[tools.size()];
+        int documents = tools.size();
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            List<Posting> termPostings = postings.get(term);
+            if (termPostings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documents - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+            for (Posting posting : termPostings) {
+                double normalizedLength = averageDocumentLength == 0 ? 1 : documentLengths[posting.document()] / averageDocumentLength;
+                double tf = posting.frequency();
+                scores[posting.document()] += idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * normalizedLength));
+            }
+        }
+        return new Ranking(scores);
+    }
+
+    /**
+     * Quebra um texto em termos normalizados.
+     *
+     * @param text o texto.
+     * @return os termos, na ordem em que aparecem.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        // Separa camelCase antes de converter para minúsculas.
+        String separated = text.replaceAll("([a-z0-9])([A-Z])", "$1 $2");
+        String normalized = Normalizer.normalize(separated, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        for (String token : normalized.split("[^a-z0-9]+")) {
+            if (token.length() < 2 || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            terms.add(token.length() > 3 && token.endsWith("s") ? token.substring(0, token.length() - 1) : token);
+        }
+        return terms;
+    }
+
+    private static List<String> documentTerms(DynamicTool tool) {
+        List<String> terms = new ArrayList<>();
+        List<String> nameTerms = tokenize(tool.getName());
+        terms.addAll(nameTerms);
+        terms.addAll(nameTerms);
+        terms.addAll(tokenize(tool.getSummary()));
+
+        OpenApiEndpoint endpoint = tool.getEndpoint();
+        if (endpoint != null) {
+            if (endpoint.tags() != null) {
+                endpoint.tags().forEach(tag -> {
+                    List<String> tagTerms = tokenize(tag);
+                    terms.addAll(tagTerms);
+                    terms.addAll(tagTerms);
+                });
+            }
+            if (endpoint.parameters() != null) {
+                for (OpenApiParameter parameter : endpoint.parameters()) {
+                    terms.addAll(tokenize(parameter.name()));
+                }
+            }
+            // Segmentos fixos do caminho (ex: /pet/findByStatus), sem as variáveis {id}.
+            terms.addAll(tokenize(endpoint.path().replaceAll("\\{[^}]*}", " ")));
+        }
+        return terms;
+    }
+
+    /**
+     * Ocorrências de um termo em uma ferramenta.
+     *
+     * @param document  a posição da ferramenta no registro.
+     * @param frequency quantas vezes o termo aparece no texto indexado da ferramenta.
+     */
+    private record Posting(int document, int frequency) {
+    }
+
+    /**
+     * Pontuação de todas as ferramentas para uma consulta.
+     */
+    public final class Ranking {
+
+        private final double[] scores;
+
+        private Ranking(double[] scores) {
+            this.scores = scores;
+        }
+
+        /**
+         * Retorna as ferramentas mais relevantes, da maior para a menor pontuação.
+         * Ferramentas sem nenhum termo em comum com a consulta não são retornadas.
+         *
+         * @param limit o número máximo de ferramentas.
+         * @return as ferramentas selecionadas.
+         */
+        List<DynamicTool> top(int limit) {
+            return IntStream.range(0, scores.length)
+                    .filter(doc -> scores[doc] > 0)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingDouble(doc -> scores[doc]).reversed())
+                    .limit(limit)
+                    .map(tools::get)
+                    .toList();
+        }
+
+        /**
+         * Posição (a partir de 1) de uma ferramenta na ordenação por relevância.
+         *
+         * @param toolName o nome da ferramenta.
+         * @return a posição, ou {@code -1} se a ferramenta não existir ou não tiver relação com a consulta.
+         */
+        int rankOf(String toolName) {
+            Integer doc = positionByName.get(toolName);
+            if (doc == null || scores[doc] <= 0) {
+                return -1;
+            }
+            double score = scores[doc];
+            int rank = 1;
+            for (int other = 0; other < scores.length; other++) {
+                if (scores[other] > score || (scores[other] == score && other < doc)) {
+                    rank++;
+                }
+            }
+            return rank;
+        }
+    }
+}
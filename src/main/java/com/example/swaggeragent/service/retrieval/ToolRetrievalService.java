@@ -0,0 +1,196 @@
+package com.example.swaggeragent.service.retrieval;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.model.domain.ToolRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço que seleciona, a cada mensagem, as ferramentas mais relevantes do catálogo.
+ * <p>
+ * Registrar todas as ferramentas em todas as requisições faz o prompt crescer com o catálogo
+ * (descrição e schema de cada ferramenta). Com a seleção habilitada
+ * ({@code app.tool.retrieval.enabled}), apenas as {@code app.tool.retrieval.top-k} ferramentas
+ * mais relevantes segundo um índice BM25 local são registradas, somadas às ferramentas
+ * chamadas na mensagem anterior da mesma sessão (para que respostas curtas como "sim, pode
+ * fazer" continuem tendo a ferramenta em uso disponível).
+ * <p>
+ * <b>Métricas publicadas:</b>
+ * <ul>
+ *   <li>{@code swagger.agent.tool.retrieval.latency}: tempo da seleção.</li>
+ *   <li>{@code swagger.agent.tool.retrieval.selected}: ferramentas registradas por mensagem.</li>
+ *   <li>{@code swagger.agent.tool.retrieval.rank}: posição, na ordenação por relevância, das
+ *   ferramentas efetivamente chamadas pelo modelo.</li>
+ *   <li>{@code swagger.agent.tool.retrieval.calls} ({@code outcome=hit|miss}): ferramentas chamadas
+ *   que estavam entre as selecionadas pelo índice ({@code hit}) ou não ({@code miss}). Contam as
+ *   chamadas diretas, as ferramentas citadas nos lotes e planos (que alcançam todo o catálogo) e
+ *   as ferramentas pedidas pelo modelo sem estarem registradas na mensagem. A proporção de
+ *   {@code hit} é o recall da seleção.</li>
+ *   <li>{@code swagger.agent.tool.retrieval.unregistered}: mensagens em que o modelo chamou ou pediu
+ *   uma ferramenta que não estava registrada no prompt.</li>
+ * </ul>
+ * No laço padrão do Spring AI, um pedido de ferramenta não registrada termina a mensagem com erro
+ * e não chega a ser contado; no laço paralelo ({@code app.tool.parallel.enabled}) ele é contado.
+ */
+@Service
+public class ToolRetrievalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolRetrievalService.class);
+    private static final int MAX_TRACKED_SESSIONS = 1_000;
+
+    private final SwaggerAgentProperties properties;
+    private final AtomicReference<ToolRetrievalIndex> index = new AtomicReference<>();
+    private final Map<String, Set<String>> lastCalledBySession = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                    return size() > MAX_TRACKED_SESSIONS;
+                }
+            });
+
+    private final Timer latency;
+    private final DistributionSummary selected;
+    private final DistributionSummary rank;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter unregistered;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties    as propriedades da aplicação ({@code app.tool.retrieval}).
+     * @param meterRegistry o registro de métricas.
+     */
+    public ToolRetrievalService(SwaggerAgentProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.latency = Timer.builder("swagger.agent.tool.retrieval.latency")
+                .description("Tempo para selecionar as ferramentas de uma mensagem")
+                .register(meterRegistry);
+        this.selected = DistributionSummary.builder("swagger.agent.tool.retrieval.selected")
+                .description("Ferramentas registradas no prompt por mensagem")
+                .register(meterRegistry);
+        this.rank = DistributionSummary.builder("swagger.agent.tool.retrieval.rank")
+                .description("Posição na ordenação por relevância das ferramentas chamadas pelo modelo")
+                .register(meterRegistry);
+        this.hits = Counter.builder("swagger.agent.tool.retrieval.calls").tag("outcome", "hit")
+                .description("Ferramentas chamadas que estavam entre as selecionadas pelo índice")
+                .register(meterRegistry);
+        this.misses = Counter.builder("swagger.agent.tool.retrieval.calls").tag("outcome", "miss")
+                .description("Ferramentas chamadas que não estavam entre as selecionadas pelo índice")
+                .register(meterRegistry);
+        this.unregistered = Counter.builder("swagger.agent.tool.retrieval.unregistered")
+                .description("Mensagens em que o modelo chamou ou pediu uma ferramenta não registrada no prompt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se a seleção de ferramentas por mensagem está habilitada.
+     *
+     * @return {@code true} se apenas as ferramentas relevantes devem ser registradas.
+     */
+    public boolean isEnabled() {
+        return properties.getTool().getRetrieval().isEnabled();
+    }
+
+    /**
+     * Seleciona as ferramentas a registrar para uma mensagem.
+     *
+     * @param registry  a versão do registro usada pela requisição.
+     * @param sessionId o ID da sessão de chat.
+     * @param message   a mensagem do usuário.
+     * @return as ferramentas selecionadas e a ordenação usada para medir o recall.
+     */
+    public ToolSelection select(ToolRegistry registry, String sessionId, String message) {
+        return latency.record(() -> {
+            ToolRetrievalIndex current = indexFor(registry);
+            ToolRetrievalIndex.Ranking ranking = current.rank(message);
+
+            Set<String> retrieved = new LinkedHashSet<>();
+            List<DynamicTool> tools = new ArrayList<>();
+            for (DynamicTool tool : ranking.top(Math.max(1, properties.getTool().getRetrieval().getTopK()))) {
+                retrieved.add(tool.getName());
+                tools.add(tool);
+            }
+            // Mantém disponíveis as ferramentas usadas na mensagem anterior da sessão.
+            for (String name : lastCalledBySession.getOrDefault(sessionId, Set.of())) {
+                DynamicTool tool = registry.findByName(name);
+                if (tool != null && !retrieved.contains(name)) {
+                    tools.add(tool);
+                }
+            }
+
+            selected.record(tools.size());
+            log.debug("🔎 {} ferramentas selecionadas para a sessão {}: {}", tools.size(), sessionId,
+                    tools.stream().map(DynamicTool::getName).toList());
+            return new ToolSelection(tools, retrieved, ranking);
+        });
+    }
+
+    /**
+     * Registra as ferramentas chamadas pelo modelo em uma mensagem, atualizando as métricas de
+     * recall e as ferramentas mantidas para a próxima mensagem da sessão.
+     *
+     * @param sessionId   o ID da sessão de chat.
+     * @param selection   a seleção feita para a mensagem.
+     * @param calledTools os nomes das ferramentas chamadas ou pedidas pelo modelo.
+     */
+    public void recordCalls(String sessionId, ToolSelection selection, Collection<String> calledTools) {
+        Set<String> registered = selection.tools().stream().map(DynamicTool::getName).collect(Collectors.toSet());
+        if (!registered.containsAll(calledTools)) {
+            unregistered.increment();
+        }
+        for (String name : calledTools) {
+            int position = selection.ranking().rankOf(name);
+            if (position > 0) {
+                rank.record(position);
+            }
+            if (selection.retrieved().contains(name)) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+        if (!calledTools.isEmpty()) {
+            lastCalledBySession.put(sessionId, Set.copyOf(calledTools));
+        }
+    }
+
+    private ToolRetrievalIndex indexFor(ToolRegistry registry) {
+        ToolRetrievalIndex current = index.get();
+        if (current != null && current.version() == registry.version()) {
+            return current;
+        }
+        ToolRetrievalIndex built = ToolRetrievalIndex.build(registry);
+        log.info("🔎 Índice de busca de ferramentas construído para a versão {} ({} ferramentas)",
+                registry.version(), registry.tools().size());
+        index.set(built);
+        return built;
+    }
+
+    /**
+     * Ferramentas selecionadas para uma mensagem.
+     *
+     * @param tools     as ferramentas a registrar no prompt.
+     * @param retrieved os nomes das ferramentas escolhidas pelo índice (sem as mantidas da mensagem anterior).
+     * @param ranking   a ordenação por relevância usada na seleção.
+     */
+    public record ToolSelection(List<DynamicTool> tools, Set<String> retrieved, ToolRetrievalIndex.Ranking ranking) {
+    }
+}
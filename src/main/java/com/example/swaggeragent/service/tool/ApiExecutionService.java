@@ -1,36 +1,63 @@
 package com.example.swaggeragent.service.tool;
 
+import com.example.swaggeragent.config.SwaggerAgentProperties;
 import com.example.swaggeragent.model.response.ToolExecutionResult;
 import com.example.swaggeragent.model.OpenApiEndpoint;
-import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.service.upstream.UpstreamClients;
+import com.example.swaggeragent.service.upstream.UpstreamExchange;
+import com.example.swaggeragent.service.upstream.UpstreamExchangeFilter;
+import com.example.swaggeragent.service.upstream.UpstreamRequest;
+import com.example.swaggeragent.service.upstream.UpstreamResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Serviço responsável por executar chamadas a APIs externas com base em uma definição
  * de endpoint da OpenAPI (representada por {@link OpenApiEndpoint}).
  * <p>
  * Esta classe é o coração da execução de ferramentas dinâmicas. Ela recebe uma representação
- * abstrata de um endpoint e um JSON com os parâmetros, e então:
+ * abstrata de um endpoint (já compilada em um {@link EndpointInvocationPlan}) e um JSON com os
+ * parâmetros, e então:
  * 1. Constrói a URL completa, substituindo variáveis de path e adicionando query params.
  * 2. Monta os cabeçalhos HTTP, incluindo os de segurança e os definidos pela API.
  * 3. Constrói o corpo (body) da requisição, se o método permitir.
- * 4. Utiliza o {@link WebClient} para executar a chamada HTTP de forma reativa.
+ * 4. Passa a requisição pelos {@link UpstreamExchangeFilter filtros} configurados e utiliza o
+ *    {@link WebClient} para executar a chamada HTTP de forma reativa.
  * 5. Empacota o resultado (status code e corpo da resposta) em um {@link ToolExecutionResult}.
+ * <p>
+ * O corpo da resposta é lido em partes ({@link DataBuffer}) até o limite de
+ * {@code app.tool.response.max-bytes} (ou o específico da ferramenta); o restante não chega a ser
+ * carregado em memória. Um corpo cortado é reparado para continuar sendo um JSON válido e o
+ * resultado leva um aviso ({@link ToolExecutionResult#notice()}) dizendo ao modelo que os dados
+ * estão incompletos.
+ * <p>
+ * A execução é totalmente reativa ({@link #executeReactive}); nenhuma thread fica presa
+ * enquanto a API externa responde.
+ * <p>
+ * Quando a chamada faz parte de uma mensagem de chat, o {@link RequestDeadline} lido do Context do
+ * Reactor limita a chamada (incluindo as esperas nos filtros) ao tempo que resta da mensagem: ao
+ * fim do prazo, a requisição é cancelada e a ferramenta recebe um {@code 504}.
  *
  * @author cesar schutz
  */
@@ -38,125 +65,207 @@ import java.util.stream.Collectors;
 public class ApiExecutionService implements ToolExecutionService {
 
     private static final Logger log = LoggerFactory.getLogger(ApiExecutionService.class);
-    private static final String PARAM_IN_PATH = "path";
-    private static final String PARAM_IN_QUERY = "query";
-    private static final String PARAM_IN_HEADER = "header";
     private static final String HEADER_AUTHORIZATION = "Authorization";
     private static final String HEADER_TRAFFIC_CODE = "Traffic-Code";
 
-    private final WebClient webClient;
+    private final UpstreamClients upstreamClients;
     private final ObjectMapper objectMapper;
     private final String apiAuthorizationToken;
     private final String apiTrafficCode;
+    private final SwaggerAgentProperties.Response responseSettings;
 
-    public ApiExecutionService(WebClient webClient, ObjectMapper objectMapper,
+    /**
+     * Cadeia de filtros montada uma única vez; a última etapa é a chamada HTTP.
+     */
+    private final UpstreamExchange exchange;
+
+    public ApiExecutionService(UpstreamClients upstreamClients, ObjectMapper objectMapper,
                                @Value("${api.security.authorization.token}") String apiAuthorizationToken,
-                               @Value("${api.security.traffic-code}") String apiTrafficCode) {
-        this.webClient = webClient;
+                               @Value("${api.security.traffic-code}") String apiTrafficCode,
+                               List<UpstreamExchangeFilter> filters,
+                               SwaggerAgentProperties properties) {
+        this.upstreamClients = upstreamClients;
         this.objectMapper = objectMapper;
         this.apiAuthorizationToken = apiAuthorizationToken;
         this.apiTrafficCode = apiTrafficCode;
+        this.responseSettings = properties.getTool().getResponse();
+        this.exchange = buildChain(filters);
+    }
+
+    /**
+     * Encadeia os filtros em volta da chamada HTTP, do de maior ordem (mais interno) ao de
+     * menor ordem (mais externo).
+     */
+    private UpstreamExchange buildChain(List<UpstreamExchangeFilter> filters) {
+        List<UpstreamExchangeFilter> ordered = new ArrayList<>(filters);
+        AnnotationAwareOrderComparator.sort(ordered);
+        UpstreamExchange chain = this::send;
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            UpstreamExchangeFilter filter = ordered.get(i);
+            UpstreamExchange next = chain;
+            chain = request -> filter.filter(request, next);
+        }
+        if (!ordered.isEmpty()) {
+            log.info("🔗 Filtros das chamadas às APIs externas: {}",
+                    ordered.stream().map(filter -> filter.getClass().getSimpleName()).toList());
+        }
+        return chain;
     }
 
     @Override
-    public ToolExecutionResult execute(OpenApiEndpoint endpoint, String input) {
-        return executeEndpoint(endpoint, input);
+    public Mono<ToolExecutionResult> executeReactive(EndpointInvocationPlan plan, String input) {
+        return Mono.deferContextual(context -> {
+            RequestDeadline deadline = RequestDeadline.fromContext(context);
+            if (deadline == null) {
+                return executeEndpoint(plan, input);
+            }
+            Duration remaining = deadline.remainingForTools();
+            if (remaining.isZero()) {
+                return Mono.just(deadlineExceeded(plan));
+            }
+            return executeEndpoint(plan, input).timeout(remaining, Mono.fromSupplier(() -> deadlineExceeded(plan)));
+        });
     }
 
     /**
-     * Executa uma chamada para um endpoint de API definido.
+     * Resultado de uma chamada que não coube no prazo da mensagem de chat.
+     */
+    private ToolExecutionResult deadlineExceeded(EndpointInvocationPlan plan) {
+        log.warn("⏱️ Chamada '{}' interrompida: o prazo da mensagem acabou", plan.operationId());
+        return new ToolExecutionResult(504, createErrorResponse(
+                "O prazo da mensagem acabou antes de a API responder. Responda com as informações já obtidas.", 504));
+    }
+
+    /**
+     * Executa uma chamada para um endpoint de API a partir do seu plano de execução.
+     * <p>
+     * Nenhuma etapa bloqueia: a resposta é entregue pelo {@link Mono} quando chega, e erros de
+     * entrada ou de rede viram um {@link ToolExecutionResult} com o status correspondente.
      *
-     * @param endpoint A definição do endpoint da OpenAPI a ser chamado.
-     * @param input    Uma string JSON contendo os parâmetros para a chamada (para path, query, header e body).
-     * @return Um {@link ToolExecutionResult} com o resultado da chamada HTTP.
+     * @param plan  O plano de execução pré-compilado do endpoint.
+     * @param input Uma string JSON contendo os parâmetros para a chamada (para path, query, header e body).
+     * @return Um {@link Mono} com o {@link ToolExecutionResult} da chamada HTTP.
      */
-    public ToolExecutionResult executeEndpoint(OpenApiEndpoint endpoint, String input) {
+    private Mono<ToolExecutionResult> executeEndpoint(EndpointInvocationPlan plan, String input) {
         try {
             // 1. Faz o parsing do JSON de entrada para um objeto JsonNode para fácil manipulação.
             JsonNode inputJson = objectMapper.readTree(input);
 
             // 2. Constrói a URL final, substituindo placeholders e adicionando query params.
-            String url = buildUrl(endpoint, inputJson);
-            HttpMethod method = HttpMethod.valueOf(endpoint.method().toUpperCase());
-
-            // 3. Inicia a construção da requisição com o WebClient.
-            WebClient.RequestBodySpec request = webClient
-                    .method(method) // Define o método HTTP (GET, POST, etc.)
-                    .uri(url)       // Define a URL completa
-                    .headers(httpHeaders -> addHeaders(httpHeaders, endpoint, inputJson)); // Adiciona os cabeçalhos
-
-            // 4. Adiciona o corpo (body) à requisição apenas para métodos que o suportam (POST, PUT, PATCH).
-            WebClient.ResponseSpec response;
-            if (isBodySupported(method)) {
-                String requestBody = getRequestBody(inputJson, endpoint.parameters());
-                response = request.bodyValue(requestBody).retrieve();
-            } else {
-                response = request.retrieve();
-            }
+            URI uri = plan.buildUri(inputJson);
+
+            // 3. Monta os cabeçalhos e, para métodos que o suportam (POST, PUT, PATCH), o corpo.
+            HttpHeaders headers = new HttpHeaders();
+            addHeaders(headers, plan, inputJson);
+            String requestBody = plan.bodySupported() ? objectMapper.writeValueAsString(plan.body(inputJson)) : null;
+            UpstreamRequest request = new UpstreamRequest(plan.operationId(), plan.method(), uri, headers, requestBody);
 
-            // 5. Executa a chamada e processa a resposta.
-            // O WebClient é reativo e retorna um Mono/Flux. Como a interface da ferramenta
-            // da IA espera uma resposta síncrona, usamos .block() para aguardar o resultado.
-            // Em uma aplicação totalmente reativa, evitaríamos o .block().
-            return response.toEntity(String.class)
-                    .map(entity -> new ToolExecutionResult(entity.getStatusCode().value(), entity.getBody()))
+            // 4. Executa a requisição pela cadeia de filtros (cache, limites etc.) até a chamada HTTP.
+            // Quem precisar de uma resposta síncrona usa ToolExecutionService#execute, que aguarda
+            // o resultado fora do event loop.
+            return exchange.exchange(request)
+                    .map(response -> toResult(plan, response))
                     .onErrorResume(e -> { // Tratamento de erros na chamada HTTP (ex: falha de conexão).
-                        log.error("Erro ao executar chamada para {}: {}", url, e.getMessage());
+                        log.error("Erro ao executar chamada para {}: {}", uri, e.getMessage());
                         return Mono.just(new ToolExecutionResult(500, createErrorResponse(e.getMessage(), 500)));
-                    })
-                    .block();
+                    });
 
         } catch (JsonProcessingException e) {
             // Captura erros de parsing do JSON de entrada, indicando um problema com os dados fornecidos pela IA.
-            log.error("Erro de parsing no JSON de entrada para a ferramenta '{}'", endpoint.operationId(), e);
-            return new ToolExecutionResult(400, createErrorResponse("JSON de entrada inválido: " + e.getMessage(), 400));
+            log.error("Erro de parsing no JSON de entrada para a ferramenta '{}'", plan.operationId(), e);
+            return Mono.just(new ToolExecutionResult(400, createErrorResponse("JSON de entrada inválido: " + e.getMessage(), 400)));
+        } catch (IllegalArgumentException e) {
+            // Argumentos que não permitem montar a requisição (ex: variável de path ausente).
+            log.warn("Argumentos inválidos para a ferramenta '{}': {}", plan.operationId(), e.getMessage());
+            return Mono.just(new ToolExecutionResult(400, createErrorResponse(e.getMessage(), 400)));
         } catch (Exception e) {
             // Captura qualquer outro erro inesperado durante o processo.
-            log.error("Erro inesperado ao executar a ferramenta '{}'", endpoint.operationId(), e);
-            return new ToolExecutionResult(500, createErrorResponse("Erro inesperado: " + e.getMessage(), 500));
+            log.error("Erro inesperado ao executar a ferramenta '{}'", plan.operationId(), e);
+            return Mono.just(new ToolExecutionResult(500, createErrorResponse("Erro inesperado: " + e.getMessage(), 500)));
         }
     }
 
     /**
-     * Constrói a URL completa para a requisição, incluindo a substituição de
-     * parâmetros de path e a adição de parâmetros de query.
-     *
-     * @param endpoint   O endpoint da API.
-     * @param inputJson  O JSON com os valores dos parâmetros.
-     * @return A URL final como String.
+     * Última etapa da cadeia: executa a chamada HTTP com o {@link WebClient} do servidor da API,
+     * que tem pool de conexões e timeouts próprios.
+     * <p>
+     * Respostas de erro da API (4xx, 5xx) não viram exceção: o status e o corpo são repassados
+     * ao modelo, que pode explicá-los ao usuário.
      */
-    private String buildUrl(OpenApiEndpoint endpoint, JsonNode inputJson) {
-        String baseUrl = endpoint.baseUrl();
-        String path = endpoint.path();
-
-        // Substitui os parâmetros de path (ex: /users/{userId}) pelos valores do JSON.
-        for (OpenApiParameter param : endpoint.parameters()) {
-            if (PARAM_IN_PATH.equalsIgnoreCase(param.in())) {
-                path = path.replace("{" + param.name() + "}", inputJson.get(param.name()).asText());
-            }
-        }
+    private Mono<UpstreamResponse> send(UpstreamRequest request) {
+        WebClient.RequestBodySpec spec = upstreamClients.forHost(request.uri())
+                .method(request.method())
+                .uri(request.uri())
+                .headers(httpHeaders -> httpHeaders.addAll(request.headers()));
+        WebClient.RequestHeadersSpec<?> ready = request.body() != null ? spec.bodyValue(request.body()) : spec;
+        int maxBytes = responseSettings.maxBytesFor(request.operationId());
+        return ready.exchangeToMono(response -> readBody(response, maxBytes)
+                .map(body -> new UpstreamResponse(response.statusCode().value(), response.headers().asHttpHeaders(),
+                        body.text(), body.truncated())));
+    }
 
-        // Constrói a string de query (ex: ?name=valor1&status=ativo).
-        StringBuilder queryParams = new StringBuilder();
-        for (OpenApiParameter param : endpoint.parameters()) {
-            if (PARAM_IN_QUERY.equalsIgnoreCase(param.in()) && inputJson.has(param.name())) {
-                if (queryParams.length() == 0) {
-                    queryParams.append("?");
-                } else {
-                    queryParams.append("&");
-                }
-                queryParams.append(param.name()).append("=").append(inputJson.get(param.name()).asText());
-            }
+    /**
+     * Lê o corpo da resposta até {@code maxBytes}. As partes que chegam depois do limite não são
+     * lidas: a leitura é interrompida e os buffers já recebidos são liberados.
+     */
+    private Mono<BoundedBody> readBody(ClientResponse response, int maxBytes) {
+        Charset charset = response.headers().contentType()
+                .map(MediaType::getCharset)
+                .orElse(StandardCharsets.UTF_8);
+        // Um byte além do limite basta para saber que a resposta foi cortada.
+        return DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(response.bodyToFlux(DataBuffer.class), maxBytes + 1L))
+                .map(buffer -> {
+                    try {
+                        int size = buffer.readableByteCount();
+                        byte[] bytes = new byte[Math.min(size, maxBytes)];
+                        buffer.read(bytes);
+                        String text = new String(bytes, charset);
+                        if (size <= maxBytes) {
+                            return new BoundedBody(text, false);
+                        }
+                        // O corte pode ter caído no meio de um caractere multibyte.
+                        return new BoundedBody(text.replaceAll("\\uFFFD+$", ""), true);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .defaultIfEmpty(new BoundedBody(null, false));
+    }
+
+    /**
+     * Converte a resposta da API no resultado da ferramenta, reparando e sinalizando corpos cortados.
+     */
+    private ToolExecutionResult toResult(EndpointInvocationPlan plan, UpstreamResponse response) {
+        if (!response.truncated()) {
+            return new ToolExecutionResult(response.status(), response.body());
+        }
+        int maxBytes = responseSettings.maxBytesFor(plan.operationId());
+        log.warn("✂️ Resposta de '{}' cortada no limite de {} bytes", plan.operationId(), maxBytes);
+        TruncatedJson.Result repaired = TruncatedJson.repair(response.body(), objectMapper);
+        if (repaired == null) {
+            return new ToolExecutionResult(response.status(), response.body() + "…",
+                    "Resposta cortada: apenas os primeiros " + maxBytes + " bytes foram lidos.");
         }
+        String items = repaired.keptItems() > 0 ? " Foram mantidos os primeiros " + repaired.keptItems() + " itens." : "";
+        return new ToolExecutionResult(response.status(), repaired.json(),
+                "Resposta cortada: apenas os primeiros " + maxBytes + " bytes foram lidos e os dados estão incompletos."
+                        + items + " Se precisar do restante, use filtros ou paginação da API.");
+    }
 
-        return baseUrl + path + queryParams;
+    /**
+     * Corpo lido até o limite.
+     *
+     * @param text      o texto lido.
+     * @param truncated {@code true} se a resposta tinha mais dados que o limite.
+     */
+    private record BoundedBody(String text, boolean truncated) {
     }
 
     /**
      * Adiciona os cabeçalhos à requisição HTTP.
      * Inclui cabeçalhos fixos (Content-Type, Auth) e os dinâmicos vindos do JSON de entrada.
      */
-    private void addHeaders(HttpHeaders httpHeaders, OpenApiEndpoint endpoint, JsonNode inputJson) {
+    private void addHeaders(HttpHeaders httpHeaders, EndpointInvocationPlan plan, JsonNode inputJson) {
         httpHeaders.add("Content-Type", "application/json");
         // Adiciona cabeçalhos de segurança configurados na aplicação.
         if (apiAuthorizationToken != null && !apiAuthorizationToken.isBlank()) {
@@ -167,52 +276,7 @@ public class ApiExecutionService implements ToolExecutionService {
         }
 
         // Adiciona cabeçalhos dinâmicos definidos na especificação da API.
-        for (OpenApiParameter param : endpoint.parameters()) {
-            if (PARAM_IN_HEADER.equalsIgnoreCase(param.in()) && inputJson.has(param.name())) {
-                httpHeaders.add(param.name(), inputJson.get(param.name()).asText());
-            }
-        }
-    }
-
-    /**
-     * Verifica se o método HTTP suporta o envio de um corpo (body).
-     */
-    private boolean isBodySupported(HttpMethod method) {
-        return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
-    }
-
-    /**
-     * Extrai do JSON de entrada apenas os campos que devem compor o corpo da requisição,
-     * ignorando os que já foram usados como parâmetros de path, query ou header.
-     *
-     * @param inputJson O JSON completo fornecido pela IA.
-     * @param params    A lista de todos os parâmetros definidos para o endpoint.
-     * @return Uma string JSON contendo apenas os campos do corpo da requisição.
-     */
-    private String getRequestBody(JsonNode inputJson, List<OpenApiParameter> params) {
-        // Identifica os nomes de todos os parâmetros que *não* são para o corpo da requisição.
-        List<String> nonBodyParamNames = params.stream()
-                .filter(p -> PARAM_IN_PATH.equalsIgnoreCase(p.in()) ||
-                              PARAM_IN_QUERY.equalsIgnoreCase(p.in()) ||
-                              PARAM_IN_HEADER.equalsIgnoreCase(p.in()))
-                .map(OpenApiParameter::name)
-                .collect(Collectors.toList());
-
-        // Cria um novo objeto JSON (bodyNode) e copia para ele apenas os campos do JSON de entrada
-        // que não estão na lista de parâmetros "não-corpo".
-        ObjectNode bodyNode = objectMapper.createObjectNode();
-        inputJson.fields().forEachRemaining(entry -> {
-            if (!nonBodyParamNames.contains(entry.getKey())) {
-                bodyNode.set(entry.getKey(), entry.getValue());
-            }
-        });
-
-        try {
-            return objectMapper.writeValueAsString(bodyNode);
-        } catch (JsonProcessingException e) {
-            log.error("Erro ao serializar o corpo da requisição.", e);
-            return "{}"; // Retorna um corpo vazio em caso de erro.
-        }
+        plan.applyHeaders(httpHeaders, inputJson);
     }
 
     /**
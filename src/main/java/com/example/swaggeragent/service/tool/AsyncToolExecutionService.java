@@ -2,7 +2,6 @@ package com.example.swaggeragent.service.tool;
 
 import com.example.swaggeragent.model.response.ToolExecutionResult;
 import com.example.swaggeragent.model.OpenApiEndpoint;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
@@ -11,14 +10,15 @@ import java.util.concurrent.CompletableFuture;
  * Serviço para execução assíncrona de ferramentas dinâmicas.
  * <p>
  * Esta classe fornece um wrapper assíncrono para a execução de ferramentas,
- * permitindo que chamadas a APIs externas sejam executadas em threads separadas
- * sem bloquear a thread principal da aplicação.
+ * permitindo que chamadas a APIs externas sejam aguardadas sem bloquear
+ * a thread principal da aplicação.
  * <p>
  * <b>Características:</b>
  * <ul>
  *   <li><b>Execução não-bloqueante:</b> Usa {@link CompletableFuture} para operações assíncronas</li>
- *   <li><b>Thread pool dedicado:</b> Utiliza o executor configurado com {@code @EnableAsync}</li>
- *   <li><b>Delegação:</b> Delega a execução real para o {@link ToolExecutionService}</li>
+ *   <li><b>Sem threads extras:</b> O future é completado pelo event loop quando a resposta chega,
+ *       sem ocupar uma thread do executor enquanto a API externa responde</li>
+ *   <li><b>Delegação:</b> Delega a execução real para {@link ToolExecutionService#executeReactive}</li>
  *   <li><b>Compatibilidade:</b> Mantém a mesma interface de resultado</li>
  * </ul>
  * <p>
@@ -49,10 +49,8 @@ public class AsyncToolExecutionService {
     /**
      * Executa uma ferramenta de forma assíncrona.
      * <p>
-     * Este método executa a ferramenta em uma thread separada usando o executor
-     * configurado com a anotação {@code @EnableAsync}. O resultado é retornado
-     * como um {@link CompletableFuture} que pode ser aguardado ou processado
-     * de forma não-bloqueante.
+     * A chamada é iniciada imediatamente e o resultado é retornado como um
+     * {@link CompletableFuture} que pode ser aguardado ou processado de forma não-bloqueante.
      * <p>
      * <b>Vantagens:</b>
      * <ul>
@@ -68,12 +66,7 @@ public class AsyncToolExecutionService {
      * @param input    os parâmetros de entrada em formato JSON
      * @return um {@link CompletableFuture} que será completado com o resultado da execução
      */
-    @Async
     public CompletableFuture<ToolExecutionResult> executeAsync(OpenApiEndpoint endpoint, String input) {
-        // Executa a ferramenta de forma síncrona na thread assíncrona
-        ToolExecutionResult result = toolExecutionService.execute(endpoint, input);
-        
-        // Retorna o resultado como um CompletableFuture já completado
-        return CompletableFuture.completedFuture(result);
+        return toolExecutionService.executeReactive(EndpointInvocationPlan.compile(endpoint), input).toFuture();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiMediaType;
+import com.example.swaggeragent.model.OpenApiRequestBody;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renderizador que gera descrições curtas, pensadas para ocupar o mínimo de tokens no prompt.
+ * <p>
+ * Parâmetros e campos do corpo não são repetidos: eles já chegam ao modelo pelo JSON Schema
+ * de entrada da ferramenta. A descrição traz apenas o resumo, o método e o caminho, um resumo
+ * minificado do schema das respostas 2xx (ex: {@code [{id:integer,name:string}]}), os códigos
+ * de erro e, por último, a descrição longa da operação — a primeira parte a ser cortada quando
+ * o orçamento de tokens é atingido.
+ */
+@Component
+public class CompactToolDescriptionRenderer implements ToolDescriptionRenderer {
+
+    private static final int MAX_SCHEMA_DEPTH = 3;
+
+    private final OpenApiParserService openApiParserService;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param openApiParserService o serviço que resolve os schemas das especificações.
+     */
+    public CompactToolDescriptionRenderer(OpenApiParserService openApiParserService) {
+        this.openApiParserService = openApiParserService;
+    }
+
+    @Override
+    public String mode() {
+        return "compact";
+    }
+
+    @Override
+    public String render(OpenApiEndpoint endpoint) {
+        StringBuilder description = new StringBuilder();
+        String summary = collapse(endpoint.summary());
+        String details = collapse(endpoint.description());
+
+        if (summary != null) {
+            description.append(summary).append('\n');
+        }
+        description.append(endpoint.method().toUpperCase()).append(' ').append(endpoint.path()).append('\n');
+
+        OpenApiRequestBody requestBody = endpoint.requestBody();
+        if (requestBody != null && requestBody.content() != null && !requestBody.content().isEmpty()) {
+            description.append("Corpo: ").append(String.join(", ", requestBody.content().keySet()))
+                    .append(requestBody.required() ? " (obrigatório)" : "").append('\n');
+        }
+
+        List<String> errors = new ArrayList<>();
+        if (endpoint.responses() != null) {
+            endpoint.responses().forEach((statusCode, response) -> {
+                if (statusCode.startsWith("2")) {
+                    description.append("Retorna ").append(statusCode).append(": ").append(summarizeResponse(endpoint, response)).append('\n');
+                } else {
+                    String text = collapse(response.description());
+                    errors.add(text != null ? statusCode + " " + text : statusCode);
+                }
+            });
+        }
+        if (!errors.isEmpty()) {
+            description.append("Erros: ").append(String.join("; ", errors)).append('\n');
+        }
+
+        if (details != null && !details.equals(summary)) {
+            description.append(details).append('\n');
+        }
+        return description.toString();
+    }
+
+    /**
+     * Resume uma resposta 2xx pelo schema do primeiro tipo de mídia que tiver um, ou pela
+     * descrição da resposta.
+     */
+    private String summarizeResponse(OpenApiEndpoint endpoint, OpenApiResponse response) {
+        if (response.content() != null) {
+            for (OpenApiMediaType mediaType : response.content().values()) {
+                if (mediaType.schema() != null) {
+                    JsonNode schema = openApiParserService.getResolvedSchemaAsJsonNode(endpoint.projectName(), mediaType.schema());
+                    if (schema != null) {
+                        StringBuilder summary = new StringBuilder();
+                        appendSchema(summary, schema, 0);
+                        return summary.toString();
+                    }
+                }
+            }
+        }
+        String text = collapse(response.description());
+        return text != null ? text : "sem corpo";
+    }
+
+    /**
+     * Escreve um schema resolvido na forma minificada: objetos como {@code {campo:tipo}},
+     * arrays como {@code [tipo]} e os demais pelo nome do tipo.
+     */
+    private void appendSchema(StringBuilder out, JsonNode schema, int depth) {
+        String type = schema.path("type").asText("object");
+        if ("array".equals(type)) {
+            out.append('[');
+            appendSchema(out, schema.path("items"), depth + 1);
+            out.append(']');
+            return;
+        }
+        JsonNode properties = schema.path("properties");
+        if (!"object".equals(type) || !properties.isObject() || properties.isEmpty() || depth >= MAX_SCHEMA_DEPTH) {
+            out.append(type);
+            return;
+        }
+        out.append('{');
+        Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            out.append(field.getKey()).append(':');
+            appendSchema(out, field.getValue(), depth + 1);
+            if (fields.hasNext()) {
+                out.append(',');
+            }
+        }
+        out.append('}');
+    }
+
+    /**
+     * Junta as linhas e espaços repetidos de um texto livre da especificação.
+     *
+     * @return o texto em uma linha, ou {@code null} se estiver vazio.
+     */
+    private static String collapse(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return text.strip().replaceAll("\\s+", " ");
+    }
+}
@@ -1,10 +1,9 @@
 package com.example.swaggeragent.service.tool;
 
+import com.example.swaggeragent.config.SwaggerAgentProperties;
 import com.example.swaggeragent.model.domain.DynamicTool;
 import com.example.swaggeragent.model.OpenApiEndpoint;
 import com.example.swaggeragent.model.OpenApiParameter;
-import com.example.swaggeragent.model.OpenApiRequestBody;
-import com.example.swaggeragent.model.OpenApiResponse;
 import com.example.swaggeragent.model.response.ToolExecutionResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -14,20 +13,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.model.function.FunctionCallback;
 import org.springframework.ai.model.function.FunctionCallbackWrapper;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
+import com.example.swaggeragent.service.cache.SpecSnapshotService;
 import com.example.swaggeragent.service.parser.OpenApiParserService;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
-import java.util.Map;
 
 /**
  * Serviço responsável pela geração de ferramentas (tools) dinâmicas a partir de endpoints OpenAPI.
@@ -36,8 +35,10 @@ import java.util.Map;
  * <ul>
  *   <li>Converter uma lista de {@link OpenApiEndpoint} em uma lista de {@link DynamicTool}.</li>
  *   <li>Gerar nomes únicos e descritivos para cada ferramenta, evitando conflitos.</li>
+ *   <li>Gerar a descrição de cada ferramenta com o {@link ToolDescriptionRenderer} configurado.</li>
  *   <li>Criar esquemas JSON (JSON Schema) para os parâmetros das ferramentas.</li>
- *   <li>Gerar a função de execução ({@link java.util.function.Function}) que realiza a chamada à API.</li>
+ *   <li>Gerar a função de execução ({@link java.util.function.Function}), com o plano de execução
+ *       ({@link EndpointInvocationPlan}) do endpoint compilado uma única vez.</li>
  *   <li>Transformar as ferramentas dinâmicas em {@link org.springframework.ai.model.function.FunctionCallback} para uso pelo Spring AI.</li>
  * </ul>
  *
@@ -48,39 +49,89 @@ public class DynamicToolGeneratorService {
 
     private static final Logger log = LoggerFactory.getLogger(DynamicToolGeneratorService.class);
 
-    private static final String PARAM_IN_PATH = "path";
-    private static final String PARAM_IN_QUERY = "query";
-    private static final String PARAM_IN_HEADER = "header";
     private static final String HEADER_AUTHORIZATION = "Authorization";
     private static final String HEADER_TRAFFIC_CODE = "Traffic-Code";
     private static final int MAX_TOOL_NAME_LENGTH = 64;
 
+    /**
+     * Versão do algoritmo de geração de descrições e schemas.
+     * <p>
+     * Faz parte da chave dos snapshots persistidos pelo {@link SpecSnapshotService}; deve ser
+     * incrementada sempre que a saída dos renderizadores de descrição ou de
+     * {@link #generateJsonSchema} mudar, para invalidar os snapshots existentes. O modo e o
+     * orçamento de tokens configurados também fazem parte da chave.
+     */
+    public static final String GENERATOR_VERSION = "2";
+
+    /**
+     * Nome da ferramenta extra que executa várias ferramentas em uma única chamada do modelo.
+     * Não tem hífen, então não colide com os nomes gerados a partir dos endpoints.
+     */
+    public static final String BATCH_TOOL_NAME = "batch_tool_calls";
+
+    /**
+     * Nome da ferramenta extra que executa localmente um plano de chamadas dependentes entre si.
+     */
+    public static final String PLAN_TOOL_NAME = "execute_tool_plan";
+
+    /**
+     * Nomes das ferramentas extras, registradas junto com as ferramentas dos endpoints.
+     */
+    public static final Set<String> META_TOOL_NAMES = Set.of(BATCH_TOOL_NAME, PLAN_TOOL_NAME);
+
     private final ObjectMapper objectMapper;
     private final OpenApiParserService openApiParserService;
-    private final WebClient webClient;
-    private final String apiAuthorizationToken;
-    private final String apiTrafficCode;
+    private final SpecSnapshotService specSnapshotService;
+    private final ToolExecutionService toolExecutionService;
+    private final ToolResultProjector resultProjector;
+    private final TabularResultEncoder resultEncoder;
+    private final ToolBatchExecutor batchExecutor;
+    private final ToolPlanExecutor planExecutor;
+    private final ToolDescriptionRenderer descriptionRenderer;
+    private final int descriptionMaxTokens;
 
     /**
      * Construtor para injeção de dependências e configuração dos valores de segurança.
      *
      * @param objectMapper          o serializador/desserializador JSON.
      * @param openApiParserService  o serviço para analisar especificações OpenAPI.
-     * @param webClient             o cliente reativo para chamadas HTTP.
-     * @param apiAuthorizationToken o token de autorização Bearer para as APIs.
-     * @param apiTrafficCode        o código de tráfego para as APIs.
+     * @param specSnapshotService   o cache persistente de descrições e schemas já gerados.
+     * @param toolExecutionService  o serviço que executa as chamadas HTTP das ferramentas.
+     * @param resultProjector       a projeção do JSON das respostas antes de chegar ao modelo.
+     * @param resultEncoder         a conversão das listas uniformes das respostas em CSV.
+     * @param batchExecutor         o executor da ferramenta de lote.
+     * @param planExecutor          o executor da ferramenta de planos.
+     * @param renderers             os renderizadores de descrição disponíveis.
+     * @param properties            as propriedades da aplicação ({@code app.tool.description}).
      */
     public DynamicToolGeneratorService(
             ObjectMapper objectMapper,
             OpenApiParserService openApiParserService,
-            WebClient webClient,
-            @Value("${api.security.authorization.token}") String apiAuthorizationToken,
-            @Value("${api.security.traffic-code}") String apiTrafficCode) {
+            SpecSnapshotService specSnapshotService,
+            ToolExecutionService toolExecutionService,
+            ToolResultProjector resultProjector,
+            TabularResultEncoder resultEncoder,
+            ToolBatchExecutor batchExecutor,
+            ToolPlanExecutor planExecutor,
+            List<ToolDescriptionRenderer> renderers,
+            SwaggerAgentProperties properties) {
         this.objectMapper = objectMapper;
         this.openApiParserService = openApiParserService;
-        this.webClient = webClient;
-        this.apiAuthorizationToken = apiAuthorizationToken;
-        this.apiTrafficCode = apiTrafficCode;
+        this.specSnapshotService = specSnapshotService;
+        this.toolExecutionService = toolExecutionService;
+        this.resultProjector = resultProjector;
+        this.resultEncoder = resultEncoder;
+        this.batchExecutor = batchExecutor;
+        this.planExecutor = planExecutor;
+
+        String mode = properties.getTool().getDescription().getMode();
+        this.descriptionRenderer = renderers.stream()
+                .filter(renderer -> renderer.mode().equalsIgnoreCase(mode))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Modo de descrição de ferramentas desconhecido: " + mode
+                        + ". Valores possíveis: " + renderers.stream().map(ToolDescriptionRenderer::mode).toList()));
+        this.descriptionMaxTokens = properties.getTool().getDescription().effectiveMaxTokens();
+        log.info("📝 Descrições de ferramentas no modo '{}' (orçamento: {} tokens)", descriptionRenderer.mode(), descriptionMaxTokens);
     }
 
     /**
@@ -93,7 +144,21 @@ public class DynamicToolGeneratorService {
      * @return lista de ferramentas dinâmicas geradas
      */
     public List<DynamicTool> generateToolsFromEndpoints(List<OpenApiEndpoint> endpoints) {
-        Set<String> usedNames = new HashSet<>();
+        return generateToolsFromEndpoints(endpoints, Set.of());
+    }
+
+    /**
+     * Gera ferramentas dinâmicas a partir de uma lista de endpoints, evitando nomes já em uso.
+     * <p>
+     * Usado no recarregamento incremental: as ferramentas de arquivos não alterados mantêm
+     * seus nomes, e as novas ferramentas recebem nomes que não colidem com eles.
+     *
+     * @param endpoints     lista de endpoints OpenAPI para converter em ferramentas
+     * @param reservedNames nomes de ferramentas já registradas que não podem ser reutilizados
+     * @return lista de ferramentas dinâmicas geradas
+     */
+    public List<DynamicTool> generateToolsFromEndpoints(List<OpenApiEndpoint> endpoints, Set<String> reservedNames) {
+        Set<String> usedNames = new HashSet<>(reservedNames);
 
         log.info("\n" +
                 "╔══════════════════════════════════════════════════════════════════════════════╗\n" +
@@ -108,8 +173,10 @@ public class DynamicToolGeneratorService {
                         String toolName = generateUniqueToolName(endpoint, usedNames);
                         usedNames.add(toolName);
                         
-                        String description = generateToolDescription(endpoint);
-                        String jsonSchema = generateJsonSchema(endpoint);
+                        // Endpoints carregados de snapshot já trazem a descrição e o schema renderizados.
+                        SpecSnapshotService.PrecomputedTool precomputed = specSnapshotService.takePrecomputed(endpoint);
+                        String description = precomputed != null ? precomputed.description() : generateToolDescription(endpoint);
+                        String jsonSchema = precomputed != null ? precomputed.jsonSchema() : generateJsonSchema(endpoint);
                         Function<Object, String> function = generateFunction(endpoint);
 
                         DynamicTool tool = DynamicTool.builder()
@@ -142,6 +209,8 @@ public class DynamicToolGeneratorService {
                 .filter(java.util.Objects::nonNull)
                 .collect(Collectors.toList());
         
+        specSnapshotService.persistPending(endpoints, tools);
+
         log.info("🎯 Total de ferramentas geradas com sucesso: {}", tools.size());
         log.info("╚══════════════════════════════════════════════════════════════════════════════╝");
         return tools;
@@ -250,157 +319,14 @@ public class DynamicToolGeneratorService {
     }
 
     /**
-     * Gera uma descrição rica e detalhada para a ferramenta, formatada em Markdown.
-     * <p>
-     * A descrição é crucial para que o modelo de linguagem entenda o propósito e o funcionamento
-     * da ferramenta. Ela inclui:
-     * <ul>
-     *   <li>Contexto da API (nome do projeto e do controller).</li>
-     *   <li>Resumo da operação.</li>
-     *   <li>Lista detalhada de parâmetros (path, query, header), exceto os de segurança.</li>
-     *   <li>Descrição do corpo da requisição, incluindo o esquema JSON.</li>
-     *   <li>Lista de possíveis respostas com seus códigos de status e esquemas.</li>
-     * </ul>
+     * Gera a descrição da ferramenta com o renderizador configurado e, no modo {@code compact},
+     * a corta no orçamento de tokens ({@code app.tool.description.max-tokens}).
      *
      * @param endpoint o endpoint da API para o qual a descrição será gerada.
-     * @return uma string contendo a descrição formatada da ferramenta.
+     * @return uma string contendo a descrição da ferramenta.
      */
     private String generateToolDescription(OpenApiEndpoint endpoint) {
-        StringBuilder description = new StringBuilder();
-
-        // Cabeçalho da ferramenta
-        description.append(String.format("🏷️  Nome: %s\n", endpoint.operationId() != null ? endpoint.operationId() : "N/A"));
-        description.append(String.format("📝 Descrição: %s\n", endpoint.summary() != null ? endpoint.summary() : "Nenhum resumo disponível."));
-        description.append(String.format("🆔 ID da Operação: %s\n", endpoint.operationId() != null ? endpoint.operationId() : "N/A"));
-        description.append(String.format("🌐 Projeto: %s\n", endpoint.projectName()));
-        description.append(String.format("🎯 Controller: %s\n", getControllerName(endpoint)));
-        description.append(String.format("🔗 Endpoint: %s %s%s\n", endpoint.method().toUpperCase(), endpoint.baseUrl(), endpoint.path()));
-        
-        description.append("------------------------------------------- ENTRADAS ---------------------------------------------\n");
-
-        // Parâmetros da requisição
-        if (endpoint.parameters() != null && !endpoint.parameters().isEmpty()) {
-            // Agrupa os parâmetros por localização
-            Map<String, List<OpenApiParameter>> groupedParameters = endpoint.parameters().stream()
-                    .filter(p -> !HEADER_AUTHORIZATION.equalsIgnoreCase(p.name()) && !HEADER_TRAFFIC_CODE.equalsIgnoreCase(p.name()))
-                    .collect(Collectors.groupingBy(OpenApiParameter::in));
-
-            logGroupedParameters(description, "Path", groupedParameters.get("path"));
-            logGroupedParameters(description, "Query", groupedParameters.get("query"));
-            logGroupedParameters(description, "Header", groupedParameters.get("header"));
-        } else {
-            description.append("  Nenhum parâmetro de entrada definido.\n");
-        }
-
-        // Corpo da requisição
-        logRequestBody(description, endpoint);
-
-        description.append("------------------------------------------- SAÍDAS --------------------------------------------\n");
-        
-        // Respostas possíveis
-        logResponses(description, endpoint);
-
-        description.append("----------------------------------------------------------------------------------------------------\n");
-
-        return description.toString();
-    }
-
-    /**
-     * Adiciona parâmetros agrupados à descrição da ferramenta.
-     */
-    private void logGroupedParameters(StringBuilder description, String groupName, List<OpenApiParameter> params) {
-        if (params != null && !params.isEmpty()) {
-            description.append(String.format("  📥 Parâmetros %s:\n", groupName));
-            for (OpenApiParameter param : params) {
-                String requiredInfo = param.required() ? "OBRIGATÓRIO" : "OPCIONAL";
-                description.append(String.format("     - %s (%s) [%s]: %s\n", 
-                    param.name(), param.type(), requiredInfo, param.description()));
-
-                if (param.format() != null) {
-                    description.append(String.format("       Formato: %s\n", param.format()));
-                }
-                if (param.defaultValue() != null) {
-                    description.append(String.format("       Padrão: %s\n", param.defaultValue()));
-                }
-                if (param.enumValues() != null && !param.enumValues().isEmpty()) {
-                    description.append(String.format("       Valores Enum: %s\n", param.enumValues()));
-                }
-                if (param.items() != null) {
-                    description.append(String.format("       Tipo dos Items: %s\n", param.items().type()));
-                }
-            }
-        }
-    }
-
-    /**
-     * Adiciona detalhes do corpo da requisição à descrição da ferramenta.
-     */
-    private void logRequestBody(StringBuilder description, OpenApiEndpoint endpoint) {
-        OpenApiRequestBody requestBody = endpoint.requestBody();
-        if (requestBody != null && requestBody.content() != null && !requestBody.content().isEmpty()) {
-            description.append("  📦 Corpo da Requisição:\n");
-            description.append(String.format("     - Obrigatório: %s\n", requestBody.required() ? "Sim" : "Não"));
-            if (requestBody.description() != null && !requestBody.description().isBlank()) {
-                description.append(String.format("     - Descrição: %s\n", requestBody.description()));
-            }
-            requestBody.content().forEach((mediaType, mediaTypeObject) -> {
-                description.append(String.format("     - Tipo: `%s`\n", mediaType));
-                if (mediaTypeObject.schema() != null) {
-                    try {
-                        String schemaJson = openApiParserService.getSchemaAsJson(endpoint.projectName(), mediaTypeObject.schema());
-                        description.append("     - Schema:\n");
-                        description.append(String.format("\n%s\n", schemaJson.indent(6)));
-                    } catch (Exception e) {
-                        log.error("Erro ao gerar o schema JSON para o corpo da requisição da ferramenta: {}", endpoint.operationId(), e);
-                        description.append("     - Erro ao gerar schema\n");
-                    }
-                }
-            });
-        }
-    }
-
-    /**
-     * Adiciona detalhes das respostas possíveis à descrição da ferramenta.
-     */
-    private void logResponses(StringBuilder description, OpenApiEndpoint endpoint) {
-        Map<String, OpenApiResponse> responses = endpoint.responses();
-        if (responses == null || responses.isEmpty()) {
-            description.append("  Nenhuma resposta de saída definida.\n");
-            return;
-        }
-        description.append("  📤 Respostas Possíveis:\n");
-        responses.forEach((statusCode, response) -> {
-            description.append(String.format("    - **`%s`**: %s\n", statusCode, response.description()));
-            if (response.content() != null) {
-                response.content().forEach((mediaType, mediaTypeObject) -> {
-                    if (mediaTypeObject.schema() != null) {
-                        description.append(String.format("      - Schema (`%s`):\n", mediaType));
-                        try {
-                            String schemaJson = openApiParserService.getSchemaAsJson(endpoint.projectName(), mediaTypeObject.schema());
-                            description.append(String.format("\n%s\n", schemaJson.indent(8)));
-                        } catch (Exception e) {
-                            log.error("Erro ao gerar o schema JSON para a resposta da ferramenta: {}", endpoint.operationId(), e);
-                        }
-                    }
-                    if (mediaTypeObject.example() != null) {
-                        description.append(String.format("      Exemplo: %s\n", mediaTypeObject.example().toString()));
-                    }
-                });
-            }
-        });
-    }
-
-    /**
-     * Extrai o nome do controlador (ou tag) do endpoint.
-     *
-     * @param endpoint o endpoint da API.
-     * @return o nome da primeira tag ou "general" se nenhuma tag for definida.
-     */
-    private String getControllerName(OpenApiEndpoint endpoint) {
-        if (endpoint.tags() != null && !endpoint.tags().isEmpty()) {
-            return endpoint.tags().get(0);
-        }
-        return "general";
+        return TokenEstimator.truncate(descriptionRenderer.render(endpoint), descriptionMaxTokens);
     }
 
     /**
@@ -499,19 +425,24 @@ public class DynamicToolGeneratorService {
     /**
      * Gera a {@link java.util.function.Function} que será encapsulada pela ferramenta.
      * <p>
-     * Esta função recebe um objeto (que será um JSON de entrada), o converte para {@link JsonNode},
-     * e então chama {@link #executeEndpoint} para realizar a chamada HTTP.
-     * O resultado é formatado como uma string JSON.
+     * O plano de execução do endpoint é compilado aqui, uma única vez por ferramenta. A função
+     * serializa a entrada recebida do modelo e delega a chamada HTTP ao {@link ToolExecutionService}.
+     * O resultado passa pelo {@link ToolResultProjector} e pelo {@link TabularResultEncoder} e é
+     * formatado como uma string JSON.
      *
      * @param endpoint o endpoint da API que a função irá chamar.
      * @return uma {@link java.util.function.Function} que executa a lógica da ferramenta.
      */
     private Function<Object, String> generateFunction(OpenApiEndpoint endpoint) {
+        EndpointInvocationPlan plan = EndpointInvocationPlan.compile(endpoint);
+        UnaryOperator<ToolExecutionResult> projection = resultProjector.compile(endpoint);
         return input -> {
             try {
-                // A entrada (input) vem como uma String JSON, que precisa ser parseada.
+                // A entrada (input) chega como um objeto já desserializado pelo Spring AI.
                 String jsonInput = objectMapper.writeValueAsString(input);
-                ToolExecutionResult result = executeEndpoint(endpoint, jsonInput);
+                ToolExecutionResult result = resultEncoder.encode(projection.apply(toolExecutionService.execute(plan, jsonInput)));
+                // Guardado no prazo da mensagem, para a resposta parcial se o tempo acabar.
+                RequestDeadline.recordCurrent(endpoint.operationId(), result);
                 return objectMapper.writeValueAsString(result);
             } catch (JsonProcessingException e) {
                 log.error("Erro ao processar a entrada/saída JSON para a ferramenta '{}'", endpoint.operationId(), e);
@@ -524,157 +455,125 @@ public class DynamicToolGeneratorService {
     }
 
     /**
-     * Executa a chamada HTTP para o endpoint da API usando {@link WebClient}.
-     * <p>
-     * Monta a requisição (URL, headers, body) com base nos parâmetros recebidos
-     * e na definição do endpoint.
-     *
-     * @param endpoint o endpoint a ser chamado.
-     * @param input    uma string JSON contendo os argumentos para a chamada.
-     * @return um {@link ToolExecutionResult} com o status e o corpo da resposta.
-     */
-    private ToolExecutionResult executeEndpoint(OpenApiEndpoint endpoint, String input) {
-        try {
-            JsonNode inputJson = objectMapper.readTree(input);
-            String url = buildUrl(endpoint, inputJson);
-
-            WebClient.RequestBodySpec request = webClient
-                    .method(HttpMethod.valueOf(endpoint.method().toUpperCase()))
-                    .uri(url)
-                    .headers(httpHeaders -> addHeaders(httpHeaders, endpoint, inputJson));
-
-            WebClient.ResponseSpec responseSpec;
-            if (isBodySupported(HttpMethod.valueOf(endpoint.method().toUpperCase()))) {
-                String requestBody = getRequestBody(inputJson, endpoint.parameters());
-                responseSpec = request.bodyValue(requestBody).retrieve();
-            } else {
-                responseSpec = request.retrieve();
-            }
-
-            // Realiza a chamada e bloqueia aguardando a resposta, tratando diferentes status.
-            return responseSpec
-                    .toEntity(String.class)
-                    .map(responseEntity -> {
-                        log.info("Execução da ferramenta '{}' concluída com status: {}", endpoint.operationId(), responseEntity.getStatusCode().value());
-                        log.debug("Resposta da ferramenta '{}': {}", endpoint.operationId(), responseEntity.getBody());
-                        return new ToolExecutionResult(responseEntity.getStatusCode().value(), responseEntity.getBody());
-                    })
-                    .block();
-
-        } catch (Exception e) {
-            log.error("Falha ao executar a chamada para o endpoint '{}' ({} {})", endpoint.operationId(), endpoint.method(), endpoint.path(), e);
-            throw new RuntimeException("Falha na execução do endpoint: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Constrói a URL final para a chamada da API, substituindo os parâmetros de path.
+     * Gera a execução reativa de um endpoint, usada pelos itens da ferramenta de lote: a mesma
+     * chamada, projeção e formatação de {@link #generateFunction}, sem bloquear a thread.
      *
-     * @param endpoint  o endpoint da API.
-     * @param inputJson o JSON com os argumentos.
-     * @return a URL completa com os parâmetros de path substituídos.
+     * @param endpoint o endpoint da API que a ferramenta irá chamar.
+     * @return a execução reativa da ferramenta.
      */
-    private String buildUrl(OpenApiEndpoint endpoint, JsonNode inputJson) {
-        String path = endpoint.path();
-        // Substitui placeholders no path (ex: /users/{id}) pelos valores do JSON de entrada.
-        if (endpoint.parameters() != null) {
-            for (OpenApiParameter param : endpoint.parameters()) {
-                if (PARAM_IN_PATH.equals(param.in()) && inputJson.has(param.name())) {
-                    path = path.replace("{" + param.name() + "}", inputJson.get(param.name()).asText());
-                }
-            }
-        }
-        return endpoint.baseUrl() + path;
+    private ToolBatchExecutor.ReactiveTool generateReactiveTool(OpenApiEndpoint endpoint) {
+        EndpointInvocationPlan plan = EndpointInvocationPlan.compile(endpoint);
+        UnaryOperator<ToolExecutionResult> projection = resultProjector.compile(endpoint);
+        return arguments -> toolExecutionService.executeReactive(plan, arguments)
+                .map(result -> resultEncoder.encode(projection.apply(result)));
     }
 
     /**
-     * Adiciona os cabeçalhos (headers) à requisição WebClient.
+     * Converte uma lista de {@link DynamicTool} em uma lista de {@link org.springframework.ai.model.function.FunctionCallback}.
      * <p>
-     * Inclui cabeçalhos de segurança (Authorization, Traffic-Code) e quaisquer outros
-     * definidos na especificação OpenAPI que estejam presentes no JSON de entrada.
+     * Isso permite que as ferramentas sejam registradas no ChatClient do Spring AI. Com
+     * {@code app.tool.batch.enabled} e {@code app.tool.plan.enabled}, as ferramentas de lote
+     * ({@value #BATCH_TOOL_NAME}) e de planos ({@value #PLAN_TOOL_NAME}) são adicionadas ao final da lista.
      *
-     * @param httpHeaders o builder de cabeçalhos do WebClient.
-     * @param endpoint    o endpoint da API.
-     * @param inputJson   o JSON com os argumentos.
+     * @param tools lista de ferramentas dinâmicas.
+     * @return lista de callbacks para o modelo de linguagem.
      */
-    private void addHeaders(org.springframework.http.HttpHeaders httpHeaders, OpenApiEndpoint endpoint, JsonNode inputJson) {
-        // Adiciona cabeçalhos de segurança padrão.
-        httpHeaders.set(HEADER_AUTHORIZATION, "Bearer " + apiAuthorizationToken);
-        httpHeaders.set(HEADER_TRAFFIC_CODE, apiTrafficCode);
-        httpHeaders.set("Content-Type", "application/json"); // Define o tipo de conteúdo padrão.
-
-        // Adiciona cabeçalhos específicos do endpoint.
-        if (endpoint.parameters() != null) {
-            endpoint.parameters().stream()
-                    .filter(p -> PARAM_IN_HEADER.equals(p.in()) && inputJson.has(p.name()))
-                    .forEach(p -> httpHeaders.set(p.name(), inputJson.get(p.name()).asText()));
+    public List<FunctionCallback> convertToFunctionCallbacks(List<DynamicTool> tools) {
+        List<FunctionCallback> callbacks = tools.stream()
+                .map(tool -> FunctionCallbackWrapper.builder(tool.getFunction())
+                        .withName(tool.getName())
+                        .withDescription(tool.getDescription())
+                        // O esquema JSON é fundamental para o modelo saber como formatar a entrada da função.
+                        .withInputTypeSchema(tool.getJsonSchema())
+                        .build())
+                .collect(Collectors.toList());
+        if (batchExecutor.isEnabled() && !tools.isEmpty()) {
+            callbacks.add(createBatchCallback(tools));
         }
+        if (planExecutor.isEnabled() && !tools.isEmpty()) {
+            callbacks.add(createPlanCallback(tools));
+        }
+        return callbacks;
     }
 
     /**
-     * Verifica se o método HTTP suporta um corpo (body) de requisição.
-     *
-     * @param method o método HTTP.
-     * @return true se o método suporta corpo, false caso contrário.
-     */
-    private boolean isBodySupported(HttpMethod method) {
-        return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
-    }
-
-    /**
-     * Extrai e monta o corpo da requisição a partir do JSON de entrada.
-     * <p>
-     * Filtra o JSON de entrada para incluir apenas os campos que não são
-     * parâmetros de path, query ou header, assumindo que o restante compõe o corpo.
+     * Cria a ferramenta de lote, que executa várias ferramentas do registro ao mesmo tempo.
+     * Cada item passa pela mesma execução, projeção e formatação de uma chamada individual, mas
+     * pela variante reativa, compilada na primeira vez em que a ferramenta aparece em um lote.
      *
-     * @param inputJson o JSON com todos os argumentos.
-     * @param params    a lista de parâmetros do endpoint para saber o que filtrar.
-     * @return uma string JSON contendo apenas os dados do corpo da requisição.
+     * @param tools as ferramentas que podem ser chamadas no lote.
+     * @return o callback da ferramenta de lote.
      */
-    private String getRequestBody(JsonNode inputJson, List<OpenApiParameter> params) {
-        ObjectNode bodyNode = objectMapper.createObjectNode();
-        inputJson.fields().forEachRemaining(entry -> {
-            // Se o campo não for um parâmetro de path, query ou header, ele pertence ao corpo.
-            if (!isPathQueryOrHeaderParam(entry.getKey(), params)) {
-                bodyNode.set(entry.getKey(), entry.getValue());
-            }
-        });
-        return bodyNode.toString();
+    private FunctionCallback createBatchCallback(List<DynamicTool> tools) {
+        Map<String, DynamicTool> toolsByName = tools.stream()
+                .collect(Collectors.toMap(DynamicTool::getName, Function.identity(), (first, second) -> first));
+        Map<String, ToolBatchExecutor.ReactiveTool> compiled = new ConcurrentHashMap<>();
+        Function<String, ToolBatchExecutor.ReactiveTool> toolFor = name -> {
+            DynamicTool tool = toolsByName.get(name);
+            return tool != null ? compiled.computeIfAbsent(name, key -> generateReactiveTool(tool.getEndpoint())) : null;
+        };
+        Function<Object, String> batch = input -> batchExecutor.execute(input, toolFor);
+        return FunctionCallbackWrapper.builder(batch)
+                .withName(BATCH_TOOL_NAME)
+                .withDescription("Executa várias ferramentas independentes ao mesmo tempo, em uma única chamada. "
+                        + "Use quando precisar de várias consultas que não dependem umas das outras "
+                        + "(ex: comparar vários pedidos). Retorna um array, na ordem das chamadas, com o status de cada uma.")
+                .withInputTypeSchema(batchExecutor.inputSchema())
+                .build();
     }
 
     /**
-     * Verifica se um campo do JSON de entrada é um parâmetro (path, query, header)
-     * e, portanto, não faz parte do corpo da requisição.
+     * Cria a ferramenta de planos. Os planos de execução das ferramentas são compilados na primeira
+     * vez em que cada ferramenta aparece em um plano.
      *
-     * @param fieldName o nome do campo a ser verificado.
-     * @param params    a lista de parâmetros do endpoint.
-     * @return true se o campo é um parâmetro de path, query ou header, false caso contrário.
+     * @param tools as ferramentas que podem ser usadas nos passos do plano.
+     * @return o callback da ferramenta de planos.
      */
-    private boolean isPathQueryOrHeaderParam(String fieldName, List<OpenApiParameter> params) {
-        return params.stream()
-                .anyMatch(p -> p.name().equals(fieldName) &&
-                        (PARAM_IN_PATH.equals(p.in()) ||
-                                PARAM_IN_QUERY.equals(p.in()) ||
-                                PARAM_IN_HEADER.equals(p.in())));
+    private FunctionCallback createPlanCallback(List<DynamicTool> tools) {
+        Map<String, DynamicTool> toolsByName = tools.stream()
+                .collect(Collectors.toMap(DynamicTool::getName, Function.identity(), (first, second) -> first));
+        Map<String, EndpointInvocationPlan> plans = new ConcurrentHashMap<>();
+        Function<String, EndpointInvocationPlan> planFor = name -> {
+            DynamicTool tool = name != null ? toolsByName.get(name) : null;
+            return tool != null ? plans.computeIfAbsent(name, key -> EndpointInvocationPlan.compile(tool.getEndpoint())) : null;
+        };
+        Function<Object, String> plan = input -> planExecutor.execute(input, planFor);
+        return FunctionCallbackWrapper.builder(plan)
+                .withName(PLAN_TOOL_NAME)
+                .withDescription("Executa um plano de chamadas encadeadas em uma única chamada: os argumentos de um passo "
+                        + "podem usar resultados de passos anteriores (\"$.<id>.campo\") e um passo com forEach roda "
+                        + "uma vez por item de uma lista (\"$item.campo\"). Use para consultas em várias etapas "
+                        + "(ex: usuário -> pedidos -> entrega de cada pedido). Retorna só os resultados finais.")
+                .withInputTypeSchema(planExecutor.inputSchema())
+                .build();
     }
 
     /**
-     * Converte uma lista de {@link DynamicTool} em uma lista de {@link org.springframework.ai.model.function.FunctionCallback}.
-     * <p>
-     * Isso permite que as ferramentas sejam registradas no ChatClient do Spring AI.
+     * Lê os nomes das ferramentas citadas na entrada de uma ferramenta extra: os itens de
+     * {@code calls} do lote ({@value #BATCH_TOOL_NAME}) ou os passos de {@code steps} do plano
+     * ({@value #PLAN_TOOL_NAME}).
      *
-     * @param tools lista de ferramentas dinâmicas.
-     * @return lista de callbacks para o modelo de linguagem.
+     * @param metaToolName o nome da ferramenta extra.
+     * @param input        a entrada JSON enviada pelo modelo.
+     * @return os nomes citados, na ordem da entrada (vazio se a entrada for inválida).
      */
-    public List<FunctionCallback> convertToFunctionCallbacks(List<DynamicTool> tools) {
-        return tools.stream()
-                .map(tool -> FunctionCallbackWrapper.builder(tool.getFunction())
-                        .withName(tool.getName())
-                        .withDescription(tool.getDescription())
-                        // O esquema JSON é fundamental para o modelo saber como formatar a entrada da função.
-                        .withInputTypeSchema(tool.getJsonSchema())
-                        .build())
-                .collect(Collectors.toList());
+    public List<String> innerToolNames(String metaToolName, String input) {
+        String field = BATCH_TOOL_NAME.equals(metaToolName) ? "calls" : PLAN_TOOL_NAME.equals(metaToolName) ? "steps" : null;
+        if (field == null || input == null) {
+            return List.of();
+        }
+        try {
+            List<String> names = new ArrayList<>();
+            for (JsonNode item : objectMapper.readTree(input).path(field)) {
+                String name = item.path("tool").asText("");
+                if (!name.isBlank()) {
+                    names.add(name);
+                }
+            }
+            return names;
+        } catch (JsonProcessingException e) {
+            return List.of();
+        }
     }
 
     /**
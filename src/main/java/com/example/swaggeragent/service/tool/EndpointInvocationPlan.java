@@ -0,0 +1,221 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UriUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plano de execução pré-compilado de um endpoint.
+ * <p>
+ * Tudo o que depende apenas da definição do endpoint é calculado uma única vez, na geração da
+ * ferramenta: o método HTTP, o template do caminho já dividido em trechos fixos e variáveis,
+ * os nomes dos parâmetros agrupados por localização e o conjunto de campos que não vão para o
+ * corpo. A cada chamada resta apenas preencher os valores recebidos do modelo.
+ * <p>
+ * Os valores de path e query são codificados para URL; parâmetros de query do tipo array são
+ * serializados no estilo padrão do OpenAPI ({@code form}, explodido): {@code ?status=a&status=b}.
+ * <p>
+ * A instância é imutável e pode ser usada concorrentemente.
+ */
+public final class EndpointInvocationPlan {
+
+    private static final String PARAM_IN_PATH = "path";
+    private static final String PARAM_IN_QUERY = "query";
+    private static final String PARAM_IN_HEADER = "header";
+
+    private final String operationId;
+    private final HttpMethod method;
+    private final boolean bodySupported;
+    private final String baseUrl;
+    private final String[] pathLiterals;
+    private final String[] pathVariables;
+    private final String[] queryParameters;
+    private final String[] encodedQueryNames;
+    private final String[] headerParameters;
+    private final Set<String> nonBodyFields;
+
+    private EndpointInvocationPlan(String operationId, HttpMethod method, String baseUrl,
+                                   String[] pathLiterals, String[] pathVariables,
+                                   String[] queryParameters, String[] headerParameters, Set<String> nonBodyFields) {
+        this.operationId = operationId;
+        this.method = method;
+        this.bodySupported = method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
+        this.baseUrl = baseUrl;
+        this.pathLiterals = pathLiterals;
+        this.pathVariables = pathVariables;
+        this.queryParameters = queryParameters;
+        this.encodedQueryNames = new String[queryParameters.length];
+        for (int i = 0; i < queryParameters.length; i++) {
+            encodedQueryNames[i] = UriUtils.encode(queryParameters[i], StandardCharsets.UTF_8);
+        }
+        this.headerParameters = headerParameters;
+        this.nonBodyFields = nonBodyFields;
+    }
+
+    /**
+     * Compila o plano de execução de um endpoint.
+     *
+     * @param endpoint o endpoint da API.
+     * @return o plano de execução.
+     * @throws IllegalArgumentException se o método HTTP do endpoint for inválido.
+     */
+    public static EndpointInvocationPlan compile(OpenApiEndpoint endpoint) {
+        List<String> query = new ArrayList<>();
+        List<String> headers = new ArrayList<>();
+        Set<String> pathParameters = new HashSet<>();
+        Set<String> nonBodyFields = new HashSet<>();
+        if (endpoint.parameters() != null) {
+            for (OpenApiParameter parameter : endpoint.parameters()) {
+                String in = parameter.in() != null ? parameter.in().toLowerCase(Locale.ROOT) : "";
+                switch (in) {
+                    case PARAM_IN_PATH -> pathParameters.add(parameter.name());
+                    case PARAM_IN_QUERY -> query.add(parameter.name());
+                    case PARAM_IN_HEADER -> headers.add(parameter.name());
+                    default -> {
+                        continue;
+                    }
+                }
+                nonBodyFields.add(parameter.name());
+            }
+        }
+
+        // Divide o caminho em trechos fixos e variáveis: /pet/{petId}/photo -> ["/pet/", "/photo"] + ["petId"].
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        String path = endpoint.path();
+        int start = 0;
+        int open = path.indexOf('{');
+        while (open >= 0) {
+            int close = path.indexOf('}', open);
+            if (close < 0) {
+                break;
+            }
+            String variable = path.substring(open + 1, close);
+            if (pathParameters.contains(variable)) {
+                literals.add(path.substring(start, open));
+                variables.add(variable);
+                start = close + 1;
+            }
+            open = path.indexOf('{', close);
+        }
+        literals.add(path.substring(start));
+
+        return new EndpointInvocationPlan(
+                endpoint.operationId(),
+                HttpMethod.valueOf(endpoint.method().toUpperCase(Locale.ROOT)),
+                endpoint.baseUrl(),
+                literals.toArray(new String[0]),
+                variables.toArray(new String[0]),
+                query.toArray(new String[0]),
+                headers.toArray(new String[0]),
+                Set.copyOf(nonBodyFields));
+    }
+
+    /**
+     * Monta a URL completa da chamada.
+     * <p>
+     * A URL já sai codificada e é devolvida como {@link URI}, para que o {@code WebClient} não
+     * a trate como template nem a codifique de novo.
+     *
+     * @param input os argumentos recebidos do modelo.
+     * @return a URL com as variáveis de path substituídas e a query string.
+     * @throws IllegalArgumentException se faltar o valor de uma variável do caminho.
+     */
+    public URI buildUri(JsonNode input) {
+        StringBuilder url = new StringBuilder(baseUrl.length() + 64).append(baseUrl).append(pathLiterals[0]);
+        for (int i = 0; i < pathVariables.length; i++) {
+            JsonNode value = input.get(pathVariables[i]);
+            if (value == null || value.isNull()) {
+                throw new IllegalArgumentException("Parâmetro de path obrigatório ausente: " + pathVariables[i]);
+            }
+            url.append(UriUtils.encodePathSegment(value.asText(), StandardCharsets.UTF_8)).append(pathLiterals[i + 1]);
+        }
+
+        char separator = '?';
+        for (int i = 0; i < queryParameters.length; i++) {
+            JsonNode value = input.get(queryParameters[i]);
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            if (value.isArray()) {
+                for (JsonNode item : value) {
+                    url.append(separator).append(encodedQueryNames[i]).append('=').append(encodeQueryValue(item));
+                    separator = '&';
+                }
+            } else {
+                url.append(separator).append(encodedQueryNames[i]).append('=').append(encodeQueryValue(value));
+                separator = '&';
+            }
+        }
+        return URI.create(url.toString());
+    }
+
+    /**
+     * Adiciona os parâmetros de header do endpoint presentes nos argumentos.
+     *
+     * @param headers os cabeçalhos da requisição.
+     * @param input   os argumentos recebidos do modelo.
+     */
+    public void applyHeaders(HttpHeaders headers, JsonNode input) {
+        for (String name : headerParameters) {
+            JsonNode value = input.get(name);
+            if (value != null && !value.isNull()) {
+                headers.set(name, value.asText());
+            }
+        }
+    }
+
+    /**
+     * Separa o corpo da requisição: todos os argumentos que não são parâmetros de path, query ou header.
+     *
+     * @param input os argumentos recebidos do modelo.
+     * @return o corpo da requisição.
+     */
+    public ObjectNode body(JsonNode input) {
+        ObjectNode body = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = input.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!nonBodyFields.contains(field.getKey())) {
+                body.set(field.getKey(), field.getValue());
+            }
+        }
+        return body;
+    }
+
+    private static String encodeQueryValue(JsonNode value) {
+        return UriUtils.encode(value.asText(), StandardCharsets.UTF_8);
+    }
+
+    public String operationId() {
+        return operationId;
+    }
+
+    public HttpMethod method() {
+        return method;
+    }
+
+    /**
+     * Indica se o método HTTP envia corpo (POST, PUT e PATCH).
+     *
+     * @return {@code true} se a requisição deve levar corpo.
+     */
+    public boolean bodySupported() {
+        return bodySupported;
+    }
+}
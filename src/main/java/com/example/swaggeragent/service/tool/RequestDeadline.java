@@ -0,0 +1,199 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Prazo de uma mensagem de chat, repassado a todas as chamadas de ferramentas feitas para respondê-la.
+ * <p>
+ * O prazo começa no {@code ChatController} ({@code app.chat-timeout}). As ferramentas precisam
+ * terminar um pouco antes ({@code app.chat-answer-reserve}), para sobrar tempo de o modelo
+ * responder com o que já foi obtido. O prazo chega às chamadas por dois caminhos:
+ * <ul>
+ *   <li><b>Thread:</b> as funções das ferramentas são síncronas e o Spring AI as chama sem
+ *       repassar nada além dos argumentos; o prazo fica associado à thread que as executa
+ *       ({@link #callWithin});</li>
+ *   <li><b>Context do Reactor:</b> a ponte síncrona {@link ToolExecutionService#execute} copia o
+ *       prazo da thread para o Context ({@link #toContext}), de onde o {@link ApiExecutionService}
+ *       o lê para limitar cada chamada à API externa ao tempo que resta.</li>
+ * </ul>
+ * O prazo também guarda os resultados das ferramentas já concluídas, usados na resposta parcial
+ * quando o tempo acaba antes da resposta do modelo.
+ */
+public final class RequestDeadline {
+
+    /**
+     * Chave do prazo no Context do Reactor.
+     */
+    public static final String CONTEXT_KEY = RequestDeadline.class.getName();
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final Duration budget;
+    private final long deadlineNanos;
+    private final long toolDeadlineNanos;
+    private final Queue<CompletedTool> completed = new ConcurrentLinkedQueue<>();
+
+    private RequestDeadline(Duration budget, Duration answerReserve) {
+        long now = System.nanoTime();
+        this.budget = budget;
+        this.deadlineNanos = now + budget.toNanos();
+        // A reserva nunca passa da metade do prazo, para as ferramentas sempre terem algum tempo.
+        long reserve = Math.min(Math.max(0, answerReserve.toNanos()), budget.toNanos() / 2);
+        this.toolDeadlineNanos = deadlineNanos - reserve;
+    }
+
+    /**
+     * Inicia o prazo de uma mensagem.
+     *
+     * @param budget        o tempo total da mensagem.
+     * @param answerReserve o tempo reservado para a resposta final do modelo, depois das ferramentas.
+     * @return o prazo.
+     */
+    public static RequestDeadline after(Duration budget, Duration answerReserve) {
+        return new RequestDeadline(budget, answerReserve);
+    }
+
+    /**
+     * Retorna o prazo associado à thread atual.
+     *
+     * @return o prazo, ou {@code null} se a thread não estiver atendendo uma mensagem de chat.
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Executa uma ação com o prazo associado à thread atual, restaurando o anterior no final.
+     *
+     * @param deadline o prazo (com {@code null}, a ação roda sem prazo).
+     * @param action   a ação.
+     * @param <T>      o tipo do resultado.
+     * @return o resultado da ação.
+     */
+    public static <T> T callWithin(RequestDeadline deadline, Supplier<T> action) {
+        if (deadline == null) {
+            return action.get();
+        }
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Retorna o prazo mais curto entre um prazo local e o prazo das ferramentas da mensagem.
+     *
+     * @param deadlineNanos o prazo local, em {@link System#nanoTime()}.
+     * @param deadline      o prazo da mensagem (pode ser {@code null}).
+     * @return o prazo efetivo, em {@link System#nanoTime()}.
+     */
+    public static long earliest(long deadlineNanos, RequestDeadline deadline) {
+        return deadline != null && deadline.toolDeadlineNanos - deadlineNanos < 0 ? deadline.toolDeadlineNanos : deadlineNanos;
+    }
+
+    /**
+     * Retorna a função que grava o prazo no Context do Reactor, para uso em {@code contextWrite}.
+     *
+     * @param deadline o prazo (com {@code null}, o Context não é alterado).
+     * @return a função de escrita do Context.
+     */
+    public static Function<Context, Context> toContext(RequestDeadline deadline) {
+        return context -> deadline != null ? context.put(CONTEXT_KEY, deadline) : context;
+    }
+
+    /**
+     * Lê o prazo do Context do Reactor.
+     *
+     * @param context o Context.
+     * @return o prazo, ou {@code null} se não houver.
+     */
+    public static RequestDeadline fromContext(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    /**
+     * Registra o resultado de uma ferramenta no prazo associado à thread atual, se houver.
+     *
+     * @param tool   o nome da ferramenta.
+     * @param result o resultado.
+     */
+    public static void recordCurrent(String tool, ToolExecutionResult result) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.record(tool, result);
+        }
+    }
+
+    /**
+     * Registra o resultado de uma ferramenta concluída, para a resposta parcial.
+     *
+     * @param tool   o nome da ferramenta.
+     * @param result o resultado.
+     */
+    public void record(String tool, ToolExecutionResult result) {
+        if (result != null) {
+            completed.add(new CompletedTool(tool, result));
+        }
+    }
+
+    /**
+     * Retorna o tempo total da mensagem.
+     *
+     * @return o tempo total.
+     */
+    public Duration budget() {
+        return budget;
+    }
+
+    /**
+     * Retorna o tempo que resta para a mensagem.
+     *
+     * @return o tempo restante (zero se o prazo já acabou).
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Retorna o tempo que resta para as chamadas de ferramentas.
+     *
+     * @return o tempo restante (zero se já acabou).
+     */
+    public Duration remainingForTools() {
+        return Duration.ofNanos(Math.max(0, toolDeadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Retorna os resultados das ferramentas concluídas até agora.
+     *
+     * @return os resultados, na ordem em que terminaram.
+     */
+    public List<CompletedTool> completed() {
+        return List.copyOf(completed);
+    }
+
+    /**
+     * Resultado de uma ferramenta concluída dentro do prazo.
+     *
+     * @param tool   o nome da ferramenta.
+     * @param result o resultado.
+     */
+    public record CompletedTool(String tool, ToolExecutionResult result) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converte listas de objetos com os mesmos campos em tabelas CSV antes de o resultado chegar ao modelo.
+ * <p>
+ * Em JSON, os nomes dos campos se repetem em cada item de uma lista de pedidos ou de pets, e cada
+ * repetição é paga em tokens. Aqui essas listas viram uma linha de cabeçalho com os nomes das
+ * colunas e uma linha por item. Objetos aninhados viram colunas com o caminho separado por ponto
+ * (ex: {@code category.name}). Listas irregulares (itens que não são objetos, campos com listas ou
+ * itens com campos muito diferentes entre si) continuam em JSON.
+ * <p>
+ * Se a raiz do corpo for a lista, o corpo inteiro vira CSV; listas dentro de objetos viram um texto
+ * CSV no lugar do array. A conversão só é aplicada quando reduz o tamanho estimado do corpo, e o
+ * modelo recebe um aviso sobre o formato.
+ * <p>
+ * <b>Métricas:</b> {@code swagger.agent.tool.encoding.saved.tokens}.
+ */
+@Component
+public class TabularResultEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(TabularResultEncoder.class);
+
+    /**
+     * Fração mínima das células preenchidas para uma lista ser considerada uniforme.
+     */
+    private static final double MIN_FILL_RATIO = 0.8;
+
+    private static final String NOTICE = "Listas de objetos estão em CSV: a primeira linha tem os nomes das colunas"
+            + " e campos aninhados usam ponto (ex: category.name).";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final SwaggerAgentProperties.Encoding settings;
+    private final DistributionSummary savedTokens;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param objectMapper  o serializador/desserializador JSON.
+     * @param properties    as propriedades da aplicação ({@code app.tool.encoding}).
+     * @param meterRegistry o registro de métricas.
+     */
+    public TabularResultEncoder(ObjectMapper objectMapper, SwaggerAgentProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.reader = objectMapper.reader(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .with(JsonNodeFactory.withExactBigDecimals(true));
+        this.settings = properties.getTool().getEncoding();
+        this.savedTokens = DistributionSummary.builder("swagger.agent.tool.encoding.saved.tokens")
+                .description("Tokens estimados economizados por chamada com a conversão de listas em CSV")
+                .tag("format", "csv")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Converte as listas uniformes de um resultado 2xx em JSON.
+     *
+     * @param result o resultado da ferramenta.
+     * @return o resultado com as listas em CSV, ou o próprio resultado se não houver o que converter.
+     */
+    public ToolExecutionResult encode(ToolExecutionResult result) {
+        String body = result.body();
+        if (!"csv".equalsIgnoreCase(settings.getFormat()) || result.httpStatusCode() < 200
+                || result.httpStatusCode() >= 300 || body == null || body.isBlank()) {
+            return result;
+        }
+        char first = body.stripLeading().charAt(0);
+        if (first != '{' && first != '[') {
+            return result;
+        }
+        JsonNode root;
+        try {
+            root = reader.readTree(body);
+        } catch (JsonProcessingException e) {
+            return result;
+        }
+        int[] tables = new int[1];
+        JsonNode encoded = encodeNode(root, tables);
+        if (tables[0] == 0) {
+            return result;
+        }
+        String text;
+        try {
+            text = encoded.isTextual() ? encoded.textValue() : objectMapper.writeValueAsString(encoded);
+        } catch (JsonProcessingException e) {
+            return result;
+        }
+        int saved = TokenEstimator.estimate(body) - TokenEstimator.estimate(text);
+        if (saved <= 0) {
+            return result;
+        }
+        savedTokens.record(saved);
+        log.debug("📊 {} lista(s) convertida(s) em CSV: ~{} -> ~{} tokens", tables[0],
+                TokenEstimator.estimate(body), TokenEstimator.estimate(text));
+        String notice = result.notice() != null ? result.notice() + " " + NOTICE : NOTICE;
+        return new ToolExecutionResult(result.httpStatusCode(), text, notice);
+    }
+
+    /**
+     * Percorre o JSON e troca cada lista uniforme pelo texto CSV correspondente.
+     */
+    private JsonNode encodeNode(JsonNode node, int[] tables) {
+        if (node.isArray()) {
+            Table table = Table.of((ArrayNode) node, settings.getMinRows());
+            if (table != null) {
+                tables[0]++;
+                return TextNode.valueOf(table.toCsv());
+            }
+            ArrayNode array = (ArrayNode) node;
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, encodeNode(array.get(i), tables));
+            }
+        } else if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(encodeNode(field.getValue(), tables));
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Lista uniforme, já achatada em colunas.
+     */
+    private record Table(List<String> columns, List<Map<String, JsonNode>> rows) {
+
+        /**
+         * Monta a tabela de uma lista, ou retorna {@code null} se a lista for irregular.
+         */
+        static Table of(ArrayNode array, int minRows) {
+            if (array.size() < Math.max(1, minRows)) {
+                return null;
+            }
+            Set<String> columns = new LinkedHashSet<>();
+            List<Map<String, JsonNode>> rows = new ArrayList<>(array.size());
+            int cells = 0;
+            for (JsonNode item : array) {
+                if (!item.isObject()) {
+                    return null;
+                }
+                Map<String, JsonNode> row = new LinkedHashMap<>();
+                if (!flatten((ObjectNode) item, "", row)) {
+                    return null;
+                }
+                columns.addAll(row.keySet());
+                cells += row.size();
+                rows.add(row);
+            }
+            if (columns.isEmpty() || cells < MIN_FILL_RATIO * columns.size() * rows.size()) {
+                return null;
+            }
+            return new Table(List.copyOf(columns), rows);
+        }
+
+        /**
+         * Achata um objeto em colunas; retorna {@code false} se algum campo for uma lista.
+         */
+        private static boolean flatten(ObjectNode object, String prefix, Map<String, JsonNode> row) {
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                String name = prefix + field.getKey();
+                if (value.isArray()) {
+                    return false;
+                }
+                if (value.isObject()) {
+                    if (!flatten((ObjectNode) value, name + ".", row)) {
+                        return false;
+                    }
+                } else {
+                    row.put(name, value);
+                }
+            }
+            return true;
+        }
+
+        String toCsv() {
+            StringBuilder csv = new StringBuilder();
+            appendRow(csv, columns.stream().map(TextNode::valueOf).toList());
+            for (Map<String, JsonNode> row : rows) {
+                appendRow(csv, columns.stream().map(row::get).toList());
+            }
+            return csv.toString();
+        }
+
+        private static void appendRow(StringBuilder csv, List<JsonNode> values) {
+            if (!csv.isEmpty()) {
+                csv.append('\n');
+            }
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                JsonNode value = values.get(i);
+                if (value != null && !value.isNull()) {
+                    csv.append(escape(value.asText()));
+                }
+            }
+        }
+
+        /**
+         * Aplica as aspas do CSV (RFC 4180) quando o valor tem vírgula, aspas, quebra de linha ou
+         * espaços nas pontas.
+         */
+        private static String escape(String value) {
+            boolean quote = !value.isEmpty() && (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0
+                    || Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+            return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.swaggeragent.service.tool;
+
+/**
+ * Estimativa barata do número de tokens de um texto, sem depender do tokenizador do modelo.
+ * <p>
+ * Usa a aproximação de 4 caracteres por token, suficiente para orçamentos e comparações
+ * entre ferramentas (o valor real varia com o modelo e o idioma).
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String TRUNCATION_MARK = " …";
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * Estima o número de tokens de um texto.
+     *
+     * @param text o texto (pode ser nulo).
+     * @return o número estimado de tokens.
+     */
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Corta um texto para caber em um orçamento de tokens, preferindo terminar em uma quebra
+     * de linha ou espaço.
+     *
+     * @param text      o texto.
+     * @param maxTokens o orçamento; valores menores ou iguais a zero desativam o corte.
+     * @return o texto original, se couber no orçamento, ou o texto cortado com "…" no final.
+     */
+    public static String truncate(String text, int maxTokens) {
+        if (maxTokens <= 0 || estimate(text) <= maxTokens) {
+            return text;
+        }
+        int limit = Math.max(0, maxTokens * CHARS_PER_TOKEN - TRUNCATION_MARK.length());
+        int cut = Math.max(text.lastIndexOf('\n', limit), text.lastIndexOf(' ', limit));
+        if (cut < limit / 2) {
+            cut = limit;
+        }
+        return text.substring(0, cut).stripTrailing() + TRUNCATION_MARK;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Executa ao mesmo tempo várias chamadas de ferramentas pedidas em uma única chamada do modelo.
+ * <p>
+ * Alguns modelos chamam uma ferramenta por vez, em idas e voltas separadas, mesmo quando as
+ * chamadas são independentes (ex: "compare estes cinco pedidos"). A ferramenta
+ * {@value DynamicToolGeneratorService#BATCH_TOOL_NAME} recebe a lista {@code [{tool, arguments}]}
+ * e cada item é executado como a própria ferramenta, com a mesma projeção e formatação das chamadas
+ * individuais. Os itens usam a execução reativa das ferramentas, sem ocupar threads do executor das
+ * ferramentas ({@code toolCallScheduler}): o lote já roda em uma delas e esperaria itens presos na fila
+ * atrás dele. São até {@code app.tool.batch.max-concurrency} itens de cada vez, com um prazo comum
+ * ({@code app.tool.batch.timeout}), e os resultados voltam na ordem do pedido, cada um com o seu status.
+ */
+@Component
+public class ToolBatchExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolBatchExecutor.class);
+
+    private final ObjectMapper objectMapper;
+    private final SwaggerAgentProperties.Batch settings;
+
+    /**
+     * Execução reativa de uma ferramenta, já com a projeção e a formatação do resultado.
+     */
+    @FunctionalInterface
+    public interface ReactiveTool {
+
+        /**
+         * Executa a ferramenta sem bloquear a thread atual.
+         *
+         * @param arguments os argumentos da chamada, em JSON.
+         * @return o resultado da ferramenta.
+         */
+        Mono<ToolExecutionResult> call(String arguments);
+    }
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param objectMapper o serializador/desserializador JSON.
+     * @param properties   as propriedades da aplicação ({@code app.tool.batch}).
+     */
+    public ToolBatchExecutor(ObjectMapper objectMapper, SwaggerAgentProperties properties) {
+        this.objectMapper = objectMapper;
+        this.settings = properties.getTool().getBatch();
+    }
+
+    /**
+     * Indica se a ferramenta de lote deve ser registrada ({@code app.tool.batch.enabled}).
+     *
+     * @return {@code true} se a ferramenta de lote estiver habilitada.
+     */
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Retorna o JSON Schema da entrada da ferramenta de lote.
+     *
+     * @return o schema, com o limite de chamadas configurado.
+     */
+    public String inputSchema() {
+        ObjectNode schema = objectMapper.createObjectNode().put("type", "object");
+        ObjectNode calls = schema.putObject("properties").putObject("calls")
+                .put("type", "array")
+                .put("description", "Chamadas independentes, executadas ao mesmo tempo")
+                .put("minItems", 1)
+                .put("maxItems", settings.getMaxCalls());
+        ObjectNode item = calls.putObject("items").put("type", "object");
+        ObjectNode properties = item.putObject("properties");
+        properties.putObject("tool").put("type", "string").put("description", "Nome da ferramenta");
+        properties.putObject("arguments").put("type", "object").put("description", "Argumentos da ferramenta, no formato do schema dela");
+        item.putArray("required").add("tool").add("arguments");
+        schema.putArray("required").add("calls");
+        return schema.toString();
+    }
+
+    /**
+     * Executa um lote de chamadas.
+     *
+     * @param input a entrada recebida do modelo ({@code {"calls": [{"tool": ..., "arguments": {...}}]}}).
+     * @param tools a execução de cada ferramenta, pelo nome ({@code null} se a ferramenta não existir).
+     * @return o array JSON com o resultado de cada chamada, na ordem do pedido.
+     */
+    public String execute(Object input, Function<String, ReactiveTool> tools) {
+        JsonNode calls = objectMapper.valueToTree(input).path("calls");
+        if (!calls.isArray() || calls.isEmpty()) {
+            return error(400, "Informe a lista 'calls' com ao menos uma chamada.");
+        }
+        if (calls.size() > settings.getMaxCalls()) {
+            return error(400, "O lote aceita no máximo " + settings.getMaxCalls() + " chamadas; foram enviadas " + calls.size() + ".");
+        }
+        RequestDeadline requestDeadline = RequestDeadline.current();
+        long deadline = RequestDeadline.earliest(System.nanoTime() + settings.getTimeout().toNanos(), requestDeadline);
+        // No streaming a ferramenta de lote também é chamada pelo Spring AI: a espera passa pelo ToolCallBridge.
+        List<ObjectNode> results = ToolCallBridge.await(Flux.fromStream(IntStream.range(0, calls.size()).boxed())
+                .flatMapSequential(index -> run(index, calls.get(index), tools, deadline, requestDeadline),
+                        Math.max(1, settings.getMaxConcurrency()))
+                .collectList()
+                .contextWrite(RequestDeadline.toContext(requestDeadline)));
+        ArrayNode array = objectMapper.createArrayNode();
+        results.forEach(array::add);
+        log.debug("📦 Lote de {} chamadas executado", calls.size());
+        return array.toString();
+    }
+
+    private Mono<ObjectNode> run(int index, JsonNode call, Function<String, ReactiveTool> tools, long deadline,
+                                 RequestDeadline requestDeadline) {
+        String tool = call.path("tool").asText(null);
+        ReactiveTool function = tool != null ? tools.apply(tool) : null;
+        if (function == null) {
+            return Mono.just(item(index, tool, new ToolExecutionResult(404, "Ferramenta desconhecida: " + tool)));
+        }
+        JsonNode arguments = call.path("arguments").isObject() ? call.get("arguments") : objectMapper.createObjectNode();
+        return invoke(function, arguments, deadline)
+                .doOnNext(result -> {
+                    // Guardado no prazo da mensagem, para a resposta parcial se o tempo acabar.
+                    if (requestDeadline != null) {
+                        requestDeadline.record(tool, result);
+                    }
+                })
+                .map(result -> item(index, tool, result))
+                .onErrorResume(TimeoutException.class, e -> Mono.just(item(index, tool,
+                        new ToolExecutionResult(504, "A ferramenta não respondeu dentro do prazo do lote."))))
+                .onErrorResume(e -> {
+                    log.error("Erro ao executar a ferramenta '{}' no lote", tool, e);
+                    return Mono.just(item(index, tool, new ToolExecutionResult(500, "Erro inesperado: " + e.getMessage())));
+                });
+    }
+
+    /**
+     * Executa uma ferramenta dentro do prazo informado. O prazo da mensagem de chat chega à chamada
+     * da API pelo Context do Reactor.
+     *
+     * @param tool      a execução da ferramenta.
+     * @param arguments os argumentos da chamada.
+     * @param deadline  o prazo, em {@link System#nanoTime()}.
+     * @return o resultado da ferramenta; termina com {@link TimeoutException} se o prazo acabar.
+     */
+    Mono<ToolExecutionResult> invoke(ReactiveTool tool, JsonNode arguments, long deadline) {
+        return Mono.defer(() -> {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Mono.error(new TimeoutException());
+            }
+            return tool.call(arguments.toString()).timeout(Duration.ofNanos(remaining));
+        });
+    }
+
+    private ObjectNode item(int index, String tool, ToolExecutionResult result) {
+        ObjectNode item = objectMapper.createObjectNode();
+        item.put("index", index);
+        item.put("tool", tool);
+        item.put("status", result.httpStatusCode() >= 200 && result.httpStatusCode() < 300 ? "ok" : "error");
+        item.put("httpStatusCode", result.httpStatusCode());
+        item.put("body", result.body());
+        if (result.notice() != null) {
+            item.put("notice", result.notice());
+        }
+        return item;
+    }
+
+    private String error(int status, String message) {
+        try {
+            return objectMapper.writeValueAsString(new ToolExecutionResult(status, message));
+        } catch (JsonProcessingException e) {
+            return "{\"httpStatusCode\":" + status + "}";
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.swaggeragent.service.tool;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Ponte síncrona entre as funções das ferramentas, que precisam devolver o resultado, e a execução
+ * reativa das chamadas.
+ * <p>
+ * A API de callbacks do Spring AI é síncrona, então a thread que chama a ferramenta sempre espera o
+ * resultado. Essa thread nunca deve ser não bloqueante (event loop do Reactor Netty ou
+ * {@link Schedulers#parallel()}): o chat síncrono chama as ferramentas na thread da requisição, e o
+ * streaming recebe as respostas do modelo no executor das ferramentas
+ * ({@code WebClientConfig#modelResponseOffload}). Uma chamada em thread não bloqueante é um erro de
+ * configuração e falha na hora, em vez de parar a thread até a API responder.
+ */
+public final class ToolCallBridge {
+
+    private ToolCallBridge() {
+    }
+
+    /**
+     * Executa o trabalho e aguarda o resultado.
+     *
+     * @param work o trabalho.
+     * @param <T>  o tipo do resultado.
+     * @return o resultado.
+     * @throws IllegalStateException se a thread atual for não bloqueante.
+     */
+    public static <T> T await(Mono<T> work) {
+        if (Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("Função de ferramenta chamada na thread não bloqueante "
+                    + Thread.currentThread().getName() + "; as ferramentas devem rodar no executor das ferramentas");
+        }
+        return work.block();
+    }
+}
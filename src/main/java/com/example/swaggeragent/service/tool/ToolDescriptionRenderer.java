@@ -0,0 +1,28 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+
+/**
+ * Estratégia de geração do texto de descrição de uma ferramenta, enviado ao modelo junto com
+ * o JSON Schema de entrada.
+ * <p>
+ * As implementações são beans do Spring; o {@link DynamicToolGeneratorService} usa aquela
+ * cujo {@link #mode()} corresponde a {@code app.tool.description.mode}.
+ */
+public interface ToolDescriptionRenderer {
+
+    /**
+     * Nome do modo, usado na configuração (ex: {@code verbose}, {@code compact}).
+     *
+     * @return o nome do modo.
+     */
+    String mode();
+
+    /**
+     * Gera a descrição da ferramenta de um endpoint.
+     *
+     * @param endpoint o endpoint da API.
+     * @return a descrição da ferramenta.
+     */
+    String render(OpenApiEndpoint endpoint);
+}
@@ -2,6 +2,7 @@ package com.example.swaggeragent.service.tool;
 
 import com.example.swaggeragent.model.response.ToolExecutionResult;
 import com.example.swaggeragent.model.OpenApiEndpoint;
+import reactor.core.publisher.Mono;
 
 /**
  * Interface para execução de ferramentas (tools) dinâmicas.
@@ -51,9 +52,50 @@ public interface ToolExecutionService {
      * erros de rede, timeouts, e respostas de erro das APIs, retornando
      * sempre um {@link ToolExecutionResult} válido.
      *
+     * O plano de execução do endpoint é compilado a cada chamada; ferramentas geradas pelo
+     * {@link DynamicToolGeneratorService} usam {@link #execute(EndpointInvocationPlan, String)}
+     * com o plano compilado na geração.
+     *
      * @param endpoint o endpoint da API definido na especificação OpenAPI
      * @param input    os parâmetros de entrada em formato JSON string
      * @return o resultado da execução contendo status HTTP e corpo da resposta
      */
-    ToolExecutionResult execute(OpenApiEndpoint endpoint, String input);
+    default ToolExecutionResult execute(OpenApiEndpoint endpoint, String input) {
+        return execute(EndpointInvocationPlan.compile(endpoint), input);
+    }
+
+    /**
+     * Executa uma ferramenta a partir do plano de execução pré-compilado do seu endpoint,
+     * aguardando o resultado.
+     * <p>
+     * Ponte síncrona sobre {@link #executeReactive}, usada pelas funções das ferramentas: a API
+     * de callbacks do Spring AI é síncrona. A espera é feita pelo {@link ToolCallBridge}; as
+     * funções nunca são chamadas em um event loop (no streaming, as respostas do modelo chegam
+     * no executor das ferramentas), e a chamada HTTP em si roda no event loop dedicado às APIs
+     * externas.
+     * <p>
+     * O prazo da mensagem de chat associado à thread ({@link RequestDeadline}) é copiado para o
+     * Context do Reactor, para que a chamada use apenas o tempo que resta.
+     *
+     * @param plan  o plano de execução do endpoint
+     * @param input os parâmetros de entrada em formato JSON string
+     * @return o resultado da execução contendo status HTTP e corpo da resposta
+     */
+    default ToolExecutionResult execute(EndpointInvocationPlan plan, String input) {
+        Mono<ToolExecutionResult> result = executeReactive(plan, input)
+                .contextWrite(RequestDeadline.toContext(RequestDeadline.current()));
+        return ToolCallBridge.await(result);
+    }
+
+    /**
+     * Executa uma ferramenta de forma não bloqueante.
+     * <p>
+     * É o motor de execução único: as variantes síncronas e assíncronas delegam para ele.
+     * A chamada só é feita quando o {@link Mono} é assinado.
+     *
+     * @param plan  o plano de execução do endpoint
+     * @param input os parâmetros de entrada em formato JSON string
+     * @return um {@link Mono} com o resultado da execução; erros viram um resultado com o status correspondente
+     */
+    Mono<ToolExecutionResult> executeReactive(EndpointInvocationPlan plan, String input);
 } 
\ No newline at end of file
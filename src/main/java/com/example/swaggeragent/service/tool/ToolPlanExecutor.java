@@ -0,0 +1,566 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Executa localmente um plano de chamadas de ferramentas em que uma chamada depende do resultado
+ * de outra.
+ * <p>
+ * Consultas encadeadas ("encontre o usuário, depois os pedidos dele, depois a entrega de cada
+ * pedido") custam hoje uma ida e volta ao modelo por etapa. Com a ferramenta
+ * {@value DynamicToolGeneratorService#PLAN_TOOL_NAME}, o modelo envia o plano inteiro e só o
+ * resultado final volta para ele:
+ * <pre>
+ * {"steps": [
+ *   {"id": "user",   "tool": "...-get_user_by_name", "arguments": {"username": "ana"}},
+ *   {"id": "orders", "tool": "...-find_orders",      "arguments": {"userId": "$.user.id"}},
+ *   {"id": "ships",  "tool": "...-get_shipment",     "forEach": "$.orders[*]", "arguments": {"orderId": "$item.id"}}
+ * ]}
+ * </pre>
+ * Um argumento com o texto {@code $.<passo>.campo} é trocado pelo valor correspondente do resultado
+ * do passo (com {@code [n]} para um item de lista e {@code [*]} para todos). Com {@code forEach}, o
+ * passo roda uma vez por item da lista referenciada, e {@code $item} referencia o item atual.
+ * <p>
+ * As dependências formam um grafo acíclico: passos independentes rodam ao mesmo tempo, e cada passo
+ * começa assim que os passos de que depende terminam. As chamadas vão direto ao
+ * {@link ToolExecutionService}, sem projeção, para que as referências encontrem todos os campos;
+ * o resultado final passa pelo {@link TabularResultEncoder}. Um passo que falha faz os passos que
+ * dependem dele serem ignorados, e o modelo recebe o status de cada passo.
+ * <p>
+ * As chamadas usam o prazo da mensagem de chat ({@link RequestDeadline}), e o resultado de cada
+ * uma entra na resposta parcial se o prazo acabar antes da resposta do modelo.
+ */
+@Component
+public class ToolPlanExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolPlanExecutor.class);
+
+    private static final Pattern STEP_ID = Pattern.compile("[A-Za-z0-9_]+");
+    private static final String ITEM = "$item";
+
+    private final ObjectMapper objectMapper;
+    private final ToolExecutionService toolExecutionService;
+    private final TabularResultEncoder resultEncoder;
+    private final SwaggerAgentProperties.Plan settings;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param objectMapper         o serializador/desserializador JSON.
+     * @param toolExecutionService o serviço que executa as chamadas HTTP das ferramentas.
+     * @param resultEncoder        a conversão das listas uniformes do resultado final em CSV.
+     * @param properties           as propriedades da aplicação ({@code app.tool.plan}).
+     */
+    public ToolPlanExecutor(ObjectMapper objectMapper, ToolExecutionService toolExecutionService,
+                            TabularResultEncoder resultEncoder, SwaggerAgentProperties properties) {
+        this.objectMapper = objectMapper;
+        this.toolExecutionService = toolExecutionService;
+        this.resultEncoder = resultEncoder;
+        this.settings = properties.getTool().getPlan();
+    }
+
+    /**
+     * Indica se a ferramenta de planos deve ser registrada ({@code app.tool.plan.enabled}).
+     *
+     * @return {@code true} se a ferramenta de planos estiver habilitada.
+     */
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Retorna o JSON Schema da entrada da ferramenta de planos.
+     *
+     * @return o schema, com o limite de passos configurado.
+     */
+    public String inputSchema() {
+        ObjectNode schema = objectMapper.createObjectNode().put("type", "object");
+        ObjectNode properties = schema.putObject("properties");
+        ObjectNode steps = properties.putObject("steps")
+                .put("type", "array")
+                .put("minItems", 1)
+                .put("maxItems", settings.getMaxSteps());
+        ObjectNode item = steps.putObject("items").put("type", "object");
+        ObjectNode stepProperties = item.putObject("properties");
+        stepProperties.putObject("id").put("type", "string")
+                .put("description", "Identificador do passo (letras, números e _), usado nas referências");
+        stepProperties.putObject("tool").put("type", "string").put("description", "Nome da ferramenta");
+        stepProperties.putObject("arguments").put("type", "object")
+                .put("description", "Argumentos da ferramenta; um texto \"$.<id>.campo\" é trocado pelo valor do resultado do passo <id>");
+        stepProperties.putObject("forEach").put("type", "string")
+                .put("description", "Referência a uma lista (ex: \"$.pedidos[*]\"); o passo roda uma vez por item e \"$item.campo\" referencia o item atual");
+        item.putArray("required").add("id").add("tool");
+        properties.putObject("output")
+                .put("type", "array")
+                .put("description", "Passos cujos resultados são devolvidos; por padrão, os passos de que nenhum outro depende")
+                .putObject("items").put("type", "string");
+        schema.putArray("required").add("steps");
+        return schema.toString();
+    }
+
+    /**
+     * Valida e executa um plano.
+     *
+     * @param input a entrada recebida do modelo ({@code {"steps": [...], "output": [...]}}).
+     * @param plans localiza o plano de execução de uma ferramenta pelo nome ({@code null} se não existir).
+     * @return o {@link ToolExecutionResult} em JSON, com os resultados dos passos de saída e o status de cada passo.
+     */
+    public String execute(Object input, Function<String, EndpointInvocationPlan> plans) {
+        JsonNode root = objectMapper.valueToTree(input);
+        List<Step> steps;
+        List<String> output;
+        try {
+            steps = parse(root.path("steps"), plans);
+            output = outputs(root.path("output"), steps);
+        } catch (IllegalArgumentException e) {
+            log.warn("Plano de ferramentas inválido: {}", e.getMessage());
+            return write(new ToolExecutionResult(400, "Plano inválido: " + e.getMessage()));
+        }
+
+        long start = System.nanoTime();
+        RequestDeadline requestDeadline = RequestDeadline.current();
+        long deadline = RequestDeadline.earliest(start + settings.getTimeout().toNanos(), requestDeadline);
+        Map<String, Mono<Outcome>> outcomes = new LinkedHashMap<>();
+        for (Step step : steps) {
+            // Cada passo roda uma única vez, mesmo com vários dependentes.
+            outcomes.put(step.id(), run(step, outcomes, plans.apply(step.tool()), deadline, requestDeadline).cache());
+        }
+        // No streaming a ferramenta de planos também é chamada pelo Spring AI: a espera passa pelo ToolCallBridge.
+        List<Outcome> results = ToolCallBridge.await(Flux.mergeSequential(outcomes.values())
+                .collectList()
+                .contextWrite(RequestDeadline.toContext(requestDeadline)));
+        log.debug("🗺️ Plano com {} passos executado em {} ms", steps.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode values = body.putObject("results");
+        ArrayNode status = body.putArray("steps");
+        for (Outcome outcome : results) {
+            if (output.contains(outcome.step().id()) && outcome.ok()) {
+                values.set(outcome.step().id(), outcome.value());
+            }
+            ObjectNode entry = status.addObject()
+                    .put("id", outcome.step().id())
+                    .put("tool", outcome.step().tool())
+                    .put("status", outcome.status())
+                    .put("calls", outcome.calls());
+            if (outcome.error() != null) {
+                entry.put("error", outcome.error());
+            }
+        }
+        return write(resultEncoder.encode(new ToolExecutionResult(200, body.toString())));
+    }
+
+    /**
+     * Lê os passos, valida ferramentas e referências e os ordena de forma que cada passo venha
+     * depois dos passos de que depende.
+     */
+    private List<Step> parse(JsonNode nodes, Function<String, EndpointInvocationPlan> plans) {
+        if (!nodes.isArray() || nodes.isEmpty()) {
+            throw new IllegalArgumentException("informe a lista 'steps' com ao menos um passo.");
+        }
+        if (nodes.size() > settings.getMaxSteps()) {
+            throw new IllegalArgumentException("o plano aceita no máximo " + settings.getMaxSteps() + " passos.");
+        }
+        Map<String, Step> steps = new LinkedHashMap<>();
+        for (JsonNode node : nodes) {
+            String id = node.path("id").asText("");
+            String tool = node.path("tool").asText("");
+            if (!STEP_ID.matcher(id).matches()) {
+                throw new IllegalArgumentException("id de passo inválido: '" + id + "'.");
+            }
+            if (steps.containsKey(id)) {
+                throw new IllegalArgumentException("id de passo repetido: '" + id + "'.");
+            }
+            if (plans.apply(tool) == null) {
+                throw new IllegalArgumentException("ferramenta desconhecida no passo '" + id + "': " + tool);
+            }
+            JsonNode arguments = node.path("arguments").isObject() ? node.get("arguments") : objectMapper.createObjectNode();
+            Reference forEach = null;
+            if (node.hasNonNull("forEach")) {
+                forEach = Reference.parse(node.get("forEach").asText());
+                if (forEach == null || ITEM.equals(forEach.root())) {
+                    throw new IllegalArgumentException("forEach do passo '" + id + "' deve referenciar outro passo (ex: $.pedidos[*]).");
+                }
+            }
+            Set<String> dependsOn = new LinkedHashSet<>();
+            if (forEach != null) {
+                dependsOn.add(forEach.root());
+            }
+            boolean usesItem = collectReferences(arguments, dependsOn);
+            if (usesItem && forEach == null) {
+                throw new IllegalArgumentException("o passo '" + id + "' usa $item sem forEach.");
+            }
+            steps.put(id, new Step(id, tool, arguments, forEach, dependsOn));
+        }
+        for (Step step : steps.values()) {
+            for (String dependency : step.dependsOn()) {
+                if (!steps.containsKey(dependency) || dependency.equals(step.id())) {
+                    throw new IllegalArgumentException("o passo '" + step.id() + "' referencia um passo inexistente: '" + dependency + "'.");
+                }
+            }
+        }
+        return sort(steps);
+    }
+
+    /**
+     * Ordena os passos pelas dependências (algoritmo de Kahn), recusando ciclos.
+     */
+    private static List<Step> sort(Map<String, Step> steps) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<Step>> dependents = new HashMap<>();
+        for (Step step : steps.values()) {
+            pending.put(step.id(), step.dependsOn().size());
+            step.dependsOn().forEach(dependency -> dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(step));
+        }
+        Deque<Step> ready = new ArrayDeque<>();
+        steps.values().stream().filter(step -> step.dependsOn().isEmpty()).forEach(ready::add);
+        List<Step> sorted = new ArrayList<>(steps.size());
+        while (!ready.isEmpty()) {
+            Step step = ready.poll();
+            sorted.add(step);
+            for (Step dependent : dependents.getOrDefault(step.id(), List.of())) {
+                if (pending.merge(dependent.id(), -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (sorted.size() < steps.size()) {
+            throw new IllegalArgumentException("as referências entre os passos formam um ciclo.");
+        }
+        return sorted;
+    }
+
+    /**
+     * Define os passos cujos resultados são devolvidos: os informados em {@code output} ou, por
+     * padrão, os passos de que nenhum outro depende.
+     */
+    private static List<String> outputs(JsonNode output, List<Step> steps) {
+        if (output.isArray() && !output.isEmpty()) {
+            List<String> ids = new ArrayList<>();
+            output.forEach(id -> ids.add(id.asText()));
+            return ids;
+        }
+        Set<String> referenced = new LinkedHashSet<>();
+        steps.forEach(step -> referenced.addAll(step.dependsOn()));
+        return steps.stream().map(Step::id).filter(id -> !referenced.contains(id)).toList();
+    }
+
+    /**
+     * Anota os passos referenciados nos argumentos.
+     *
+     * @return {@code true} se os argumentos usam {@code $item}.
+     */
+    private static boolean collectReferences(JsonNode node, Set<String> dependsOn) {
+        boolean usesItem = false;
+        if (node.isTextual()) {
+            Reference reference = Reference.parse(node.textValue());
+            if (reference != null) {
+                if (ITEM.equals(reference.root())) {
+                    return true;
+                }
+                dependsOn.add(reference.root());
+            }
+        } else if (node.isContainerNode()) {
+            for (JsonNode child : node) {
+                usesItem |= collectReferences(child, dependsOn);
+            }
+        }
+        return usesItem;
+    }
+
+    /**
+     * Executa um passo assim que os passos de que ele depende terminam.
+     */
+    private Mono<Outcome> run(Step step, Map<String, Mono<Outcome>> outcomes, EndpointInvocationPlan plan, long deadline,
+                              RequestDeadline requestDeadline) {
+        List<Mono<Outcome>> dependencies = step.dependsOn().stream().map(outcomes::get).toList();
+        return Flux.mergeSequential(dependencies).collectList().flatMap(done -> {
+            Map<String, JsonNode> values = new HashMap<>();
+            for (Outcome dependency : done) {
+                if (!dependency.ok()) {
+                    return Mono.just(new Outcome(step, "skipped", null,
+                            "o passo '" + dependency.step().id() + "' não foi concluído", 0));
+                }
+                values.put(dependency.step().id(), dependency.value());
+            }
+            if (step.forEach() == null) {
+                return call(step, plan, bind(step.arguments(), values, null), deadline, requestDeadline)
+                        .map(result -> single(step, result));
+            }
+            JsonNode items = step.forEach().resolve(values, null);
+            if (!items.isArray()) {
+                return Mono.just(new Outcome(step, "error", null, "forEach não resultou em uma lista", 0));
+            }
+            if (items.size() > settings.getMaxFanOut()) {
+                return Mono.just(new Outcome(step, "error", null,
+                        "forEach resultou em " + items.size() + " itens; o máximo é " + settings.getMaxFanOut(), 0));
+            }
+            return Flux.fromIterable(items)
+                    .flatMapSequential(item -> call(step, plan, bind(step.arguments(), values, item), deadline, requestDeadline),
+                            Math.max(1, settings.getMaxConcurrency()))
+                    .collectList()
+                    .map(results -> fanOut(step, results));
+        }).onErrorResume(IllegalArgumentException.class, e -> Mono.just(new Outcome(step, "error", null, e.getMessage(), 0)));
+    }
+
+    /**
+     * Faz uma chamada do passo dentro do prazo do plano e registra o resultado no prazo da mensagem.
+     */
+    private Mono<ToolExecutionResult> call(Step step, EndpointInvocationPlan plan, JsonNode arguments, long deadline,
+                                           RequestDeadline requestDeadline) {
+        return Mono.defer(() -> {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Mono.error(new TimeoutException());
+            }
+            return toolExecutionService.executeReactive(plan, arguments.toString()).timeout(Duration.ofNanos(remaining));
+        }).onErrorResume(TimeoutException.class, e -> Mono.just(
+                new ToolExecutionResult(504, "A chamada não terminou dentro do prazo do plano.")))
+                .doOnNext(result -> {
+                    if (requestDeadline != null) {
+                        requestDeadline.record(step.tool(), result);
+                    }
+                });
+    }
+
+    /**
+     * Troca as referências dos argumentos pelos valores dos passos anteriores e do item atual.
+     */
+    private JsonNode bind(JsonNode node, Map<String, JsonNode> values, JsonNode item) {
+        if (node.isTextual()) {
+            Reference reference = Reference.parse(node.textValue());
+            if (reference == null) {
+                return node;
+            }
+            JsonNode value = reference.resolve(values, item);
+            if (value.isMissingNode()) {
+                throw new IllegalArgumentException("a referência " + node.textValue() + " não tem valor");
+            }
+            return value;
+        }
+        if (node.isObject()) {
+            ObjectNode object = objectMapper.createObjectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                object.set(field.getKey(), bind(field.getValue(), values, item));
+            }
+            return object;
+        }
+        if (node.isArray()) {
+            ArrayNode array = objectMapper.createArrayNode();
+            node.forEach(child -> array.add(bind(child, values, item)));
+            return array;
+        }
+        return node;
+    }
+
+    private Outcome single(Step step, ToolExecutionResult result) {
+        if (!isSuccess(result)) {
+            return new Outcome(step, "error", null, result.httpStatusCode() + ": " + result.body(), 1);
+        }
+        return new Outcome(step, "ok", value(result), null, 1);
+    }
+
+    /**
+     * Junta os resultados de um passo {@code forEach}; itens com erro ficam na lista com o status e a
+     * mensagem, e o passo só falha se todos os itens falharem.
+     */
+    private Outcome fanOut(Step step, List<ToolExecutionResult> results) {
+        ArrayNode values = objectMapper.createArrayNode();
+        int failed = 0;
+        for (ToolExecutionResult result : results) {
+            if (isSuccess(result)) {
+                values.add(value(result));
+            } else {
+                failed++;
+                values.addObject().put("httpStatusCode", result.httpStatusCode()).put("error", result.body());
+            }
+        }
+        if (!results.isEmpty() && failed == results.size()) {
+            return new Outcome(step, "error", null, "todas as " + failed + " chamadas falharam", results.size());
+        }
+        String error = failed > 0 ? failed + " de " + results.size() + " chamadas falharam" : null;
+        return new Outcome(step, "ok", values, error, results.size());
+    }
+
+    private static boolean isSuccess(ToolExecutionResult result) {
+        return result.httpStatusCode() >= 200 && result.httpStatusCode() < 300;
+    }
+
+    private JsonNode value(ToolExecutionResult result) {
+        if (result.body() == null || result.body().isBlank()) {
+            return JsonNodeFactory.instance.nullNode();
+        }
+        try {
+            return objectMapper.readTree(result.body());
+        } catch (JsonProcessingException e) {
+            return TextNode.valueOf(result.body());
+        }
+    }
+
+    private String write(ToolExecutionResult result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            return "{\"httpStatusCode\":" + result.httpStatusCode() + "}";
+        }
+    }
+
+    /**
+     * Passo de um plano.
+     *
+     * @param id        o identificador do passo.
+     * @param tool      o nome da ferramenta.
+     * @param arguments os argumentos, com as referências ainda não resolvidas.
+     * @param forEach   a lista sobre a qual o passo é repetido, ou {@code null}.
+     * @param dependsOn os passos referenciados.
+     */
+    private record Step(String id, String tool, JsonNode arguments, Reference forEach, Set<String> dependsOn) {
+    }
+
+    /**
+     * Resultado de um passo.
+     *
+     * @param step   o passo.
+     * @param status {@code ok}, {@code error} ou {@code skipped}.
+     * @param value  o resultado (uma lista, em passos {@code forEach}), ou {@code null} se falhou.
+     * @param error  a descrição do erro, ou {@code null}.
+     * @param calls  o número de chamadas feitas.
+     */
+    private record Outcome(Step step, String status, JsonNode value, String error, int calls) {
+
+        boolean ok() {
+            return "ok".equals(status);
+        }
+    }
+
+    /**
+     * Referência no estilo JSONPath: {@code $.<passo>} ou {@code $item}, seguidos de campos
+     * ({@code .nome}), índices ({@code [0]}) ou de todos os itens de uma lista ({@code [*]}).
+     *
+     * @param root o passo referenciado, ou {@code $item}.
+     * @param path os segmentos depois da raiz.
+     */
+    record Reference(String root, List<String> path) {
+
+        /**
+         * Interpreta um texto como referência.
+         *
+         * @return a referência, ou {@code null} se o texto não for uma referência válida.
+         */
+        static Reference parse(String text) {
+            String rest;
+            String root;
+            if (text.equals(ITEM) || text.startsWith(ITEM + ".") || text.startsWith(ITEM + "[")) {
+                root = ITEM;
+                rest = text.substring(ITEM.length());
+            } else if (text.startsWith("$.")) {
+                int end = 2;
+                while (end < text.length() && text.charAt(end) != '.' && text.charAt(end) != '[') {
+                    end++;
+                }
+                root = text.substring(2, end);
+                rest = text.substring(end);
+                if (!STEP_ID.matcher(root).matches()) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            List<String> path = new ArrayList<>();
+            int i = 0;
+            while (i < rest.length()) {
+                char c = rest.charAt(i);
+                if (c == '.') {
+                    int end = i + 1;
+                    while (end < rest.length() && rest.charAt(end) != '.' && rest.charAt(end) != '[') {
+                        end++;
+                    }
+                    if (end == i + 1) {
+                        return null;
+                    }
+                    path.add(rest.substring(i + 1, end));
+                    i = end;
+                } else if (c == '[') {
+                    int end = rest.indexOf(']', i);
+                    if (end < 0) {
+                        return null;
+                    }
+                    String index = rest.substring(i + 1, end);
+                    if (!index.equals("*") && !index.matches("\\d+")) {
+                        return null;
+                    }
+                    path.add("[" + index + "]");
+                    i = end + 1;
+                } else {
+                    return null;
+                }
+            }
+            return new Reference(root, List.copyOf(path));
+        }
+
+        /**
+         * Resolve a referência.
+         *
+         * @param values os resultados dos passos concluídos, por id.
+         * @param item   o item atual de um passo {@code forEach}, ou {@code null}.
+         * @return o valor referenciado, ou {@link MissingNode} se não existir.
+         */
+        JsonNode resolve(Map<String, JsonNode> values, JsonNode item) {
+            JsonNode start = ITEM.equals(root) ? item : values.get(root);
+            return start != null ? resolve(start, 0) : MissingNode.getInstance();
+        }
+
+        private JsonNode resolve(JsonNode node, int from) {
+            for (int i = from; i < path.size(); i++) {
+                String segment = path.get(i);
+                if (segment.equals("[*]")) {
+                    ArrayNode all = JsonNodeFactory.instance.arrayNode();
+                    if (node.isArray()) {
+                        for (JsonNode element : node) {
+                            JsonNode value = resolve(element, i + 1);
+                            if (!value.isMissingNode()) {
+                                all.add(value);
+                            }
+                        }
+                    }
+                    return all;
+                }
+                node = segment.startsWith("[")
+                        ? node.path(Integer.parseInt(segment.substring(1, segment.length() - 1)))
+                        : node.path(segment);
+            }
+            return node;
+        }
+    }
+}
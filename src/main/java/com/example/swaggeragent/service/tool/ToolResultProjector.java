@@ -0,0 +1,301 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiMediaType;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Projeção do JSON das respostas das ferramentas antes de chegar ao modelo.
+ * <p>
+ * O modelo raramente precisa de todos os campos que uma API devolve, e cada campo a mais é pago
+ * em tokens (e em latência) na segunda ida ao modelo. Nas respostas 2xx em JSON:
+ * <ul>
+ *   <li>campos nulos ou vazios ({@code null}, {@code ""}, {@code []}, {@code {}}) são removidos;</li>
+ *   <li>com {@code app.tool.projection.drop-undeclared-fields}, campos que não constam no schema
+ *       da resposta ({@link OpenApiEndpoint#responses()}) são removidos, quando o schema declara as
+ *       propriedades do objeto;</li>
+ *   <li>listas com mais de {@code app.tool.projection.max-array-items} itens viram
+ *       {@code {"count": N, "sample": [...]}} e o modelo recebe um aviso;</li>
+ *   <li>se a ferramenta tiver uma lista de campos em {@code app.tool.projection.fields}, só esses
+ *       campos são mantidos.</li>
+ * </ul>
+ * Respostas de erro, corpos que não são JSON e projeções que não reduzem o corpo são repassados
+ * sem alteração.
+ * <p>
+ * <b>Métricas:</b> {@code swagger.agent.tool.projection.saved.tokens}.
+ */
+@Component
+public class ToolResultProjector {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolResultProjector.class);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final OpenApiParserService openApiParserService;
+    private final SwaggerAgentProperties.Projection settings;
+    private final DistributionSummary savedTokens;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param objectMapper         o serializador/desserializador JSON.
+     * @param openApiParserService o serviço que resolve os schemas das respostas.
+     * @param properties           as propriedades da aplicação ({@code app.tool.projection}).
+     * @param meterRegistry        o registro de métricas.
+     */
+    public ToolResultProjector(ObjectMapper objectMapper, OpenApiParserService openApiParserService,
+                               SwaggerAgentProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        // Números lidos sem conversão para double, para a projeção não alterar valores como 10.50.
+        this.reader = objectMapper.reader(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .with(JsonNodeFactory.withExactBigDecimals(true));
+        this.openApiParserService = openApiParserService;
+        this.settings = properties.getTool().getProjection();
+        this.savedTokens = DistributionSummary.builder("swagger.agent.tool.projection.saved.tokens")
+                .description("Tokens estimados removidos das respostas das ferramentas pela projeção")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prepara a projeção das respostas de um endpoint. A lista de campos é lida aqui, uma única vez
+     * por ferramenta; o schema da resposta é resolvido na primeira chamada.
+     *
+     * @param endpoint o endpoint da ferramenta.
+     * @return a função que projeta os resultados da ferramenta.
+     */
+    public UnaryOperator<ToolExecutionResult> compile(OpenApiEndpoint endpoint) {
+        if (!settings.isEnabled()) {
+            return UnaryOperator.identity();
+        }
+        return new Projection(endpoint, FieldTree.of(settings.getFields().get(endpoint.operationId())));
+    }
+
+    /**
+     * Projeção das respostas de uma ferramenta.
+     */
+    private final class Projection implements UnaryOperator<ToolExecutionResult> {
+
+        private final OpenApiEndpoint endpoint;
+        private final FieldTree allowed;
+        private final Map<Integer, JsonNode> schemas = new ConcurrentHashMap<>();
+
+        Projection(OpenApiEndpoint endpoint, FieldTree allowed) {
+            this.endpoint = endpoint;
+            this.allowed = allowed;
+        }
+
+        @Override
+        public ToolExecutionResult apply(ToolExecutionResult result) {
+            String body = result.body();
+            if (result.httpStatusCode() < 200 || result.httpStatusCode() >= 300 || !looksLikeJson(body)) {
+                return result;
+            }
+            JsonNode root;
+            try {
+                root = reader.readTree(body);
+            } catch (JsonProcessingException e) {
+                return result;
+            }
+            JsonNode schema = schemas.computeIfAbsent(result.httpStatusCode(), this::resolveSchema);
+            List<String> collapsed = new ArrayList<>();
+            JsonNode projected = project(root, schema, allowed, "$", collapsed);
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(projected != null ? projected : root);
+            } catch (JsonProcessingException e) {
+                return result;
+            }
+            int saved = TokenEstimator.estimate(body) - TokenEstimator.estimate(json);
+            if (saved <= 0) {
+                return result;
+            }
+            savedTokens.record(saved);
+            log.debug("✂️ Projeção de '{}' removeu ~{} tokens", endpoint.operationId(), saved);
+            return new ToolExecutionResult(result.httpStatusCode(), json, notice(result.notice(), collapsed));
+        }
+
+        /**
+         * Encontra o schema JSON da resposta pelo status exato, pela faixa ({@code 2XX}) ou pela
+         * resposta {@code default}. Sem schema, a projeção não remove campos não declarados.
+         */
+        private JsonNode resolveSchema(int status) {
+            Map<String, OpenApiResponse> responses = endpoint.responses();
+            if (responses == null || !settings.isDropUndeclaredFields()) {
+                return MissingNode.getInstance();
+            }
+            for (String key : List.of(String.valueOf(status), "2XX", "2xx", "default")) {
+                OpenApiResponse response = responses.get(key);
+                if (response == null || response.content() == null) {
+                    continue;
+                }
+                OpenApiMediaType mediaType = response.content().entrySet().stream()
+                        .filter(entry -> entry.getKey().contains("json") && entry.getValue().schema() != null)
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElse(null);
+                if (mediaType != null) {
+                    JsonNode schema = openApiParserService.getResolvedSchemaAsJsonNode(endpoint.projectName(), mediaType.schema());
+                    return schema != null ? schema : MissingNode.getInstance();
+                }
+            }
+            return MissingNode.getInstance();
+        }
+    }
+
+    /**
+     * Projeta um valor recursivamente. O schema e a lista de campos acompanham o valor: as
+     * propriedades de um objeto descem para os campos e os {@code items} de um array para os itens.
+     *
+     * @return o valor projetado, ou {@code null} se ficou vazio.
+     */
+    private JsonNode project(JsonNode node, JsonNode schema, FieldTree allowed, String path, List<String> collapsed) {
+        if (node.isObject()) {
+            JsonNode declared = declaredProperties(schema);
+            ObjectNode object = (ObjectNode) node;
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                String name = field.getKey();
+                FieldTree child = allowed.child(name);
+                if (child == null || (declared != null && !declared.has(name))) {
+                    fields.remove();
+                    continue;
+                }
+                JsonNode fieldSchema = declared != null ? declared.get(name) : MissingNode.getInstance();
+                JsonNode value = project(field.getValue(), fieldSchema, child, path + "." + name, collapsed);
+                if (value == null) {
+                    fields.remove();
+                } else {
+                    field.setValue(value);
+                }
+            }
+            return object.isEmpty() ? null : object;
+        }
+        if (node.isArray()) {
+            JsonNode itemSchema = schema.path("items");
+            ArrayNode array = (ArrayNode) node;
+            for (int i = 0; i < array.size(); i++) {
+                JsonNode value = project(array.get(i), itemSchema, allowed, path + "[]", collapsed);
+                array.set(i, value != null ? value : array.nullNode());
+            }
+            if (array.isEmpty()) {
+                return null;
+            }
+            if (settings.getMaxArrayItems() > 0 && array.size() > settings.getMaxArrayItems()) {
+                collapsed.add(path + " (" + array.size() + " itens)");
+                ObjectNode summary = array.objectNode();
+                summary.put("count", array.size());
+                ArrayNode sample = summary.putArray("sample");
+                for (int i = 0; i < Math.min(settings.getSampleSize(), array.size()); i++) {
+                    sample.add(array.get(i));
+                }
+                return summary;
+            }
+            return array;
+        }
+        if (node.isNull() || (node.isTextual() && node.textValue().isEmpty())) {
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * Retorna as propriedades declaradas de um schema de objeto, ou {@code null} quando o schema não
+     * permite saber quais campos existem (sem {@code properties}, com {@code additionalProperties}
+     * ou com composições como {@code allOf}).
+     */
+    private static JsonNode declaredProperties(JsonNode schema) {
+        JsonNode properties = schema.path("properties");
+        if (!properties.isObject() || properties.isEmpty()) {
+            return null;
+        }
+        JsonNode additional = schema.path("additionalProperties");
+        if ((additional.isBoolean() && additional.booleanValue()) || additional.isObject()
+                || schema.has("allOf") || schema.has("oneOf") || schema.has("anyOf")) {
+            return null;
+        }
+        return properties;
+    }
+
+    private static boolean looksLikeJson(String body) {
+        if (body == null) {
+            return false;
+        }
+        String trimmed = body.stripLeading();
+        return !trimmed.isEmpty() && (trimmed.charAt(0) == '{' || trimmed.charAt(0) == '[');
+    }
+
+    private static String notice(String previous, List<String> collapsed) {
+        if (collapsed.isEmpty()) {
+            return previous;
+        }
+        String text = "Listas longas foram resumidas em {count, sample}: " + String.join(", ", collapsed)
+                + ". Se precisar dos demais itens, use filtros ou paginação da API.";
+        return previous != null ? previous + " " + text : text;
+    }
+
+    /**
+     * Campos permitidos de uma ferramenta, em árvore. Um nó sem filhos permite o valor inteiro.
+     */
+    static final class FieldTree {
+
+        private static final FieldTree ALL = new FieldTree(Map.of());
+
+        private final Map<String, FieldTree> children;
+
+        private FieldTree(Map<String, FieldTree> children) {
+            this.children = children;
+        }
+
+        /**
+         * Monta a árvore a partir dos caminhos configurados (ex: {@code id}, {@code category.name}).
+         *
+         * @param paths os caminhos, ou {@code null} para permitir todos os campos.
+         */
+        static FieldTree of(List<String> paths) {
+            if (paths == null || paths.isEmpty()) {
+                return ALL;
+            }
+            FieldTree root = new FieldTree(new LinkedHashMap<>());
+            for (String path : paths) {
+                FieldTree node = root;
+                for (String name : path.strip().split("\\.")) {
+                    node = node.children.computeIfAbsent(name, key -> new FieldTree(new LinkedHashMap<>()));
+                }
+            }
+            return root;
+        }
+
+        /**
+         * Retorna a árvore de um campo, ou {@code null} se o campo não for permitido.
+         */
+        FieldTree child(String name) {
+            return children.isEmpty() ? ALL : children.get(name);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.swaggeragent.service.tool;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+
+/**
+ * Recupera a parte aproveitável de um JSON cortado no meio.
+ * <p>
+ * Quando o corpo de uma resposta passa do limite de leitura, o texto termina em um ponto
+ * qualquer, geralmente no meio de um valor. Aqui o texto é lido token a token e tudo o que foi
+ * lido por completo é mantido: os itens inteiros de um array, os campos inteiros de um objeto e,
+ * nos níveis de cima, as listas que ficaram pela metade (fechadas no ponto do corte). Um objeto
+ * cortado dentro de uma lista é descartado, para o modelo não receber um registro incompleto.
+ * O último valor simples, que pode ter sido cortado (ex: {@code 12} de {@code 1234}), é descartado.
+ * <p>
+ * Se o texto não começar como JSON, nada é recuperado e quem chamou usa o texto cortado como está.
+ */
+final class TruncatedJson {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.withExactBigDecimals(true);
+
+    private final String text;
+    private final JsonParser parser;
+    private boolean cut;
+    private int keptItems;
+
+    private TruncatedJson(String text) throws IOException {
+        this.text = text;
+        this.parser = JSON_FACTORY.createParser(text);
+    }
+
+    /**
+     * Recupera o JSON válido de um texto cortado.
+     *
+     * @param text         o texto cortado.
+     * @param objectMapper o serializador usado para escrever o resultado.
+     * @return o JSON recuperado, ou {@code null} se o texto não for JSON.
+     */
+    static Result repair(String text, ObjectMapper objectMapper) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.stripLeading();
+        if (trimmed.isEmpty() || (trimmed.charAt(0) != '{' && trimmed.charAt(0) != '[')) {
+            return null;
+        }
+        try {
+            TruncatedJson reader = new TruncatedJson(trimmed);
+            JsonToken first = reader.next();
+            if (first == null) {
+                return null;
+            }
+            JsonNode node = reader.read(first, 0);
+            return new Result(objectMapper.writeValueAsString(node), reader.keptItems);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private JsonNode read(JsonToken token, int depth) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                ObjectNode object = NODES.objectNode();
+                while (!cut) {
+                    JsonToken field = next();
+                    if (field == null || field == JsonToken.END_OBJECT) {
+                        break;
+                    }
+                    String name = parser.currentName();
+                    JsonToken value = next();
+                    if (value == null) {
+                        break;
+                    }
+                    JsonNode child = read(value, depth + 1);
+                    if (child != null && (!cut || child.isContainerNode())) {
+                        object.set(name, child);
+                    }
+                }
+                return object;
+            }
+            case START_ARRAY -> {
+                ArrayNode array = NODES.arrayNode();
+                while (!cut) {
+                    JsonToken item = next();
+                    if (item == null || item == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    JsonNode child = read(item, depth + 1);
+                    // Um item cortado só é mantido se for uma lista; um objeto pela metade seria um registro incompleto.
+                    if (child != null && (!cut || (child.isArray() && !child.isEmpty()))) {
+                        array.add(child);
+                        if (depth == 0 && !cut) {
+                            keptItems++;
+                        }
+                    }
+                }
+                return array;
+            }
+            default -> {
+                JsonNode scalar = scalar(token);
+                // Um valor que termina junto com o texto pode ter sido cortado (ex: 12 de 1234).
+                if (scalar == null || parser.currentLocation().getCharOffset() >= text.length()) {
+                    cut = true;
+                    return null;
+                }
+                return scalar;
+            }
+        }
+    }
+
+    private JsonNode scalar(JsonToken token) {
+        try {
+            return switch (token) {
+                case VALUE_STRING -> NODES.textNode(parser.getText());
+                case VALUE_NUMBER_INT -> NODES.numberNode(parser.getBigIntegerValue());
+                case VALUE_NUMBER_FLOAT -> NODES.numberNode(parser.getDecimalValue());
+                case VALUE_TRUE -> NODES.booleanNode(true);
+                case VALUE_FALSE -> NODES.booleanNode(false);
+                default -> NODES.nullNode();
+            };
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private JsonToken next() {
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                cut = true;
+            }
+            return token;
+        } catch (IOException e) {
+            cut = true;
+            return null;
+        }
+    }
+
+    /**
+     * JSON recuperado.
+     *
+     * @param json      o JSON válido com a parte lida por completo.
+     * @param keptItems o número de itens mantidos, quando a raiz é um array.
+     */
+    record Result(String json, int keptItems) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.OpenApiRequestBody;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Renderizador que gera uma descrição rica e detalhada para a ferramenta, formatada em Markdown.
+ * <p>
+ * A descrição inclui:
+ * <ul>
+ *   <li>Contexto da API (nome do projeto e do controller).</li>
+ *   <li>Resumo da operação.</li>
+ *   <li>Lista detalhada de parâmetros (path, query, header), exceto os de segurança.</li>
+ *   <li>Descrição do corpo da requisição, incluindo o esquema JSON.</li>
+ *   <li>Lista de possíveis respostas com seus códigos de status e esquemas.</li>
+ * </ul>
+ * É o formato mais fácil de ler nos logs, mas também o mais caro em tokens.
+ */
+@Component
+public class VerboseToolDescriptionRenderer implements ToolDescriptionRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(VerboseToolDescriptionRenderer.class);
+
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+    private static final String HEADER_TRAFFIC_CODE = "Traffic-Code";
+
+    private final ObjectMapper objectMapper;
+    private final OpenApiParserService openApiParserService;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param objectMapper         o serializador JSON usado nos exemplos.
+     * @param openApiParserService o serviço que serializa os schemas das especificações.
+     */
+    public VerboseToolDescriptionRenderer(ObjectMapper objectMapper, OpenApiParserService openApiParserService) {
+        this.objectMapper = objectMapper;
+        this.openApiParserService = openApiParserService;
+    }
+
+    @Override
+    public String mode() {
+        return "verbose";
+    }
+
+    @Override
+    public String render(OpenApiEndpoint endpoint) {
+        StringBuilder description = new StringBuilder();
+
+        // Cabeçalho da ferramenta
+        description.append(String.format("🏷️  Nome: %s\n", endpoint.operationId() != null ? endpoint.operationId() : "N/A"));
+        description.append(String.format("📝 Descrição: %s\n", endpoint.summary() != null ? endpoint.summary() : "Nenhum resumo disponível."));
+        description.append(String.format("🆔 ID da Operação: %s\n", endpoint.operationId() != null ? endpoint.operationId() : "N/A"));
+        description.append(String.format("🌐 Projeto: %s\n", endpoint.projectName()));
+        description.append(String.format("🎯 Controller: %s\n", getControllerName(endpoint)));
+        description.append(String.format("🔗 Endpoint: %s %s%s\n", endpoint.method().toUpperCase(), endpoint.baseUrl(), endpoint.path()));
+
+        description.append("------------------------------------------- ENTRADAS ---------------------------------------------\n");
+
+        // Parâmetros da requisição
+        if (endpoint.parameters() != null && !endpoint.parameters().isEmpty()) {
+            // Agrupa os parâmetros por localização
+            Map<String, List<OpenApiParameter>> groupedParameters = endpoint.parameters().stream()
+                    .filter(p -> !HEADER_AUTHORIZATION.equalsIgnoreCase(p.name()) && !HEADER_TRAFFIC_CODE.equalsIgnoreCase(p.name()))
+                    .collect(Collectors.groupingBy(OpenApiParameter::in));
+
+            logGroupedParameters(description, "Path", groupedParameters.get("path"));
+            logGroupedParameters(description, "Query", groupedParameters.get("query"));
+            logGroupedParameters(description, "Header", groupedParameters.get("header"));
+        } else {
+            description.append("  Nenhum parâmetro de entrada definido.\n");
+        }
+
+        // Corpo da requisição
+        logRequestBody(description, endpoint);
+
+        description.append("------------------------------------------- SAÍDAS --------------------------------------------\n");
+
+        // Respostas possíveis
+        logResponses(description, endpoint);
+
+        description.append("----------------------------------------------------------------------------------------------------\n");
+
+        return description.toString();
+    }
+
+    /**
+     * Adiciona parâmetros agrupados à descrição da ferramenta.
+     */
+    private void logGroupedParameters(StringBuilder description, String groupName, List<OpenApiParameter> params) {
+        if (params != null && !params.isEmpty()) {
+            description.append(String.format("  📥 Parâmetros %s:\n", groupName));
+            for (OpenApiParameter param : params) {
+                String requiredInfo = param.required() ? "OBRIGATÓRIO" : "OPCIONAL";
+                description.append(String.format("     - %s (%s) [%s]: %s\n",
+                    param.name(), param.type(), requiredInfo, param.description()));
+
+                if (param.format() != null) {
+                    description.append(String.format("       Formato: %s\n", param.format()));
+                }
+                if (param.defaultValue() != null) {
+                    description.append(String.format("       Padrão: %s\n", param.defaultValue()));
+                }
+                if (param.enumValues() != null && !param.enumValues().isEmpty()) {
+                    description.append(String.format("       Valores Enum: %s\n", param.enumValues()));
+                }
+                if (param.items() != null) {
+                    description.append(String.format("       Tipo dos Items: %s\n", param.items().type()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adiciona detalhes do corpo da requisição à descrição da ferramenta.
+     */
+    private void logRequestBody(StringBuilder description, OpenApiEndpoint endpoint) {
+        OpenApiRequestBody requestBody = endpoint.requestBody();
+        if (requestBody != null && requestBody.content() != null && !requestBody.content().isEmpty()) {
+            description.append("  📦 Corpo da Requisição:\n");
+            description.append(String.format("     - Obrigatório: %s\n", requestBody.required() ? "Sim" : "Não"));
+            if (requestBody.description() != null && !requestBody.description().isBlank()) {
+                description.append(String.format("     - Descrição: %s\n", requestBody.description()));
+            }
+            requestBody.content().forEach((mediaType, mediaTypeObject) -> {
+                description.append(String.format("     - Tipo: `%s`\n", mediaType));
+                if (mediaTypeObject.schema() != null) {
+                    try {
+                        String schemaJson = openApiParserService.getSchemaAsJson(endpoint.projectName(), mediaTypeObject.schema());
+                        description.append("     - Schema:\n");
+                        description.append(String.format("\n%s\n", schemaJson.indent(6)));
+                    } catch (Exception e) {
+                        log.error("Erro ao gerar o schema JSON para o corpo da requisição da ferramenta: {}", endpoint.operationId(), e);
+                        description.append("     - Erro ao gerar schema\n");
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Adiciona detalhes das respostas possíveis à descrição da ferramenta.
+     */
+    private void logResponses(StringBuilder description, OpenApiEndpoint endpoint) {
+        Map<String, OpenApiResponse> responses = endpoint.responses();
+        if (responses == null || responses.isEmpty()) {
+            description.append("  Nenhuma resposta de saída definida.\n");
+            return;
+        }
+        description.append("  📤 Respostas Possíveis:\n");
+        responses.forEach((statusCode, response) -> {
+            description.append(String.format("    - **`%s`**: %s\n", statusCode, response.description()));
+            if (response.content() != null) {
+                response.content().forEach((mediaType, mediaTypeObject) -> {
+                    if (mediaTypeObject.schema() != null) {
+                        description.append(String.format("      - Schema (`%s`):\n", mediaType));
+                        try {
+                            String schemaJson = openApiParserService.getSchemaAsJson(endpoint.projectName(), mediaTypeObject.schema());
+                            description.append(String.format("\n%s\n", schemaJson.indent(8)));
+                        } catch (Exception e) {
+                            log.error("Erro ao gerar o schema JSON para a resposta da ferramenta: {}", endpoint.operationId(), e);
+                        }
+                    }
+                    if (mediaTypeObject.example() != null) {
+                        description.append(String.format("      Exemplo: %s\n", formatExample(mediaTypeObject.example())));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Formata o valor de um exemplo para a descrição da ferramenta: textos são usados como
+     * estão e valores estruturados são serializados como JSON.
+     */
+    private String formatExample(Object example) {
+        if (example instanceof String text) {
+            return text;
+        }
+        try {
+            return objectMapper.writeValueAsString(example);
+        } catch (JsonProcessingException e) {
+            return example.toString();
+        }
+    }
+
+    /**
+     * Extrai o nome do controlador (ou tag) do endpoint.
+     *
+     * @param endpoint o endpoint da API.
+     * @return o nome da primeira tag ou "general" se nenhuma tag for definida.
+     */
+    private String getControllerName(OpenApiEndpoint endpoint) {
+        if (endpoint.tags() != null && !endpoint.tags().isEmpty()) {
+            return endpoint.tags().get(0);
+        }
+        return "general";
+    }
+}
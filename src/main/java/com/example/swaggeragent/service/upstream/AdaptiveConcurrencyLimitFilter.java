@@ -0,0 +1,340 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite adaptativo de chamadas simultâneas por servidor de API externa (AIMD).
+ * <p>
+ * Um limite fixo de conexões é alto demais para serviços internos frágeis e baixo demais para os
+ * rápidos. Aqui cada servidor começa com {@code app.http.limiter.initial-limit} chamadas
+ * simultâneas e o limite se ajusta pelo que é observado:
+ * <ul>
+ *   <li><b>aumento aditivo:</b> cada resposta rápida e bem-sucedida, obtida com o limite em uso,
+ *       soma 1 ao limite (até {@code max-limit});</li>
+ *   <li><b>redução multiplicativa:</b> erros, timeouts, respostas 5xx e 429 ou chamadas mais lentas
+ *       que {@code latency-threshold} multiplicam o limite por {@code backoff-ratio} (até
+ *       {@code min-limit}).</li>
+ * </ul>
+ * Respostas geradas pelos filtros internos ({@link UpstreamResponse#local()}), como as recusas do
+ * circuit breaker e do bulkhead, não ajustam o limite: a chamada não chegou ao servidor.
+ * <p>
+ * Chamadas acima do limite aguardam em uma fila limitada ({@code max-queue-size}) por no máximo
+ * {@code max-wait}; depois disso a ferramenta recebe uma resposta {@code 503} estruturada, em vez
+ * de aumentar a latência de todo o turno.
+ * <p>
+ * <b>Métricas:</b> {@code swagger.agent.upstream.limit}, {@code swagger.agent.upstream.limit.inflight}
+ * e {@code swagger.agent.upstream.limit.queued} (por servidor) e
+ * {@code swagger.agent.upstream.limit.rejected}.
+ */
+@Component
+public class AdaptiveConcurrencyLimitFilter implements UpstreamExchangeFilter {
+
+    /**
+     * Antes do circuit breaker: uma chamada que desiste da fila não é contada como falha do servidor.
+     */
+    public static final int ORDER = 250;
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimitFilter.class);
+
+    private final SwaggerAgentProperties.Limiter settings;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties    as propriedades da aplicação ({@code app.http.limiter}).
+     * @param objectMapper  o serializador JSON das respostas de recusa.
+     * @param meterRegistry o registro de métricas.
+     */
+    public AdaptiveConcurrencyLimitFilter(SwaggerAgentProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.settings = properties.getHttp().getLimiter();
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("swagger.agent.upstream.limit.rejected")
+                .description("Chamadas a APIs externas recusadas por falta de vaga no limite de concorrência")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<UpstreamResponse> filter(UpstreamRequest request, UpstreamExchange next) {
+        if (!settings.isEnabled()) {
+            return next.exchange(request);
+        }
+        String host = request.host();
+        HostLimiter limiter = limiters.computeIfAbsent(host, this::createLimiter);
+        return Mono.<Permit>create(limiter::acquire)
+                .timeout(settings.getMaxWait(), Mono.error(LimitExceededException::new))
+                .flatMap(permit -> {
+                    if (!permit.start()) {
+                        return Mono.empty();
+                    }
+                    long start = System.nanoTime();
+                    return next.exchange(request)
+                            .doOnNext(response -> {
+                                if (!response.local()) {
+                                    permit.sample(System.nanoTime() - start, isOverloaded(response));
+                                }
+                            })
+                            .doOnError(e -> permit.sample(System.nanoTime() - start, true))
+                            .doFinally(signal -> permit.release());
+                })
+                .onErrorResume(LimitExceededException.class, e -> {
+                    rejected.increment();
+                    log.debug("🚦 Chamada para {} recusada pelo limite de concorrência ({})", host, limiter.limit());
+                    return Mono.just(UpstreamResponse.unavailable(objectMapper, host, "concurrency_limited",
+                            "A API " + host + " está no limite de chamadas simultâneas.", 1));
+                });
+    }
+
+    private static boolean isOverloaded(UpstreamResponse response) {
+        return response.status() >= 500 || response.status() == 429;
+    }
+
+    private HostLimiter createLimiter(String host) {
+        HostLimiter limiter = new HostLimiter(host, settings);
+        Gauge.builder("swagger.agent.upstream.limit", limiter, HostLimiter::limit)
+                .tag("upstream", host)
+                .description("Limite atual de chamadas simultâneas ao servidor")
+                .register(meterRegistry);
+        Gauge.builder("swagger.agent.upstream.limit.inflight", limiter, HostLimiter::inFlight)
+                .tag("upstream", host)
+                .register(meterRegistry);
+        Gauge.builder("swagger.agent.upstream.limit.queued", limiter, HostLimiter::queued)
+                .tag("upstream", host)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    /**
+     * Retorna o estado do limite de cada servidor já chamado.
+     *
+     * @return o estado por servidor, em ordem alfabética.
+     */
+    public List<LimitStatus> status() {
+        return limiters.values().stream()
+                .map(limiter -> new LimitStatus(limiter.host, limiter.limit(), limiter.inFlight(), limiter.queued()))
+                .sorted(Comparator.comparing(LimitStatus::upstream))
+                .toList();
+    }
+
+    /**
+     * Estado do limite de concorrência de um servidor de API externa.
+     *
+     * @param upstream o servidor ({@code esquema://host:porta}).
+     * @param limit    o limite atual de chamadas simultâneas.
+     * @param inFlight o número de chamadas em andamento.
+     * @param queued   o número de chamadas aguardando vaga.
+     */
+    public record LimitStatus(String upstream, int limit, int inFlight, int queued) {
+    }
+
+    /**
+     * Sinaliza que a chamada não conseguiu vaga: a fila estava cheia ou a espera passou de {@code max-wait}.
+     */
+    static final class LimitExceededException extends RuntimeException {
+        LimitExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Estado do limite de um servidor. Todas as alterações são feitas sob o monitor da instância.
+     */
+    static final class HostLimiter {
+
+        private final String host;
+        private final SwaggerAgentProperties.Limiter settings;
+        private final ArrayDeque<Permit> waiting = new ArrayDeque<>();
+        private double limit;
+        private int inFlight;
+
+        HostLimiter(String host, SwaggerAgentProperties.Limiter settings) {
+            this.host = host;
+            this.settings = settings;
+            this.limit = settings.getInitialLimit();
+        }
+
+        /**
+         * Concede uma vaga na hora ou coloca a chamada na fila.
+         */
+        void acquire(MonoSink<Permit> sink) {
+            Permit permit = new Permit(this, sink);
+            sink.onCancel(permit::cancel);
+            boolean granted = false;
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    granted = permit.tryGrant(inFlight);
+                    if (!granted) {
+                        inFlight--;
+                        return;
+                    }
+                } else if (waiting.size() >= settings.getMaxQueueSize()) {
+                    sink.error(new LimitExceededException());
+                    return;
+                } else if (permit.isWaiting()) {
+                    waiting.add(permit);
+                }
+            }
+            if (granted) {
+                permit.deliver();
+            }
+        }
+
+        /**
+         * Ajusta o limite a partir de uma chamada concluída (AIMD).
+         */
+        synchronized void sample(long latencyNanos, boolean failed, int inFlightAtStart) {
+            boolean overloaded = failed || latencyNanos > settings.getLatencyThreshold().toNanos();
+            double previous = limit;
+            if (overloaded) {
+                limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+            } else if (inFlightAtStart * 2 >= limit) {
+                // Só cresce quando o limite está de fato sendo usado; com pouca carga não há o que aprender.
+                limit = Math.min(settings.getMaxLimit(), limit + 1);
+            }
+            if ((int) previous != (int) limit) {
+                log.debug("🚦 Limite de {}: {} -> {}", host, (int) previous, (int) limit);
+            }
+        }
+
+        /**
+         * Devolve uma vaga e a repassa às chamadas da fila, enquanto o limite permitir.
+         * As chamadas liberadas são avisadas fora do monitor.
+         */
+        void release() {
+            List<Permit> granted = new ArrayList<>();
+            synchronized (this) {
+                inFlight--;
+                while (inFlight < (int) limit && !waiting.isEmpty()) {
+                    Permit next = waiting.poll();
+                    if (next.tryGrant(inFlight + 1)) {
+                        inFlight++;
+                        granted.add(next);
+                    }
+                }
+            }
+            granted.forEach(Permit::deliver);
+        }
+
+        synchronized void remove(Permit permit) {
+            waiting.remove(permit);
+        }
+
+        synchronized int limit() {
+            return (int) limit;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        synchronized int queued() {
+            return waiting.size();
+        }
+    }
+
+    /**
+     * Vaga de uma chamada. O estado garante que a vaga seja devolvida uma única vez, mesmo se a
+     * chamada desistir (timeout da fila ou cancelamento) no mesmo instante em que a recebe.
+     */
+    static final class Permit {
+
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int STARTED = 2;
+        private static final int DONE = 3;
+
+        private final HostLimiter limiter;
+        private final MonoSink<Permit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private int inFlightAtStart;
+
+        Permit(HostLimiter limiter, MonoSink<Permit> sink) {
+            this.limiter = limiter;
+            this.sink = sink;
+        }
+
+        boolean isWaiting() {
+            return state.get() == WAITING;
+        }
+
+        /**
+         * Reserva a vaga para esta chamada (chamado com o monitor do limitador).
+         *
+         * @param inFlight o número de chamadas em andamento, contando esta.
+         * @return {@code false} se a chamada já desistiu.
+         */
+        boolean tryGrant(int inFlight) {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            inFlightAtStart = inFlight;
+            return true;
+        }
+
+        /**
+         * Avisa a chamada de que a vaga foi concedida.
+         */
+        void deliver() {
+            sink.success(this);
+        }
+
+        /**
+         * Marca o início da chamada; falha se a chamada já desistiu da vaga.
+         */
+        boolean start() {
+            return state.compareAndSet(GRANTED, STARTED);
+        }
+
+        void sample(long latencyNanos, boolean failed) {
+            limiter.sample(latencyNanos, failed, inFlightAtStart);
+        }
+
+        void release() {
+            if (state.getAndSet(DONE) == STARTED) {
+                limiter.release();
+            }
+        }
+
+        /**
+         * A chamada desistiu antes de começar: sai da fila ou devolve a vaga já concedida.
+         */
+        void cancel() {
+            if (state.compareAndSet(WAITING, DONE)) {
+                limiter.remove(this);
+            } else if (state.compareAndSet(GRANTED, DONE)) {
+                limiter.release();
+            }
+        }
+    }
+
+    HostLimiter limiter(String host) {
+        return limiters.get(host);
+    }
+}
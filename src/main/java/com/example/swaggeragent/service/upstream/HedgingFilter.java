@@ -0,0 +1,245 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latência por ferramenta e requisições duplicadas (hedging) para chamadas GET lentas.
+ * <p>
+ * A latência das chamadas GET e HEAD de cada ferramenta ({@code operationId}) é guardada em uma
+ * janela circular com as {@code app.http.hedging.window-size} chamadas mais recentes. Com o hedging
+ * habilitado, se a resposta não chegar até o percentil configurado dessa latência (ex: p95), uma
+ * segunda requisição idêntica é enviada; vale a primeira resposta que chegar e a outra requisição
+ * é cancelada. Assim, uma réplica lenta da API não define o p99 da ferramenta.
+ * <p>
+ * A janela guarda uma latência por chamada, medida desde o envio da requisição original até a
+ * resposta que valeu (ou até o cancelamento da chamada). Medir cada requisição desde o próprio envio
+ * registraria só as rápidas: a original lenta é cancelada antes de responder e a extra começa a
+ * contar depois da espera, o que baixaria o percentil a cada duplicação e duplicaria cada vez mais
+ * chamadas. Pelo mesmo motivo, as requisições extras de cada ferramenta ficam limitadas a uma fração
+ * das chamadas ({@code app.http.hedging.budget}).
+ * <p>
+ * A chamada passa uma única vez pelo {@link RateLimitFilter}, que vem antes; a requisição extra
+ * reserva a própria cota ({@link RateLimitFilter#tryAcquire}) e não é enviada se não houver cota
+ * naquele momento, para que as APIs com cota rígida nunca recebam requisições além do limite. A
+ * resposta da requisição extra também ajusta a cota ({@link RateLimitFilter#sendReserved}).
+ * <p>
+ * Uma resposta {@code 429} ou {@code 5xx} da requisição extra (inclusive as recusas rápidas dos
+ * filtros seguintes) é descartada e a chamada continua esperando a requisição original: uma falha
+ * rápida da extra não pode vencer uma original que ainda pode dar certo.
+ * <p>
+ * Cada requisição passa individualmente pelos filtros seguintes (limite de concorrência e circuit
+ * breaker), então a requisição extra também respeita os limites do servidor.
+ * <p>
+ * As estatísticas são expostas em {@code GET /api/admin/upstreams}.
+ * <b>Métricas:</b> {@code swagger.agent.upstream.hedging.requests} e
+ * {@code swagger.agent.upstream.hedging.wins}.
+ */
+@Component
+public class HedgingFilter implements UpstreamExchangeFilter {
+
+    /**
+     * Depois do compartilhamento de chamadas e antes do limite de concorrência.
+     */
+    public static final int ORDER = 220;
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingFilter.class);
+
+    private final SwaggerAgentProperties.Hedging settings;
+    private final RateLimitFilter rateLimitFilter;
+    private final Map<String, ToolLatency> latencies = new ConcurrentHashMap<>();
+    private final Counter hedgedRequests;
+    private final Counter hedgeWins;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties      as propriedades da aplicação ({@code app.http.hedging}).
+     * @param rateLimitFilter o limite de requisições, onde as requisições extras reservam a sua cota.
+     * @param meterRegistry   o registro de métricas.
+     */
+    public HedgingFilter(SwaggerAgentProperties properties, RateLimitFilter rateLimitFilter, MeterRegistry meterRegistry) {
+        this.settings = properties.getHttp().getHedging();
+        this.rateLimitFilter = rateLimitFilter;
+        this.hedgedRequests = Counter.builder("swagger.agent.upstream.hedging.requests")
+                .description("Requisições extras enviadas para chamadas GET lentas")
+                .register(meterRegistry);
+        this.hedgeWins = Counter.builder("swagger.agent.upstream.hedging.wins")
+                .description("Requisições extras que responderam antes da original")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<UpstreamResponse> filter(UpstreamRequest request, UpstreamExchange next) {
+        if (!request.idempotent()) {
+            return next.exchange(request);
+        }
+        String tool = request.operationId() != null ? request.operationId() : request.uri().getPath();
+        ToolLatency latency = latencies.computeIfAbsent(tool, key -> new ToolLatency(key, settings.getWindowSize()));
+        latency.requests.incrementAndGet();
+
+        Duration delay = settings.isEnabled() ? hedgeDelay(latency) : null;
+        if (delay == null) {
+            return timed(Mono.defer(() -> next.exchange(request)), latency);
+        }
+        Mono<UpstreamResponse> hedge = Mono.delay(delay)
+                .then(Mono.defer(() -> {
+                    if (!latency.tryHedge(settings.getBudget())) {
+                        log.debug("🏁 {} sem resposta após {} ms, mas a cota de requisições extras acabou", tool, delay.toMillis());
+                        return Mono.<UpstreamResponse>never();
+                    }
+                    if (!rateLimitFilter.tryAcquire(request)) {
+                        latency.hedged.decrementAndGet();
+                        log.debug("🏁 {} sem resposta após {} ms, mas não há cota de requisições para a extra", tool, delay.toMillis());
+                        return Mono.<UpstreamResponse>never();
+                    }
+                    hedgedRequests.increment();
+                    log.debug("🏁 {} sem resposta após {} ms, enviando requisição extra", tool, delay.toMillis());
+                    return rateLimitFilter.sendReserved(request, next)
+                            .flatMap(response -> {
+                                if (response.status() == 429 || response.status() >= 500) {
+                                    log.debug("🏁 Requisição extra de {} respondeu {}; aguardando a original",
+                                            tool, response.status());
+                                    return Mono.<UpstreamResponse>never();
+                                }
+                                return Mono.just(response);
+                            });
+                }))
+                .doOnNext(response -> {
+                    hedgeWins.increment();
+                    latency.wins.incrementAndGet();
+                });
+        // Vale o primeiro sinal: um erro rápido da requisição original não espera pela extra.
+        return timed(Mono.firstWithSignal(Mono.defer(() -> next.exchange(request)), hedge), latency);
+    }
+
+    /**
+     * Registra a latência da chamada, desde a assinatura até a resposta ou o cancelamento.
+     * <p>
+     * Uma chamada cancelada (ex: pelo prazo da mensagem) levou pelo menos o tempo decorrido, que
+     * também é registrado. Respostas 5xx, inclusive as recusas rápidas dos filtros seguintes, não
+     * representam a latência da API.
+     */
+    private static Mono<UpstreamResponse> timed(Mono<UpstreamResponse> call, ToolLatency latency) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // Uma única latência por chamada, mesmo que o cancelamento chegue depois da resposta.
+            AtomicBoolean done = new AtomicBoolean();
+            return call
+                    .doOnNext(response -> {
+                        if (done.compareAndSet(false, true) && response.status() < 500) {
+                            latency.window.record(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(e -> done.set(true))
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            latency.window.record(System.nanoTime() - start);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Calcula a espera antes da requisição extra; {@code null} enquanto não houver latências suficientes.
+     */
+    private Duration hedgeDelay(ToolLatency latency) {
+        if (latency.window.size() < settings.getMinSamples()) {
+            return null;
+        }
+        Duration delay = Duration.ofNanos(latency.window.percentile(settings.getPercentile()));
+        return delay.compareTo(settings.getMinDelay()) < 0 ? settings.getMinDelay() : delay;
+    }
+
+    /**
+     * Retorna as estatísticas de latência de cada ferramenta já chamada.
+     *
+     * @return as estatísticas por ferramenta, em ordem alfabética.
+     */
+    public List<LatencyStatus> status() {
+        return latencies.values().stream()
+                .map(ToolLatency::status)
+                .sorted(Comparator.comparing(LatencyStatus::operationId))
+                .toList();
+    }
+
+    /**
+     * Estatísticas de latência de uma ferramenta.
+     *
+     * @param operationId o operationId da ferramenta.
+     * @param calls       o total de respostas recebidas.
+     * @param samples     o número de latências na janela atual.
+     * @param p50Millis   a mediana da latência, em milissegundos.
+     * @param p95Millis   o percentil 95 da latência, em milissegundos.
+     * @param p99Millis   o percentil 99 da latência, em milissegundos.
+     * @param hedged      o número de requisições extras enviadas.
+     * @param hedgeWins   o número de requisições extras que responderam antes da original.
+     */
+    public record LatencyStatus(String operationId, long calls, int samples, double p50Millis, double p95Millis,
+                                double p99Millis, long hedged, long hedgeWins) {
+    }
+
+    /**
+     * Latências e contadores de hedging de uma ferramenta.
+     */
+    private static final class ToolLatency {
+
+        private final String operationId;
+        private final LatencyWindow window;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hedged = new AtomicLong();
+        private final AtomicLong wins = new AtomicLong();
+
+        ToolLatency(String operationId, int windowSize) {
+            this.operationId = operationId;
+            this.window = new LatencyWindow(windowSize);
+        }
+
+        /**
+         * Reserva uma requisição extra, se a ferramenta ainda estiver dentro da cota.
+         *
+         * @param budget a fração máxima das chamadas que podem receber requisição extra.
+         * @return {@code true} se a requisição extra pode ser enviada.
+         */
+        boolean tryHedge(double budget) {
+            long current;
+            do {
+                current = hedged.get();
+                if (current + 1 > budget * requests.get()) {
+                    return false;
+                }
+            } while (!hedged.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        LatencyStatus status() {
+            long[] percentiles = window.percentiles(50, 95, 99);
+            return new LatencyStatus(operationId, window.total(), window.size(),
+                    toMillis(percentiles[0]), toMillis(percentiles[1]), toMillis(percentiles[2]),
+                    hedged.get(), wins.get());
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos < 0 ? 0 : nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.swaggeragent.service.upstream;
+
+import java.util.Arrays;
+
+/**
+ * Janela circular com as latências mais recentes de uma ferramenta.
+ * <p>
+ * Guarda no máximo {@code capacity} valores; ao encher, cada novo valor substitui o mais antigo.
+ * Os percentis são calculados sobre uma cópia ordenada da janela, o que é barato para os
+ * tamanhos usados aqui (algumas centenas de valores).
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long total;
+
+    LatencyWindow(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    /**
+     * Registra uma latência.
+     *
+     * @param nanos a latência, em nanossegundos.
+     */
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        total++;
+    }
+
+    /**
+     * Calcula um percentil das latências da janela (método do valor mais próximo).
+     *
+     * @param percentile o percentil, de 0 a 100.
+     * @return a latência do percentil, em nanossegundos, ou -1 se a janela estiver vazia.
+     */
+    synchronized long percentile(double percentile) {
+        if (size == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return valueAt(sorted, percentile);
+    }
+
+    /**
+     * Calcula vários percentis de uma vez, com uma única ordenação.
+     *
+     * @param percentiles os percentis, de 0 a 100.
+     * @return as latências, em nanossegundos, na mesma ordem (-1 se a janela estiver vazia).
+     */
+    synchronized long[] percentiles(double... percentiles) {
+        long[] values = new long[percentiles.length];
+        if (size == 0) {
+            Arrays.fill(values, -1);
+            return values;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        for (int i = 0; i < percentiles.length; i++) {
+            values[i] = valueAt(sorted, percentiles[i]);
+        }
+        return values;
+    }
+
+    private static long valueAt(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized long total() {
+        return total;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cria, sob demanda, um {@link WebClient} com pool de conexões próprio para cada servidor de API
+ * externa ({@code esquema://host:porta}).
+ * <p>
+ * As configurações vêm de {@code app.http.hosts.<host>} ou, na falta delas, de
+ * {@code app.http.pool}: protocolo (HTTP/1.1, h2 ou h2c), número de conexões, descarte de
+ * conexões ociosas e timeouts de conexão, leitura, escrita e resposta. Todos os clientes usam o
+ * event loop dedicado às APIs externas.
+ * <p>
+ * <b>Métricas:</b> cada pool publica as métricas do Reactor Netty
+ * ({@code reactor.netty.connection.provider.total.connections}, {@code .active.connections},
+ * {@code .idle.connections} e {@code .pending.connections}), identificadas pelo nome do pool
+ * ({@code swagger-agent-<host>}).
+ */
+@Component
+public class PerHostUpstreamClients implements UpstreamClients, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PerHostUpstreamClients.class);
+
+    private final SwaggerAgentProperties.Http settings;
+    private final LoopResources loopResources;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties            as propriedades da aplicação ({@code app.http}).
+     * @param upstreamLoopResources o event loop dedicado às APIs externas.
+     */
+    public PerHostUpstreamClients(SwaggerAgentProperties properties, LoopResources upstreamLoopResources) {
+        this.settings = properties.getHttp();
+        this.loopResources = upstreamLoopResources;
+    }
+
+    @Override
+    public WebClient forHost(URI uri) {
+        String key = uri.getScheme() + "://" + uri.getRawAuthority();
+        return clients.computeIfAbsent(key, k -> create(uri.getHost())).webClient();
+    }
+
+    /**
+     * Monta o pool e o cliente HTTP de um servidor.
+     */
+    private Client create(String host) {
+        SwaggerAgentProperties.Pool pool = settings.poolFor(host);
+        ConnectionProvider.Builder provider = ConnectionProvider.builder("swagger-agent-" + host)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .metrics(true);
+        if (!pool.getEvictionInterval().isZero()) {
+            provider.evictInBackground(pool.getEvictionInterval());
+        }
+        ConnectionProvider connectionProvider = provider.build();
+
+        long readTimeout = pool.getReadTimeout().toMillis();
+        long writeTimeout = pool.getWriteTimeout().toMillis();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .runOn(loopResources)
+                .protocol(protocols(pool.getProtocol()))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .responseTimeout(pool.getResponseTimeout())
+                // Os handlers adicionados pela conexão valem apenas para a requisição atual e são
+                // removidos quando a conexão volta ao pool; por isso são registrados a cada requisição.
+                .doOnRequest((request, connection) -> connection
+                        .addHandlerFirst(new ReadTimeoutHandler(readTimeout, TimeUnit.MILLISECONDS))
+                        .addHandlerFirst(new WriteTimeoutHandler(writeTimeout, TimeUnit.MILLISECONDS)));
+
+        log.info("🔌 Pool de conexões criado para {} ({}, até {} conexões)", host, pool.getProtocol(), pool.getMaxConnections());
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new Client(webClient, connectionProvider);
+    }
+
+    private static HttpProtocol[] protocols(SwaggerAgentProperties.Protocol protocol) {
+        return switch (protocol) {
+            case H2 -> new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11};
+            case H2C -> new HttpProtocol[]{HttpProtocol.H2C};
+            case HTTP1 -> new HttpProtocol[]{HttpProtocol.HTTP11};
+        };
+    }
+
+    /**
+     * Fecha os pools de conexões de todos os servidores.
+     */
+    @Override
+    public void destroy() {
+        clients.values().forEach(client -> client.connectionProvider().dispose());
+        clients.clear();
+    }
+
+    /**
+     * Cliente HTTP de um servidor e o pool de conexões que ele usa.
+     */
+    private record Client(WebClient webClient, ConnectionProvider connectionProvider) {
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de requisições por segundo (token bucket) por servidor de API externa ou por ferramenta.
+ * <p>
+ * Sem este filtro, uma resposta {@code 429} chega ao modelo como um resultado qualquer e o modelo
+ * costuma repetir a chamada na hora, gastando mais um turno para receber outro 429. Aqui cada
+ * servidor (ou ferramenta, em {@code app.http.rate-limit.tools}) tem uma cota local e as chamadas
+ * que passariam dela esperam a sua vez, em vez de serem enviadas para falhar. A cota também é
+ * aprendida das respostas:
+ * <ul>
+ *   <li><b>429:</b> as chamadas ao servidor ficam pausadas pelo tempo do {@code Retry-After} (ou
+ *       {@code default-retry-after}); uma chamada GET/HEAD que recebeu o 429 é repetida depois da
+ *       pausa, se ela couber no {@code max-wait};</li>
+ *   <li><b>{@code X-RateLimit-Remaining} / {@code RateLimit-Remaining}:</b> com o valor zerado, as
+ *       chamadas ficam pausadas até o {@code X-RateLimit-Reset}; com outro valor, a cota local
+ *       nunca passa do que a API informou.</li>
+ * </ul>
+ * Uma chamada que precisaria esperar mais que {@code max-wait}, ou que encontra a fila cheia
+ * ({@code max-queue-size}), recebe na hora uma resposta {@code 503} estruturada com o tempo de espera.
+ * <p>
+ * <b>Métricas:</b> {@code swagger.agent.upstream.ratelimit.delayed},
+ * {@code swagger.agent.upstream.ratelimit.rejected} e {@code swagger.agent.upstream.ratelimit.throttled}
+ * (respostas 429 recebidas).
+ */
+@Component
+public class RateLimitFilter implements UpstreamExchangeFilter {
+
+    /**
+     * Depois do cache e do single-flight, para que respostas reaproveitadas não gastem cota; antes
+     * do hedging e do limite de concorrência, para que a espera pela cota não conte como latência
+     * da API nem ocupe uma vaga de chamada simultânea. A requisição extra do hedging não passa por
+     * este filtro: ela reserva a própria cota com {@link #tryAcquire} e é enviada por
+     * {@link #sendReserved}, que aprende com a resposta.
+     */
+    public static final int ORDER = 210;
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    /**
+     * Valores de {@code X-RateLimit-Reset} acima deste são instantes (segundos desde 1970), não intervalos.
+     */
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    private final SwaggerAgentProperties.RateLimit settings;
+    private final ObjectMapper objectMapper;
+    private final Counter delayed;
+    private final Counter rejected;
+    private final Counter throttled;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties    as propriedades da aplicação ({@code app.http.rate-limit}).
+     * @param objectMapper  o serializador JSON das respostas de recusa.
+     * @param meterRegistry o registro de métricas.
+     */
+    public RateLimitFilter(SwaggerAgentProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.settings = properties.getHttp().getRateLimit();
+        this.objectMapper = objectMapper;
+        this.delayed = Counter.builder("swagger.agent.upstream.ratelimit.delayed")
+                .description("Chamadas a APIs externas que esperaram pela cota de requisições")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("swagger.agent.upstream.ratelimit.rejected")
+                .description("Chamadas a APIs externas recusadas porque a espera pela cota passaria do máximo")
+                .register(meterRegistry);
+        this.throttled = Counter.builder("swagger.agent.upstream.ratelimit.throttled")
+                .description("Respostas 429 recebidas das APIs externas")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<UpstreamResponse> filter(UpstreamRequest request, UpstreamExchange next) {
+        if (!settings.isEnabled()) {
+            return next.exchange(request);
+        }
+        Bucket bucket = bucketFor(request);
+        return admit(request, next, bucket, System.nanoTime() + settings.getMaxWait().toNanos(), true);
+    }
+
+    /**
+     * Reserva a cota de uma requisição extra, sem esperar.
+     * <p>
+     * Usado pelo {@link HedgingFilter}: a requisição extra só é enviada se houver cota agora e a API
+     * não tiver pedido uma pausa. Uma requisição extra que precisasse esperar não serviria para nada.
+     *
+     * @param request a requisição.
+     * @return {@code true} se a cota foi reservada (ou se o limite estiver desabilitado).
+     */
+    public boolean tryAcquire(UpstreamRequest request) {
+        return !settings.isEnabled() || bucketFor(request).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Envia uma requisição cuja cota já foi reservada com {@link #tryAcquire} e aprende com a resposta.
+     * <p>
+     * Usado pelo {@link HedgingFilter} para a requisição extra: um {@code 429} ou uma cota zerada
+     * informados na resposta pausam as próximas chamadas como em qualquer outra requisição. A
+     * requisição extra nunca é repetida; quem decide se a resposta serve é o hedging.
+     *
+     * @param request a requisição.
+     * @param next    o restante da cadeia.
+     * @return a resposta da API.
+     */
+    public Mono<UpstreamResponse> sendReserved(UpstreamRequest request, UpstreamExchange next) {
+        if (!settings.isEnabled()) {
+            return next.exchange(request);
+        }
+        Bucket bucket = bucketFor(request);
+        return next.exchange(request).doOnNext(response -> learn(bucket, response));
+    }
+
+    /**
+     * Reserva a cota da chamada e espera a sua vez, se necessário.
+     */
+    private Mono<UpstreamResponse> admit(UpstreamRequest request, UpstreamExchange next, Bucket bucket,
+                                         long deadline, boolean retryOn429) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            long delay = bucket.reserve(now, deadline - now, settings.getMaxQueueSize());
+            if (delay < 0) {
+                return Mono.just(reject(bucket, bucket.delay(now)));
+            }
+            if (delay == 0) {
+                return send(request, next, bucket, deadline, retryOn429);
+            }
+            delayed.increment();
+            log.debug("🚦 Chamada '{}' aguardando {} ms pela cota de {}", request.operationId(),
+                    TimeUnit.NANOSECONDS.toMillis(delay), bucket.key);
+            return Mono.delay(Duration.ofNanos(delay))
+                    .doOnCancel(() -> bucket.refund(System.nanoTime()))
+                    .doFinally(signal -> bucket.leave())
+                    .then(send(request, next, bucket, deadline, retryOn429));
+        });
+    }
+
+    /**
+     * Envia a chamada, esperando antes se a API pediu uma pausa depois da reserva, e aprende com a resposta.
+     */
+    private Mono<UpstreamResponse> send(UpstreamRequest request, UpstreamExchange next, Bucket bucket,
+                                        long deadline, boolean retryOn429) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            long paused = bucket.pausedFor(now);
+            if (paused > 0) {
+                if (now + paused > deadline) {
+                    return Mono.just(reject(bucket, paused));
+                }
+                return Mono.delay(Duration.ofNanos(paused)).then(send(request, next, bucket, deadline, retryOn429));
+            }
+            return next.exchange(request).flatMap(response -> {
+                learn(bucket, response);
+                long received = System.nanoTime();
+                if (response.status() == 429 && retryOn429 && request.idempotent()
+                        && received + bucket.delay(received) <= deadline) {
+                    log.info("🚦 {} respondeu 429 para '{}'; repetindo a chamada depois da pausa pedida",
+                            bucket.key, request.operationId());
+                    return admit(request, next, bucket, deadline, false);
+                }
+                return Mono.just(response);
+            });
+        });
+    }
+
+    /**
+     * Ajusta a cota a partir dos cabeçalhos da resposta.
+     */
+    private void learn(Bucket bucket, UpstreamResponse response) {
+        HttpHeaders headers = response.headers();
+        if (headers == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (response.status() == 429) {
+            throttled.increment();
+            Duration retryAfter = retryAfter(headers);
+            Duration pause = retryAfter != null ? retryAfter : settings.getDefaultRetryAfter();
+            bucket.pauseUntil(now + pause.toNanos());
+            log.warn("🚦 {} respondeu 429; chamadas pausadas por {} ms", bucket.key, pause.toMillis());
+        }
+        Long remaining = headerLong(headers, "X-RateLimit-Remaining", "RateLimit-Remaining");
+        if (remaining == null) {
+            return;
+        }
+        if (remaining <= 0) {
+            Duration reset = reset(headers);
+            if (reset != null && !reset.isNegative() && !reset.isZero()) {
+                bucket.pauseUntil(now + reset.toNanos());
+                log.debug("🚦 Cota de {} esgotada; chamadas pausadas por {} ms", bucket.key, reset.toMillis());
+            }
+        } else {
+            bucket.limitTokens(now, remaining);
+        }
+    }
+
+    private UpstreamResponse reject(Bucket bucket, long waitNanos) {
+        rejected.increment();
+        long seconds = Math.max(1, (long) Math.ceil(waitNanos / 1e9));
+        log.debug("🚦 Chamada para {} recusada: a cota só teria vaga em {} s", bucket.key, seconds);
+        return UpstreamResponse.unavailable(objectMapper, bucket.key, "rate_limited",
+                "A cota de requisições de " + bucket.key + " está esgotada.", seconds);
+    }
+
+    private Bucket bucketFor(UpstreamRequest request) {
+        SwaggerAgentProperties.Quota tool = request.operationId() != null
+                ? settings.getTools().get(request.operationId()) : null;
+        if (tool != null) {
+            return buckets.computeIfAbsent("tool:" + request.operationId(), key -> new Bucket(request.operationId(),
+                    "tool", tool.getRequestsPerSecond(), tool.getBurst(), System.nanoTime()));
+        }
+        String hostName = request.uri().getHost();
+        SwaggerAgentProperties.Quota host = hostName != null ? settings.getHosts().get(hostName) : null;
+        double requestsPerSecond = host != null ? host.getRequestsPerSecond() : settings.getRequestsPerSecond();
+        int burst = host != null ? host.getBurst() : settings.getBurst();
+        return buckets.computeIfAbsent(request.host(), key -> new Bucket(key, "host", requestsPerSecond, burst, System.nanoTime()));
+    }
+
+    /**
+     * Lê o {@code Retry-After}, em segundos ou como data HTTP.
+     */
+    static Duration retryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration wait = Duration.between(ZonedDateTime.now(date.getZone()), date);
+                return wait.isNegative() ? Duration.ZERO : wait;
+            } catch (DateTimeParseException invalid) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Lê o {@code X-RateLimit-Reset}, que algumas APIs informam como intervalo em segundos e outras
+     * como instante (segundos desde 1970).
+     */
+    private static Duration reset(HttpHeaders headers) {
+        Long value = headerLong(headers, "X-RateLimit-Reset", "RateLimit-Reset");
+        if (value == null) {
+            return null;
+        }
+        if (value > EPOCH_SECONDS_THRESHOLD) {
+            return Duration.ofMillis(value * 1000 - System.currentTimeMillis());
+        }
+        return Duration.ofSeconds(value);
+    }
+
+    private static Long headerLong(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (value != null) {
+                try {
+                    return Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna o estado da cota de cada servidor e ferramenta já chamados.
+     *
+     * @return o estado por cota, em ordem alfabética.
+     */
+    public List<RateLimitStatus> status() {
+        long now = System.nanoTime();
+        return buckets.values().stream()
+                .map(bucket -> bucket.status(now))
+                .sorted(Comparator.comparing(RateLimitStatus::key))
+                .toList();
+    }
+
+    /**
+     * Estado da cota de requisições de um servidor ou de uma ferramenta.
+     *
+     * @param key               o servidor ({@code esquema://host:porta}) ou o operationId da ferramenta.
+     * @param scope             {@code host} ou {@code tool}.
+     * @param requestsPerSecond a cota configurada (0 = sem cota local).
+     * @param availableTokens   as requisições que podem ser enviadas agora, sem esperar (-1 = sem cota local).
+     * @param pausedMillis      por quanto tempo ainda valem as pausas pedidas pela API.
+     * @param waiting           o número de chamadas esperando pela cota.
+     */
+    public record RateLimitStatus(String key, String scope, double requestsPerSecond, int availableTokens,
+                                  long pausedMillis, int waiting) {
+    }
+
+    /**
+     * Token bucket de um servidor ou de uma ferramenta. Os tokens podem ficar negativos: cada
+     * chamada que espera já reservou o seu, e a espera da próxima conta com as anteriores.
+     * Todas as alterações são feitas sob o monitor da instância.
+     */
+    static final class Bucket {
+
+        private final String key;
+        private final String scope;
+        private final double requestsPerSecond;
+        private final double tokensPerNano;
+        private final int capacity;
+        private double tokens;
+        private long refilledAt;
+        private long pausedUntil;
+        private int waiting;
+
+        Bucket(String key, String scope, double requestsPerSecond, int burst, long now) {
+            this.key = key;
+            this.scope = scope;
+            this.requestsPerSecond = Math.max(0, requestsPerSecond);
+            this.tokensPerNano = this.requestsPerSecond / 1e9;
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.refilledAt = now;
+            this.pausedUntil = now;
+        }
+
+        private boolean limited() {
+            return tokensPerNano > 0;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                if (limited()) {
+                    tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                }
+                refilledAt = now;
+            }
+        }
+
+        /**
+         * Calcula quanto uma nova chamada teria de esperar, sem reservar a cota.
+         */
+        synchronized long delay(long now) {
+            refill(now);
+            long delay = Math.max(0, pausedUntil - now);
+            if (limited() && tokens < 1) {
+                delay = Math.max(delay, (long) Math.ceil((1 - tokens) / tokensPerNano));
+            }
+            return delay;
+        }
+
+        /**
+         * Reserva a cota de uma chamada.
+         *
+         * @return a espera, em nanossegundos, ou -1 se ela passaria de {@code maxWaitNanos} ou a fila estiver cheia.
+         */
+        synchronized long reserve(long now, long maxWaitNanos, int maxQueueSize) {
+            long delay = delay(now);
+            if (delay > maxWaitNanos || (delay > 0 && waiting >= maxQueueSize)) {
+                return -1;
+            }
+            if (limited()) {
+                tokens--;
+            }
+            if (delay > 0) {
+                waiting++;
+            }
+            return delay;
+        }
+
+        /**
+         * Reserva a cota de uma chamada somente se ela puder ser enviada agora.
+         */
+        synchronized boolean tryAcquire(long now) {
+            if (delay(now) > 0) {
+                return false;
+            }
+            if (limited()) {
+                tokens--;
+            }
+            return true;
+        }
+
+        synchronized void leave() {
+            waiting--;
+        }
+
+        /**
+         * Devolve a cota de uma chamada que desistiu antes de ser enviada.
+         */
+        synchronized void refund(long now) {
+            if (limited()) {
+                refill(now);
+                tokens = Math.min(capacity, tokens + 1);
+            }
+        }
+
+        synchronized long pausedFor(long now) {
+            return Math.max(0, pausedUntil - now);
+        }
+
+        synchronized void pauseUntil(long until) {
+            pausedUntil = Math.max(pausedUntil, until);
+        }
+
+        /**
+         * Limita os tokens disponíveis ao que a API informou ({@code X-RateLimit-Remaining}).
+         */
+        synchronized void limitTokens(long now, long remaining) {
+            if (limited()) {
+                refill(now);
+                tokens = Math.min(tokens, remaining);
+            }
+        }
+
+        synchronized RateLimitStatus status(long now) {
+            refill(now);
+            int available = limited() ? (int) Math.max(0, Math.floor(tokens)) : -1;
+            return new RateLimitStatus(key, scope, requestsPerSecond, available,
+                    TimeUnit.NANOSECONDS.toMillis(Math.max(0, pausedUntil - now)), waiting);
+        }
+    }
+
+    Bucket bucket(String key) {
+        return buckets.get(key);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache de respostas das chamadas GET e HEAD às APIs externas.
+ * <p>
+ * Quando o usuário refina uma pergunta, o modelo costuma chamar de novo a mesma ferramenta
+ * de leitura com os mesmos argumentos. Este filtro responde essas chamadas a partir da memória,
+ * seguindo as regras de cache HTTP da resposta original:
+ * <ul>
+ *   <li>{@code Cache-Control: no-store} não é guardado; {@code no-cache} é sempre revalidado;
+ *       {@code max-age} (descontado o {@code Age}) define a validade.</li>
+ *   <li>Respostas vencidas com {@code ETag} ou {@code Last-Modified} são revalidadas com
+ *       {@code If-None-Match}/{@code If-Modified-Since}; um {@code 304} renova a entrada sem
+ *       transferir o corpo de novo.</li>
+ *   <li>Sem {@code max-age}, vale {@code app.http.cache.default-ttl}.</li>
+ * </ul>
+ * A chave é a {@link UpstreamRequest#key() chave da requisição}: método, URL resolvida e
+ * cabeçalhos (que incluem as credenciais e os parâmetros de header do endpoint). Apenas respostas {@code 200} são guardadas, e o total
+ * em memória é limitado por {@code app.http.cache.max-size}, descartando as entradas menos usadas.
+ * <p>
+ * <b>Métricas:</b> {@code swagger.agent.upstream.cache.requests} ({@code result=hit|miss|revalidated}),
+ * {@code swagger.agent.upstream.cache.entries} e {@code swagger.agent.upstream.cache.size}.
+ */
+@Component
+public class ResponseCacheFilter implements UpstreamExchangeFilter {
+
+    /**
+     * O cache é o filtro mais externo: um acerto não passa por nenhum limite nem chega à rede.
+     */
+    public static final int ORDER = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private final SwaggerAgentProperties.Cache settings;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalSize;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidations;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties    as propriedades da aplicação ({@code app.http.cache}).
+     * @param meterRegistry o registro de métricas.
+     */
+    @Autowired
+    public ResponseCacheFilter(SwaggerAgentProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    ResponseCacheFilter(SwaggerAgentProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.settings = properties.getHttp().getCache();
+        this.clock = clock;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.revalidations = requests(meterRegistry, "revalidated");
+        Gauge.builder("swagger.agent.upstream.cache.entries", this, cache -> cache.entryCount())
+                .description("Respostas de APIs externas em cache")
+                .register(meterRegistry);
+        Gauge.builder("swagger.agent.upstream.cache.size", this, cache -> cache.size())
+                .description("Tamanho aproximado dos corpos em cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("swagger.agent.upstream.cache.requests")
+                .tag("result", result)
+                .description("Chamadas GET/HEAD a APIs externas, por resultado no cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<UpstreamResponse> filter(UpstreamRequest request, UpstreamExchange next) {
+        if (!settings.isEnabled() || !request.idempotent()) {
+            return next.exchange(request);
+        }
+        String key = request.key();
+        Entry cached = get(key);
+        if (cached != null && cached.freshUntil() > clock.millis()) {
+            hits.increment();
+            log.debug("💾 Resposta em cache para {} {}", request.method(), request.uri());
+            return Mono.just(cached.response());
+        }
+        if (cached == null || !cached.hasValidators()) {
+            misses.increment();
+            return next.exchange(request).doOnNext(response -> store(key, response));
+        }
+
+        UpstreamRequest conditional = request;
+        if (cached.etag() != null) {
+            conditional = conditional.withHeader(HttpHeaders.IF_NONE_MATCH, cached.etag());
+        }
+        if (cached.lastModified() != null) {
+            conditional = conditional.withHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+        }
+        return next.exchange(conditional).map(response -> {
+            if (response.status() != 304) {
+                misses.increment();
+                store(key, response);
+                return response;
+            }
+            revalidations.increment();
+            // Um 304 pode trazer cabeçalhos de validade atualizados; o corpo é o que já estava em cache.
+            HttpHeaders merged = new HttpHeaders();
+            merged.putAll(cached.response().headers());
+            response.headers().forEach(merged::put);
+            UpstreamResponse refreshed = new UpstreamResponse(cached.response().status(), merged,
+                    cached.response().body(), cached.response().truncated());
+            store(key, refreshed);
+            return refreshed;
+        });
+    }
+
+    /**
+     * Guarda uma resposta, se as regras de cache permitirem.
+     */
+    private void store(String key, UpstreamResponse response) {
+        if (response.status() != 200) {
+            return;
+        }
+        HttpHeaders headers = response.headers();
+        Map<String, String> directives = cacheControl(headers);
+        if (directives.containsKey("no-store")) {
+            remove(key);
+            return;
+        }
+
+        long freshness;
+        if (directives.containsKey("no-cache")) {
+            freshness = 0;
+        } else if (directives.containsKey("max-age")) {
+            freshness = parseSeconds(directives.get("max-age")) - parseSeconds(headers.getFirst("Age"));
+        } else {
+            freshness = settings.getDefaultTtl().toSeconds();
+        }
+
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (freshness <= 0 && etag == null && lastModified == null) {
+            remove(key);
+            return;
+        }
+        long size = response.body() != null ? response.body().length() : 0;
+        if (size > settings.getMaxEntrySize().toBytes()) {
+            remove(key);
+            return;
+        }
+        put(key, new Entry(response, clock.millis() + Math.max(0, freshness) * 1000, etag, lastModified, size));
+    }
+
+    private synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalSize -= previous.size();
+        }
+        totalSize += entry.size();
+        long maxSize = settings.getMaxSize().toBytes();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalSize > maxSize && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            totalSize -= evicted.size();
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            totalSize -= previous.size();
+        }
+    }
+
+    synchronized int entryCount() {
+        return entries.size();
+    }
+
+    synchronized long size() {
+        return totalSize;
+    }
+
+    /**
+     * Lê as diretivas do {@code Cache-Control} (ex: {@code max-age=60, no-cache}).
+     */
+    private static Map<String, String> cacheControl(HttpHeaders headers) {
+        Map<String, String> directives = new LinkedHashMap<>();
+        for (String header : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : header.split(",")) {
+                String[] parts = directive.trim().split("=", 2);
+                if (!parts[0].isEmpty()) {
+                    directives.put(parts[0].toLowerCase(Locale.ROOT), parts.length > 1 ? parts[1].replace("\"", "").trim() : "");
+                }
+            }
+        }
+        return directives;
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Resposta em cache.
+     *
+     * @param response     a resposta guardada.
+     * @param freshUntil   o instante (em milissegundos) até o qual a resposta pode ser usada sem revalidação.
+     * @param etag         o {@code ETag} da resposta, se houver.
+     * @param lastModified o {@code Last-Modified} da resposta, se houver.
+     * @param size         o tamanho aproximado do corpo.
+     */
+    private record Entry(UpstreamResponse response, long freshUntil, String etag, String lastModified, long size) {
+
+        boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compartilha chamadas GET e HEAD idênticas que estão em andamento ao mesmo tempo.
+ * <p>
+ * Em horários de pico, várias sessões fazem a mesma pergunta quase no mesmo instante e o modelo
+ * gera chamadas idênticas à mesma ferramenta. A primeira chamada segue para a API externa; as que
+ * chegam enquanto ela ainda não respondeu se inscrevem na mesma requisição e recebem a mesma
+ * resposta. Assim que a resposta chega, a entrada é removida: este filtro não guarda resultados,
+ * quem faz isso é o {@link ResponseCacheFilter}, que fica antes dele na cadeia.
+ * <p>
+ * Duas chamadas só são compartilhadas se tiverem a mesma {@link UpstreamRequest#key() chave}
+ * (método, URL e cabeçalhos, incluindo as credenciais).
+ * <p>
+ * <b>Métricas:</b> {@code swagger.agent.upstream.singleflight.collapsed} (chamadas atendidas por
+ * uma requisição já em andamento) e {@code swagger.agent.upstream.singleflight.inflight}.
+ */
+@Component
+public class SingleFlightFilter implements UpstreamExchangeFilter {
+
+    /**
+     * Logo depois do cache: só chamadas que não foram respondidas pelo cache são compartilhadas.
+     */
+    public static final int ORDER = 200;
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlightFilter.class);
+
+    private final boolean enabled;
+    private final Map<String, Mono<UpstreamResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter collapsed;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties    as propriedades da aplicação ({@code app.http.single-flight}).
+     * @param meterRegistry o registro de métricas.
+     */
+    public SingleFlightFilter(SwaggerAgentProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.getHttp().getSingleFlight().isEnabled();
+        this.collapsed = Counter.builder("swagger.agent.upstream.singleflight.collapsed")
+                .description("Chamadas a APIs externas atendidas por uma requisição idêntica já em andamento")
+                .register(meterRegistry);
+        Gauge.builder("swagger.agent.upstream.singleflight.inflight", inFlight, Map::size)
+                .description("Requisições GET/HEAD em andamento que podem ser compartilhadas")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<UpstreamResponse> filter(UpstreamRequest request, UpstreamExchange next) {
+        if (!enabled || !request.idempotent()) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            String key = request.key();
+            boolean[] leader = {false};
+            Mono<UpstreamResponse> shared = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return Mono.defer(() -> next.exchange(request))
+                        .doFinally(signal -> inFlight.remove(k))
+                        .share();
+            });
+            if (!leader[0]) {
+                collapsed.increment();
+                log.debug("🤝 Chamada {} {} compartilhada com uma requisição em andamento", request.method(), request.uri());
+            }
+            return shared;
+        });
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+}
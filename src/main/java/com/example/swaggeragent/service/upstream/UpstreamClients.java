@@ -0,0 +1,23 @@
+package com.example.swaggeragent.service.upstream;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.URI;
+
+/**
+ * Fornece o {@link WebClient} usado para chamar cada servidor de API externa.
+ * <p>
+ * Cada servidor tem seu próprio pool de conexões e seus próprios timeouts, para que uma API
+ * lenta não ocupe as conexões das demais.
+ */
+@FunctionalInterface
+public interface UpstreamClients {
+
+    /**
+     * Retorna o cliente HTTP do servidor de uma URL.
+     *
+     * @param uri a URL da chamada.
+     * @return o cliente configurado para o servidor.
+     */
+    WebClient forHost(URI uri);
+}
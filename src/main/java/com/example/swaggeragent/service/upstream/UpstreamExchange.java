@@ -0,0 +1,19 @@
+package com.example.swaggeragent.service.upstream;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Próxima etapa da cadeia de execução de uma requisição a uma API externa: o próximo filtro
+ * ou, no fim da cadeia, a chamada HTTP.
+ */
+@FunctionalInterface
+public interface UpstreamExchange {
+
+    /**
+     * Executa a requisição.
+     *
+     * @param request a requisição.
+     * @return a resposta; a chamada só é feita quando o {@link Mono} é assinado.
+     */
+    Mono<UpstreamResponse> exchange(UpstreamRequest request);
+}
@@ -0,0 +1,24 @@
+package com.example.swaggeragent.service.upstream;
+
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Mono;
+
+/**
+ * Filtro aplicado a todas as chamadas das ferramentas às APIs externas (cache, limites,
+ * resiliência etc.).
+ * <p>
+ * As implementações são beans do Spring; o {@code ApiExecutionService} monta a cadeia uma única
+ * vez, na ordem de {@link #getOrder()}: o filtro de menor ordem é o mais externo, o primeiro a
+ * ver a requisição e o último a ver a resposta.
+ */
+public interface UpstreamExchangeFilter extends Ordered {
+
+    /**
+     * Processa uma requisição, delegando (ou não) para a próxima etapa da cadeia.
+     *
+     * @param request a requisição.
+     * @param next    a próxima etapa da cadeia.
+     * @return a resposta.
+     */
+    Mono<UpstreamResponse> filter(UpstreamRequest request, UpstreamExchange next);
+}
@@ -0,0 +1,78 @@
+package com.example.swaggeragent.service.upstream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Requisição HTTP a uma API externa, já montada a partir dos argumentos de uma ferramenta.
+ * <p>
+ * Os cabeçalhos são tratados como somente leitura; filtros que precisam alterá-los criam uma
+ * nova requisição com {@link #withHeader(String, String)}.
+ *
+ * @param operationId o operationId do endpoint chamado (usado em logs e métricas).
+ * @param method      o método HTTP.
+ * @param uri         a URL completa, já codificada.
+ * @param headers     os cabeçalhos da requisição.
+ * @param body        o corpo da requisição, ou {@code null} para métodos sem corpo.
+ */
+public record UpstreamRequest(String operationId, HttpMethod method, URI uri, HttpHeaders headers, String body) {
+
+    /**
+     * Indica se a requisição é de leitura (GET ou HEAD) e pode ser repetida, compartilhada ou
+     * respondida a partir de cache sem efeitos colaterais.
+     *
+     * @return {@code true} para GET e HEAD.
+     */
+    public boolean idempotent() {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD;
+    }
+
+    /**
+     * Identifica o servidor da API externa ({@code esquema://host:porta}).
+     *
+     * @return o servidor da requisição.
+     */
+    public String host() {
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    /**
+     * Identifica requisições equivalentes: método, URL e cabeçalhos (exceto o {@code Content-Type}),
+     * em ordem alfabética para não depender da ordem de inserção. Como os cabeçalhos incluem as
+     * credenciais, requisições feitas com credenciais diferentes nunca são consideradas iguais.
+     *
+     * @return a chave da requisição.
+     */
+    public String key() {
+        StringBuilder key = new StringBuilder(method.name()).append(' ').append(uri);
+        Map<String, List<String>> sorted = new TreeMap<>();
+        headers.forEach((name, values) -> {
+            String normalized = name.toLowerCase(Locale.ROOT);
+            if (!"content-type".equals(normalized)) {
+                sorted.put(normalized, values);
+            }
+        });
+        sorted.forEach((name, values) -> key.append('\n').append(name).append(':').append(values));
+        return key.toString();
+    }
+
+    /**
+     * Cria uma cópia da requisição com um cabeçalho definido (ou substituído).
+     *
+     * @param name  o nome do cabeçalho.
+     * @param value o valor do cabeçalho.
+     * @return a nova requisição.
+     */
+    public UpstreamRequest withHeader(String name, String value) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.set(name, value);
+        return new UpstreamRequest(operationId, method, uri, copy, body);
+    }
+}
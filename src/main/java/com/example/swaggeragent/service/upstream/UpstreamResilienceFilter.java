@@ -0,0 +1,172 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Circuit breaker e bulkhead por servidor de API externa.
+ * <p>
+ * Quando uma API se degrada, cada chamada de ferramenta esperaria o timeout inteiro, ocupando
+ * conexões e o tempo do turno do modelo. Este filtro mantém, para cada servidor
+ * ({@code esquema://host:porta}, o {@code baseUrl} das especificações):
+ * <ul>
+ *   <li>um <b>circuit breaker</b> que conta como falha erros de rede, timeouts e respostas 5xx.
+ *       Com o circuito aberto, a chamada falha na hora;</li>
+ *   <li>um <b>bulkhead</b> que limita as chamadas simultâneas ao servidor; as excedentes também
+ *       falham na hora, sem afetar o circuit breaker.</li>
+ * </ul>
+ * Nos dois casos a ferramenta recebe uma resposta {@code 503} com um corpo JSON que o modelo
+ * consegue explicar ao usuário (servidor, motivo e em quanto tempo tentar de novo).
+ * <p>
+ * O estado de cada servidor é exposto em {@code GET /api/admin/upstreams} e nas métricas
+ * {@code resilience4j.circuitbreaker.*} e {@code resilience4j.bulkhead.*}.
+ */
+@Component
+public class UpstreamResilienceFilter implements UpstreamExchangeFilter {
+
+    /**
+     * Depois do cache e do compartilhamento de chamadas: respostas já disponíveis não dependem
+     * do estado do servidor.
+     */
+    public static final int ORDER = 300;
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamResilienceFilter.class);
+
+    private final boolean enabled;
+    private final Duration waitDurationInOpenState;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+
+    /**
+     * Construtor para injeção de dependências.
+     *
+     * @param properties    as propriedades da aplicação ({@code app.http.resilience}).
+     * @param objectMapper  o serializador JSON das respostas de falha rápida.
+     * @param meterRegistry o registro de métricas.
+     */
+    public UpstreamResilienceFilter(SwaggerAgentProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        SwaggerAgentProperties.Resilience settings = properties.getHttp().getResilience();
+        this.enabled = settings.isEnabled();
+        this.waitDurationInOpenState = settings.getWaitDurationInOpenState();
+        this.objectMapper = objectMapper;
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDurationThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // Respostas 5xx não são exceções (chegam como UpstreamResponse), mas indicam um servidor com problemas.
+                .recordResult(result -> result instanceof UpstreamResponse response && response.status() >= 500)
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        circuitBreakers.getEventPublisher().onEntryAdded(added -> {
+            CircuitBreaker circuitBreaker = added.getAddedEntry();
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    log.warn("⚡ Circuit breaker de {}: {}", circuitBreaker.getName(), event.getStateTransition()));
+        });
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<UpstreamResponse> filter(UpstreamRequest request, UpstreamExchange next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+        String host = request.host();
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(host);
+        Bulkhead bulkhead = bulkheads.bulkhead(host);
+        // O bulkhead fica por fora: chamadas recusadas por excesso de concorrência não contam como falha do servidor.
+        return Mono.defer(() -> next.exchange(request))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(CallNotPermittedException.class, e -> Mono.just(
+                        rejected(host, "circuit_open", "A API " + host + " está instável e foi temporariamente isolada.",
+                                waitDurationInOpenState.toSeconds())))
+                .onErrorResume(BulkheadFullException.class, e -> Mono.just(
+                        rejected(host, "too_many_concurrent_calls", "A API " + host + " já está atendendo o máximo de chamadas simultâneas.",
+                                1)));
+    }
+
+    private UpstreamResponse rejected(String host, String reason, String message, long retryAfterSeconds) {
+        log.debug("🚫 Chamada para {} recusada: {}", host, reason);
+        return UpstreamResponse.unavailable(objectMapper, host, reason, message, retryAfterSeconds);
+    }
+
+    /**
+     * Retorna o estado do circuit breaker e do bulkhead de cada servidor já chamado.
+     *
+     * @return o estado por servidor, em ordem alfabética.
+     */
+    public List<HostStatus> status() {
+        return circuitBreakers.getAllCircuitBreakers().stream()
+                .map(circuitBreaker -> {
+                    CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+                    Bulkhead.Metrics bulkhead = bulkheads.bulkhead(circuitBreaker.getName()).getMetrics();
+                    return new HostStatus(
+                            circuitBreaker.getName(),
+                            circuitBreaker.getState().name(),
+                            metrics.getFailureRate(),
+                            metrics.getSlowCallRate(),
+                            metrics.getNumberOfBufferedCalls(),
+                            metrics.getNumberOfFailedCalls(),
+                            metrics.getNumberOfNotPermittedCalls(),
+                            bulkhead.getMaxAllowedConcurrentCalls() - bulkhead.getAvailableConcurrentCalls(),
+                            bulkhead.getMaxAllowedConcurrentCalls());
+                })
+                .sorted(Comparator.comparing(HostStatus::upstream))
+                .toList();
+    }
+
+    /**
+     * Estado de resiliência de um servidor de API externa.
+     *
+     * @param upstream           o servidor ({@code esquema://host:porta}).
+     * @param state              o estado do circuit breaker (CLOSED, OPEN, HALF_OPEN...).
+     * @param failureRate        o percentual de falhas na janela atual (-1 enquanto não há chamadas suficientes).
+     * @param slowCallRate       o percentual de chamadas lentas na janela atual (-1 enquanto não há chamadas suficientes).
+     * @param bufferedCalls      o número de chamadas na janela atual.
+     * @param failedCalls        o número de falhas na janela atual.
+     * @param notPermittedCalls  o número de chamadas recusadas com o circuito aberto.
+     * @param concurrentCalls    o número de chamadas em andamento.
+     * @param maxConcurrentCalls o limite de chamadas simultâneas.
+     */
+    public record HostStatus(String upstream, String state, float failureRate, float slowCallRate,
+                             int bufferedCalls, int failedCalls, long notPermittedCalls,
+                             int concurrentCalls, int maxConcurrentCalls) {
+    }
+}
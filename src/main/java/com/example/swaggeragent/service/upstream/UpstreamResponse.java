@@ -0,0 +1,74 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resposta de uma API externa, com o corpo já lido como texto.
+ *
+ * @param status    o código de status HTTP.
+ * @param headers   os cabeçalhos da resposta.
+ * @param body      o corpo da resposta (pode ser {@code null}).
+ * @param truncated {@code true} se o corpo passou do limite de leitura e foi cortado.
+ * @param local     {@code true} se a resposta foi gerada por um filtro, sem a chamada chegar à API
+ *                  ({@link #unavailable}).
+ */
+public record UpstreamResponse(int status, HttpHeaders headers, String body, boolean truncated, boolean local) {
+
+    /**
+     * Cria uma resposta recebida da API.
+     *
+     * @param status    o código de status HTTP.
+     * @param headers   os cabeçalhos da resposta.
+     * @param body      o corpo da resposta (pode ser {@code null}).
+     * @param truncated {@code true} se o corpo passou do limite de leitura e foi cortado.
+     */
+    public UpstreamResponse(int status, HttpHeaders headers, String body, boolean truncated) {
+        this(status, headers, body, truncated, false);
+    }
+
+    /**
+     * Cria uma resposta com o corpo completo.
+     *
+     * @param status  o código de status HTTP.
+     * @param headers os cabeçalhos da resposta.
+     * @param body    o corpo da resposta (pode ser {@code null}).
+     */
+    public UpstreamResponse(int status, HttpHeaders headers, String body) {
+        this(status, headers, body, false);
+    }
+
+    /**
+     * Cria a resposta {@code 503} usada quando um filtro recusa a chamada sem chegar à API.
+     * <p>
+     * O corpo JSON traz o servidor, o motivo e em quanto tempo tentar de novo, para que o modelo
+     * consiga explicar a falha ao usuário.
+     *
+     * @param objectMapper      o serializador JSON.
+     * @param upstream          o servidor da API ({@code esquema://host:porta}).
+     * @param reason            o motivo, em formato de código (ex: {@code circuit_open}).
+     * @param message           a mensagem para o modelo.
+     * @param retryAfterSeconds em quantos segundos vale a pena tentar de novo.
+     * @return a resposta de falha rápida.
+     */
+    public static UpstreamResponse unavailable(ObjectMapper objectMapper, String upstream, String reason,
+                                               String message, long retryAfterSeconds) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message + " Tente novamente em alguns segundos.");
+        body.put("status", 503);
+        body.put("reason", reason);
+        body.put("upstream", upstream);
+        body.put("retryAfterSeconds", retryAfterSeconds);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        try {
+            return new UpstreamResponse(503, headers, objectMapper.writeValueAsString(body), false, true);
+        } catch (JsonProcessingException e) {
+            return new UpstreamResponse(503, headers, "{\"error\": \"API indisponível.\", \"status\": 503}", false, true);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.swaggeragent.config;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.example.swaggeragent.service.tool.ApiExecutionService;
+import com.example.swaggeragent.service.tool.EndpointInvocationPlan;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara o executor das funções das ferramentas em threads de plataforma e em threads virtuais,
+ * medindo a vazão e o pico de threads da JVM com chamadas bloqueantes a uma API lenta.
+ * <p>
+ * Não roda na suíte padrão; execute com
+ * {@code mvn test -Pjava21 -Dbenchmark=true -Dtest=ToolExecutorLoadTest} em um JDK 21.
+ * A API externa é um servidor Reactor Netty local, com número fixo de threads, para que o pico
+ * medido venha apenas do executor das ferramentas.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class ToolExecutorLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolExecutorLoadTest.class);
+
+    private static final int CALLS = 4_000;
+    private static final int CONCURRENCY = 1_000;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(100);
+
+    private final ToolExecutorConfig config = new ToolExecutorConfig();
+    private DisposableServer server;
+    private ConnectionProvider connections;
+    private ApiExecutionService service;
+    private EndpointInvocationPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/pet/{petId}", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just("{\"id\":" + request.param("petId") + "}").delayElement(UPSTREAM_LATENCY))))
+                .bindNow();
+        connections = ConnectionProvider.builder("load-test")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        service = new ApiExecutionService(uri -> client, new ObjectMapper(), "token", "trafego", List.of(), new SwaggerAgentProperties());
+        plan = EndpointInvocationPlan.compile(new OpenApiEndpoint("getPetById", "get", "/pet/{petId}", null, null,
+                "http://localhost:" + server.port(), "petstore",
+                List.of(new OpenApiParameter("petId", "path", null, true, "integer", null, null, null, null)),
+                null, Map.of(), List.of("pet")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connections.dispose();
+        server.disposeNow();
+    }
+
+    /**
+     * Executa a mesma carga nos dois executores e imprime vazão e pico de threads de cada um.
+     */
+    @Test
+    void comparePlatformAndVirtualThreads() {
+        Scheduler platform = config.toolCallScheduler();
+        Scheduler virtual = config.virtualToolCallScheduler();
+        try {
+            run(platform, CONCURRENCY / 10);
+            run(virtual, CONCURRENCY / 10);
+
+            Measurement platformResult = run(platform, CALLS);
+            Measurement virtualResult = run(virtual, CALLS);
+
+            log.info("Chamadas: {}, concorrência: {}, latência da API: {} ms",
+                    CALLS, CONCURRENCY, UPSTREAM_LATENCY.toMillis());
+            log.info("Threads de plataforma: {} chamadas/s, pico de {} threads",
+                    String.format("%.1f", platformResult.throughput()), platformResult.peakThreads());
+            log.info("Threads virtuais: {} chamadas/s, pico de {} threads",
+                    String.format("%.1f", virtualResult.throughput()), virtualResult.peakThreads());
+        } finally {
+            platform.dispose();
+            virtual.dispose();
+        }
+    }
+
+    private Measurement run(Scheduler scheduler, int calls) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long start = System.nanoTime();
+
+        List<ToolExecutionResult> results = Flux.range(0, calls)
+                .flatMap(i -> Mono.fromCallable(() -> service.execute(plan, "{\"petId\": " + i + "}"))
+                        .subscribeOn(scheduler), CONCURRENCY)
+                .collectList()
+                .block();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertEquals(calls, results.stream().filter(result -> result.httpStatusCode() == 200).count());
+        return new Measurement(calls / seconds, threads.getPeakThreadCount());
+    }
+
+    private record Measurement(double throughput, int peakThreads) {
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.swaggeragent.controller;
 
+import com.example.swaggeragent.config.SwaggerAgentProperties;
 import com.example.swaggeragent.dto.ChatRequest;
 import com.example.swaggeragent.dto.ChatResponse;
 import com.example.swaggeragent.service.chat.ChatService;
+import com.example.swaggeragent.service.tool.RequestDeadline;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -24,6 +28,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * a integração entre a camada web e a camada de serviço.
  */
 @WebMvcTest(controllers = ChatController.class)
+@Import(SwaggerAgentProperties.class)
 public class ChatControllerTest {
 
     /**
@@ -68,7 +73,7 @@ public class ChatControllerTest {
 
         // Configura o mock do ChatService para retornar uma resposta específica
         ChatResponse mockResponse = new ChatResponse("assistant", "Hi there!");
-        when(chatService.processChatMessage(anyString(), anyString())).thenReturn(mockResponse);
+        when(chatService.processChatMessage(anyString(), anyString(), any(RequestDeadline.class))).thenReturn(mockResponse);
 
         // When & Then - Executa a requisição e verifica os resultados
         mockMvc.perform(post("/api/chat")
@@ -0,0 +1,106 @@
+package com.example.swaggeragent.service.cache;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiHeader;
+import com.example.swaggeragent.model.OpenApiMediaType;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.OpenApiParameterItems;
+import com.example.swaggeragent.model.OpenApiRequestBody;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testes unitários para o {@link SpecSnapshotCodec}.
+ */
+class SpecSnapshotCodecTest {
+
+    private final SpecSnapshotCodec codec = new SpecSnapshotCodec(new ObjectMapper());
+
+    /**
+     * Testa que endpoints, descrições, schemas das ferramentas, headers e componentes gravados
+     * são lidos de volta iguais.
+     */
+    @Test
+    void testWriteRead_roundTrip() throws Exception {
+        OpenApiSchema pet = OpenApiSchema.reference("#/components/schemas/Pet");
+        Map<String, OpenApiHeader> headers = new LinkedHashMap<>();
+        headers.put("X-Rate-Limit", new OpenApiHeader("Chamadas restantes", true, new OpenApiSchema(null, "integer", "int32", null, null, null)));
+        headers.put("ETag", new OpenApiHeader(null, false, null));
+        Map<String, OpenApiResponse> responses = new LinkedHashMap<>();
+        responses.put("200", new OpenApiResponse("Lista de pets",
+                Map.of("application/json", new OpenApiMediaType(new OpenApiSchema(null, "array", null, null, null, pet),
+                        List.of(Map.of("name", "Rex")), Map.of("um", Map.of("value", "Rex")))), headers));
+        responses.put("404", new OpenApiResponse("Não encontrado", null, null));
+        OpenApiEndpoint findPets = new OpenApiEndpoint("findPets", "GET", "/pets", "Lista pets", "Lista os pets da loja",
+                "https://petstore.example.com/v1", "petstore",
+                List.of(new OpenApiParameter("status", "query", "Status do pet", false, "array", null,
+                                List.of("available"), List.of("available", "sold"), new OpenApiParameterItems("string", null)),
+                        new OpenApiParameter("limit", "query", null, false, "integer", "int32", 20, null, null)),
+                null, responses, List.of("pets"));
+        OpenApiEndpoint addPet = new OpenApiEndpoint("addPet", "POST", "/pets", null, null,
+                "https://petstore.example.com/v1", "petstore", List.of(),
+                new OpenApiRequestBody("Pet a criar", true, Map.of("application/json", new OpenApiMediaType(pet, null, null))),
+                Map.of("201", new OpenApiResponse("Criado", null, Map.of())), null);
+        Map<String, OpenApiSchema> properties = new LinkedHashMap<>();
+        properties.put("id", new OpenApiSchema(null, "integer", "int64", null, null, null));
+        properties.put("name", new OpenApiSchema(null, "string", null, "Nome do pet", null, null));
+        properties.put("category", OpenApiSchema.reference("#/components/schemas/Category"));
+        Map<String, OpenApiSchema> components = Map.of(
+                "Pet", new OpenApiSchema(null, "object", null, null, properties, null),
+                "Category", new OpenApiSchema(null, "object", null, null, Map.of(), null));
+        List<SpecSnapshotService.SnapshotEntry> entries = List.of(
+                new SpecSnapshotService.SnapshotEntry(findPets, "Lista os pets", "{\"type\":\"object\"}"),
+                new SpecSnapshotService.SnapshotEntry(addPet, "Cria um pet com uma descrição longa: " + "x".repeat(70_000), null));
+
+        SpecSnapshotCodec.Content content = read(write(entries, components));
+
+        assertEquals(entries, content.entries());
+        assertEquals(components, content.components());
+        // Sub-schemas iguais voltam como uma única instância.
+        assertSame(content.entries().get(0).endpoint().responses().get("200").content().get("application/json").schema().items(),
+                content.entries().get(1).endpoint().requestBody().content().get("application/json").schema());
+    }
+
+    /**
+     * Testa que um snapshot cortado ou de outro formato é recusado com erro, e não lido pela metade.
+     */
+    @Test
+    void testRead_truncatedOrForeignContent_fails() throws Exception {
+        OpenApiEndpoint endpoint = new OpenApiEndpoint("getInventory", "GET", "/store/inventory", null, null,
+                "https://petstore.example.com/v1", "petstore", List.of(), null, Map.of(), List.of());
+        byte[] bytes = write(List.of(new SpecSnapshotService.SnapshotEntry(endpoint, "Estoque", "{}")), Map.of());
+
+        assertThrows(IOException.class, () -> read(Arrays.copyOf(bytes, bytes.length / 2)));
+        assertThrows(IOException.class, () -> read("não é um snapshot".getBytes()));
+    }
+
+    private byte[] write(List<SpecSnapshotService.SnapshotEntry> entries, Map<String, OpenApiSchema> components) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(out, entries, components);
+        }
+        return bytes.toByteArray();
+    }
+
+    private SpecSnapshotCodec.Content read(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return codec.read(in);
+        }
+    }
+}
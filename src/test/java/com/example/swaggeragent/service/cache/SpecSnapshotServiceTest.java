@@ -0,0 +1,222 @@
+package com.example.swaggeragent.service.cache;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.example.swaggeragent.service.tool.DynamicToolGeneratorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link SpecSnapshotService}.
+ */
+class SpecSnapshotServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Testa que um snapshot gravado após a geração das ferramentas é carregado em uma nova
+     * execução, com os endpoints, os componentes e a descrição e o schema de cada ferramenta.
+     */
+    @Test
+    void testPersistPending_thenLoad_restoresEndpointsAndTools() {
+        OpenApiEndpoint endpoint = endpoint("getPetById");
+        Map<String, OpenApiSchema> components = Map.of("Pet", new OpenApiSchema(null, "object", null, null, Map.of(), null));
+        SpecSnapshotService writer = service("compact", 300);
+        writer.registerPending("chave", List.of(endpoint), components);
+        writer.persistPending(List.of(endpoint), List.of(tool(endpoint)));
+
+        SpecSnapshotService reader = service("compact", 300);
+        Optional<SpecSnapshotService.Snapshot> snapshot = reader.load("chave");
+
+        assertTrue(snapshot.isPresent());
+        assertEquals(List.of(endpoint), snapshot.get().endpoints());
+        assertEquals(components, snapshot.get().components());
+        SpecSnapshotService.PrecomputedTool precomputed = reader.takePrecomputed(snapshot.get().endpoints().get(0));
+        assertEquals("Busca um pet", precomputed.description());
+        assertEquals("{\"type\":\"object\"}", precomputed.jsonSchema());
+        assertNull(reader.takePrecomputed(snapshot.get().endpoints().get(0)));
+    }
+
+    /**
+     * Testa que um arquivo cujas ferramentas não foram todas geradas não tem o snapshot gravado e
+     * deixa de ficar pendente: uma segunda geração com as ferramentas completas não o grava mais.
+     */
+    @Test
+    void testPersistPending_missingTool_dropsSnapshot() {
+        OpenApiEndpoint first = endpoint("getPetById");
+        OpenApiEndpoint second = endpoint("deletePet");
+        SpecSnapshotService service = service("compact", 300);
+        service.registerPending("chave", List.of(first, second), Map.of());
+
+        service.persistPending(List.of(first, second), List.of(tool(first)));
+        service.persistPending(List.of(first, second), List.of(tool(first), tool(second)));
+
+        assertFalse(service.load("chave").isPresent());
+    }
+
+    /**
+     * Testa que os snapshots pendentes de outros arquivos aguardam a própria geração.
+     */
+    @Test
+    void testPersistPending_keepsSnapshotsOfOtherFiles() {
+        OpenApiEndpoint pets = endpoint("getPetById");
+        OpenApiEndpoint store = endpoint("getInventory");
+        SpecSnapshotService service = service("compact", 300);
+        service.registerPending("pets", List.of(pets), Map.of());
+        service.registerPending("store", List.of(store), Map.of());
+
+        service.persistPending(List.of(pets), List.of(tool(pets)));
+        assertFalse(service.load("store").isPresent());
+        service.persistPending(List.of(store), List.of(tool(store)));
+
+        assertTrue(service.load("pets").isPresent());
+        assertTrue(service.load("store").isPresent());
+    }
+
+    /**
+     * Testa que os artefatos pré-computados de um endpoint cuja ferramenta falhou são liberados
+     * ao fim da geração.
+     */
+    @Test
+    void testPersistPending_releasesUnusedPrecomputedTools() {
+        OpenApiEndpoint endpoint = endpoint("getPetById");
+        SpecSnapshotService writer = service("compact", 300);
+        writer.registerPending("chave", List.of(endpoint), Map.of());
+        writer.persistPending(List.of(endpoint), List.of(tool(endpoint)));
+        SpecSnapshotService reader = service("compact", 300);
+        List<OpenApiEndpoint> loaded = reader.load("chave").orElseThrow().endpoints();
+
+        reader.persistPending(loaded, List.of());
+
+        assertNull(reader.takePrecomputed(loaded.get(0)));
+    }
+
+    /**
+     * Testa que a chave muda com o conteúdo do arquivo e com a configuração das descrições, e que
+     * inclui a versão do gerador: qualquer uma dessas mudanças invalida o snapshot.
+     */
+    @Test
+    void testKeyFor_dependsOnContentGeneratorVersionAndDescriptionSettings() throws Exception {
+        Path spec = tempDir.resolve("petstore.yaml");
+        Files.writeString(spec, "openapi: 3.0.0");
+        SpecSnapshotService service = service("compact", 300);
+        String key = service.keyFor(spec);
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update("openapi: 3.0.0".getBytes(StandardCharsets.UTF_8));
+        digest.update(("\0" + DynamicToolGeneratorService.GENERATOR_VERSION + "\0compact:300").getBytes(StandardCharsets.UTF_8));
+        assertEquals(HexFormat.of().formatHex(digest.digest()), key);
+
+        assertEquals(key, service("compact", 300).keyFor(spec));
+        assertNotEquals(key, service("verbose", 300).keyFor(spec));
+        assertNotEquals(key, service("compact", 200).keyFor(spec));
+        // O orçamento só vale no modo compact.
+        assertEquals(service("verbose", 300).keyFor(spec), service("verbose", 200).keyFor(spec));
+        Files.writeString(spec, "openapi: 3.0.1");
+        assertNotEquals(key, service.keyFor(spec));
+    }
+
+    /**
+     * Testa que snapshots corrompidos ou cortados são ignorados e removidos.
+     */
+    @Test
+    void testLoad_corruptOrTruncatedSnapshot_isDiscarded() throws Exception {
+        SpecSnapshotService service = service("compact", 300);
+        Path cache = tempDir.resolve("cache");
+        Files.createDirectories(cache);
+        Files.write(cache.resolve("corrompido.snapshot"), "lixo".getBytes(StandardCharsets.UTF_8));
+        OpenApiEndpoint endpoint = endpoint("getPetById");
+        service.registerPending("cortado", List.of(endpoint), Map.of());
+        service.persistPending(List.of(endpoint), List.of(tool(endpoint)));
+        byte[] bytes = Files.readAllBytes(cache.resolve("cortado.snapshot"));
+        Files.write(cache.resolve("cortado.snapshot"), Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertFalse(service.load("corrompido").isPresent());
+        assertFalse(service.load("cortado").isPresent());
+        assertFalse(Files.exists(cache.resolve("corrompido.snapshot")));
+        assertFalse(Files.exists(cache.resolve("cortado.snapshot")));
+    }
+
+    /**
+     * Testa que, com um snapshot corrompido, o parser analisa a especificação normalmente.
+     */
+    @Test
+    void testParse_corruptSnapshot_fallsBackToFullParse() throws Exception {
+        Path spec = tempDir.resolve("petstore.yaml");
+        Files.copy(Path.of("openapi-specs/petstore/petstore.yaml"), spec);
+        SpecSnapshotService service = service("compact", 300);
+        Path cache = tempDir.resolve("cache");
+        Files.createDirectories(cache);
+        Files.write(cache.resolve(service.keyFor(spec) + ".snapshot"), "lixo".getBytes(StandardCharsets.UTF_8));
+        OpenApiParserService parser = new OpenApiParserService(objectMapper, service);
+
+        List<OpenApiEndpoint> endpoints = parser.parseSpecFiles(List.of(spec)).get(spec);
+
+        assertNotNull(endpoints);
+        assertFalse(endpoints.isEmpty());
+    }
+
+    /**
+     * Testa que a limpeza remove apenas os snapshots de arquivos que não existem mais.
+     */
+    @Test
+    void testRetainOnly_removesStaleSnapshots() throws Exception {
+        SpecSnapshotService service = service("compact", 300);
+        Path cache = tempDir.resolve("cache");
+        Files.createDirectories(cache);
+        Files.writeString(cache.resolve("atual.snapshot"), "");
+        Files.writeString(cache.resolve("antigo.snapshot"), "");
+        Files.writeString(cache.resolve("notas.txt"), "");
+
+        service.retainOnly(List.of("atual"));
+
+        assertTrue(Files.exists(cache.resolve("atual.snapshot")));
+        assertFalse(Files.exists(cache.resolve("antigo.snapshot")));
+        assertTrue(Files.exists(cache.resolve("notas.txt")));
+    }
+
+    private SpecSnapshotService service(String mode, int maxTokens) {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getTool().getDescription().setMode(mode);
+        properties.getTool().getDescription().setMaxTokens(maxTokens);
+        return new SpecSnapshotService(objectMapper, properties, true, tempDir.resolve("cache").toString());
+    }
+
+    private static OpenApiEndpoint endpoint(String operationId) {
+        return new OpenApiEndpoint(operationId, "GET", "/pet/{petId}", null, null, "https://petstore.example.com/v1",
+                "petstore", List.of(), null, Map.of(), List.of("pet"));
+    }
+
+    private static DynamicTool tool(OpenApiEndpoint endpoint) {
+        return DynamicTool.builder()
+                .name(endpoint.operationId())
+                .description("Busca um pet")
+                .endpoint(endpoint)
+                .jsonSchema("{\"type\":\"object\"}")
+                .build();
+    }
+}
@@ -1,16 +1,56 @@
 package com.example.swaggeragent.service.chat;
 
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.dto.ChatResponse;
+import com.example.swaggeragent.model.domain.ToolRegistry;
 import com.example.swaggeragent.service.audit.AuditService;
-import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.example.swaggeragent.service.registry.ToolRegistryService;
+import com.example.swaggeragent.service.retrieval.ToolRetrievalService;
 import com.example.swaggeragent.service.SystemPromptService;
 import com.example.swaggeragent.service.tool.DynamicToolGeneratorService;
+import com.example.swaggeragent.service.tool.RequestDeadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallingOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.DEFAULT_CHAT_MEMORY_CONVERSATION_ID;
 
 /**
  * Testes unitários para o {@link ChatService}.
@@ -22,11 +62,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class ChatServiceTest {
     
     @Mock private ChatModel chatModel;
-    @Mock private OpenApiParserService openApiParserService;
+    @Mock private ToolRegistryService toolRegistryService;
     @Mock private DynamicToolGeneratorService dynamicToolGeneratorService;
     @Mock private SystemPromptService systemPromptService;
     @Mock private ChatMemoryService chatMemoryService;
     @Mock private AuditService auditService;
+    @Mock private ToolRetrievalService toolRetrievalService;
+    @Mock private ParallelToolCallingLoop parallelToolCallingLoop;
 
     private ChatService chatService;
 
@@ -39,11 +81,13 @@ class ChatServiceTest {
         
         chatService = new ChatService(
                 chatModel,
-                openApiParserService,
+                toolRegistryService,
                 dynamicToolGeneratorService,
                 systemPromptService,
                 chatMemoryService,
-                auditService
+                auditService,
+                toolRetrievalService,
+                parallelToolCallingLoop
         );
     }
 
@@ -64,4 +108,145 @@ class ChatServiceTest {
         String message = "Olá";
         assertThrows(RuntimeException.class, () -> chatService.processChatMessage(message, " "));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Testa que, quando o prazo acaba, a chamada ao modelo é interrompida e a memória da sessão
+     * guarda a resposta parcial, e não a resposta que a chamada abandonada terminaria depois.
+     */
+    @Test
+    void testProcessChatMessage_deadlineExpires_interruptsCallAndStoresPartialAnswer() throws Exception {
+        InMemoryChatMemory memory = new InMemoryChatMemory();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        when(toolRegistryService.loadAll()).thenReturn(ToolRegistry.empty());
+        when(systemPromptService.generateSystemPrompt()).thenReturn("sistema");
+        when(chatMemoryService.getOrCreate("sessao1")).thenReturn(memory);
+        when(parallelToolCallingLoop.isEnabled()).thenReturn(true);
+        when(parallelToolCallingLoop.call(anyString(), any(ChatMemory.class), eq("Olá"), anyList(), any(RequestDeadline.class), any()))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    ChatMemory chatMemory = invocation.getArgument(1);
+                    chatMemory.add(DEFAULT_CHAT_MEMORY_CONVERSATION_ID, List.of(new UserMessage("Olá"), new AssistantMessage("tarde demais")));
+                    finished.countDown();
+                    return "tarde demais";
+                });
+        chatService.initializeToolRegistry();
+
+        ChatResponse response = chatService.processChatMessage("Olá", "sessao1",
+                RequestDeadline.after(Duration.ofMillis(200), Duration.ZERO));
+
+        assertTrue(response.content().startsWith("⏱️"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        List<Message> stored = memory.get(DEFAULT_CHAT_MEMORY_CONVERSATION_ID, 10);
+        assertEquals(2, stored.size());
+        assertEquals("Olá", stored.get(0).getContent());
+        assertEquals(response.content(), stored.get(1).getContent());
+    }
+
+    /**
+     * Testa que, com o executor das ferramentas ocupado por mais conversas do que ele tem threads,
+     * todas as conversas recebem a resposta do modelo: a chamada com prazo não ocupa uma vaga do
+     * executor enquanto espera as próprias ferramentas.
+     */
+    @Test
+    void testProcessChatMessage_toolPoolSaturated_allChatsAnswer() throws Exception {
+        Scheduler toolCalls = Schedulers.newBoundedElastic(2, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "test-tool-calls");
+        ExecutorService requests = Executors.newFixedThreadPool(6);
+        try {
+            FunctionCallback tool = mock(FunctionCallback.class);
+            when(tool.getName()).thenReturn("getPetById");
+            when(tool.call(anyString())).thenAnswer(invocation -> {
+                Thread.sleep(50);
+                return "{\"name\":\"Rex\"}";
+            });
+            when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+                Prompt prompt = invocation.getArgument(0);
+                AssistantMessage output = prompt.getInstructions().stream().anyMatch(ToolResponseMessage.class::isInstance)
+                        ? new AssistantMessage("Rex")
+                        : new AssistantMessage("", Map.of(), List.of(new AssistantMessage.ToolCall("1", "function", "getPetById", "{}")));
+                return new org.springframework.ai.chat.model.ChatResponse(List.of(new Generation(output)));
+            });
+            when(toolRegistryService.loadAll()).thenReturn(ToolRegistry.empty());
+            when(systemPromptService.generateSystemPrompt()).thenReturn("sistema");
+            when(dynamicToolGeneratorService.convertToFunctionCallbacks(anyList())).thenReturn(List.of(tool));
+            when(chatMemoryService.getOrCreate(anyString())).thenAnswer(invocation -> new InMemoryChatMemory());
+            SwaggerAgentProperties properties = new SwaggerAgentProperties();
+            properties.getTool().getParallel().setEnabled(true);
+            ChatService service = new ChatService(chatModel, toolRegistryService, dynamicToolGeneratorService,
+                    systemPromptService, chatMemoryService, auditService, toolRetrievalService,
+                    new ParallelToolCallingLoop(chatModel, new ObjectMapper(), properties, toolCalls));
+            service.initializeToolRegistry();
+
+            List<Future<ChatResponse>> answers = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                String sessionId = "sessao" + i;
+                answers.add(requests.submit(() -> service.processChatMessage("Quem é o pet 1?", sessionId,
+                        RequestDeadline.after(Duration.ofSeconds(5), Duration.ZERO))));
+            }
+
+            for (Future<ChatResponse> answer : answers) {
+                assertEquals("Rex", answer.get(10, TimeUnit.SECONDS).content());
+            }
+        } finally {
+            requests.shutdownNow();
+            toolCalls.dispose();
+        }
+    }
+
+    /**
+     * Testa que, com a seleção de ferramentas desabilitada, as ferramentas chamadas durante o
+     * streaming recebem o prazo da mensagem, mesmo rodando fora da thread da requisição.
+     */
+    @Test
+    void testStreamChatResponse_retrievalDisabled_toolCallReceivesDeadline() {
+        AtomicReference<RequestDeadline> seen = new AtomicReference<>();
+        FunctionCallback tool = new FunctionCallback() {
+            @Override
+            public String getName() {
+                return "getPetById";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Busca um pet";
+            }
+
+            @Override
+            public String getInputTypeSchema() {
+                return "{}";
+            }
+
+            @Override
+            public String call(String functionInput) {
+                seen.set(RequestDeadline.current());
+                return "{}";
+            }
+        };
+        when(toolRegistryService.loadAll()).thenReturn(ToolRegistry.empty());
+        when(systemPromptService.generateSystemPrompt()).thenReturn("sistema");
+        when(dynamicToolGeneratorService.convertToFunctionCallbacks(anyList())).thenReturn(List.of(tool));
+        when(chatMemoryService.getOrCreate("sessao1")).thenReturn(new InMemoryChatMemory());
+        when(chatModel.getDefaultOptions()).thenReturn(FunctionCallingOptions.builder().build());
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation -> {
+            Prompt prompt = invocation.getArgument(0);
+            // Como o Spring AI faz no streaming: a ferramenta roda em outra thread, sem o prazo associado.
+            Thread call = new Thread(() -> ((FunctionCallingOptions) prompt.getOptions()).getFunctionCallbacks().stream()
+                    .filter(callback -> callback.getName().equals("getPetById"))
+                    .forEach(callback -> callback.call("{}")));
+            call.start();
+            call.join();
+            return Flux.just(new org.springframework.ai.chat.model.ChatResponse(List.of(new Generation(new AssistantMessage("ok")))));
+        });
+        chatService.initializeToolRegistry();
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+        chatService.streamChatResponse("Olá", "sessao1", deadline).collectList().block(Duration.ofSeconds(5));
+
+        assertSame(deadline, seen.get());
+    }
+}
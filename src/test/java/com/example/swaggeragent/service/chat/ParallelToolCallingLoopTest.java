@@ -0,0 +1,96 @@
+package com.example.swaggeragent.service.chat;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.model.function.FunctionCallback;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o {@link ParallelToolCallingLoop}.
+ */
+class ParallelToolCallingLoopTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Scheduler scheduler = Schedulers.newBoundedElastic(16, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "test-tool-calls");
+    private ParallelToolCallingLoop loop;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Testa que as chamadas de um turno rodam ao mesmo tempo e voltam na ordem original.
+     */
+    @Test
+    void testExecuteToolCalls_runsConcurrentlyInOrder() {
+        loop = new ParallelToolCallingLoop(mock(ChatModel.class), objectMapper, new SwaggerAgentProperties(), scheduler);
+        Map<String, FunctionCallback> callbacks = Map.of(
+                "slow", callback("slow", 300, "{\"lento\":true}"),
+                "fast", callback("fast", 50, "{\"rapido\":true}"));
+
+        long start = System.nanoTime();
+        List<ToolResponseMessage.ToolResponse> responses = loop.executeToolCalls(List.of(
+                toolCall("1", "slow"), toolCall("2", "fast"), toolCall("3", "slow")), callbacks, null, name -> { });
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(List.of("1", "2", "3"), responses.stream().map(ToolResponseMessage.ToolResponse::id).toList());
+        assertEquals("{\"rapido\":true}", responses.get(1).responseData());
+        assertTrue(elapsedMillis < 600, "as chamadas deveriam rodar em paralelo, levaram " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Testa que uma chamada que passa do prazo do turno vira um erro 504 sem atrasar as demais, e
+     * que uma ferramenta desconhecida vira um erro 404 e é informada.
+     */
+    @Test
+    void testExecuteToolCalls_timesOutSlowCall() throws Exception {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getTool().getParallel().setTurnTimeout(Duration.ofMillis(200));
+        loop = new ParallelToolCallingLoop(mock(ChatModel.class), objectMapper, properties, scheduler);
+        Map<String, FunctionCallback> callbacks = Map.of(
+                "stuck", callback("stuck", 5_000, "{}"),
+                "fast", callback("fast", 10, "{\"ok\":true}"));
+
+        List<String> unknown = new ArrayList<>();
+
+        List<ToolResponseMessage.ToolResponse> responses = loop.executeToolCalls(List.of(
+                toolCall("1", "stuck"), toolCall("2", "fast"), toolCall("3", "missing")), callbacks, null, unknown::add);
+
+        assertEquals(504, objectMapper.readTree(responses.get(0).responseData()).get("httpStatusCode").asInt());
+        assertEquals("{\"ok\":true}", responses.get(1).responseData());
+        assertEquals(404, objectMapper.readTree(responses.get(2).responseData()).get("httpStatusCode").asInt());
+        assertEquals(List.of("missing"), unknown);
+    }
+
+    private static FunctionCallback callback(String name, long delayMillis, String result) {
+        FunctionCallback callback = mock(FunctionCallback.class);
+        when(callback.getName()).thenReturn(name);
+        when(callback.call(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(delayMillis);
+            return result;
+        });
+        return callback;
+    }
+
+    private static AssistantMessage.ToolCall toolCall(String id, String name) {
+        return new AssistantMessage.ToolCall(id, "function", name, "{}");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.swaggeragent.service.parser;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.service.cache.SpecSnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mede o heap retido pelos endpoints analisados (e pelo cache de schemas do parser) a cada
+ * 1.000 endpoints de uma especificação sintética.
+ * <p>
+ * Não roda na suíte padrão; execute com {@code mvn test -Dbenchmark=true -Dtest=EndpointFootprintBenchmarkTest}.
+ * O valor é uma estimativa baseada no heap usado após coletas de lixo.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EndpointFootprintBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EndpointFootprintBenchmarkTest.class);
+
+    private static final int OPERATIONS = 4_000;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Analisa uma especificação com {@value #OPERATIONS} operações e imprime o heap retido.
+     */
+    @Test
+    void measureRetainedHeapPerThousandEndpoints() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path spec = tempDir.resolve("large-api.json");
+        Files.writeString(spec, objectMapper.writeValueAsString(syntheticSpec(objectMapper)));
+
+        OpenApiParserService parser = new OpenApiParserService(objectMapper,
+                new SpecSnapshotService(objectMapper, new SwaggerAgentProperties(), false, tempDir.resolve("cache").toString()));
+
+        long before = usedHeapAfterGc();
+        List<OpenApiEndpoint> endpoints = parser.parseOpenApiFile(spec.toFile());
+        long after = usedHeapAfterGc();
+
+        assertEquals(OPERATIONS, endpoints.size());
+        long perThousand = (after - before) * 1_000 / endpoints.size();
+        log.info("Heap retido: {} KB para {} endpoints ({} KB por 1.000 endpoints)",
+                (after - before) / 1024, endpoints.size(), perThousand / 1024);
+    }
+
+    private ObjectNode syntheticSpec(ObjectMapper objectMapper) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("openapi", "3.0.1");
+        root.putObject("info").put("title", "Large API").put("version", "1.0");
+        root.putArray("servers").addObject().put("url", "http://localhost:8080");
+
+        ObjectNode schemas = root.putObject("components").putObject("schemas");
+        ObjectNode error = schemas.putObject("Error").put("type", "object");
+        error.putObject("properties").putObject("message").put("type", "string");
+        ObjectNode pet = schemas.putObject("Pet").put("type", "object");
+        ObjectNode petProperties = pet.putObject("properties");
+        petProperties.putObject("id").put("type", "integer").put("format", "int64");
+        petProperties.putObject("name").put("type", "string").put("description", "Nome do pet");
+        petProperties.putObject("tags").put("type", "array").putObject("items").put("type", "string");
+
+        ObjectNode paths = root.putObject("paths");
+        for (int i = 0; i < OPERATIONS; i++) {
+            ObjectNode operation = paths.putObject("/pets" + i + "/{id}").putObject("get");
+            operation.put("operationId", "getPet" + i).put("summary", "Busca o pet " + i);
+            operation.putArray("tags").add("pets");
+            ArrayNode parameters = operation.putArray("parameters");
+            parameters.addObject().put("name", "id").put("in", "path").put("required", true)
+                    .putObject("schema").put("type", "integer");
+            parameters.addObject().put("name", "limit").put("in", "query")
+                    .putObject("schema").put("type", "integer");
+            ObjectNode responses = operation.putObject("responses");
+            responses.putObject("200").put("description", "OK").putObject("content")
+                    .putObject("application/json").putObject("schema").put("$ref", "#/components/schemas/Pet");
+            responses.putObject("404").put("description", "Não encontrado").putObject("content")
+                    .putObject("application/json").putObject("schema").put("$ref", "#/components/schemas/Error");
+        }
+        return root;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
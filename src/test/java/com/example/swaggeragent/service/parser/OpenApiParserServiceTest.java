@@ -0,0 +1,161 @@
+package com.example.swaggeragent.service.parser;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.service.cache.SpecSnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para a análise paralela do {@link OpenApiParserService}.
+ */
+class OpenApiParserServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path specsDirectory;
+    private final List<Path> specFiles = new ArrayList<>();
+
+    /**
+     * Cria arquivos de tamanhos bem diferentes, para que a análise paralela termine fora da ordem
+     * dos arquivos, e um arquivo inválido no meio deles.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        specsDirectory = Files.createDirectories(tempDir.resolve("specs"));
+        int[] operations = {200, 1, 120, 3, 60, 2};
+        for (int i = 0; i < operations.length; i++) {
+            specFiles.add(Files.writeString(specsDirectory.resolve("api-" + i + ".yaml"), spec("Api " + i, operations[i])));
+        }
+        specFiles.add(3, Files.writeString(specsDirectory.resolve("api-2b.yaml"), "openapi: [isto não é: uma especificação"));
+    }
+
+    /**
+     * Testa que a análise paralela produz os mesmos endpoints, na mesma ordem, que a sequencial,
+     * em várias execuções.
+     */
+    @Test
+    void testParseAll_parallel_matchesSequentialOrder() {
+        List<String> sequential = operationIds(parser(false).parseAllOpenApiFiles());
+
+        for (int run = 0; run < 3; run++) {
+            assertEquals(sequential, operationIds(parser(true).parseAllOpenApiFiles()));
+        }
+        assertEquals(200 + 1 + 120 + 3 + 60 + 2, sequential.size());
+        assertEquals("api_0_op0", sequential.get(0));
+        assertEquals("api_5_op1", sequential.get(sequential.size() - 1));
+    }
+
+    /**
+     * Testa que um arquivo inválido resulta em uma lista vazia sem afetar os demais arquivos.
+     */
+    @Test
+    void testParseAll_parallel_invalidFileDoesNotDropOthers() {
+        Map<Path, List<OpenApiEndpoint>> bySource = parser(true).parseAllOpenApiFilesBySource();
+
+        assertEquals(specFiles, List.copyOf(bySource.keySet()));
+        assertTrue(bySource.get(specsDirectory.resolve("api-2b.yaml")).isEmpty());
+        assertEquals(List.of(200, 1, 120, 0, 3, 60, 2), bySource.values().stream().map(List::size).toList());
+    }
+
+    /**
+     * Testa que um recarregamento incremental remove o snapshot do conteúdo anterior do arquivo
+     * editado e o de um arquivo removido, mantendo apenas os snapshots dos conteúdos atuais.
+     */
+    @Test
+    void testParseSpecFiles_removesSnapshotsOfReplacedContent() throws Exception {
+        SpecSnapshotService snapshots = new SpecSnapshotService(new ObjectMapper(), new SwaggerAgentProperties(), true,
+                tempDir.resolve("cache").toString());
+        OpenApiParserService parser = parser(false, snapshots);
+        persist(snapshots, parser.parseAllOpenApiFilesBySource());
+        assertEquals(6, snapshotFiles().size());
+
+        Path edited = specFiles.get(1);
+        Files.writeString(edited, spec("Api 1", 2));
+        persist(snapshots, parser.parseSpecFiles(List.of(edited)));
+        Path deleted = specFiles.get(0);
+        Files.delete(deleted);
+        parser.evict(deleted);
+        parser.parseSpecFiles(List.of());
+
+        Set<String> expected = new HashSet<>();
+        for (Path file : specFiles) {
+            if (Files.exists(file) && !file.getFileName().toString().equals("api-2b.yaml")) {
+                expected.add(snapshots.keyFor(file) + ".snapshot");
+            }
+        }
+        assertEquals(expected, snapshotFiles());
+    }
+
+    private void persist(SpecSnapshotService snapshots, Map<Path, List<OpenApiEndpoint>> bySource) {
+        bySource.values().forEach(endpoints -> snapshots.persistPending(endpoints, endpoints.stream()
+                .map(endpoint -> DynamicTool.builder().name(endpoint.operationId()).description("")
+                        .endpoint(endpoint).jsonSchema("{}").build())
+                .toList()));
+    }
+
+    private Set<String> snapshotFiles() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir.resolve("cache"))) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".snapshot"))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private OpenApiParserService parser(boolean parallel) {
+        return parser(parallel, new SpecSnapshotService(new ObjectMapper(), new SwaggerAgentProperties(), false,
+                tempDir.resolve("cache").toString()));
+    }
+
+    private OpenApiParserService parser(boolean parallel, SpecSnapshotService snapshots) {
+        OpenApiParserService parser = new OpenApiParserService(new ObjectMapper(), snapshots);
+        ReflectionTestUtils.setField(parser, "openApiDirectory", specsDirectory.toString());
+        ReflectionTestUtils.setField(parser, "parallelEnabled", parallel);
+        ReflectionTestUtils.setField(parser, "parallelMaxThreads", 4);
+        return parser;
+    }
+
+    private static List<String> operationIds(List<OpenApiEndpoint> endpoints) {
+        return endpoints.stream().map(OpenApiEndpoint::operationId).toList();
+    }
+
+    private static String spec(String title, int operations) {
+        String prefix = title.toLowerCase().replace(' ', '_');
+        String paths = IntStream.range(0, operations)
+                .mapToObj(i -> """
+                          /%s/op%d:
+                            get:
+                              operationId: %s_op%d
+                              responses:
+                                '200':
+                                  description: ok
+                        """.formatted(prefix, i, prefix, i))
+                .collect(Collectors.joining());
+        return """
+                openapi: 3.0.0
+                info:
+                  title: %s
+                  version: "1"
+                paths:
+                """.formatted(title) + paths;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.swaggeragent.service.parser;
+
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Testes unitários para o {@link ResolvedSchemaCache}.
+ * <p>
+ * Verifica que as referências são resolvidas uma única vez e que o resultado continua
+ * igual ao da expansão sem cache, inclusive na presença de referências circulares.
+ */
+class ResolvedSchemaCacheTest {
+
+    private ResolvedSchemaCache cache;
+
+    /**
+     * Monta uma especificação com {@code Pet -> Category -> Pet} (ciclo) e {@code Error} (sem ciclo),
+     * referenciado por {@code Pet}.
+     */
+    @BeforeEach
+    void setUp() {
+        OpenApiSchema string = new OpenApiSchema(null, "string", null, null, null, null);
+        OpenApiSchema error = object(Map.of("message", string));
+        OpenApiSchema pet = object(Map.of(
+                "name", string,
+                "category", ref("Category"),
+                "lastError", ref("Error")));
+        OpenApiSchema category = object(Map.of(
+                "pets", new OpenApiSchema(null, "array", null, null, null, ref("Pet"))));
+
+        Map<String, OpenApiSchema> components = Map.of("Error", error, "Pet", pet, "Category", category);
+        cache = new ResolvedSchemaCache(components::get, new ObjectMapper());
+    }
+
+    /**
+     * Testa que uma referência sem ciclos é resolvida uma vez e compartilhada.
+     */
+    @Test
+    void testToNode_sharedReference_isResolvedOnce() throws Exception {
+        ObjectNode first = cache.toNode(ref("Error"));
+        ObjectNode second = cache.toNode(ref("Error"));
+
+        assertSame(first, second);
+        assertEquals("string", first.at("/properties/message/type").asText());
+        assertEquals(new ObjectMapper().writeValueAsString(first), cache.toJson(ref("Error")));
+    }
+
+    /**
+     * Testa que o resultado de uma referência circular não depende da ordem das chamadas.
+     */
+    @Test
+    void testToNode_circularReference_dependsOnlyOnEntryPoint() {
+        ObjectNode pet = cache.toNode(ref("Pet"));
+        assertEquals("Referência circular para #/components/schemas/Pet",
+                pet.at("/properties/category/properties/pets/items/description").asText());
+
+        // Começando por Category, o ciclo deve ser interrompido em Category, e não em Pet.
+        ObjectNode category = cache.toNode(ref("Category"));
+        assertEquals("object", category.at("/properties/pets/items/type").asText());
+        assertEquals("Referência circular para #/components/schemas/Category",
+                category.at("/properties/pets/items/properties/category/description").asText());
+
+        // Apenas Error, que não participa do ciclo, fica no cache e é compartilhado.
+        assertEquals(1, cache.size());
+        assertSame(pet.at("/properties/lastError"), category.at("/properties/pets/items/properties/lastError"));
+    }
+
+    private static OpenApiSchema object(Map<String, OpenApiSchema> properties) {
+        return new OpenApiSchema(null, "object", null, null, properties, null);
+    }
+
+    private static OpenApiSchema ref(String name) {
+        return OpenApiSchema.reference("#/components/schemas/" + name);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.swaggeragent.service.parser;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.service.cache.SpecSnapshotService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link StreamingOpenApiParser}.
+ * <p>
+ * Compara o resultado da análise em streaming com o do swagger-parser para a especificação
+ * de exemplo do Petstore.
+ */
+class StreamingOpenApiParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Testa que a análise em streaming extrai os mesmos endpoints que o swagger-parser.
+     */
+    @Test
+    void testParse_petstore_matchesSwaggerParser() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path spec = tempDir.resolve("petstore.json");
+        Object petstore = new YAMLMapper().readValue(Path.of("openapi-specs/petstore/petstore.yaml").toFile(), Object.class);
+        Files.writeString(spec, objectMapper.writeValueAsString(petstore));
+
+        OpenApiParserService parser = new OpenApiParserService(objectMapper,
+                new SpecSnapshotService(objectMapper, new SwaggerAgentProperties(), false, tempDir.resolve("cache").toString()));
+        List<OpenApiEndpoint> expected = parser.parseOpenApiFile(spec.toFile());
+
+        StreamingOpenApiParser.Result result = new StreamingOpenApiParser(objectMapper).parse(spec);
+
+        assertNotNull(result);
+        assertEquals("petstore", result.projectName());
+        assertEquals(expected.size(), result.endpoints().size());
+        for (int i = 0; i < expected.size(); i++) {
+            OpenApiEndpoint swagger = expected.get(i);
+            OpenApiEndpoint streamed = result.endpoints().get(i);
+            assertEquals(swagger.operationId(), streamed.operationId());
+            assertEquals(swagger.method(), streamed.method());
+            assertEquals(swagger.path(), streamed.path());
+            assertEquals(swagger.baseUrl(), streamed.baseUrl());
+            assertEquals(swagger.parameters().stream().map(OpenApiParameter::name).toList(),
+                    streamed.parameters().stream().map(OpenApiParameter::name).toList());
+            assertEquals(new TreeSet<>(swagger.responses().keySet()), new TreeSet<>(streamed.responses().keySet()));
+            assertEquals(swagger.requestBody() != null, streamed.requestBody() != null);
+        }
+    }
+
+    /**
+     * Testa que os schemas das respostas continuam sendo resolvidos depois de o arquivo ser
+     * removido: o cache devolvido não lê mais o arquivo.
+     */
+    @Test
+    void testParse_schemasResolveAfterFileIsDeleted() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path spec = tempDir.resolve("petstore.json");
+        Object petstore = new YAMLMapper().readValue(Path.of("openapi-specs/petstore/petstore.yaml").toFile(), Object.class);
+        Files.writeString(spec, objectMapper.writeValueAsString(petstore));
+
+        StreamingOpenApiParser.Result result = new StreamingOpenApiParser(objectMapper).parse(spec);
+        Files.delete(spec);
+
+        OpenApiEndpoint getPetById = result.endpoints().stream()
+                .filter(endpoint -> endpoint.operationId().equals("getPetById"))
+                .findFirst()
+                .orElseThrow();
+        JsonNode pet = result.schemas().toNode(getPetById.responses().get("200").content().get("application/json").schema());
+        assertTrue(pet.path("properties").has("name"));
+    }
+
+    /**
+     * Testa que documentos que não são OpenAPI 3.x são recusados, para que o chamador use o swagger-parser.
+     */
+    @Test
+    void testParse_swagger2Document_returnsNull() throws Exception {
+        Path spec = tempDir.resolve("legacy.json");
+        Files.writeString(spec, "{\"swagger\": \"2.0\", \"paths\": {}}");
+
+        assertEquals(null, new StreamingOpenApiParser(new ObjectMapper()).parse(spec));
+    }
+}
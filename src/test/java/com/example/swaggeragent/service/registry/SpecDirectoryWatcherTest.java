@@ -0,0 +1,99 @@
+package com.example.swaggeragent.service.registry;
+
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o {@link SpecDirectoryWatcher}.
+ */
+class SpecDirectoryWatcherTest {
+
+    private static final long DEBOUNCE_MS = 300;
+
+    @TempDir
+    Path specsDirectory;
+
+    private final OpenApiParserService parser = mock(OpenApiParserService.class);
+    private final ToolRegistryService registryService = mock(ToolRegistryService.class);
+    private SpecDirectoryWatcher watcher;
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    /**
+     * Testa que uma rajada de eventos de gravação do mesmo arquivo resulta em uma única
+     * aplicação das alterações, depois do período de silêncio.
+     */
+    @Test
+    void testBurstOfWrites_isAppliedOnce() throws Exception {
+        startWatcher();
+        Path spec = specsDirectory.resolve("pets.yaml");
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(spec, "openapi: 3.0." + i);
+            Thread.sleep(20);
+        }
+
+        Set<Path> changed = captureChanges().changed();
+
+        assertEquals(Set.of(spec), changed);
+    }
+
+    /**
+     * Testa que um arquivo criado e removido dentro do mesmo período chega apenas como removido.
+     */
+    @Test
+    void testCreateThenDelete_isAppliedAsDeletion() throws Exception {
+        startWatcher();
+        Path spec = specsDirectory.resolve("store.yaml");
+        Files.writeString(spec, "openapi: 3.0.0");
+        Thread.sleep(20);
+        Files.delete(spec);
+
+        Changes changes = captureChanges();
+
+        assertTrue(changes.changed().isEmpty());
+        assertEquals(Set.of(spec), changes.deleted());
+    }
+
+    private void startWatcher() {
+        when(parser.getSpecsDirectory()).thenReturn(specsDirectory);
+        watcher = new SpecDirectoryWatcher(parser, registryService, true, DEBOUNCE_MS);
+        watcher.start();
+        assertTrue(watcher.isRunning());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Changes captureChanges() throws InterruptedException {
+        ArgumentCaptor<Collection<Path>> changed = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<Path>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(registryService, timeout(5_000)).applyChanges(changed.capture(), deleted.capture());
+        // Nenhuma outra aplicação depois de mais alguns períodos de silêncio.
+        Thread.sleep(DEBOUNCE_MS * 3);
+        verify(registryService, times(1)).applyChanges(anyCollection(), anyCollection());
+        return new Changes(Set.copyOf(changed.getValue()), Set.copyOf(deleted.getValue()));
+    }
+
+    private record Changes(Set<Path> changed, Set<Path> deleted) {
+    }
+}
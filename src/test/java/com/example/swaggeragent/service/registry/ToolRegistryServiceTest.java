@@ -0,0 +1,185 @@
+package com.example.swaggeragent.service.registry;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.example.swaggeragent.model.domain.ToolRegistry;
+import com.example.swaggeragent.service.cache.SpecSnapshotService;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.example.swaggeragent.service.tool.CompactToolDescriptionRenderer;
+import com.example.swaggeragent.service.tool.DynamicToolGeneratorService;
+import com.example.swaggeragent.service.tool.TabularResultEncoder;
+import com.example.swaggeragent.service.tool.ToolBatchExecutor;
+import com.example.swaggeragent.service.tool.ToolExecutionService;
+import com.example.swaggeragent.service.tool.ToolPlanExecutor;
+import com.example.swaggeragent.service.tool.ToolResultProjector;
+import com.example.swaggeragent.service.tool.VerboseToolDescriptionRenderer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testes unitários para o {@link ToolRegistryService}.
+ * <p>
+ * Usa o parser e o gerador de ferramentas reais sobre arquivos de especificação em um diretório
+ * temporário, para cobrir a diferença entre versões e os nomes das ferramentas.
+ */
+class ToolRegistryServiceTest {
+
+    @TempDir
+    Path specsDirectory;
+
+    private final List<ToolRegistryChangedEvent> events = new ArrayList<>();
+    private ToolRegistryService registryService;
+    private OpenApiParserService parser;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        SpecSnapshotService snapshots = new SpecSnapshotService(objectMapper, properties, false,
+                specsDirectory.resolve("cache").toString());
+        OpenApiParserService parser = new OpenApiParserService(objectMapper, snapshots);
+        ReflectionTestUtils.setField(parser, "openApiDirectory", specsDirectory.toString());
+        ToolExecutionService toolExecutionService = mock(ToolExecutionService.class);
+        TabularResultEncoder encoder = new TabularResultEncoder(objectMapper, properties, new SimpleMeterRegistry());
+        DynamicToolGeneratorService generator = new DynamicToolGeneratorService(objectMapper, parser, snapshots,
+                toolExecutionService,
+                new ToolResultProjector(objectMapper, parser, properties, new SimpleMeterRegistry()),
+                encoder,
+                new ToolBatchExecutor(objectMapper, properties),
+                new ToolPlanExecutor(objectMapper, toolExecutionService, encoder, properties),
+                List.of(new CompactToolDescriptionRenderer(parser), new VerboseToolDescriptionRenderer(objectMapper, parser)),
+                properties);
+        this.parser = parser;
+        registryService = new ToolRegistryService(parser, generator, event -> events.add((ToolRegistryChangedEvent) event));
+    }
+
+    /**
+     * Testa que adicionar, alterar e remover arquivos publica novas versões com a diferença
+     * correta, e que um arquivo reanalisado sem mudanças não publica nada.
+     */
+    @Test
+    void testApplyChanges_addModifyRemove_publishesDiff() throws Exception {
+        Path pets = write("pets.yaml", spec("Pets", "Busca um pet", "getPet", "listPets"));
+        ToolRegistry initial = registryService.loadAll();
+        assertEquals(Set.of("pets-pet-get_pet", "pets-pet-list_pets"), initial.toolsByName().keySet());
+
+        Path store = write("store.yaml", spec("Store", "Consulta o estoque", "getInventory"));
+        ToolRegistry added = registryService.applyChanges(List.of(store), List.of());
+        assertEquals(List.of("store-pet-get_inventory"), events.get(0).diff().added());
+        assertTrue(events.get(0).diff().removed().isEmpty());
+        assertSame(initial, events.get(0).previous());
+        assertSame(added, events.get(0).current());
+        assertEquals(initial.version() + 1, added.version());
+
+        write("pets.yaml", spec("Pets", "Busca um pet pelo ID", "getPet", "listPets"));
+        registryService.applyChanges(List.of(pets), List.of());
+        assertEquals(List.of("pets-pet-get_pet", "pets-pet-list_pets"), events.get(1).diff().changed());
+        assertTrue(events.get(1).diff().added().isEmpty());
+
+        ToolRegistry beforeNoop = registryService.current();
+        assertSame(beforeNoop, registryService.applyChanges(List.of(pets), List.of()));
+        assertEquals(2, events.size());
+
+        Files.delete(store);
+        ToolRegistry removed = registryService.applyChanges(List.of(), List.of(store));
+        assertEquals(List.of("store-pet-get_inventory"), events.get(2).diff().removed());
+        assertEquals(Set.of("pets-pet-get_pet", "pets-pet-list_pets"), removed.toolsByName().keySet());
+    }
+
+    /**
+     * Testa que nomes que colidem recebem sufixos e que as ferramentas dos arquivos não alterados
+     * mantêm os nomes nos recarregamentos, mesmo quando o arquivo que ficou com o nome base muda
+     * ou é removido.
+     */
+    @Test
+    void testApplyChanges_nameCollisions_keepExistingNames() throws Exception {
+        Path first = write("a.yaml", spec("Pets", "Busca um pet", "getPet"));
+        Path second = write("b.yaml", spec("Pets", "Busca um pet na filial", "getPet"));
+        ToolRegistry initial = registryService.loadAll();
+        assertEquals("pets-pet-get_pet", initial.toolsBySource().get(first).get(0).getName());
+        assertEquals("pets-pet-get_pet_1", initial.toolsBySource().get(second).get(0).getName());
+
+        write("a.yaml", spec("Pets", "Busca um pet pelo ID", "getPet"));
+        ToolRegistry modified = registryService.applyChanges(List.of(first), List.of());
+        assertEquals("pets-pet-get_pet", modified.toolsBySource().get(first).get(0).getName());
+        assertEquals("pets-pet-get_pet_1", modified.toolsBySource().get(second).get(0).getName());
+
+        Path third = write("c.yaml", spec("Pets", "Busca um pet no estoque", "getPet"));
+        ToolRegistry extended = registryService.applyChanges(List.of(third), List.of());
+        assertEquals("pets-pet-get_pet_2", extended.toolsBySource().get(third).get(0).getName());
+
+        Files.delete(first);
+        ToolRegistry shrunk = registryService.applyChanges(List.of(), List.of(first));
+        assertEquals("pets-pet-get_pet_1", shrunk.toolsBySource().get(second).get(0).getName());
+        assertEquals("pets-pet-get_pet_2", shrunk.toolsBySource().get(third).get(0).getName());
+        assertEquals(List.of("pets-pet-get_pet"), events.get(events.size() - 1).diff().removed());
+        assertNotEquals(extended.version(), shrunk.version());
+    }
+
+    /**
+     * Testa que mudar o título de uma especificação renomeia as ferramentas e tira o projeto
+     * antigo do cache do parser.
+     */
+    @Test
+    void testApplyChanges_titleRename_evictsOldProject() throws Exception {
+        Path pets = write("pets.yaml", spec("Pets", "Busca um pet", "getPet"));
+        registryService.loadAll();
+        OpenApiSchema schema = new OpenApiSchema(null, "string", null, null, null, null);
+        assertNotNull(parser.getResolvedSchemaAsJsonNode("pets", schema));
+
+        write("pets.yaml", spec("Animais", "Busca um pet", "getPet"));
+        ToolRegistry renamed = registryService.applyChanges(List.of(pets), List.of());
+
+        assertEquals(Set.of("animais-pet-get_pet"), renamed.toolsByName().keySet());
+        assertNull(parser.getResolvedSchemaAsJsonNode("pets", schema));
+        assertNotNull(parser.getResolvedSchemaAsJsonNode("animais", schema));
+    }
+
+    private Path write(String fileName, String content) throws Exception {
+        return Files.writeString(specsDirectory.resolve(fileName), content);
+    }
+
+    private static String spec(String title, String summary, String... operationIds) {
+        String paths = Arrays.stream(operationIds)
+                .map(operationId -> """
+                          /%s:
+                            get:
+                              operationId: %s
+                              summary: %s
+                              tags: [pet]
+                              responses:
+                                '200':
+                                  description: ok
+                        """.formatted(operationId, operationId, summary))
+                .collect(Collectors.joining());
+        return """
+                openapi: 3.0.0
+                info:
+                  title: %s
+                  version: "1"
+                servers:
+                  - url: https://api.example.com
+                paths:
+                """.formatted(title) + paths;
+    }
+}
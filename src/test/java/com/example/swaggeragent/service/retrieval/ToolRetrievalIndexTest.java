@@ -0,0 +1,59 @@
+package com.example.swaggeragent.service.retrieval;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.model.domain.ToolRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link ToolRetrievalIndex}.
+ */
+class ToolRetrievalIndexTest {
+
+    /**
+     * Testa a normalização dos termos: camelCase, acentos, stop words e plural simples.
+     */
+    @Test
+    void testTokenize_normalizesTerms() {
+        assertEquals(List.of("find", "pet", "status"), ToolRetrievalIndex.tokenize("findPetsByStatus"));
+        assertEquals(List.of("listar", "pet", "pedido"), ToolRetrievalIndex.tokenize("Listar os pets do pedido"));
+        assertEquals(List.of("usuario", "invalido"), ToolRetrievalIndex.tokenize("usuário inválido"));
+    }
+
+    /**
+     * Testa que a ferramenta mais relevante para a mensagem aparece em primeiro lugar.
+     */
+    @Test
+    void testRank_returnsMostRelevantToolFirst() {
+        ToolRegistry registry = ToolRegistry.of(1, Map.of(Path.of("petstore.yaml"), List.of(
+                tool("pet_findPetsByStatus", "Finds Pets by status", "GET", "/pet/findByStatus", "pet", "status"),
+                tool("pet_getPetById", "Find pet by ID", "GET", "/pet/{petId}", "pet", "petId"),
+                tool("store_placeOrder", "Place an order for a pet", "POST", "/store/order", "store", null),
+                tool("user_loginUser", "Logs user into the system", "GET", "/user/login", "user", "username"))));
+
+        ToolRetrievalIndex index = ToolRetrievalIndex.build(registry);
+        ToolRetrievalIndex.Ranking ranking = index.rank("listar pets por status");
+
+        List<DynamicTool> top = ranking.top(2);
+        assertEquals("pet_findPetsByStatus", top.get(0).getName());
+        assertEquals(1, ranking.rankOf("pet_findPetsByStatus"));
+        assertEquals(-1, ranking.rankOf("user_loginUser"));
+        assertTrue(index.rank("xyz").top(8).isEmpty());
+    }
+
+    private static DynamicTool tool(String name, String summary, String method, String path, String tag, String parameter) {
+        List<OpenApiParameter> parameters = parameter == null ? List.of()
+                : List.of(new OpenApiParameter(parameter, "query", null, false, "string", null, null, null, null));
+        OpenApiEndpoint endpoint = new OpenApiEndpoint(name, method, path, summary, null, "http://localhost",
+                "petstore", parameters, null, Map.of(), List.of(tag));
+        return DynamicTool.builder().name(name).summary(summary).description(summary).endpoint(endpoint).build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.swaggeragent.service.retrieval;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.model.domain.ToolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testes unitários para as métricas de recall do {@link ToolRetrievalService}.
+ */
+class ToolRetrievalServiceTest {
+
+    private static final ToolRegistry REGISTRY = ToolRegistry.of(1, Map.of(Path.of("petstore.yaml"), List.of(
+            tool("pet_findPetsByStatus", "Finds Pets by status"),
+            tool("store_placeOrder", "Place an order"),
+            tool("user_loginUser", "Logs user into the system"))));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Testa que uma ferramenta selecionada conta como acerto e que uma ferramenta fora da seleção
+     * (ex: citada em um lote) ou inexistente conta como erro e marca a mensagem.
+     */
+    @Test
+    void testRecordCalls_countsMissesAndUnregisteredTools() {
+        ToolRetrievalService service = service();
+        ToolRetrievalService.ToolSelection selection = service.select(REGISTRY, "sessao1", "pets por status");
+        assertEquals(List.of("pet_findPetsByStatus"), selection.tools().stream().map(DynamicTool::getName).toList());
+
+        service.recordCalls("sessao1", selection, List.of("pet_findPetsByStatus"));
+        assertEquals(1, count("outcome", "hit"));
+        assertEquals(0, count("outcome", "miss"));
+        assertEquals(0, meterRegistry.counter("swagger.agent.tool.retrieval.unregistered").count());
+
+        service.recordCalls("sessao1", selection, List.of("pet_findPetsByStatus", "store_placeOrder", "inventada"));
+        assertEquals(2, count("outcome", "hit"));
+        assertEquals(2, count("outcome", "miss"));
+        assertEquals(1, meterRegistry.counter("swagger.agent.tool.retrieval.unregistered").count());
+    }
+
+    /**
+     * Testa que as ferramentas chamadas na mensagem anterior continuam registradas na seguinte,
+     * mesmo fora da seleção, e que os nomes inexistentes são ignorados.
+     */
+    @Test
+    void testSelect_keepsToolsCalledInPreviousMessage() {
+        ToolRetrievalService service = service();
+        ToolRetrievalService.ToolSelection first = service.select(REGISTRY, "sessao1", "pets por status");
+        service.recordCalls("sessao1", first, List.of("store_placeOrder", "inventada"));
+
+        ToolRetrievalService.ToolSelection next = service.select(REGISTRY, "sessao1", "sim, pode fazer");
+
+        assertEquals(List.of("store_placeOrder"), next.tools().stream()
+                .map(DynamicTool::getName)
+                .filter(name -> !next.retrieved().contains(name))
+                .toList());
+    }
+
+    private ToolRetrievalService service() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getTool().getRetrieval().setEnabled(true);
+        properties.getTool().getRetrieval().setTopK(1);
+        return new ToolRetrievalService(properties, meterRegistry);
+    }
+
+    private double count(String tag, String value) {
+        return meterRegistry.counter("swagger.agent.tool.retrieval.calls", tag, value).count();
+    }
+
+    private static DynamicTool tool(String name, String summary) {
+        OpenApiEndpoint endpoint = new OpenApiEndpoint(name, "GET", "/" + name, summary, null, "http://localhost",
+                "petstore", List.of(), null, Map.of(), List.of("pet"));
+        return DynamicTool.builder().name(name).summary(summary).description(summary).endpoint(endpoint).build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link ApiExecutionService}, com um servidor HTTP local no lugar da API externa.
+ */
+class ApiExecutionServiceTest {
+
+    private MockWebServer server;
+    private ApiExecutionService service;
+    private EndpointInvocationPlan plan;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        service = new ApiExecutionService(uri -> WebClient.create(), new ObjectMapper(), "token", "trafego", List.of(), new SwaggerAgentProperties());
+        plan = EndpointInvocationPlan.compile(new OpenApiEndpoint("getPetById", "get", "/pet/{petId}", null, null,
+                server.url("/").toString().replaceAll("/$", ""), "petstore",
+                List.of(new OpenApiParameter("petId", "path", null, true, "integer", null, null, null, null)),
+                null, Map.of(), List.of("pet")));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Testa a execução reativa, incluindo os cabeçalhos de segurança.
+     */
+    @Test
+    void testExecuteReactive_returnsUpstreamResponse() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":7}"));
+
+        ToolExecutionResult result = service.executeReactive(plan, "{\"petId\": 7}").block(Duration.ofSeconds(5));
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/pet/7", request.getPath());
+        assertEquals("Bearer token", request.getHeader("Authorization"));
+        assertEquals(new ToolExecutionResult(200, "{\"id\":7}"), result);
+    }
+
+    /**
+     * Testa que a chamada é cancelada quando o prazo da mensagem acaba, com um 504 para o modelo.
+     */
+    @Test
+    void testExecute_withinRequestDeadline_cancelsSlowCall() {
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":7}").setHeadersDelay(2, TimeUnit.SECONDS));
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(300), Duration.ZERO);
+
+        long start = System.nanoTime();
+        ToolExecutionResult result = RequestDeadline.callWithin(deadline, () -> service.execute(plan, "{\"petId\": 7}"));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(504, result.httpStatusCode());
+        assertTrue(elapsedMillis < 1_500, "a chamada deveria parar no prazo, levou " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Testa que a ponte síncrona funciona quando chamada em uma thread não bloqueante do Reactor,
+     * como acontece com os callbacks de ferramentas no modo streaming.
+     */
+    @Test
+    void testExecute_fromNonBlockingThread_doesNotFail() {
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":1}"));
+
+        ToolExecutionResult result = Mono.fromCallable(() -> service.execute(plan, "{\"petId\": 1}"))
+                .subscribeOn(Schedulers.parallel())
+                .toFuture()
+                .join();
+
+        assertEquals(new ToolExecutionResult(200, "{\"id\":1}"), result);
+    }
+
+    /**
+     * Testa que uma resposta acima do limite da ferramenta é cortada em um JSON válido, com aviso ao modelo.
+     */
+    @Test
+    void testExecuteReactive_truncatesOversizedResponse() throws Exception {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getTool().getResponse().getPerTool().put("getPetById", DataSize.ofBytes(40));
+        ObjectMapper objectMapper = new ObjectMapper();
+        ApiExecutionService limited = new ApiExecutionService(uri -> WebClient.create(), objectMapper, "token", "trafego", List.of(), properties);
+        server.enqueue(new MockResponse().setResponseCode(200)
+                .setBody("[{\"id\":1,\"name\":\"rex\"},{\"id\":2,\"name\":\"bidu\"},{\"id\":3,\"name\":\"toto\"}]"));
+
+        ToolExecutionResult result = limited.executeReactive(plan, "{\"petId\": 1}").block(Duration.ofSeconds(5));
+
+        assertEquals(200, result.httpStatusCode());
+        assertEquals("[{\"id\":1,\"name\":\"rex\"}]", result.body());
+        assertTrue(result.notice().contains("40 bytes"));
+        assertTrue(result.notice().contains("primeiros 1 itens"));
+    }
+}
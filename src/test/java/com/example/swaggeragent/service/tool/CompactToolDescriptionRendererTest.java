@@ -0,0 +1,82 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiMediaType;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o {@link CompactToolDescriptionRenderer} e o corte por orçamento do
+ * {@link TokenEstimator}.
+ */
+class CompactToolDescriptionRendererTest {
+
+    /**
+     * Testa que a descrição compacta resume o schema das respostas 2xx e omite os corpos das demais.
+     */
+    @Test
+    void testRender_summarizesSuccessSchemaAndSkipsErrorBodies() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        OpenApiSchema petSchema = OpenApiSchema.reference("#/components/schemas/Pet");
+        OpenApiSchema errorSchema = OpenApiSchema.reference("#/components/schemas/Error");
+
+        ObjectNode pet = objectMapper.createObjectNode().put("type", "object");
+        pet.putObject("properties").putObject("id").put("type", "integer");
+        ((ObjectNode) pet.get("properties")).putObject("name").put("type", "string");
+        ObjectNode array = objectMapper.createObjectNode().put("type", "array");
+        array.set("items", pet);
+
+        OpenApiParserService parser = mock(OpenApiParserService.class);
+        when(parser.getResolvedSchemaAsJsonNode(eq("petstore"), eq(petSchema))).thenReturn(array);
+
+        Map<String, OpenApiResponse> responses = new LinkedHashMap<>();
+        responses.put("200", new OpenApiResponse("successful operation",
+                Map.of("application/json", new OpenApiMediaType(petSchema, null, null)), null));
+        responses.put("400", new OpenApiResponse("Invalid   status value",
+                Map.of("application/json", new OpenApiMediaType(errorSchema, null, null)), null));
+        OpenApiEndpoint endpoint = new OpenApiEndpoint("findPetsByStatus", "get", "/pet/findByStatus",
+                "Finds Pets by status", "Multiple status values\ncan be provided", "http://localhost", "petstore",
+                List.of(), null, responses, List.of("pet"));
+
+        String description = new CompactToolDescriptionRenderer(parser).render(endpoint);
+
+        assertEquals("""
+                Finds Pets by status
+                GET /pet/findByStatus
+                Retorna 200: [{id:integer,name:string}]
+                Erros: 400 Invalid status value
+                Multiple status values can be provided
+                """, description);
+        assertFalse(description.contains("Error"));
+    }
+
+    /**
+     * Testa que o texto é cortado em uma quebra de linha ao exceder o orçamento de tokens.
+     */
+    @Test
+    void testTruncate_cutsAtLineBreakWithinBudget() {
+        String text = "linha um\nlinha dois\nlinha três que é bem mais longa que as outras";
+
+        assertEquals(text, TokenEstimator.truncate(text, 0));
+        assertEquals(text, TokenEstimator.truncate(text, 100));
+
+        String truncated = TokenEstimator.truncate(text, 6);
+        assertTrue(TokenEstimator.estimate(truncated) <= 6);
+        assertEquals("linha um\nlinha dois …", truncated);
+    }
+}
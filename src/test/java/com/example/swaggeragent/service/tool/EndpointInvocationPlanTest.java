@@ -0,0 +1,82 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link EndpointInvocationPlan}.
+ */
+class EndpointInvocationPlanTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Testa a montagem da URL com valores codificados e parâmetros de query do tipo array.
+     */
+    @Test
+    void testBuildUri_encodesValuesAndExplodesArrays() throws Exception {
+        EndpointInvocationPlan plan = EndpointInvocationPlan.compile(endpoint("get", "/stores/{storeId}/pets/{petId}"));
+        JsonNode input = objectMapper.readTree("""
+                {"storeId": "loja central", "petId": 7, "status": ["available", "sold"], "name": "rex & cia"}
+                """);
+
+        assertEquals(HttpMethod.GET, plan.method());
+        assertEquals("http://localhost/stores/loja%20central/pets/7?status=available&status=sold&name=rex%20%26%20cia",
+                plan.buildUri(input).toString());
+    }
+
+    /**
+     * Testa a separação entre headers, parâmetros e corpo da requisição.
+     */
+    @Test
+    void testHeadersAndBody_partitionInput() throws Exception {
+        EndpointInvocationPlan plan = EndpointInvocationPlan.compile(endpoint("post", "/stores/{storeId}/pets/{petId}"));
+        JsonNode input = objectMapper.readTree("""
+                {"storeId": "1", "petId": 2, "X-Request-Id": "abc", "nickname": "Rex", "age": 3}
+                """);
+
+        HttpHeaders headers = new HttpHeaders();
+        plan.applyHeaders(headers, input);
+
+        assertTrue(plan.bodySupported());
+        assertEquals("abc", headers.getFirst("X-Request-Id"));
+        assertEquals(objectMapper.readTree("{\"nickname\": \"Rex\", \"age\": 3}"), plan.body(input));
+    }
+
+    /**
+     * Testa que a ausência de uma variável de path é reportada como argumento inválido.
+     */
+    @Test
+    void testBuildUri_missingPathVariable_throwsException() throws Exception {
+        EndpointInvocationPlan plan = EndpointInvocationPlan.compile(endpoint("get", "/stores/{storeId}/pets/{petId}"));
+
+        assertThrows(IllegalArgumentException.class, () -> plan.buildUri(objectMapper.readTree("{\"storeId\": \"1\"}")));
+    }
+
+    static OpenApiEndpoint endpoint(String method, String path) {
+        List<OpenApiParameter> parameters = List.of(
+                parameter("storeId", "path"),
+                parameter("petId", "path"),
+                parameter("status", "query"),
+                parameter("name", "query"),
+                parameter("X-Request-Id", "header"));
+        return new OpenApiEndpoint("updatePet", method, path, null, null, "http://localhost", "petstore",
+                parameters, null, Map.of(), List.of("pet"));
+    }
+
+    private static OpenApiParameter parameter(String name, String in) {
+        return new OpenApiParameter(name, in, null, "path".equals(in), "string", null, null, null, null);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiParameter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mede o custo por chamada da preparação de uma requisição (URL, headers e corpo), comparando o
+ * processamento a partir da lista de parâmetros do endpoint, como era feito antes, com o
+ * {@link EndpointInvocationPlan} pré-compilado.
+ * <p>
+ * Não roda na suíte padrão; execute com {@code mvn test -Dbenchmark=true -Dtest=InvocationPlanBenchmarkTest}.
+ * Não inclui a chamada HTTP em si, apenas o trabalho feito na aplicação antes dela.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InvocationPlanBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InvocationPlanBenchmarkTest.class);
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Compara o tempo médio por chamada dos dois caminhos para um endpoint com 14 parâmetros.
+     */
+    @Test
+    void measurePerCallOverhead() throws Exception {
+        OpenApiEndpoint endpoint = syntheticEndpoint();
+        EndpointInvocationPlan plan = EndpointInvocationPlan.compile(endpoint);
+        ObjectNode input = objectMapper.createObjectNode();
+        input.put("tenantId", "acme").put("orderId", 42).put("itemId", 7);
+        for (int i = 0; i < 8; i++) {
+            input.put("filter" + i, "valor " + i);
+        }
+        input.put("X-Header-0", "a").put("X-Header-1", "b");
+        input.put("quantity", 3).put("note", "entregar pela manhã");
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += legacy(endpoint, input) + compiled(plan, input);
+        }
+
+        long legacyStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += legacy(endpoint, input);
+        }
+        long legacyNanos = (System.nanoTime() - legacyStart) / ITERATIONS;
+
+        long planStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += compiled(plan, input);
+        }
+        long planNanos = (System.nanoTime() - planStart) / ITERATIONS;
+
+        assertEquals(2, plan.body(input).size());
+        log.info("Preparação por chamada: lista de parâmetros {} ns, plano compilado {} ns (sink {})",
+                legacyNanos, planNanos, sink);
+    }
+
+    private long compiled(EndpointInvocationPlan plan, JsonNode input) {
+        URI uri = plan.buildUri(input);
+        HttpHeaders headers = new HttpHeaders();
+        plan.applyHeaders(headers, input);
+        return uri.toString().length() + headers.size() + plan.body(input).size() + plan.method().name().length();
+    }
+
+    /**
+     * Reproduz o processamento anterior: varreduras da lista de parâmetros com {@code equalsIgnoreCase},
+     * {@code String.replace} por variável de path, {@code List.contains} na separação do corpo e
+     * {@code HttpMethod.valueOf} a cada chamada.
+     */
+    private long legacy(OpenApiEndpoint endpoint, JsonNode input) {
+        String path = endpoint.path();
+        for (OpenApiParameter param : endpoint.parameters()) {
+            if ("path".equalsIgnoreCase(param.in())) {
+                path = path.replace("{" + param.name() + "}", input.get(param.name()).asText());
+            }
+        }
+        StringBuilder query = new StringBuilder();
+        for (OpenApiParameter param : endpoint.parameters()) {
+            if ("query".equalsIgnoreCase(param.in()) && input.has(param.name())) {
+                query.append(query.length() == 0 ? "?" : "&").append(param.name()).append("=").append(input.get(param.name()).asText());
+            }
+        }
+        String url = endpoint.baseUrl() + path + query;
+        HttpMethod method = HttpMethod.valueOf(endpoint.method().toUpperCase());
+
+        HttpHeaders headers = new HttpHeaders();
+        for (OpenApiParameter param : endpoint.parameters()) {
+            if ("header".equalsIgnoreCase(param.in()) && input.has(param.name())) {
+                headers.add(param.name(), input.get(param.name()).asText());
+            }
+        }
+
+        List<String> nonBody = endpoint.parameters().stream()
+                .filter(p -> "path".equalsIgnoreCase(p.in()) || "query".equalsIgnoreCase(p.in()) || "header".equalsIgnoreCase(p.in()))
+                .map(OpenApiParameter::name)
+                .collect(Collectors.toList());
+        ObjectNode body = objectMapper.createObjectNode();
+        input.fields().forEachRemaining(entry -> {
+            if (!nonBody.contains(entry.getKey())) {
+                body.set(entry.getKey(), entry.getValue());
+            }
+        });
+        return url.length() + headers.size() + body.size() + method.name().length();
+    }
+
+    private static OpenApiEndpoint syntheticEndpoint() {
+        List<OpenApiParameter> parameters = new ArrayList<>();
+        parameters.add(parameter("tenantId", "path"));
+        parameters.add(parameter("orderId", "path"));
+        parameters.add(parameter("itemId", "path"));
+        for (int i = 0; i < 8; i++) {
+            parameters.add(parameter("filter" + i, "query"));
+        }
+        parameters.add(parameter("X-Header-0", "header"));
+        parameters.add(parameter("X-Header-1", "header"));
+        parameters.add(parameter("X-Header-2", "header"));
+        return new OpenApiEndpoint("updateItem", "put", "/tenants/{tenantId}/orders/{orderId}/items/{itemId}",
+                null, null, "http://localhost:8080", "orders", parameters, null, Map.of(), List.of("orders"));
+    }
+
+    private static OpenApiParameter parameter(String name, String in) {
+        return new OpenApiParameter(name, in, null, false, "string", null, null, null, null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link TabularResultEncoder}.
+ */
+class TabularResultEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TabularResultEncoder encoder = new TabularResultEncoder(objectMapper, new SwaggerAgentProperties(), meterRegistry);
+
+    /**
+     * Testa que uma lista uniforme na raiz vira CSV, com objetos aninhados em colunas e aspas quando necessário.
+     */
+    @Test
+    void testEncode_convertsUniformRootArray() {
+        ToolExecutionResult result = encoder.encode(new ToolExecutionResult(200, """
+                [{"id": 1, "name": "Rex", "status": "available", "category": {"name": "Cães"}},
+                 {"id": 2, "name": "Mia, a gata", "status": "sold", "category": {"name": "Gatos"}},
+                 {"id": 3, "name": "Bob", "status": "pending", "category": {"name": "Cães"}}]"""));
+
+        assertEquals("""
+                id,name,status,category.name
+                1,Rex,available,Cães
+                2,"Mia, a gata",sold,Gatos
+                3,Bob,pending,Cães""", result.body());
+        assertTrue(result.notice().contains("CSV"));
+        assertEquals(1, meterRegistry.get("swagger.agent.tool.encoding.saved.tokens").summary().count());
+    }
+
+    /**
+     * Testa que listas dentro de objetos viram texto CSV e que os demais campos continuam em JSON.
+     */
+    @Test
+    void testEncode_convertsNestedArray() throws Exception {
+        ToolExecutionResult result = encoder.encode(new ToolExecutionResult(200, """
+                {"total": 3, "orders": [{"id": 10, "quantity": 1}, {"id": 11, "quantity": 2}, {"id": 12}]}"""));
+
+        assertEquals(3, objectMapper.readTree(result.body()).get("total").asInt());
+        assertEquals("id,quantity\n10,1\n11,2\n12,", objectMapper.readTree(result.body()).get("orders").asText());
+    }
+
+    /**
+     * Testa que listas irregulares, pequenas ou de respostas de erro são mantidas em JSON.
+     */
+    @Test
+    void testEncode_keepsIrregularData() {
+        ToolExecutionResult nested = new ToolExecutionResult(200, """
+                [{"id": 1, "tags": ["a"]}, {"id": 2, "tags": []}, {"id": 3, "tags": ["b"]}]""");
+        ToolExecutionResult mixed = new ToolExecutionResult(200, "[1, {\"id\": 2}, \"três\"]");
+        ToolExecutionResult small = new ToolExecutionResult(200, "[{\"id\": 1}, {\"id\": 2}]");
+        ToolExecutionResult error = new ToolExecutionResult(500, "[{\"id\": 1}, {\"id\": 2}, {\"id\": 3}]");
+
+        assertSame(nested, encoder.encode(nested));
+        assertSame(mixed, encoder.encode(mixed));
+        assertSame(small, encoder.encode(small));
+        assertSame(error, encoder.encode(error));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link ToolBatchExecutor}.
+ */
+class ToolBatchExecutorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SwaggerAgentProperties properties = new SwaggerAgentProperties();
+    private ToolBatchExecutor executor;
+
+    /**
+     * Testa que as chamadas do lote rodam ao mesmo tempo e voltam na ordem do pedido, cada uma com o seu status.
+     */
+    @Test
+    void testExecute_runsCallsConcurrentlyInOrder() throws Exception {
+        executor = new ToolBatchExecutor(objectMapper, properties);
+        Map<String, ToolBatchExecutor.ReactiveTool> tools = Map.of(
+                "getOrderById", arguments -> Mono.delay(Duration.ofMillis(200)).map(tick ->
+                        new ToolExecutionResult(200, "pedido " + readOrderId(arguments))));
+
+        long start = System.nanoTime();
+        JsonNode results = objectMapper.readTree(executor.execute(Map.of("calls", List.of(
+                Map.of("tool", "getOrderById", "arguments", Map.of("orderId", 1)),
+                Map.of("tool", "unknown", "arguments", Map.of()),
+                Map.of("tool", "getOrderById", "arguments", Map.of("orderId", 3)))), tools::get));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(3, results.size());
+        assertEquals("pedido 1", results.get(0).get("body").asText());
+        assertEquals("ok", results.get(0).get("status").asText());
+        assertEquals("error", results.get(1).get("status").asText());
+        assertEquals(404, results.get(1).get("httpStatusCode").asInt());
+        assertEquals("pedido 3", results.get(2).get("body").asText());
+        assertTrue(elapsedMillis < 390, "as chamadas deveriam rodar em paralelo, levaram " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Testa que um lote chamado na única thread livre do executor das ferramentas termina todos os
+     * itens: eles não esperam vaga no mesmo executor.
+     */
+    @Test
+    void testExecute_onSaturatedToolPool_completesAllCalls() throws Exception {
+        executor = new ToolBatchExecutor(objectMapper, properties);
+        Scheduler toolCalls = Schedulers.newBoundedElastic(1, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "test-tool-calls");
+        try {
+            Map<String, ToolBatchExecutor.ReactiveTool> tools = Map.of(
+                    "getInventory", arguments -> Mono.delay(Duration.ofMillis(50)).map(tick -> new ToolExecutionResult(200, "estoque")));
+            Object input = Map.of("calls", List.of(
+                    Map.of("tool", "getInventory", "arguments", Map.of()),
+                    Map.of("tool", "getInventory", "arguments", Map.of())));
+
+            String output = Mono.fromCallable(() -> executor.execute(input, tools::get))
+                    .subscribeOn(toolCalls)
+                    .block(Duration.ofSeconds(5));
+
+            JsonNode results = objectMapper.readTree(output);
+            assertEquals("ok", results.get(0).get("status").asText());
+            assertEquals("ok", results.get(1).get("status").asText());
+        } finally {
+            toolCalls.dispose();
+        }
+    }
+
+    /**
+     * Testa que o lote falha na hora quando chamado em uma thread não bloqueante, em vez de parar a
+     * thread até as chamadas terminarem.
+     */
+    @Test
+    void testExecute_fromNonBlockingThread_failsFast() {
+        executor = new ToolBatchExecutor(objectMapper, properties);
+        Map<String, ToolBatchExecutor.ReactiveTool> tools = Map.of(
+                "getInventory", arguments -> Mono.just(new ToolExecutionResult(200, "estoque")));
+        Object input = Map.of("calls", List.of(Map.of("tool", "getInventory", "arguments", Map.of())));
+
+        assertThrows(IllegalStateException.class, () -> Mono.fromCallable(() -> executor.execute(input, tools::get))
+                .subscribeOn(Schedulers.parallel())
+                .block(Duration.ofSeconds(5)));
+    }
+
+    /**
+     * Testa que um lote acima do limite de chamadas é recusado.
+     */
+    @Test
+    void testExecute_rejectsOversizedBatch() throws Exception {
+        properties.getTool().getBatch().setMaxCalls(1);
+        executor = new ToolBatchExecutor(objectMapper, properties);
+
+        JsonNode result = objectMapper.readTree(executor.execute(Map.of("calls", List.of(
+                Map.of("tool", "a", "arguments", Map.of()),
+                Map.of("tool", "b", "arguments", Map.of()))), name -> null));
+
+        assertEquals(400, result.get("httpStatusCode").asInt());
+    }
+
+    private int readOrderId(String arguments) {
+        try {
+            return objectMapper.readTree(arguments).get("orderId").asInt();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
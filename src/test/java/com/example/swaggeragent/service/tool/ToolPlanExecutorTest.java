@@ -0,0 +1,133 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o {@link ToolPlanExecutor}.
+ */
+class ToolPlanExecutorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SwaggerAgentProperties properties = new SwaggerAgentProperties();
+    private final ToolExecutionService toolExecutionService = mock(ToolExecutionService.class);
+    private final ToolPlanExecutor executor = new ToolPlanExecutor(objectMapper, toolExecutionService,
+            new TabularResultEncoder(objectMapper, properties, new SimpleMeterRegistry()), properties);
+    private final Map<String, EndpointInvocationPlan> plans = Map.of(
+            "getUser", plan("getUser"), "findOrders", plan("findOrders"), "getShipment", plan("getShipment"));
+
+    /**
+     * Testa um plano encadeado: as referências usam os resultados dos passos anteriores e o
+     * passo forEach roda uma vez por item, devolvendo apenas o resultado final.
+     */
+    @Test
+    void testExecute_runsChainedPlanWithForEach() throws Exception {
+        when(toolExecutionService.executeReactive(any(), anyString())).thenAnswer(invocation -> {
+            EndpointInvocationPlan plan = invocation.getArgument(0);
+            JsonNode input = objectMapper.readTree(invocation.<String>getArgument(1));
+            return Mono.just(switch (plan.operationId()) {
+                case "getUser" -> new ToolExecutionResult(200, "{\"id\": 7, \"name\": \"Ana\"}");
+                case "findOrders" -> new ToolExecutionResult(200, "[{\"id\": 10, \"userId\": " + input.get("userId") + "}, {\"id\": 11}]");
+                default -> new ToolExecutionResult(200, "{\"orderId\": " + input.get("orderId") + ", \"status\": \"entregue\"}");
+            });
+        });
+
+        JsonNode result = objectMapper.readTree(executor.execute(objectMapper.readTree("""
+                {"steps": [
+                  {"id": "ships", "tool": "getShipment", "forEach": "$.orders[*]", "arguments": {"orderId": "$item.id"}},
+                  {"id": "orders", "tool": "findOrders", "arguments": {"userId": "$.user.id"}},
+                  {"id": "user", "tool": "getUser", "arguments": {"username": "ana"}}
+                ]}"""), plans::get));
+
+        assertEquals(200, result.get("httpStatusCode").asInt());
+        JsonNode body = objectMapper.readTree(result.get("body").asText());
+        assertEquals(objectMapper.readTree("[{\"orderId\":10,\"status\":\"entregue\"},{\"orderId\":11,\"status\":\"entregue\"}]"),
+                body.get("results").get("ships"));
+        assertEquals(1, body.get("results").size());
+    }
+
+    /**
+     * Testa que um passo com erro faz os passos que dependem dele serem ignorados.
+     */
+    @Test
+    void testExecute_skipsDependentsOfFailedStep() throws Exception {
+        when(toolExecutionService.executeReactive(any(), anyString()))
+                .thenReturn(Mono.just(new ToolExecutionResult(404, "{\"message\": \"User not found\"}")));
+
+        JsonNode result = objectMapper.readTree(executor.execute(objectMapper.readTree("""
+                {"steps": [
+                  {"id": "user", "tool": "getUser", "arguments": {"username": "ana"}},
+                  {"id": "orders", "tool": "findOrders", "arguments": {"userId": "$.user.id"}}
+                ]}"""), plans::get));
+
+        String body = result.get("body").asText();
+        assertTrue(body.contains("skipped"), body);
+        assertTrue(objectMapper.readTree(body).get("results").isEmpty());
+    }
+
+    /**
+     * Testa que as chamadas do plano recebem o prazo da mensagem e que o resultado de cada passo
+     * fica registrado para a resposta parcial.
+     */
+    @Test
+    void testExecute_propagatesAndRecordsRequestDeadline() throws Exception {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(30), Duration.ZERO);
+        when(toolExecutionService.executeReactive(any(), anyString())).thenReturn(Mono.deferContextual(context ->
+                Mono.just(RequestDeadline.fromContext(context) == deadline
+                        ? new ToolExecutionResult(200, "{\"id\": 7}")
+                        : new ToolExecutionResult(500, "sem prazo"))));
+
+        String output = RequestDeadline.callWithin(deadline, () -> executor.execute(objectMapper.valueToTree(Map.of(
+                "steps", List.of(Map.of("id", "user", "tool", "getUser", "arguments", Map.of("username", "ana"))))), plans::get));
+
+        JsonNode body = objectMapper.readTree(objectMapper.readTree(output).get("body").asText());
+        assertEquals("ok", body.get("steps").get(0).get("status").asText());
+        assertEquals(1, deadline.completed().size());
+        assertEquals("getUser", deadline.completed().get(0).tool());
+    }
+
+    /**
+     * Testa que planos com ciclos, ferramentas desconhecidas ou referências inexistentes são recusados.
+     */
+    @Test
+    void testExecute_rejectsInvalidPlans() throws Exception {
+        Function<String, EndpointInvocationPlan> lookup = plans::get;
+
+        assertEquals(400, status(executor.execute(objectMapper.readTree("""
+                {"steps": [
+                  {"id": "a", "tool": "getUser", "arguments": {"x": "$.b.id"}},
+                  {"id": "b", "tool": "getUser", "arguments": {"x": "$.a.id"}}
+                ]}"""), lookup)));
+        assertEquals(400, status(executor.execute(objectMapper.readTree("""
+                {"steps": [{"id": "a", "tool": "deleteEverything"}]}"""), lookup)));
+        assertEquals(400, status(executor.execute(objectMapper.readTree("""
+                {"steps": [{"id": "a", "tool": "getUser", "arguments": {"x": "$.missing.id"}}]}"""), lookup)));
+    }
+
+    private int status(String result) throws Exception {
+        return objectMapper.readTree(result).get("httpStatusCode").asInt();
+    }
+
+    private static EndpointInvocationPlan plan(String operationId) {
+        return EndpointInvocationPlan.compile(new OpenApiEndpoint(operationId, "get", "/" + operationId, null, null,
+                "http://localhost", "test", List.of(), null, Map.of(), List.of()));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.swaggeragent.service.tool;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.example.swaggeragent.model.OpenApiEndpoint;
+import com.example.swaggeragent.model.OpenApiMediaType;
+import com.example.swaggeragent.model.OpenApiResponse;
+import com.example.swaggeragent.model.OpenApiSchema;
+import com.example.swaggeragent.model.domain.DynamicTool;
+import com.example.swaggeragent.model.response.ToolExecutionResult;
+import com.example.swaggeragent.service.cache.SpecSnapshotService;
+import com.example.swaggeragent.service.parser.OpenApiParserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o {@link ToolResultProjector}.
+ */
+class ToolResultProjectorTest {
+
+    private static final OpenApiSchema PET_LIST = OpenApiSchema.reference("#/components/schemas/PetList");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenApiParserService parser = mock(OpenApiParserService.class);
+    private final SwaggerAgentProperties properties = new SwaggerAgentProperties();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Testa que campos nulos, vazios e fora do schema são removidos e que os números são preservados.
+     */
+    @Test
+    void testApply_dropsEmptyAndUndeclaredFields() {
+        properties.getTool().getProjection().setDropUndeclaredFields(true);
+        when(parser.getResolvedSchemaAsJsonNode(eq("petstore"), eq(PET_LIST))).thenReturn(petListSchema());
+
+        ToolExecutionResult result = projector().compile(endpoint()).apply(new ToolExecutionResult(200, """
+                [{"id": 1, "name": "Rex", "price": 10.50, "tag": null, "photoUrls": [], "category": {},
+                  "internalRevision": 42}]"""));
+
+        assertEquals("[{\"id\":1,\"name\":\"Rex\",\"price\":10.50}]", result.body());
+        assertNull(result.notice());
+    }
+
+    /**
+     * Testa que, com a especificação carregada de um snapshot (sem reanálise), a projeção usa os
+     * mesmos schemas de uma análise completa.
+     */
+    @Test
+    void testApply_afterSnapshotLoad_usesResponseSchema() throws Exception {
+        properties.getTool().getProjection().setDropUndeclaredFields(true);
+        Path spec = tempDir.resolve("petstore.yaml");
+        Files.writeString(spec, """
+                openapi: 3.0.0
+                info: {title: petstore, version: "1"}
+                paths:
+                  /pets/{id}:
+                    get:
+                      operationId: getPetById
+                      responses:
+                        "200":
+                          description: ok
+                          content:
+                            application/json:
+                              schema: {$ref: "#/components/schemas/Pet"}
+                components:
+                  schemas:
+                    Pet:
+                      type: object
+                      properties:
+                        id: {type: integer}
+                        category: {$ref: "#/components/schemas/Category"}
+                    Category:
+                      type: object
+                      properties:
+                        name: {type: string}
+                """);
+        String cache = tempDir.resolve("cache").toString();
+        SpecSnapshotService coldSnapshots = new SpecSnapshotService(objectMapper, properties, true, cache);
+        List<OpenApiEndpoint> parsed = new OpenApiParserService(objectMapper, coldSnapshots).parseSpecFiles(List.of(spec)).get(spec);
+        coldSnapshots.persistPending(parsed, parsed.stream()
+                .map(endpoint -> new DynamicTool(endpoint.operationId(), "", null, endpoint, null, "{}"))
+                .toList());
+
+        OpenApiParserService warmParser = new OpenApiParserService(objectMapper,
+                new SpecSnapshotService(objectMapper, properties, true, cache));
+        OpenApiEndpoint loaded = warmParser.parseSpecFiles(List.of(spec)).get(spec).get(0);
+        ToolExecutionResult result = new ToolResultProjector(objectMapper, warmParser, properties, new SimpleMeterRegistry())
+                .compile(loaded)
+                .apply(new ToolExecutionResult(200, "{\"id\": 1, \"category\": {\"name\": \"Cães\", \"rev\": 3}, \"rev\": 9}"));
+
+        assertEquals("{\"id\":1,\"category\":{\"name\":\"Cães\"}}", result.body());
+    }
+
+    /**
+     * Testa que listas longas são resumidas em contagem e amostra, com aviso para o modelo.
+     */
+    @Test
+    void testApply_collapsesLongArrays() throws Exception {
+        properties.getTool().getProjection().setMaxArrayItems(3);
+        properties.getTool().getProjection().setSampleSize(2);
+
+        ToolExecutionResult result = projector().compile(endpoint()).apply(new ToolExecutionResult(200,
+                "{\"pets\": [{\"id\": 1}, {\"id\": 2}, {\"id\": 3}, {\"id\": 4}]}"));
+
+        assertEquals(objectMapper.readTree("{\"pets\":{\"count\":4,\"sample\":[{\"id\":1},{\"id\":2}]}}"),
+                objectMapper.readTree(result.body()));
+        assertTrue(result.notice().contains("$.pets (4 itens)"));
+    }
+
+    /**
+     * Testa que a lista de campos da ferramenta mantém apenas os caminhos configurados, inclusive dentro de listas.
+     */
+    @Test
+    void testApply_keepsOnlyAllowedFields() {
+        properties.getTool().getProjection().getFields().put("findPetsByStatus", List.of("id", "category.name"));
+
+        ToolExecutionResult result = projector().compile(endpoint()).apply(new ToolExecutionResult(200, """
+                [{"id": 1, "name": "Rex", "category": {"id": 7, "name": "Cães"}}]"""));
+
+        assertEquals("[{\"id\":1,\"category\":{\"name\":\"Cães\"}}]", result.body());
+    }
+
+    /**
+     * Testa que respostas de erro e corpos que não são JSON são repassados sem alteração.
+     */
+    @Test
+    void testApply_leavesErrorsAndTextUntouched() {
+        ToolExecutionResult error = new ToolExecutionResult(404, "{\"message\": null}");
+        ToolExecutionResult text = new ToolExecutionResult(200, "ok");
+
+        assertSame(error, projector().compile(endpoint()).apply(error));
+        assertSame(text, projector().compile(endpoint()).apply(text));
+    }
+
+    private ToolResultProjector projector() {
+        return new ToolResultProjector(objectMapper, parser, properties, new SimpleMeterRegistry());
+    }
+
+    private ObjectNode petListSchema() {
+        ObjectNode pet = objectMapper.createObjectNode().put("type", "object");
+        ObjectNode fields = pet.putObject("properties");
+        for (String name : List.of("id", "name", "price", "tag", "photoUrls", "category")) {
+            fields.putObject(name);
+        }
+        ObjectNode array = objectMapper.createObjectNode().put("type", "array");
+        array.set("items", pet);
+        return array;
+    }
+
+    private static OpenApiEndpoint endpoint() {
+        Map<String, OpenApiResponse> responses = Map.of("200", new OpenApiResponse("successful operation",
+                Map.of("application/json", new OpenApiMediaType(PET_LIST, null, null)), null));
+        return new OpenApiEndpoint("findPetsByStatus", "get", "/pet/findByStatus", null, null,
+                "http://localhost", "petstore", List.of(), null, responses, List.of("pet"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.swaggeragent.service.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Testes unitários para o {@link TruncatedJson}.
+ */
+class TruncatedJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Testa que uma lista cortada dentro de um objeto é fechada no último item completo e que
+     * o valor simples cortado no fim é descartado.
+     */
+    @Test
+    void testRepair_keepsCompleteItemsOfNestedList() {
+        TruncatedJson.Result result = TruncatedJson.repair(
+                "{\"total\":3,\"data\":[{\"id\":1,\"price\":10.50},{\"id\":2,\"price\":12", objectMapper);
+
+        assertEquals("{\"total\":3,\"data\":[{\"id\":1,\"price\":10.50}]}", result.json());
+    }
+
+    /**
+     * Testa que textos que não são JSON não são reparados.
+     */
+    @Test
+    void testRepair_ignoresNonJsonText() {
+        assertNull(TruncatedJson.repair("<html><body>erro", objectMapper));
+        assertNull(TruncatedJson.repair("", objectMapper));
+    }
+}
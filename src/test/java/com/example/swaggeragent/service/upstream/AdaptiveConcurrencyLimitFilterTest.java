@@ -0,0 +1,117 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Testes unitários para o {@link AdaptiveConcurrencyLimitFilter}.
+ */
+class AdaptiveConcurrencyLimitFilterTest {
+
+    private static final UpstreamRequest REQUEST = new UpstreamRequest("getInventory", HttpMethod.GET,
+            URI.create("http://api.example.com/store/inventory"), new HttpHeaders(), null);
+    private static final String HOST = "http://api.example.com";
+
+    /**
+     * Testa que o limite cresce com respostas rápidas sob carga e cai com respostas 5xx.
+     */
+    @Test
+    void testFilter_adjustsLimitFromOutcomes() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getLimiter().setInitialLimit(2);
+        properties.getHttp().getLimiter().setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+
+        filter.filter(REQUEST, request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "{}"))).block();
+        assertEquals(3, filter.limiter(HOST).limit());
+
+        filter.filter(REQUEST, request -> Mono.just(new UpstreamResponse(503, new HttpHeaders(), "{}"))).block();
+        assertEquals(1, filter.limiter(HOST).limit());
+        assertEquals(0, filter.limiter(HOST).inFlight());
+    }
+
+    /**
+     * Testa que as recusas locais do circuit breaker e do bulkhead não reduzem o limite, e que a
+     * vaga é liberada mesmo assim.
+     */
+    @Test
+    void testFilter_localUnavailableResponse_doesNotAdjustLimit() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getLimiter().setInitialLimit(4);
+        ObjectMapper objectMapper = new ObjectMapper();
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(properties, objectMapper, new SimpleMeterRegistry());
+
+        UpstreamResponse response = filter.filter(REQUEST, request -> Mono.just(UpstreamResponse.unavailable(objectMapper,
+                HOST, "circuit_open", "Circuito aberto.", 30))).block();
+
+        assertEquals(503, response.status());
+        assertEquals(4, filter.limiter(HOST).limit());
+        assertEquals(0, filter.limiter(HOST).inFlight());
+    }
+
+    /**
+     * Testa que chamadas acima do limite aguardam na fila e são liberadas quando uma vaga abre.
+     */
+    @Test
+    void testFilter_queuesCallsAboveLimit() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getLimiter().setInitialLimit(1);
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+        Sinks.One<UpstreamResponse> first = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<UpstreamResponse> running = filter.filter(REQUEST, request -> {
+            calls.incrementAndGet();
+            return first.asMono();
+        }).toFuture();
+        CompletableFuture<UpstreamResponse> queued = filter.filter(REQUEST, request -> {
+            calls.incrementAndGet();
+            return Mono.just(new UpstreamResponse(200, new HttpHeaders(), "segunda"));
+        }).toFuture();
+
+        assertEquals(1, calls.get());
+        assertEquals(1, filter.limiter(HOST).queued());
+        assertFalse(queued.isDone());
+
+        first.tryEmitValue(new UpstreamResponse(200, new HttpHeaders(), "primeira"));
+
+        assertEquals("primeira", running.join().body());
+        assertEquals("segunda", queued.join().body());
+        assertEquals(0, filter.limiter(HOST).inFlight());
+    }
+
+    /**
+     * Testa que uma chamada que não consegue vaga dentro do tempo máximo recebe um 503 estruturado.
+     */
+    @Test
+    void testFilter_rejectsAfterMaxWait() throws Exception {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getLimiter().setInitialLimit(1);
+        properties.getHttp().getLimiter().setMaxWait(Duration.ofMillis(50));
+        ObjectMapper objectMapper = new ObjectMapper();
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(properties, objectMapper, new SimpleMeterRegistry());
+
+        filter.filter(REQUEST, request -> Mono.never()).subscribe();
+        UpstreamResponse rejected = filter.filter(REQUEST, request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "{}")))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(503, rejected.status());
+        assertEquals("concurrency_limited", objectMapper.readTree(rejected.body()).get("reason").asText());
+        assertEquals(0, filter.limiter(HOST).queued());
+        assertEquals(1, filter.limiter(HOST).inFlight());
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link HedgingFilter} e a {@link LatencyWindow}.
+ */
+class HedgingFilterTest {
+
+    private static final UpstreamRequest REQUEST = new UpstreamRequest("getPetById", HttpMethod.GET,
+            URI.create("http://api.example.com/pet/1"), new HttpHeaders(), null);
+
+    /**
+     * Testa que, depois de conhecer a latência da ferramenta, uma chamada lenta recebe uma
+     * requisição extra, vale a primeira resposta e a requisição lenta é cancelada.
+     */
+    @Test
+    void testFilter_hedgesSlowCallAndCancelsLoser() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getHedging().setEnabled(true);
+        properties.getHttp().getHedging().setMinSamples(5);
+        properties.getHttp().getHedging().setBudget(0.5);
+        HedgingFilter filter = new HedgingFilter(properties, rateLimitFilter(properties), new SimpleMeterRegistry());
+        UpstreamExchange fast = request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "rápida"));
+        for (int i = 0; i < 5; i++) {
+            filter.filter(REQUEST, fast).block();
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean slowCancelled = new AtomicBoolean();
+        UpstreamExchange firstSlow = request -> calls.incrementAndGet() == 1
+                ? Mono.<UpstreamResponse>never().doOnCancel(() -> slowCancelled.set(true))
+                : fast.exchange(request);
+
+        UpstreamResponse response = filter.filter(REQUEST, firstSlow).block(Duration.ofSeconds(5));
+
+        assertEquals("rápida", response.body());
+        assertEquals(2, calls.get());
+        assertTrue(slowCancelled.get());
+        HedgingFilter.LatencyStatus status = filter.status().get(0);
+        assertEquals("getPetById", status.operationId());
+        assertEquals(6, status.calls());
+        assertEquals(1, status.hedged());
+        assertEquals(1, status.hedgeWins());
+    }
+
+    /**
+     * Testa que a latência registrada numa chamada duplicada conta desde o envio da requisição
+     * original, e não desde o envio da requisição extra que respondeu.
+     */
+    @Test
+    void testFilter_hedgedCallRecordsLatencyFromOriginalRequest() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getHedging().setEnabled(true);
+        properties.getHttp().getHedging().setMinSamples(5);
+        properties.getHttp().getHedging().setMinDelay(Duration.ofMillis(100));
+        properties.getHttp().getHedging().setBudget(1);
+        HedgingFilter filter = new HedgingFilter(properties, rateLimitFilter(properties), new SimpleMeterRegistry());
+        UpstreamExchange fast = request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "rápida"));
+        for (int i = 0; i < 5; i++) {
+            filter.filter(REQUEST, fast).block();
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamExchange firstSlow = request -> calls.incrementAndGet() == 1 ? Mono.never() : fast.exchange(request);
+        filter.filter(REQUEST, firstSlow).block(Duration.ofSeconds(5));
+
+        HedgingFilter.LatencyStatus status = filter.status().get(0);
+        assertEquals(6, status.calls());
+        assertTrue(status.p99Millis() >= 100, "p99 = " + status.p99Millis());
+    }
+
+    /**
+     * Testa que, esgotada a cota de requisições extras, a chamada lenta espera a requisição original.
+     */
+    @Test
+    void testFilter_budgetExhausted_waitsForOriginalRequest() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getHedging().setEnabled(true);
+        properties.getHttp().getHedging().setMinSamples(5);
+        properties.getHttp().getHedging().setBudget(0);
+        HedgingFilter filter = new HedgingFilter(properties, rateLimitFilter(properties), new SimpleMeterRegistry());
+        UpstreamExchange fast = request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "rápida"));
+        for (int i = 0; i < 5; i++) {
+            filter.filter(REQUEST, fast).block();
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamExchange slow = request -> {
+            calls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(200)).thenReturn(new UpstreamResponse(200, new HttpHeaders(), "lenta"));
+        };
+
+        UpstreamResponse response = filter.filter(REQUEST, slow).block(Duration.ofSeconds(5));
+
+        assertEquals("lenta", response.body());
+        assertEquals(1, calls.get());
+        assertEquals(0, filter.status().get(0).hedged());
+    }
+
+    /**
+     * Testa que a requisição extra respeita a cota do servidor: com 1 requisição por segundo, a
+     * chamada original gasta a cota e a extra não é enviada.
+     */
+    @Test
+    void testFilter_hedgeRespectsRateLimit() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getHedging().setEnabled(true);
+        properties.getHttp().getHedging().setMinSamples(5);
+        properties.getHttp().getHedging().setBudget(1);
+        properties.getHttp().getRateLimit().setRequestsPerSecond(1);
+        properties.getHttp().getRateLimit().setBurst(1);
+        RateLimitFilter rateLimit = rateLimitFilter(properties);
+        HedgingFilter hedging = new HedgingFilter(properties, rateLimit, new SimpleMeterRegistry());
+        UpstreamExchange fast = request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "rápida"));
+        for (int i = 0; i < 5; i++) {
+            hedging.filter(REQUEST, fast).block();
+        }
+
+        AtomicInteger hits = new AtomicInteger();
+        UpstreamExchange slow = request -> {
+            hits.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(300)).thenReturn(new UpstreamResponse(200, new HttpHeaders(), "lenta"));
+        };
+
+        UpstreamResponse response = rateLimit.filter(REQUEST, request -> hedging.filter(request, slow))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("lenta", response.body());
+        assertEquals(1, hits.get());
+        assertEquals(0, hedging.status().get(0).hedged());
+    }
+
+    /**
+     * Testa que um 429 rápido da requisição extra não vence a original, e que a pausa pedida pela
+     * API na resposta da extra vale para as próximas chamadas.
+     */
+    @Test
+    void testFilter_hedge429_isIgnoredAndPausesQuota() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getHedging().setEnabled(true);
+        properties.getHttp().getHedging().setMinSamples(5);
+        properties.getHttp().getHedging().setBudget(1);
+        RateLimitFilter rateLimit = rateLimitFilter(properties);
+        HedgingFilter hedging = new HedgingFilter(properties, rateLimit, new SimpleMeterRegistry());
+        UpstreamExchange fast = request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "rápida"));
+        for (int i = 0; i < 5; i++) {
+            hedging.filter(REQUEST, fast).block();
+        }
+
+        HttpHeaders retryAfter = new HttpHeaders();
+        retryAfter.set(HttpHeaders.RETRY_AFTER, "30");
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamExchange slowThenThrottled = request -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(300)).thenReturn(new UpstreamResponse(200, new HttpHeaders(), "lenta"))
+                : Mono.just(new UpstreamResponse(429, retryAfter, "{}"));
+
+        UpstreamResponse response = hedging.filter(REQUEST, slowThenThrottled).block(Duration.ofSeconds(5));
+
+        assertEquals("lenta", response.body());
+        assertEquals(2, calls.get());
+        assertEquals(1, hedging.status().get(0).hedged());
+        assertEquals(0, hedging.status().get(0).hedgeWins());
+        assertTrue(rateLimit.status().get(0).pausedMillis() > 0);
+    }
+
+    private static RateLimitFilter rateLimitFilter(SwaggerAgentProperties properties) {
+        return new RateLimitFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Testa os percentis da janela circular, inclusive depois de ela dar a volta.
+     */
+    @Test
+    void testLatencyWindow_percentilesOverRecentSamples() {
+        LatencyWindow window = new LatencyWindow(4);
+        assertEquals(-1, window.percentile(50));
+
+        for (long value = 1; value <= 6; value++) {
+            window.record(value);
+        }
+
+        assertEquals(4, window.size());
+        assertEquals(6, window.total());
+        assertEquals(4, window.percentile(50));
+        assertEquals(6, window.percentile(99));
+        assertEquals(3, window.percentiles(0, 100)[0]);
+    }
+}
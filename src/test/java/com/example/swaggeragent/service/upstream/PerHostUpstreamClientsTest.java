@@ -0,0 +1,59 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.LoopResources;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Testes unitários para o {@link PerHostUpstreamClients}.
+ */
+class PerHostUpstreamClientsTest {
+
+    private final LoopResources loopResources = LoopResources.create("test-upstream", 1, true);
+    private PerHostUpstreamClients clients;
+
+    @AfterEach
+    void tearDown() {
+        if (clients != null) {
+            clients.destroy();
+        }
+        loopResources.dispose();
+    }
+
+    /**
+     * Testa que cada servidor recebe seu próprio cliente, reaproveitado entre chamadas.
+     */
+    @Test
+    void testForHost_reusesClientPerServer() {
+        clients = new PerHostUpstreamClients(new SwaggerAgentProperties(), loopResources);
+
+        assertSame(clients.forHost(URI.create("https://a.example.com/pet/1")),
+                clients.forHost(URI.create("https://a.example.com/store/inventory")));
+        assertNotSame(clients.forHost(URI.create("https://a.example.com/pet/1")),
+                clients.forHost(URI.create("https://b.example.com/pet/1")));
+        assertNotSame(clients.forHost(URI.create("https://a.example.com/pet/1")),
+                clients.forHost(URI.create("https://a.example.com:8443/pet/1")));
+    }
+
+    /**
+     * Testa que as configurações específicas de um host substituem as padrão apenas para ele.
+     */
+    @Test
+    void testPoolFor_prefersHostSpecificSettings() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        SwaggerAgentProperties.Pool vendor = new SwaggerAgentProperties.Pool();
+        vendor.setProtocol(SwaggerAgentProperties.Protocol.H2);
+        vendor.setMaxConnections(5);
+        properties.getHttp().getHosts().put("slow.example.com", vendor);
+
+        assertSame(vendor, properties.getHttp().poolFor("slow.example.com"));
+        assertEquals(100, properties.getHttp().poolFor("a.example.com").getMaxConnections());
+    }
+}
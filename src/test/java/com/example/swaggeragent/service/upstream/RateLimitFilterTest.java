@@ -0,0 +1,121 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o {@link RateLimitFilter}.
+ */
+class RateLimitFilterTest {
+
+    private static final UpstreamRequest GET = new UpstreamRequest("getInventory", HttpMethod.GET,
+            URI.create("http://api.example.com/store/inventory"), new HttpHeaders(), null);
+    private static final UpstreamRequest POST = new UpstreamRequest("placeOrder", HttpMethod.POST,
+            URI.create("http://api.example.com/store/order"), new HttpHeaders(), "{}");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Testa que chamadas acima da cota configurada esperam a sua vez em vez de serem enviadas juntas.
+     */
+    @Test
+    void testFilter_spacesCallsAboveQuota() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        SwaggerAgentProperties.Quota quota = new SwaggerAgentProperties.Quota();
+        quota.setRequestsPerSecond(10);
+        quota.setBurst(1);
+        properties.getHttp().getRateLimit().getHosts().put("api.example.com", quota);
+        RateLimitFilter filter = new RateLimitFilter(properties, objectMapper, new SimpleMeterRegistry());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, filter.filter(GET, request -> ok()).block().status());
+        }
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis >= 180, "a terceira chamada deveria esperar a cota, levaram " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Testa que, depois de um 429 com Retry-After, as chamadas seguintes são recusadas localmente
+     * quando a pausa passa do tempo máximo de espera.
+     */
+    @Test
+    void testFilter_pausesAfter429WithRetryAfter() throws Exception {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getRateLimit().setMaxWait(Duration.ofMillis(200));
+        RateLimitFilter filter = new RateLimitFilter(properties, objectMapper, new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+
+        UpstreamResponse throttled = filter.filter(POST, request -> {
+            calls.incrementAndGet();
+            return Mono.just(new UpstreamResponse(429, headers, "{}"));
+        }).block();
+        UpstreamResponse rejected = filter.filter(GET, request -> {
+            calls.incrementAndGet();
+            return ok();
+        }).block();
+
+        assertEquals(429, throttled.status());
+        assertEquals(503, rejected.status());
+        assertEquals(1, calls.get());
+        JsonNode body = objectMapper.readTree(rejected.body());
+        assertEquals("rate_limited", body.get("reason").asText());
+        assertTrue(body.get("retryAfterSeconds").asLong() >= 29);
+        assertTrue(filter.bucket("http://api.example.com").status(System.nanoTime()).pausedMillis() > 0);
+    }
+
+    /**
+     * Testa que uma chamada GET que recebe 429 com uma pausa curta é repetida localmente.
+     */
+    @Test
+    void testFilter_retriesIdempotentCallAfterShortPause() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getRateLimit().setDefaultRetryAfter(Duration.ofMillis(50));
+        RateLimitFilter filter = new RateLimitFilter(properties, objectMapper, new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+
+        UpstreamResponse response = filter.filter(GET, request -> calls.incrementAndGet() == 1
+                ? Mono.just(new UpstreamResponse(429, new HttpHeaders(), "{}"))
+                : ok()).block();
+
+        assertEquals(200, response.status());
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Testa que X-RateLimit-Remaining zerado pausa as chamadas até o X-RateLimit-Reset.
+     */
+    @Test
+    void testFilter_learnsFromRateLimitHeaders() {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getRateLimit().setMaxWait(Duration.ofMillis(100));
+        RateLimitFilter filter = new RateLimitFilter(properties, objectMapper, new SimpleMeterRegistry());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", "0");
+        headers.set("X-RateLimit-Reset", "60");
+
+        filter.filter(GET, request -> Mono.just(new UpstreamResponse(200, headers, "{}"))).block();
+
+        assertEquals(503, filter.filter(GET, request -> ok()).block().status());
+    }
+
+    private static Mono<UpstreamResponse> ok() {
+        return Mono.just(new UpstreamResponse(200, new HttpHeaders(), "{}"));
+    }
+}
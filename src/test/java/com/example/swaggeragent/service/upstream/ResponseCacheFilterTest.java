@@ -0,0 +1,142 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Testes unitários para o {@link ResponseCacheFilter}.
+ */
+class ResponseCacheFilterTest {
+
+    private static final UpstreamRequest GET_PET = new UpstreamRequest("getPetById", HttpMethod.GET,
+            URI.create("http://localhost/pet/1"), new HttpHeaders(), null);
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheFilter filter;
+    private List<UpstreamRequest> sent;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(new SwaggerAgentProperties(), meterRegistry, clock);
+        sent = new ArrayList<>();
+    }
+
+    /**
+     * Testa que uma resposta com max-age é servida do cache até vencer.
+     */
+    @Test
+    void testFilter_servesFreshResponseFromCache() {
+        UpstreamExchange upstream = upstream(request -> response(200, "{\"id\":1}", "Cache-Control", "max-age=60"));
+
+        filter.filter(GET_PET, upstream).block();
+        UpstreamResponse second = filter.filter(GET_PET, upstream).block();
+
+        assertEquals("{\"id\":1}", second.body());
+        assertEquals(1, sent.size());
+        assertEquals(1.0, meterRegistry.counter("swagger.agent.upstream.cache.requests", "result", "hit").count());
+
+        clock.advance(Duration.ofSeconds(61));
+        filter.filter(GET_PET, upstream).block();
+        assertEquals(2, sent.size());
+    }
+
+    /**
+     * Testa que uma resposta vencida com ETag é revalidada e um 304 devolve o corpo em cache.
+     */
+    @Test
+    void testFilter_revalidatesStaleResponseWithEtag() {
+        UpstreamExchange upstream = upstream(request -> request.headers().getFirst(HttpHeaders.IF_NONE_MATCH) != null
+                ? response(304, null, "ETag", "\"v1\"")
+                : response(200, "{\"id\":1}", "ETag", "\"v1\"", "Cache-Control", "no-cache"));
+
+        filter.filter(GET_PET, upstream).block();
+        UpstreamResponse revalidated = filter.filter(GET_PET, upstream).block();
+
+        assertEquals(2, sent.size());
+        assertNull(sent.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", sent.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(200, revalidated.status());
+        assertEquals("{\"id\":1}", revalidated.body());
+        assertEquals(1.0, meterRegistry.counter("swagger.agent.upstream.cache.requests", "result", "revalidated").count());
+    }
+
+    /**
+     * Testa que respostas com no-store e requisições que não são GET/HEAD nunca são guardadas.
+     */
+    @Test
+    void testFilter_skipsNoStoreAndNonIdempotentRequests() {
+        UpstreamExchange upstream = upstream(request -> response(200, "{}", "Cache-Control", "no-store, max-age=60"));
+        UpstreamRequest post = new UpstreamRequest("addPet", HttpMethod.POST,
+                URI.create("http://localhost/pet"), new HttpHeaders(), "{}");
+
+        filter.filter(GET_PET, upstream).block();
+        filter.filter(GET_PET, upstream).block();
+        filter.filter(post, upstream).block();
+        filter.filter(post, upstream).block();
+
+        assertEquals(4, sent.size());
+        assertEquals(0, filter.entryCount());
+    }
+
+    private UpstreamExchange upstream(Function<UpstreamRequest, UpstreamResponse> handler) {
+        return request -> {
+            sent.add(request);
+            return Mono.just(handler.apply(request));
+        };
+    }
+
+    private static UpstreamResponse response(int status, String body, String... headers) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        for (int i = 0; i < headers.length; i += 2) {
+            httpHeaders.add(headers[i], headers[i + 1]);
+        }
+        return new UpstreamResponse(status, httpHeaders, body);
+    }
+
+    /**
+     * Relógio que só avança quando o teste manda.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testes unitários para o {@link SingleFlightFilter}.
+ */
+class SingleFlightFilterTest {
+
+    private static final UpstreamRequest FIND_PETS = new UpstreamRequest("findPetsByStatus", HttpMethod.GET,
+            URI.create("http://localhost/pet/findByStatus?status=available"), new HttpHeaders(), null);
+
+    /**
+     * Testa que chamadas idênticas simultâneas usam uma única requisição e recebem a mesma resposta.
+     */
+    @Test
+    void testFilter_collapsesConcurrentIdenticalRequests() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SingleFlightFilter filter = new SingleFlightFilter(new SwaggerAgentProperties(), meterRegistry);
+        Sinks.One<UpstreamResponse> response = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamExchange upstream = request -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        };
+
+        List<CompletableFuture<UpstreamResponse>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiters.add(filter.filter(FIND_PETS, upstream).toFuture());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, filter.inFlightCount());
+
+        response.tryEmitValue(new UpstreamResponse(200, new HttpHeaders(), "[{\"id\":1}]"));
+
+        for (CompletableFuture<UpstreamResponse> waiter : waiters) {
+            assertEquals("[{\"id\":1}]", waiter.join().body());
+        }
+        assertEquals(0, filter.inFlightCount());
+        assertEquals(2.0, meterRegistry.counter("swagger.agent.upstream.singleflight.collapsed").count());
+
+        // Depois da resposta, uma nova chamada volta a ir para a API.
+        filter.filter(FIND_PETS, upstream).subscribe();
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Testa que requisições que não são GET/HEAD nunca são compartilhadas.
+     */
+    @Test
+    void testFilter_doesNotCollapseNonIdempotentRequests() {
+        SingleFlightFilter filter = new SingleFlightFilter(new SwaggerAgentProperties(), new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamExchange upstream = request -> {
+            calls.incrementAndGet();
+            return Mono.never();
+        };
+        UpstreamRequest post = new UpstreamRequest("addPet", HttpMethod.POST,
+                URI.create("http://localhost/pet"), new HttpHeaders(), "{}");
+
+        filter.filter(post, upstream).subscribe();
+        filter.filter(post, upstream).subscribe();
+
+        assertEquals(2, calls.get());
+        assertEquals(0, filter.inFlightCount());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.swaggeragent.service.upstream;
+
+import com.example.swaggeragent.config.SwaggerAgentProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testes unitários para o {@link UpstreamResilienceFilter}.
+ */
+class UpstreamResilienceFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Testa que respostas 5xx abrem o circuito e que, aberto, a chamada falha na hora com um
+     * corpo estruturado, sem chegar ao servidor.
+     */
+    @Test
+    void testFilter_opensCircuitAfterServerErrors() throws Exception {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getResilience().setSlidingWindowSize(2);
+        properties.getHttp().getResilience().setMinimumNumberOfCalls(2);
+        UpstreamResilienceFilter filter = new UpstreamResilienceFilter(properties, objectMapper, new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamExchange failing = request -> {
+            calls.incrementAndGet();
+            return Mono.just(new UpstreamResponse(500, new HttpHeaders(), "{}"));
+        };
+        UpstreamRequest request = new UpstreamRequest("getInventory", HttpMethod.GET,
+                URI.create("http://slow.example.com/store/inventory"), new HttpHeaders(), null);
+
+        filter.filter(request, failing).block();
+        filter.filter(request, failing).block();
+        UpstreamResponse rejected = filter.filter(request, failing).block();
+
+        assertEquals(2, calls.get());
+        assertEquals(503, rejected.status());
+        JsonNode body = objectMapper.readTree(rejected.body());
+        assertEquals("circuit_open", body.get("reason").asText());
+        assertEquals("http://slow.example.com", body.get("upstream").asText());
+
+        UpstreamResilienceFilter.HostStatus status = filter.status().get(0);
+        assertEquals("http://slow.example.com", status.upstream());
+        assertEquals("OPEN", status.state());
+        assertEquals(1, status.notPermittedCalls());
+    }
+
+    /**
+     * Testa que chamadas acima do limite de concorrência de um servidor são recusadas sem
+     * afetar outros servidores.
+     */
+    @Test
+    void testFilter_rejectsCallsAboveConcurrencyLimit() throws Exception {
+        SwaggerAgentProperties properties = new SwaggerAgentProperties();
+        properties.getHttp().getResilience().setMaxConcurrentCalls(1);
+        UpstreamResilienceFilter filter = new UpstreamResilienceFilter(properties, objectMapper, new SimpleMeterRegistry());
+        UpstreamExchange hanging = request -> Mono.never();
+        UpstreamExchange ok = request -> Mono.just(new UpstreamResponse(200, new HttpHeaders(), "{}"));
+
+        filter.filter(get("http://a.example.com/pet/1"), hanging).subscribe();
+        UpstreamResponse rejected = filter.filter(get("http://a.example.com/pet/2"), ok).block();
+        UpstreamResponse other = filter.filter(get("http://b.example.com/pet/1"), ok).block();
+
+        assertEquals(503, rejected.status());
+        assertEquals("too_many_concurrent_calls", objectMapper.readTree(rejected.body()).get("reason").asText());
+        assertEquals(200, other.status());
+    }
+
+    private static UpstreamRequest get(String url) {
+        return new UpstreamRequest("getPetById", HttpMethod.GET, URI.create(url), new HttpHeaders(), null);
+    }
+}